@@ -5,12 +5,15 @@ import org.camunda.bpm.spring.boot.starter.annotation.EnableProcessApplication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.web.client.RestTemplate;
 
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AppServiceProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HttpClientProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HistoryProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.JobExecutorTuningProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ReminderProperties;
 
 /**
  * 🚀 CAMUNDA BPM CONSULTANT DEMO - SOFTWARE EVOLUTIVO
@@ -19,7 +22,7 @@ import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AppServi
  * - ✅ Procesos BPMN con diferentes rutas de aprobación  
  * - ✅ Reglas de negocio DMN
  * - ✅ Formularios con validaciones y servicios REST
- * - ✅ Timers y recordatorios automáticos
+ * - ✅ Recordatorios automáticos con escalamiento
  * - ✅ Notificaciones por email
  * - ✅ Dashboard personalizado y bandeja de tareas
  * - ✅ Reportes y auditoría completa
@@ -34,7 +37,8 @@ import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AppServi
 @EnableProcessApplication
 @EnableAsync
 @EnableScheduling
-@EnableConfigurationProperties(AppServiceProperties.class)
+@EnableConfigurationProperties({AppServiceProperties.class, HttpClientProperties.class, ApprovalRuleProperties.class,
+    JobExecutorTuningProperties.class, ReminderProperties.class, HistoryProperties.class})
 public class PruebatecnicaApplication  {
 
     public static void main(String[] args) {
@@ -43,7 +47,7 @@ public class PruebatecnicaApplication  {
         log.info("   ✅ Proceso Purchase Request con rutas de aprobación");
         log.info("   ✅ Reglas DMN para determinar rutas automáticamente");
         log.info("   ✅ Formularios con validaciones y servicios REST");
-        log.info("   ✅ Timers para recordatorios automáticos");
+        log.info("   ✅ Recordatorios automáticos con escalamiento");
         log.info("   ✅ Sistema de notificaciones por email");
         log.info("   ✅ Dashboard personalizado con métricas");
         log.info("   ✅ Bandeja de tareas para usuarios");
@@ -61,12 +65,4 @@ public class PruebatecnicaApplication  {
         log.info("👤 Usuario admin: admin / admin");
         log.info("🎯 Crear Solicitud: http://localhost:8080/process/create");
     }
-
-    /**
-     * Bean para realizar llamadas REST a servicios externos
-     */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
\ No newline at end of file
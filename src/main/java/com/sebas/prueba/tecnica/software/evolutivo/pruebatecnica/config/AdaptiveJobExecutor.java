@@ -0,0 +1,163 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.NotifyAcquisitionRejectedJobsHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.RejectedJobsHandler;
+import org.camunda.bpm.engine.spring.components.jobexecutor.SpringJobExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🎛️ Job executor de Camunda con lote de adquisición ajustable y métricas
+ *
+ * Mismo comportamiento que el {@link SpringJobExecutor} del starter, más:
+ * <ul>
+ *   <li>cada ciclo adquiere como máximo {@link #getBatchSize()} jobs (lo ajusta
+ *       {@code JobExecutorTuner} según la capacidad libre del pool);</li>
+ *   <li>métricas {@code jobexecutor.*}: adquiridos, rechazados, en ejecución, espera en
+ *       cola y duración por job, además de una ventana que el tuner consume.</li>
+ * </ul>
+ * Los lotes rechazados siguen el camino estándar: quedan bloqueados hasta que expira el
+ * lock y la adquisición aplica su backoff.
+ */
+public class AdaptiveJobExecutor extends SpringJobExecutor {
+
+    private final ThreadPoolTaskExecutor pool;
+
+    private final Counter acquiredCounter;
+    private final Counter rejectedCounter;
+    private final Timer waitTimer;
+    private final Timer durationTimer;
+    private final AtomicInteger executing = new AtomicInteger();
+
+    // Ventana desde la última lectura del tuner
+    private final LongAdder windowAcquired = new LongAdder();
+    private final LongAdder windowRejected = new LongAdder();
+    private final LongAdder windowExecuted = new LongAdder();
+    private final LongAdder windowExecutionNanos = new LongAdder();
+
+    private volatile int batchSize;
+
+    public AdaptiveJobExecutor(ThreadPoolTaskExecutor pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        setTaskExecutor(pool);
+        setRejectedJobsHandler(countingRejections(new NotifyAcquisitionRejectedJobsHandler()));
+        this.batchSize = getMaxJobsPerAcquisition();
+
+        this.acquiredCounter = Counter.builder("jobexecutor.jobs.acquired")
+            .description("Jobs adquiridos y entregados al pool")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("jobexecutor.jobs.rejected")
+            .description("Jobs rechazados por el pool lleno")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("jobexecutor.jobs.wait")
+            .description("Espera en la cola del pool entre adquisición y ejecución")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.durationTimer = Timer.builder("jobexecutor.jobs.duration")
+            .description("Duración media por job de cada lote ejecutado")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("jobexecutor.jobs.executing", executing, AtomicInteger::get)
+            .register(meterRegistry);
+        Gauge.builder("jobexecutor.pool.size", pool, ThreadPoolTaskExecutor::getCorePoolSize)
+            .register(meterRegistry);
+        Gauge.builder("jobexecutor.pool.queue", pool, ThreadPoolTaskExecutor::getQueueSize)
+            .register(meterRegistry);
+        Gauge.builder("jobexecutor.acquisition.batch", this, AdaptiveJobExecutor::getBatchSize)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Command<AcquiredJobs> getAcquireJobsCmd(int numJobs) {
+        return super.getAcquireJobsCmd(Math.min(numJobs, batchSize));
+    }
+
+    @Override
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+        acquiredCounter.increment(jobIds.size());
+        windowAcquired.add(jobIds.size());
+        super.executeJobs(jobIds, processEngine);
+    }
+
+    @Override
+    public Runnable getExecuteJobsRunnable(List<String> jobIds, ProcessEngineImpl processEngine) {
+        Runnable jobs = super.getExecuteJobsRunnable(jobIds, processEngine);
+        long submitted = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            waitTimer.record(start - submitted, TimeUnit.NANOSECONDS);
+            executing.addAndGet(jobIds.size());
+            try {
+                jobs.run();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                executing.addAndGet(-jobIds.size());
+                durationTimer.record(elapsed / jobIds.size(), TimeUnit.NANOSECONDS);
+                windowExecuted.add(jobIds.size());
+                windowExecutionNanos.add(elapsed);
+            }
+        };
+    }
+
+    public ThreadPoolTaskExecutor getPool() {
+        return pool;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Límite de jobs por adquisición, acotado por {@code maxJobsPerAcquisition}
+     * (que fija el máximo con el que arranca la estrategia de backoff).
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, Math.min(batchSize, getMaxJobsPerAcquisition()));
+    }
+
+    @Override
+    public void setMaxJobsPerAcquisition(int maxJobsPerAcquisition) {
+        super.setMaxJobsPerAcquisition(maxJobsPerAcquisition);
+        this.batchSize = Math.min(Math.max(batchSize, 1), maxJobsPerAcquisition);
+    }
+
+    public int getExecutingJobs() {
+        return executing.get();
+    }
+
+    /**
+     * Contadores acumulados desde la llamada anterior (y los reinicia).
+     */
+    public Window drainWindow() {
+        long executed = windowExecuted.sumThenReset();
+        long nanos = windowExecutionNanos.sumThenReset();
+        return new Window(
+            windowAcquired.sumThenReset(),
+            windowRejected.sumThenReset(),
+            executed,
+            executed > 0 ? nanos / 1_000_000.0 / executed : 0);
+    }
+
+    private RejectedJobsHandler countingRejections(RejectedJobsHandler delegate) {
+        return (jobIds, processEngine, jobExecutor) -> {
+            rejectedCounter.increment(jobIds.size());
+            windowRejected.add(jobIds.size());
+            delegate.jobsRejected(jobIds, processEngine, jobExecutor);
+        };
+    }
+
+    public record Window(long acquired, long rejected, long executed, double avgJobMillis) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 🔧 UMBRALES INICIALES DE LAS REGLAS DE APROBACIÓN (USD)
+ *
+ * Solo se usan como versión 1 cuando no hay ninguna versión guardada;
+ * después los umbrales se cambian en caliente con /api/admin/rules.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rules")
+public class ApprovalRuleProperties {
+
+    private BigDecimal minAmount = new BigDecimal("0.01");
+    private BigDecimal maxAmount = new BigDecimal("1000000");
+
+    // Umbrales de la tabla DMN
+    private BigDecimal autoApprovalLimit = new BigDecimal("200");
+    private BigDecimal officeSuppliesAutoLimit = new BigDecimal("500");
+    private BigDecimal officeSupervisorLimit = new BigDecimal("5000");
+    private BigDecimal supervisorLimit = new BigDecimal("2000");
+    private BigDecimal managerLimit = new BigDecimal("10000");
+    private BigDecimal strategicCeoLimit = new BigDecimal("5000");
+
+    // Marcas y avisos de la validación
+    private BigDecimal highValueLimit = new BigDecimal("5000");
+    private BigDecimal specialAttentionLimit = new BigDecimal("50000");
+    private BigDecimal urgentJustificationLimit = new BigDecimal("100000");
+    private BigDecimal officeSuppliesReviewLimit = new BigDecimal("5000");
+
+    public ApprovalRuleConfig toConfig() {
+        return ApprovalRuleConfig.builder()
+            .version(1L)
+            .updatedAt(LocalDateTime.now())
+            .updatedBy("system")
+            .comment("Valores por defecto")
+            .minAmount(minAmount)
+            .maxAmount(maxAmount)
+            .autoApprovalLimit(autoApprovalLimit)
+            .officeSuppliesAutoLimit(officeSuppliesAutoLimit)
+            .officeSupervisorLimit(officeSupervisorLimit)
+            .supervisorLimit(supervisorLimit)
+            .managerLimit(managerLimit)
+            .strategicCeoLimit(strategicCeoLimit)
+            .highValueLimit(highValueLimit)
+            .specialAttentionLimit(specialAttentionLimit)
+            .urgentJustificationLimit(urgentJustificationLimit)
+            .officeSuppliesReviewLimit(officeSuppliesReviewLimit)
+            .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * ⚙️ CONFIGURACIÓN DE EJECUTORES ASÍNCRONOS
+ *
+ * Pool acotado para el alta asíncrona de solicitudes (/process/start-async):
+ * arranque de la instancia Camunda y correo de confirmación fuera del hilo HTTP.
+ * Con la cola llena se rechaza la tarea (TaskRejectedException) en lugar de crecer sin límite.
+ *
+ * Con {@code spring.threads.virtual.enabled=true} (perfil "virtual", Java 21) se usan hilos
+ * virtuales con un límite de concurrencia en lugar del pool de hilos de plataforma.
+ *
+ * La simulación masiva de rutas es CPU pura y usa su propio ForkJoinPool en ambos modos.
+ */
+@Configuration
+@Slf4j
+public class AsyncConfiguration {
+
+    public static final String INTAKE_EXECUTOR = "intakeExecutor";
+    public static final String SIMULATION_POOL = "simulationPool";
+
+    @Bean(name = INTAKE_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor intakeExecutor(
+            @Value("${app.intake.async.core-pool-size:4}") int corePoolSize,
+            @Value("${app.intake.async.max-pool-size:8}") int maxPoolSize,
+            @Value("${app.intake.async.queue-capacity:500}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("intake-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("⚙️ Executor de alta asíncrona: core={}, max={}, cola={}", corePoolSize, maxPoolSize, queueCapacity);
+        return executor;
+    }
+
+    @Bean(name = INTAKE_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualIntakeExecutor(
+            @Value("${app.intake.async.virtual-concurrency-limit:64}") int concurrencyLimit) {
+
+        // Un hilo virtual por tarea; el límite protege al motor y al pool JDBC, y al alcanzarlo se rechaza
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("intake-vt-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(30_000);
+
+        log.info("⚙️ Executor de alta asíncrona con hilos virtuales: límite={}", concurrencyLimit);
+        return executor;
+    }
+
+    @Bean(name = SIMULATION_POOL, destroyMethod = "shutdown")
+    public ForkJoinPool simulationPool(@Value("${app.simulation.parallelism:0}") int parallelism) {
+        // 0 = un hilo por núcleo disponible
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("⚙️ ForkJoinPool de simulación de rutas: paralelismo={}", threads);
+        return new ForkJoinPool(threads);
+    }
+}
@@ -17,6 +17,7 @@ public class CamundaDeployer {
       .name("Auto-deploy purchase-request-process")
       .addClasspathResource("processes/purchase-request-process.bpmn")
       .addClasspathResource("processes/purchase-approval-rules.dmn")
+      .enableDuplicateFiltering(true)
       .deploy();
   }
 }
\ No newline at end of file
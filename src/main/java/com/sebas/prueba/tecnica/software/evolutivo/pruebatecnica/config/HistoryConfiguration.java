@@ -0,0 +1,47 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🗄️ CONFIGURACIÓN DEL HISTORIAL
+ *
+ * Registra {@link LeanHistoryLevel} como nivel personalizado del motor; solo se usa si
+ * {@code camunda.bpm.history-level} lo nombra (perfil {@code lean-history}). La limpieza
+ * por removal time y su ventana se configuran en {@code application.properties}.
+ */
+@Configuration
+@Slf4j
+public class HistoryConfiguration {
+
+    @Bean
+    public ProcessEnginePlugin leanHistoryLevelPlugin(HistoryProperties properties) {
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                List<HistoryLevel> levels = configuration.getCustomHistoryLevels() != null
+                    ? new ArrayList<>(configuration.getCustomHistoryLevels())
+                    : new ArrayList<>();
+                levels.add(new LeanHistoryLevel(properties.getLeanVariables()));
+                configuration.setCustomHistoryLevels(levels);
+            }
+
+            @Override
+            public void postInit(ProcessEngineConfigurationImpl configuration) {
+                log.info("🗄️ Nivel de historial: {}", configuration.getHistoryLevel().getName());
+                if (configuration.getHistoryLevel() instanceof LeanHistoryLevel) {
+                    log.info("🗄️ Se conservan instancias, incidentes y las variables {}", properties.getLeanVariables());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 🗄️ HISTORIAL DEL MOTOR
+ *
+ * Variables que conserva el nivel {@link LeanHistoryLevel} (perfil {@code lean-history}):
+ * las que leen los reportes ({@code finalStatus}, {@code approvalTimeMillis}) y las de la
+ * decisión de aprobación.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.history")
+public class HistoryProperties {
+
+    private Set<String> leanVariables = new LinkedHashSet<>(List.of(
+        "finalStatus", "approved", "approvalRoute", "approvedBy", "approvalDate", "approvalComments",
+        "rejectedBy", "rejectionComments", "processEndDate", "approvalTimeMillis"
+    ));
+}
@@ -0,0 +1,61 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 🌐 CLIENTE HTTP PARA SERVICIOS EXTERNOS
+ *
+ * RestTemplate sobre Apache HttpClient 5 con pool de conexiones keep-alive
+ * y timeouts de conexión, lectura y espera de conexión del pool.
+ */
+@Configuration
+@Slf4j
+public class HttpClientConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient externalHttpClient(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxConnections())
+            .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                .setTimeToLive(TimeValue.ofMilliseconds(properties.getConnectionTtl().toMillis()))
+                .build())
+            .build();
+
+        log.info("🌐 Pool HTTP externo: max={}, por ruta={}, connect={}, read={}",
+            properties.getMaxConnections(), properties.getMaxConnectionsPerRoute(),
+            properties.getConnectTimeout(), properties.getReadTimeout());
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeout().toMillis()))
+            .build();
+    }
+
+    /**
+     * Bean para realizar llamadas REST a servicios externos
+     */
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient externalHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(externalHttpClient));
+    }
+}
@@ -0,0 +1,51 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 🔧 CONFIGURACIÓN DEL CLIENTE HTTP PARA SERVICIOS EXTERNOS
+ *
+ * Pool de conexiones, timeouts, circuit breaker y bulkhead usados por
+ * ExternalServiceClient y ExternalApiService.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.http")
+public class HttpClientProperties {
+
+    // Pool de conexiones keep-alive
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 20;
+    private Duration connectionTtl = Duration.ofMinutes(5);
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    // Timeouts
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        // Fallos consecutivos que abren el circuito
+        private int failureThreshold = 5;
+        // Tiempo en abierto antes de dejar pasar una llamada de prueba
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        // Llamadas simultáneas permitidas por servicio externo
+        private int maxConcurrentCalls = 10;
+        // Espera máxima por un permiso antes de usar el fallback
+        private Duration maxWait = Duration.ofMillis(100);
+    }
+}
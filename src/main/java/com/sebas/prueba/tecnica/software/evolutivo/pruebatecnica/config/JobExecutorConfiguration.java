@@ -0,0 +1,78 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobExecutorTuner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.spring.boot.starter.property.CamundaBpmProperties;
+import org.camunda.bpm.spring.boot.starter.property.JobExecutionProperty;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Optional;
+
+/**
+ * 🎛️ MODO ADAPTATIVO DEL JOB EXECUTOR (perfil {@code adaptive-jobs}, {@code app.job-executor.adaptive.enabled=true})
+ *
+ * Reemplaza el JobExecutor del starter de Camunda por {@link AdaptiveJobExecutor} sobre el
+ * mismo pool {@code camundaTaskExecutor} y con las mismas propiedades
+ * {@code camunda.bpm.job-execution.*}, que pasan a ser los valores iniciales;
+ * {@link JobExecutorTuner} los ajusta en caliente dentro de {@link JobExecutorTuningProperties}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.job-executor.adaptive", name = "enabled", havingValue = "true")
+@Slf4j
+public class JobExecutorConfiguration {
+
+    // Nombre del pool que registra el starter (DefaultJobConfiguration)
+    public static final String CAMUNDA_TASK_EXECUTOR = "camundaTaskExecutor";
+
+    @Bean
+    public AdaptiveJobExecutor jobExecutor(@Qualifier(CAMUNDA_TASK_EXECUTOR) TaskExecutor taskExecutor,
+                                           CamundaBpmProperties camundaProperties,
+                                           JobExecutorTuningProperties tuning,
+                                           MeterRegistry meterRegistry) {
+        if (!(taskExecutor instanceof ThreadPoolTaskExecutor pool)) {
+            throw new IllegalStateException("El modo adaptativo necesita un ThreadPoolTaskExecutor como "
+                + CAMUNDA_TASK_EXECUTOR + " (encontrado: " + taskExecutor.getClass().getName() + ")");
+        }
+        pool.setMaxPoolSize(Math.max(pool.getMaxPoolSize(), tuning.getMaxPoolSize()));
+
+        AdaptiveJobExecutor executor = new AdaptiveJobExecutor(pool, meterRegistry);
+        JobExecutionProperty jobExecution = camundaProperties.getJobExecution();
+        Optional.ofNullable(jobExecution.getLockTimeInMillis()).ifPresent(executor::setLockTimeInMillis);
+        Optional.ofNullable(jobExecution.getWaitTimeInMillis()).ifPresent(executor::setWaitTimeInMillis);
+        Optional.ofNullable(jobExecution.getMaxWait()).ifPresent(executor::setMaxWait);
+        Optional.ofNullable(jobExecution.getBackoffTimeInMillis()).ifPresent(executor::setBackoffTimeInMillis);
+        Optional.ofNullable(jobExecution.getMaxBackoff()).ifPresent(executor::setMaxBackoff);
+        Optional.ofNullable(jobExecution.getBackoffDecreaseThreshold()).ifPresent(executor::setBackoffDecreaseThreshold);
+        Optional.ofNullable(jobExecution.getWaitIncreaseFactor()).ifPresent(executor::setWaitIncreaseFactor);
+
+        // La estrategia de backoff parte de maxJobsPerAcquisition: se fija al techo y el lote real lo limita el tuner
+        int initialBatch = Optional.ofNullable(jobExecution.getMaxJobsPerAcquisition()).orElse(executor.getMaxJobsPerAcquisition());
+        executor.setMaxJobsPerAcquisition(Math.max(initialBatch, tuning.getMaxBatch()));
+        executor.setBatchSize(initialBatch);
+
+        log.info("🎛️ Job executor adaptativo: hilos {}..{}, lote {}..{} (inicial {}), cola={}",
+            tuning.getMinPoolSize(), tuning.getMaxPoolSize(), tuning.getMinBatch(), tuning.getMaxBatch(),
+            initialBatch, jobExecution.getQueueCapacity());
+        return executor;
+    }
+
+    @Bean
+    public JobExecutorTuner jobExecutorTuner(AdaptiveJobExecutor jobExecutor,
+                                             ProcessEngineConfigurationImpl engineConfiguration,
+                                             CamundaBpmProperties camundaProperties,
+                                             JobExecutorTuningProperties tuning,
+                                             MeterRegistry meterRegistry) {
+        return new JobExecutorTuner(jobExecutor, engineConfiguration, tuning,
+            camundaProperties.getJobExecution().getQueueCapacity(), meterRegistry);
+    }
+}
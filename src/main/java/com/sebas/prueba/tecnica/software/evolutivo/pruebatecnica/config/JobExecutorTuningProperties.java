@@ -0,0 +1,38 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 🎛️ LÍMITES DEL MODO ADAPTATIVO DEL JOB EXECUTOR
+ *
+ * {@link com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobExecutorTuner}
+ * mueve el tamaño del pool y del lote de adquisición dentro de estos márgenes según la
+ * profundidad de la cola, los rechazos, la duración de los jobs y el retraso de los timers.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.job-executor.adaptive")
+public class JobExecutorTuningProperties {
+
+    private boolean enabled = false;
+
+    // Hilos del executor (corePoolSize ajustable)
+    private int minPoolSize = 3;
+    private int maxPoolSize = 20;
+    private int poolStep = 2;
+
+    // Jobs por ciclo de adquisición
+    private int minBatch = 1;
+    private int maxBatch = 20;
+
+    // Por encima de esta duración media por job más hilos solo añaden contención en la BD
+    private long targetJobMillis = 500;
+
+    // Ocupación de la cola a partir de la cual el pool se considera saturado
+    private double queueHighWatermark = 0.8;
+
+    // Retraso del timer vencido más antiguo a partir del cual hay backlog
+    private long timerLagThresholdMillis = 30_000;
+}
@@ -0,0 +1,67 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 🗄️ Nivel de historial {@value #NAME}
+ *
+ * Escribe solo lo que usan los reportes y la auditoría: inicio/fin de las instancias,
+ * las variables indicadas (sin el detalle de cada actualización) e incidentes. Se
+ * descartan actividades, tareas, identity links, jobs y evaluaciones DMN, que con
+ * {@code full} son la mayor parte de las filas de {@code ACT_HI_*}.
+ *
+ * Las variables de {@link #REQUIRED_VARIABLES} se conservan siempre, aunque
+ * {@code app.history.lean-variables} no las incluya: sin ellas la reconstrucción de
+ * rollups de KPIs desde el historial perdería estados, rutas o tiempos de aprobación.
+ */
+public class LeanHistoryLevel implements HistoryLevel {
+
+    public static final String NAME = "purchase-lean";
+
+    // Los niveles de Camunda usan 0..3; -1 es "auto"
+    public static final int ID = 17;
+
+    // Leídas por KpiRollupBackfill al reconstruir los rollups
+    public static final Set<String> REQUIRED_VARIABLES = Set.of("finalStatus", "approvalRoute", "approvalTimeMillis");
+
+    private static final String PROCESS_INSTANCE = HistoryEventTypes.PROCESS_INSTANCE_START.getEntityType();
+    private static final String VARIABLE_INSTANCE = HistoryEventTypes.VARIABLE_INSTANCE_CREATE.getEntityType();
+    private static final String INCIDENT = HistoryEventTypes.INCIDENT_CREATE.getEntityType();
+
+    private final Set<String> variableNames;
+
+    public LeanHistoryLevel(Set<String> variableNames) {
+        Set<String> names = new HashSet<>(variableNames);
+        names.addAll(REQUIRED_VARIABLES);
+        this.variableNames = Set.copyOf(names);
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+        String entityType = eventType.getEntityType();
+        if (PROCESS_INSTANCE.equals(entityType) || INCIDENT.equals(entityType)) {
+            return true;
+        }
+        if (VARIABLE_INSTANCE.equals(entityType) && eventType != HistoryEventTypes.VARIABLE_INSTANCE_UPDATE_DETAIL) {
+            // Sin entidad el motor pregunta por el tipo de evento en general
+            return !(entity instanceof VariableInstance variable) || variableNames.contains(variable.getName());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+
+/**
+ * 🏷️ Valores de etiquetas de métricas con cardinalidad acotada
+ *
+ * Las rutas y categorías vienen de variables del proceso o de la tabla DMN; aquí se
+ * reducen a los valores de sus enums, {@code NONE} si no hay valor u {@code OTHER} si es
+ * desconocido, para que ningún dato de entrada cree series nuevas en Prometheus.
+ */
+public final class MetricTags {
+
+    public static final String NONE = "NONE";
+    public static final String OTHER = "OTHER";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String BPMN_ERROR = "bpmn_error";
+
+    private MetricTags() {
+    }
+
+    public static String route(Object value) {
+        return enumTag(ApprovalRoute.class, value);
+    }
+
+    public static String category(Object value) {
+        return enumTag(PurchaseCategory.class, value);
+    }
+
+    private static <E extends Enum<E>> String enumTag(Class<E> type, Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return NONE;
+        }
+        try {
+            return Enum.valueOf(type, value.toString().trim()).name();
+        } catch (IllegalArgumentException e) {
+            return OTHER;
+        }
+    }
+}
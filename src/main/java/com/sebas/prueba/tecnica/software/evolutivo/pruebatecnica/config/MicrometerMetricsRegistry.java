@@ -0,0 +1,38 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📡 Registro de métricas del motor que también publica en Micrometer
+ *
+ * El motor anota cada evento ({@code activity-instance-start}, {@code job-successful},
+ * {@code executed-decision-elements}...) en este registro y el reporter de Camunda lo
+ * vuelca a {@code ACT_RU_METER_LOG} como siempre. Además cada evento incrementa
+ * {@code camunda.engine.events{metric}} al momento, sin esperar al volcado a la BD.
+ * Los nombres son las constantes de {@code Metrics}, así que la etiqueta está acotada.
+ */
+public class MicrometerMetricsRegistry extends MetricsRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public MicrometerMetricsRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void markOccurrence(String name, long times) {
+        super.markOccurrence(name, times);
+        counters.computeIfAbsent(name, metric -> Counter.builder("camunda.engine.events")
+                .description("Eventos registrados por las métricas del motor Camunda")
+                .tag("metric", metric)
+                .register(meterRegistry))
+            .increment(times);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * ⏰ ESCALAMIENTO DE RECORDATORIOS DE APROBACIÓN
+ *
+ * Cada duración es un nivel de recordatorio, contado desde la creación de la tarea;
+ * el número de niveles acota cuántos recordatorios recibe una solicitud. Al alcanzar
+ * el último nivel la solicitud se escala además a {@code escalationEmail}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.reminders")
+public class ReminderProperties {
+
+    private List<Duration> escalation = List.of(Duration.ofHours(4), Duration.ofHours(24), Duration.ofHours(48));
+
+    // Tareas revisadas como máximo por barrido (las más antiguas primero)
+    private int maxTasksPerSweep = 5000;
+
+    private String escalationEmail = "admin@softwareevolutivo.com";
+}
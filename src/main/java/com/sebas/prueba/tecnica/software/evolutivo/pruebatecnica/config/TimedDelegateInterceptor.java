@@ -0,0 +1,76 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.impl.bpmn.delegate.JavaDelegateInvocation;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Mide cada ejecución de un {@code JavaDelegate} del motor
+ *
+ * Envuelve el interceptor de delegados del motor: las invocaciones de delegados de
+ * tareas de servicio y de reglas de negocio se cronometran en
+ * {@code purchase.delegate{activity, route, category, outcome}}; el resto (resolución de
+ * expresiones, listeners) pasa sin medir. {@code activity} es el id BPMN de la tarea y
+ * ruta y categoría se leen de las variables de la instancia, acotadas con {@link MetricTags}.
+ */
+public class TimedDelegateInterceptor implements DelegateInterceptor {
+
+    private final DelegateInterceptor delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedDelegateInterceptor(DelegateInterceptor delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void handleInvocation(DelegateInvocation invocation) throws Exception {
+        if (!(invocation instanceof JavaDelegateInvocation)
+                || !(invocation.getContextExecution() instanceof DelegateExecution execution)) {
+            delegate.handleInvocation(invocation);
+            return;
+        }
+
+        long start = System.nanoTime();
+        String outcome = MetricTags.SUCCESS;
+        try {
+            delegate.handleInvocation(invocation);
+        } catch (BpmnError e) {
+            outcome = MetricTags.BPMN_ERROR;
+            throw e;
+        } catch (Exception | Error e) {
+            outcome = MetricTags.ERROR;
+            throw e;
+        } finally {
+            TimerKey key = new TimerKey(String.valueOf(execution.getCurrentActivityId()),
+                                        MetricTags.route(execution.getVariable("approvalRoute")),
+                                        MetricTags.category(execution.getVariable("category")),
+                                        outcome);
+            timers.computeIfAbsent(key, this::timer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        return Timer.builder("purchase.delegate")
+            .description("Duración de los delegados del proceso de compras")
+            .tag("activity", key.activity())
+            .tag("route", key.route())
+            .tag("category", key.category())
+            .tag("outcome", key.outcome())
+            .register(meterRegistry);
+    }
+
+    private record TimerKey(String activity, String route, String category, String outcome) {
+    }
+}
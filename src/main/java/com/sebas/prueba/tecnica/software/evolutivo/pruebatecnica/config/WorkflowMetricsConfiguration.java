@@ -0,0 +1,44 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 📡 CONFIGURACIÓN DE MÉTRICAS DEL FLUJO DE COMPRAS
+ *
+ * Conecta el motor con el {@link MeterRegistry} de la aplicación (el mismo que expone
+ * {@code /actuator/prometheus}):
+ * - las métricas internas de Camunda se publican como {@code camunda.engine.events};
+ * - cada delegado del proceso se cronometra en {@code purchase.delegate}.
+ * DMN, servicios externos, correos y recordatorios registran sus propios medidores.
+ */
+@Configuration
+@Slf4j
+public class WorkflowMetricsConfiguration {
+
+    @Bean
+    public ProcessEnginePlugin workflowMetricsPlugin(MeterRegistry meterRegistry) {
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                // Debe estar antes de initMetrics(), que solo crea el registro por defecto si falta
+                configuration.setMetricsRegistry(new MicrometerMetricsRegistry(meterRegistry));
+            }
+
+            @Override
+            public void postInit(ProcessEngineConfigurationImpl configuration) {
+                // El interceptor por defecto ya existe aquí; se envuelve para conservar su cambio de contexto
+                configuration.setDelegateInterceptor(
+                    new TimedDelegateInterceptor(configuration.getDelegateInterceptor(), meterRegistry));
+                log.info("📡 Métricas del motor y de delegados publicadas en Micrometer");
+            }
+        };
+    }
+}
@@ -15,7 +15,9 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DashboardCounters;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.PurchaseRequestService;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ReportService;
 
@@ -31,6 +33,7 @@ public class DashboardController {
     private final ReportService reportService;
     private final PurchaseRequestService purchaseRequestService;
     private final TaskService taskService;
+    private final DashboardCounters dashboardCounters;
     
     @GetMapping({"/dashboard", "/dashboard/", "/process/dashboard"})
     public String dashboard(Model model) {
@@ -48,20 +51,13 @@ public class DashboardController {
             Long rejectedRequests = purchaseRequestService.getRequestsByStatus(PurchaseRequest.RequestStatus.REJECTED);
             
             // ✅ Obtener solicitudes recientes con más información
-            List<PurchaseRequest> recentRequests = purchaseRequestService.findAll()
-                .stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(10)
-                .toList();
+            List<PurchaseRequestSummary> recentRequests = purchaseRequestService.findMostRecent();
             
             // ✅ Calcular estadísticas adicionales
-            List<PurchaseRequest> overdueRequests = purchaseRequestService.findOverdueRequests();
+            List<PurchaseRequestSummary> overdueRequests = purchaseRequestService.findOverdueSummaries();
             
-            // ✅ Obtener tareas pendientes del usuario actual
-            List<org.camunda.bpm.engine.task.Task> userTasks = taskService.createTaskQuery()
-                .processDefinitionKey("purchase-request-process")
-                .active()
-                .list();
+            // ✅ Tareas pendientes (contadores materializados)
+            long userTasksCount = countPendingTasks();
             
             // ✅ Análisis de aprobaciones automáticas vs manuales
             long autoApprovedCount = recentRequests.stream()
@@ -75,8 +71,8 @@ public class DashboardController {
                 (double) approvedRequests / totalRequests * 100 : 0;
             
             // ✅ Encontrar solicitudes que requieren escalamiento
-            List<PurchaseRequest> needsEscalation = recentRequests.stream()
-                .filter(r -> r.getTotalAmount().compareTo(new BigDecimal("10000")) > 0)
+            List<PurchaseRequestSummary> needsEscalation = recentRequests.stream()
+                .filter(r -> r.getNormalizedAmount().compareTo(new BigDecimal("10000")) > 0)
                 .filter(r -> r.getStatus() == PurchaseRequest.RequestStatus.PENDING)
                 .toList();
             
@@ -88,8 +84,7 @@ public class DashboardController {
             model.addAttribute("recentRequests", recentRequests);
             model.addAttribute("overdueRequests", overdueRequests);
             model.addAttribute("overdueCount", overdueRequests.size());
-            model.addAttribute("userTasks", userTasks);
-            model.addAttribute("userTasksCount", userTasks.size());
+            model.addAttribute("userTasksCount", userTasksCount);
             model.addAttribute("autoApprovedCount", autoApprovedCount);
             model.addAttribute("manualApprovedCount", manualApprovedCount);
             model.addAttribute("approvalRate", String.format("%.1f", approvalRate));
@@ -128,45 +123,45 @@ public class DashboardController {
     /**
      * ✅ Preparar datos para los gráficos del dashboard
      */
-    private Map<String, Object> prepareChartData(List<PurchaseRequest> requests) {
+    private Map<String, Object> prepareChartData(List<PurchaseRequestSummary> requests) {
         Map<String, Object> chartData = new HashMap<>();
         
         // Datos por categoría
         Map<PurchaseRequest.PurchaseCategory, Long> categoryData = requests.stream()
             .collect(Collectors.groupingBy(
-                PurchaseRequest::getCategory,
+                PurchaseRequestSummary::getCategory,
                 Collectors.counting()
             ));
         
         // Datos por departamento  
         Map<String, Long> departmentData = requests.stream()
             .collect(Collectors.groupingBy(
-                PurchaseRequest::getDepartment,
+                PurchaseRequestSummary::getDepartment,
                 Collectors.counting()
             ));
             
         // Datos por estado
         Map<PurchaseRequest.RequestStatus, Long> statusData = requests.stream()
             .collect(Collectors.groupingBy(
-                PurchaseRequest::getStatus,
+                PurchaseRequestSummary::getStatus,
                 Collectors.counting()
             ));
             
         // Datos de montos por rango
         Map<String, Long> amountRanges = new HashMap<>();
         amountRanges.put("$0 - $500", requests.stream()
-            .filter(r -> r.getTotalAmount().compareTo(new BigDecimal("500")) <= 0)
+            .filter(r -> r.getNormalizedAmount().compareTo(new BigDecimal("500")) <= 0)
             .count());
         amountRanges.put("$501 - $2000", requests.stream()
-            .filter(r -> r.getTotalAmount().compareTo(new BigDecimal("500")) > 0 
-                && r.getTotalAmount().compareTo(new BigDecimal("2000")) <= 0)
+            .filter(r -> r.getNormalizedAmount().compareTo(new BigDecimal("500")) > 0 
+                && r.getNormalizedAmount().compareTo(new BigDecimal("2000")) <= 0)
             .count());
         amountRanges.put("$2001 - $10000", requests.stream()
-            .filter(r -> r.getTotalAmount().compareTo(new BigDecimal("2000")) > 0 
-                && r.getTotalAmount().compareTo(new BigDecimal("10000")) <= 0)
+            .filter(r -> r.getNormalizedAmount().compareTo(new BigDecimal("2000")) > 0 
+                && r.getNormalizedAmount().compareTo(new BigDecimal("10000")) <= 0)
             .count());
         amountRanges.put("$10000+", requests.stream()
-            .filter(r -> r.getTotalAmount().compareTo(new BigDecimal("10000")) > 0)
+            .filter(r -> r.getNormalizedAmount().compareTo(new BigDecimal("10000")) > 0)
             .count());
         
         chartData.put("categories", categoryData);
@@ -177,6 +172,20 @@ public class DashboardController {
         return chartData;
     }
 
+    /**
+     * ✅ Tareas abiertas desde los contadores; consulta al motor solo si aún no se inicializan
+     */
+    private long countPendingTasks() {
+        DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
+        if (counters.isInitialized()) {
+            return counters.getOpenTasks();
+        }
+        return taskService.createTaskQuery()
+            .processDefinitionKey("purchase-request-process")
+            .active()
+            .count();
+    }
+
     /**
      * 📊 API endpoint para obtener datos del dashboard en JSON
      */
@@ -190,14 +199,10 @@ public class DashboardController {
             data.put("pendingRequests", purchaseRequestService.getRequestsByStatus(PurchaseRequest.RequestStatus.PENDING));
             data.put("approvedRequests", purchaseRequestService.getRequestsByStatus(PurchaseRequest.RequestStatus.APPROVED));
             data.put("rejectedRequests", purchaseRequestService.getRequestsByStatus(PurchaseRequest.RequestStatus.REJECTED));
-            data.put("overdueCount", purchaseRequestService.findOverdueRequests().size());
+            data.put("overdueCount", purchaseRequestService.countOverdueRequests());
             
             // Tareas pendientes
-            long pendingTasks = taskService.createTaskQuery()
-                .processDefinitionKey("purchase-request-process")
-                .active()
-                .count();
-            data.put("pendingTasks", pendingTasks);
+            data.put("pendingTasks", countPendingTasks());
             
             data.put("timestamp", System.currentTimeMillis());
             
@@ -0,0 +1,90 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.KpiSeriesPointDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupBackfill;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 📈 API de tendencias de KPIs
+ *
+ * Las series se leen solo de los rollups por hora o por día, sin recorrer el historial.
+ */
+@RestController
+@RequestMapping("/api/kpi")
+@RequiredArgsConstructor
+@Slf4j
+public class KpiRestController {
+
+    private final KpiRollupService kpiRollupService;
+    private final KpiRollupBackfill kpiRollupBackfill;
+
+    /**
+     * 📈 Serie temporal de {@code [from, to)} con filtros opcionales por categoría, departamento y ruta
+     */
+    @GetMapping("/series")
+    public ResponseEntity<List<KpiSeriesPointDto>> series(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String route) {
+        log.info("📈 API: Serie de KPIs {} de {} a {}", granularity, from, to);
+
+        return ResponseEntity.ok(kpiRollupService.series(
+            parseGranularity(granularity), from, to, category, department, route));
+    }
+
+    /**
+     * 🔄 Reconstruye desde el historial los días {@code [from, to)} (sin {@code from}: todo el historial)
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("🔄 API: Reconstruyendo rollups de KPIs ({} - {})", from, to);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("instances", kpiRollupBackfill.backfill(from, to));
+        return ResponseEntity.ok(result);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        log.warn("⚠️ API: Parámetros inválidos: {}", e.getMessage());
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    private static Granularity parseGranularity(String value) {
+        try {
+            return Granularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularidad no soportada: " + value + " (HOUR o DAY)");
+        }
+    }
+}
@@ -3,28 +3,42 @@ package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CursorPageDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.IntakeStatusDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestFilter;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.SupplierDto;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.CurrencyService;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ExternalServiceClient;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.NotificationService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.PurchaseRequestIntakeService;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.PurchaseRequestService;
 
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,11 +49,12 @@ import java.util.Map;
 @Slf4j
 public class ProcessController {
 
-    private final RuntimeService runtimeService;
     private final PurchaseRequestService purchaseRequestService;
     private final ExternalServiceClient externalServiceClient;
     private final PurchaseRequestRepository requestRepo;
     private final NotificationService notificationService; // Para enviar mails
+    private final PurchaseRequestIntakeService intakeService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     private CurrencyService currencyService;
@@ -65,112 +80,24 @@ public ResponseEntity<?> startProcess(@RequestBody Map<String, Object> requestDa
         log.info("🔥 Iniciando proceso con datos: {}", requestData);
         
         // ✅ Crear PurchaseRequest desde el Map
-        PurchaseRequest purchaseRequest = new PurchaseRequest();
-        
-        // Mapear campos básicos
-        purchaseRequest.setRequesterName((String) requestData.get("requesterName"));
-        purchaseRequest.setRequesterEmail((String) requestData.get("requesterEmail"));
-        purchaseRequest.setDepartment((String) requestData.get("department"));
-        purchaseRequest.setDescription((String) requestData.get("description"));
-        
-        // ✅ Manejo seguro del monto
-        Object amountObj = requestData.get("totalAmount");
-        if (amountObj instanceof Number) {
-            purchaseRequest.setTotalAmount(BigDecimal.valueOf(((Number) amountObj).doubleValue()));
-        } else {
-            throw new IllegalArgumentException("totalAmount debe ser un número");
-        }
-        
-        purchaseRequest.setCurrency((String) requestData.get("currency"));
-        purchaseRequest.setSupplierName((String) requestData.get("supplierName"));
-        purchaseRequest.setSupplierEmail((String) requestData.get("supplierEmail"));
-        
-        // ✅ Manejo seguro de enums
-        String categoryStr = (String) requestData.get("category");
-        String priorityStr = (String) requestData.get("priority");
-        
-        try {
-            purchaseRequest.setCategory(PurchaseRequest.PurchaseCategory.valueOf(categoryStr));
-            purchaseRequest.setPriority(PurchaseRequest.Priority.valueOf(priorityStr));
-        } catch (IllegalArgumentException e) {
-            log.error("❌ Enum inválido - Category: {}, Priority: {}", categoryStr, priorityStr);
-            throw new IllegalArgumentException("Categoría o prioridad inválida: " + e.getMessage());
-        }
-        
-        // ✅ CORRECCIÓN DE FECHA: Manejo flexible
-        Object dueDateObj = requestData.get("dueDate");
-        if (dueDateObj != null) {
-            try {
-                String dueDateStr = dueDateObj.toString();
-                LocalDateTime dueDateTime;
-                
-                if (dueDateStr.contains("T")) {
-                    // Ya tiene formato LocalDateTime: "2025-08-02T23:59:59"
-                    dueDateTime = LocalDateTime.parse(dueDateStr);
-                } else {
-                    // Solo fecha: "2025-08-02" -> convertir a "2025-08-02T23:59:59"
-                    LocalDate dueDate = LocalDate.parse(dueDateStr);
-                    dueDateTime = dueDate.atTime(23, 59, 59);
-                }
-                
-                purchaseRequest.setDueDate(dueDateTime);
-                log.info("✅ Fecha procesada correctamente: {}", dueDateTime);
-                
-            } catch (Exception e) {
-                log.error("❌ Error procesando fecha: {}", dueDateObj, e);
-                throw new IllegalArgumentException("Formato de fecha inválido: " + dueDateObj);
-            }
-        }
+        PurchaseRequest purchaseRequest = intakeService.fromRequestData(requestData);
 
         // 1) Generar businessKey
         purchaseRequest.generateBusinessKey();
 
         // 2) Guardar la entidad en la BD
-        purchaseRequest = requestRepo.save(purchaseRequest);
+        purchaseRequest = intakeService.persistNew(purchaseRequest);
         log.info("✅ Solicitud guardada con ID: {}", purchaseRequest.getId());
 
-        // 3) ✅ Mapear a variables de Camunda (nombres exactos para DMN)
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("businessKey", purchaseRequest.getBusinessKey());
-        vars.put("requestId", purchaseRequest.getBusinessKey());
-        vars.put("requesterName", purchaseRequest.getRequesterName());
-        vars.put("requesterEmail", purchaseRequest.getRequesterEmail());
-        vars.put("department", purchaseRequest.getDepartment());
-        vars.put("description", purchaseRequest.getDescription());
-        
-        // ✅ Variables para el DMN (nombres exactos)
-        vars.put("Monto", purchaseRequest.getTotalAmount().doubleValue());  // Para DMN
-        vars.put("Categoría", purchaseRequest.getCategory().name());        // Para DMN
-        vars.put("priority", purchaseRequest.getPriority().name());         // Para DMN
-        
-        // Variables adicionales
-        vars.put("totalAmount", purchaseRequest.getTotalAmount().doubleValue());
-        vars.put("currency", purchaseRequest.getCurrency());
-        vars.put("category", purchaseRequest.getCategory().name());
-        vars.put("supplierName", purchaseRequest.getSupplierName());
-        vars.put("supplierEmail", purchaseRequest.getSupplierEmail());
-        
-        if (purchaseRequest.getDueDate() != null) {
-            vars.put("dueDate", purchaseRequest.getDueDate());
-        }
-
-        log.info("🔧 Variables para Camunda: {}", vars);
-
-        // 4) Arrancar la instancia de proceso
-        ProcessInstance pi = runtimeService
-            .startProcessInstanceByKey(
-                "purchase-request-process",
-                purchaseRequest.getBusinessKey(),
-                vars
-            );
+        // 3) Arrancar la instancia de proceso con las variables para el DMN
+        ProcessInstance pi = intakeService.startProcess(purchaseRequest);
 
         log.info("🚀 Proceso iniciado - ID: {}, BusinessKey: {}", pi.getId(), purchaseRequest.getBusinessKey());
 
-        // 5) Guardar el processInstanceId
-        purchaseRequest.setProcessInstanceId(pi.getId());
+        // 4) Guardar el processInstanceId
         requestRepo.save(purchaseRequest);
 
-        // 6) Enviar correo de confirmación
+        // 5) Enviar correo de confirmación
         try {
             notificationService.sendFinalNotification(
                 purchaseRequest,
@@ -182,7 +109,7 @@ public ResponseEntity<?> startProcess(@RequestBody Map<String, Object> requestDa
             log.error("❌ Error enviando email: {}", e.getMessage());
         }
 
-        // 7) Responder al frontend
+        // 6) Responder al frontend
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("processInstanceId", pi.getId());
@@ -204,12 +131,111 @@ public ResponseEntity<?> startProcess(@RequestBody Map<String, Object> requestDa
 }
     
 
-    @GetMapping("/list")
-    public String listRequests(Model model) {
-        log.info("📋 Mostrando lista de solicitudes");
+    /**
+     * ⚡ Alta asíncrona: responde 202 con el businessKey; el proceso y el correo
+     * se ejecutan en segundo plano. Consultar el avance en /process/status/{businessKey}
+     */
+    @PostMapping("/start-async")
+    public ResponseEntity<?> startProcessAsync(@RequestBody Map<String, Object> requestData) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            PurchaseRequest purchaseRequest = intakeService.acceptAsync(requestData);
+
+            response.put("success", true);
+            response.put("businessKey", purchaseRequest.getBusinessKey());
+            response.put("statusUrl", "/process/status/" + purchaseRequest.getBusinessKey());
+            response.put("message", "Solicitud recibida, el proceso se iniciará en breve");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Solicitud asíncrona inválida: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (TaskRejectedException e) {
+            response.put("success", false);
+            response.put("message", "Sistema saturado, reintente más tarde");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+        }
+    }
 
-        List<PurchaseRequest> requests = purchaseRequestService.findAll();
-        model.addAttribute("requests", requests);
+    /**
+     * 🔄 Estado de una solicitud creada de forma asíncrona
+     */
+    @GetMapping("/status/{businessKey}")
+    public ResponseEntity<IntakeStatusDto> getIntakeStatus(@PathVariable String businessKey) {
+        return intakeService.getIntakeStatus(businessKey)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 📦 Carga masiva de solicitudes (JSON array)
+     */
+    @PostMapping(value = "/start-batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> startBatch(@RequestBody List<Map<String, Object>> requests) {
+        log.info("📦 Carga masiva JSON con {} solicitudes", requests.size());
+        return runBatch(requests);
+    }
+
+    /**
+     * 📦 Carga masiva de solicitudes (NDJSON: una solicitud JSON por línea).
+     * Responde también en NDJSON: una línea por solicitud en cuanto su lote termina
+     * y una última línea con el resumen de la carga.
+     */
+    @PostMapping(value = "/start-batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> startBatchNdjson(InputStream body) {
+        log.info("📦 Carga masiva NDJSON en streaming");
+
+        StreamingResponseBody stream = out -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                BatchIntakeResultDto summary = intakeService.streamBatch(reader.lines().iterator(), item -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(item));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.write(objectMapper.writeValueAsBytes(summary));
+                out.write('\n');
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+
+    private ResponseEntity<?> runBatch(List<Map<String, Object>> requests) {
+        try {
+            BatchIntakeResultDto report = intakeService.startBatch(requests);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Carga masiva rechazada: {}", e.getMessage());
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    @GetMapping("/list")
+    public String listRequests(@RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer size,
+                               @ModelAttribute PurchaseRequestFilter filter,
+                               Model model) {
+        log.info("📋 Mostrando lista de solicitudes (cursor: {})", cursor);
+
+        CursorPageDto<PurchaseRequestSummary> page = purchaseRequestService.findPage(filter, cursor, size);
+        model.addAttribute("requests", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("hasMore", page.isHasMore());
+        model.addAttribute("filter", filter);
 
         return "process/request-list";
     }
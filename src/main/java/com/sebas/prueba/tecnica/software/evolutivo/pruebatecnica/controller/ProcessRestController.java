@@ -1,17 +1,35 @@
 package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CursorPageDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestFilter;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.SupplierDto;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.AuditExportService;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ExternalServiceClient;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.PurchaseRequestService;
 
@@ -26,6 +44,8 @@ public class ProcessRestController {
 
     private final PurchaseRequestService purchaseRequestService;
     private final ExternalServiceClient externalServiceClient;
+    private final AuditExportService auditExportService;
+    private final ObjectMapper objectMapper;
 
     /**
      * 📊 API para obtener métricas
@@ -66,14 +86,104 @@ public class ProcessRestController {
     }
 
     /**
-     * 📋 API para obtener solicitudes por departamento
+     * 📋 API para obtener solicitudes por departamento (paginado por cursor)
      */
     @GetMapping("/requests/department/{department}")
-    public ResponseEntity<List<PurchaseRequest>> getRequestsByDepartment(@PathVariable String department) {
-        log.info("📋 API: Obteniendo solicitudes del departamento: {}", department);
-        
-        List<PurchaseRequest> requests = purchaseRequestService.findByDepartment(department);
-        return ResponseEntity.ok(requests);
+    public ResponseEntity<CursorPageDto<PurchaseRequestSummary>> getRequestsByDepartment(
+            @PathVariable String department,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("📋 API: Obteniendo solicitudes del departamento: {} (cursor: {})", department, cursor);
+
+        PurchaseRequestFilter filter = PurchaseRequestFilter.builder().department(department).build();
+        return ResponseEntity.ok(purchaseRequestService.findPage(filter, cursor, size));
+    }
+
+    /**
+     * 📋 API paginada por cursor con filtros opcionales (status, department, category, minAmount, maxAmount)
+     */
+    @GetMapping("/requests")
+    public ResponseEntity<CursorPageDto<PurchaseRequestSummary>> getRequests(
+            @ModelAttribute PurchaseRequestFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("📋 API: Listando solicitudes (cursor: {})", cursor);
+
+        return ResponseEntity.ok(purchaseRequestService.findPage(filter, cursor, size));
+    }
+
+    /**
+     * 🌊 API que exporta las solicitudes como NDJSON (una por línea) sin cargarlas todas en memoria
+     */
+    @GetMapping(value = "/requests/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRequests(@ModelAttribute PurchaseRequestFilter filter) {
+        log.info("🌊 API: Exportando solicitudes en streaming");
+
+        StreamingResponseBody body = out -> purchaseRequestService.streamRequests(filter, request -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(request));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 🗄️ API que exporta el reporte de auditoría (CSV o NDJSON) de las instancias iniciadas
+     * entre {@code from} y {@code to} (ambos días incluidos), paginado por fecha de inicio
+     */
+    @GetMapping("/audit/export")
+    public ResponseEntity<StreamingResponseBody> exportAudit(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        AuditExportService.Format exportFormat = AuditExportService.Format.parse(format);
+        log.info("🗄️ API: Exportando reporte de auditoría ({}, {} - {})", exportFormat, from, to);
+
+        Date fromDate = startOfDay(from);
+        Date toDate = to != null ? startOfDay(to.plusDays(1)) : null;
+        boolean csv = exportFormat == AuditExportService.Format.CSV;
+
+        StreamingResponseBody body = out -> {
+            if (csv) {
+                out.write((AuditExportService.csvHeader() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            }
+            auditExportService.export(fromDate, toDate, record -> {
+                try {
+                    if (csv) {
+                        out.write((AuditExportService.toCsvRow(record) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        out.write(objectMapper.writeValueAsBytes(record));
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"audit-report." + (csv ? "csv" : "ndjson") + "\"")
+            .body(body);
+    }
+
+    private static Date startOfDay(LocalDate date) {
+        return date != null ? Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        log.warn("⚠️ API: Parámetros inválidos: {}", e.getMessage());
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
     }
 
     /**
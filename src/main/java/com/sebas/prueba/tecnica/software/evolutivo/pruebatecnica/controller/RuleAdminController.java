@@ -0,0 +1,92 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleUpdateDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ⚖️ API de administración de umbrales de aprobación
+ *
+ * Los cambios se aplican en caliente, sin redesplegar la aplicación.
+ */
+@RestController
+@RequestMapping("/api/admin/rules")
+@RequiredArgsConstructor
+@Slf4j
+public class RuleAdminController {
+
+    private final ApprovalRuleStore ruleStore;
+
+    /**
+     * ⚖️ Umbrales vigentes
+     */
+    @GetMapping
+    public ResponseEntity<ApprovalRuleConfig> getCurrent() {
+        return ResponseEntity.ok(ruleStore.current());
+    }
+
+    /**
+     * 📜 Historial de versiones (más reciente primero)
+     */
+    @GetMapping("/versions")
+    public ResponseEntity<List<ApprovalRuleConfig>> getVersions(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ruleStore.history(limit));
+    }
+
+    /**
+     * ✏️ Publicar una versión nueva; los campos omitidos conservan su valor
+     */
+    @PutMapping
+    public ResponseEntity<ApprovalRuleConfig> update(@RequestBody ApprovalRuleUpdateDto update) {
+        log.info("⚖️ API: Actualizando umbrales de aprobación (versión esperada: {})", update.getExpectedVersion());
+        return ResponseEntity.ok(ruleStore.update(update));
+    }
+
+    /**
+     * ⏪ Volver a los umbrales de una versión anterior
+     */
+    @PostMapping("/versions/{version}/activate")
+    public ResponseEntity<ApprovalRuleConfig> activate(@PathVariable long version,
+                                                       @RequestParam(required = false) String updatedBy) {
+        log.info("⏪ API: Reactivando umbrales de la versión {}", version);
+        return ResponseEntity.ok(ruleStore.activate(version, updatedBy));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        log.warn("⚠️ API: Umbrales rechazados: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(error(e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(IllegalStateException e) {
+        log.warn("⚠️ API: Conflicto al publicar umbrales: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error(e.getMessage()));
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return error;
+    }
+}
@@ -1,8 +1,13 @@
 package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.controller;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationRequestDto;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleStore;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DmnEvaluationService;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.PurchaseRequestService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.RoutingSimulationService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +31,9 @@ public class ValidationApiController {
 
     private final BusinessRulesService businessRulesService;
     private final PurchaseRequestService purchaseRequestService;
+    private final ApprovalRuleStore ruleStore;
+    private final RoutingSimulationService routingSimulationService;
+    private final DmnEvaluationService dmnEvaluationService;
 
     /**
      * ✅ Validar una solicitud antes de enviarla (validación previa)
@@ -82,22 +91,25 @@ public class ValidationApiController {
     }
 
     /**
-     * ✅ Obtener información de límites y reglas para el frontend
+     * ✅ Obtener información de límites y reglas para el frontend (versión vigente)
      */
     @GetMapping("/business-rules")
     public ResponseEntity<Map<String, Object>> getBusinessRules() {
         log.info("📋 Obteniendo reglas de negocio para frontend");
         
+        ApprovalRuleConfig config = ruleStore.current();
         Map<String, Object> rules = new HashMap<>();
         
         // Límites de montos
         Map<String, Object> amountLimits = new HashMap<>();
-        amountLimits.put("autoApproval", BusinessRulesService.AUTO_APPROVAL_LIMIT);
-        amountLimits.put("supervisor", BusinessRulesService.SUPERVISOR_LIMIT);
-        amountLimits.put("manager", BusinessRulesService.MANAGER_LIMIT);
-        amountLimits.put("officeSuppliesAuto", BusinessRulesService.OFFICE_SUPPLIES_AUTO_LIMIT);
-        amountLimits.put("strategicCeo", BusinessRulesService.STRATEGIC_CEO_LIMIT);
-        amountLimits.put("urgentEscalation", BusinessRulesService.URGENT_ESCALATION_LIMIT);
+        amountLimits.put("min", config.getMinAmount());
+        amountLimits.put("max", config.getMaxAmount());
+        amountLimits.put("autoApproval", config.getAutoApprovalLimit());
+        amountLimits.put("supervisor", config.getSupervisorLimit());
+        amountLimits.put("manager", config.getManagerLimit());
+        amountLimits.put("officeSuppliesAuto", config.getOfficeSuppliesAutoLimit());
+        amountLimits.put("strategicCeo", config.getStrategicCeoLimit());
+        amountLimits.put("urgentEscalation", config.getSpecialAttentionLimit());
         
         // Rutas de aprobación
         Map<String, String> approvalRoutes = new HashMap<>();
@@ -108,22 +120,27 @@ public class ValidationApiController {
         // Categorías y sus reglas especiales
         Map<String, Object> categoryRules = new HashMap<>();
         categoryRules.put("OFFICE_SUPPLIES", Map.of(
-            "autoApprovalLimit", BusinessRulesService.OFFICE_SUPPLIES_AUTO_LIMIT,
-            "description", "Suministros de oficina hasta $500 se aprueban automáticamente"
+            "autoApprovalLimit", config.getOfficeSuppliesAutoLimit(),
+            "description", String.format("Suministros de oficina hasta $%,.0f se aprueban automáticamente",
+                config.getOfficeSuppliesAutoLimit())
         ));
         categoryRules.put("STRATEGIC", Map.of(
-            "ceoRequiredAbove", BusinessRulesService.STRATEGIC_CEO_LIMIT,
-            "description", "Categoría estratégica > $5,000 requiere aprobación CEO"
+            "ceoRequiredAbove", config.getStrategicCeoLimit(),
+            "description", String.format("Categoría estratégica > $%,.0f requiere aprobación CEO",
+                config.getStrategicCeoLimit())
         ));
         categoryRules.put("CONSULTING", Map.of(
-            "ceoRequiredAbove", BusinessRulesService.STRATEGIC_CEO_LIMIT,
-            "description", "Consultoría > $5,000 requiere aprobación CEO"
+            "ceoRequiredAbove", config.getStrategicCeoLimit(),
+            "description", String.format("Consultoría > $%,.0f requiere aprobación CEO",
+                config.getStrategicCeoLimit())
         ));
         
         rules.put("amountLimits", amountLimits);
         rules.put("approvalRoutes", approvalRoutes);
         rules.put("categoryRules", categoryRules);
-        rules.put("lastUpdated", System.currentTimeMillis());
+        rules.put("version", config.getVersion());
+        rules.put("updatedBy", config.getUpdatedBy());
+        rules.put("lastUpdated", config.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
         
         return ResponseEntity.ok(rules);
     }
@@ -138,18 +155,31 @@ public class ValidationApiController {
         
         try {
             PurchaseRequest tempRequest = createTempRequest(request);
+            BigDecimal amount = businessRulesService.baseAmount(tempRequest);
             BusinessRulesService.ApprovalRouteResult routeResult = businessRulesService.determineApprovalRoute(tempRequest);
             
+            // ✅ La ruta sale de la tabla desplegada en Camunda (la misma que ejecutan los procesos)
+            String deployedRoute = dmnEvaluationService.evaluateRoute(
+                amount, tempRequest.getCategory().name(), tempRequest.getPriority().name());
+            BusinessRulesService.ApprovalRoute route = deployedRoute != null
+                ? BusinessRulesService.ApprovalRoute.valueOf(deployedRoute)
+                : BusinessRulesService.ApprovalRoute.SUPERVISOR;
+            if (route != routeResult.getRoute()) {
+                log.warn("⚠️ La tabla desplegada ({}) y las reglas vigentes ({}) difieren para {} {} {}",
+                    route, routeResult.getRoute(), amount, tempRequest.getCategory(), tempRequest.getPriority());
+            }
+            
             Map<String, Object> simulation = new HashMap<>();
             simulation.put("inputVariables", Map.of(
-                "Monto", request.getTotalAmount(),
+                "Monto", amount,
                 "Categoría", request.getCategory(),
                 "priority", request.getPriority()
             ));
             
             simulation.put("dmnResult", Map.of(
-                "approvalRoute", routeResult.getRoute().name(),
-                "reason", routeResult.getReason(),
+                "approvalRoute", route.name(),
+                "decisionVersion", dmnEvaluationService.deployedVersion(),
+                "reason", route == routeResult.getRoute() ? routeResult.getReason() : "Tabla DMN desplegada",
                 "autoApprovalEligible", routeResult.isAutoApprovalEligible(),
                 "urgentEscalation", routeResult.isUrgentEscalation(),
                 "highValueRequest", routeResult.isHighValueRequest(),
@@ -158,13 +188,13 @@ public class ValidationApiController {
             
             // Información adicional
             BusinessRulesService.ApprovalTimeEstimate timeEstimate = businessRulesService.estimateApprovalTime(
-                routeResult.getRoute(), tempRequest.getPriority()
+                route, tempRequest.getPriority()
             );
             
             simulation.put("processingEstimate", Map.of(
                 "estimatedDays", timeEstimate.getEstimatedDays(),
                 "maxDays", timeEstimate.getMaxDays(),
-                "approverEmail", businessRulesService.getApproverEmail(routeResult.getRoute())
+                "approverEmail", businessRulesService.getApproverEmail(route)
             ));
             
             simulation.put("timestamp", System.currentTimeMillis());
@@ -181,6 +211,25 @@ public class ValidationApiController {
         }
     }
 
+    /**
+     * 🧪 Simular umbrales candidatos sobre las solicitudes históricas
+     */
+    @PostMapping("/simulate-batch")
+    public ResponseEntity<?> simulateBatch(@RequestBody RoutingSimulationRequestDto request) {
+        log.info("🧪 Simulación masiva de rutas - Desde: {}, Hasta: {}, Candidatos: {}",
+            request.getFrom(), request.getTo(), request.getCandidates() != null ? request.getCandidates().size() : 0);
+        
+        try {
+            return ResponseEntity.ok(routingSimulationService.simulate(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Simulación rechazada: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * ✅ Validar una solicitud existente por ID
      */
@@ -223,6 +272,7 @@ public class ValidationApiController {
     private PurchaseRequest createTempRequest(ValidationRequest request) {
         PurchaseRequest tempRequest = new PurchaseRequest();
         tempRequest.setTotalAmount(request.getTotalAmount());
+        tempRequest.setCurrency(request.getCurrency());
         tempRequest.setRequesterName(request.getRequesterName());
         tempRequest.setRequesterEmail(request.getRequesterEmail());
         tempRequest.setDescription(request.getDescription());
@@ -255,6 +305,7 @@ public class ValidationApiController {
     @lombok.Data
     public static class ValidationRequest {
         private BigDecimal totalAmount;
+        private String currency;
         private String requesterName;
         private String requesterEmail;
         private String description;
@@ -0,0 +1,54 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.delegate;
+
+import java.math.BigDecimal;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DmnEvaluationService;
+
+/**
+ * 🎯 Tarea de reglas de negocio "Determinar ruta de aprobación"
+ *
+ * Evalúa la tabla {@code purchase-approval-rules} desplegada a través de
+ * {@link DmnEvaluationService} (memoizada) con las mismas entradas que mapea la
+ * tarea y deja el resultado en {@code approvalRoute}, igual que {@code singleEntry}.
+ */
+@Component("determineApprovalRouteDelegate")
+public class DetermineApprovalRouteDelegate implements JavaDelegate {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DetermineApprovalRouteDelegate.class);
+    
+    @Autowired
+    private DmnEvaluationService dmnEvaluationService;
+    
+    @Override
+    public void execute(DelegateExecution execution) throws Exception {
+        BigDecimal amount = toBigDecimal(execution.getVariable("totalAmount"));
+        String category = (String) execution.getVariable("category");
+        String priority = (String) execution.getVariable("priority");
+        
+        String route = dmnEvaluationService.evaluateRoute(amount, category, priority);
+        execution.setVariable("approvalRoute", route);
+        
+        logger.info("🎯 Ruta DMN para {}: {} (Monto: {}, Categoría: {}, Prioridad: {})",
+            execution.getProcessBusinessKey(), route, amount, category, priority);
+    }
+    
+    private BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return new BigDecimal(text.trim());
+        }
+        return null;
+    }
+}
@@ -2,16 +2,21 @@ package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.delegate;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.EmailOutboxService;
+
 @Component("emailNotificationDelegate")
 public class EmailNotificationDelegate implements JavaDelegate {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailNotificationDelegate.class);
+
+    // Los correos se encolan en la transacción del motor; el envío SMTP ocurre fuera del job executor
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxService emailOutboxService;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -33,18 +38,13 @@ public class EmailNotificationDelegate implements JavaDelegate {
                 processInstanceId
             );
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
+            emailOutboxService.enqueue(to, subject, body);
 
-            System.out.println("Correo enviado a " + to + " con asunto: " + subject);
+            logger.info("Correo encolado para {} con asunto: {}", to, subject);
 
         } catch (Exception e) {
-            System.err.println("Error al enviar el correo: " + e.getMessage());
-            e.printStackTrace();
-            // Si deseas lanzar el error para que el flujo de Camunda falle explícitamente:
+            logger.error("Error al encolar el correo - Process Instance: {}", execution.getProcessInstanceId(), e);
+            // Se relanza para que el flujo de Camunda falle explícitamente
             throw e;
         }
     }
@@ -53,11 +53,7 @@ public class EmailNotificationDelegate implements JavaDelegate {
     String subject = "Notificación de proceso";
     String body = "El proceso " + execution.getProcessInstanceId() + " ha avanzado.";
 
-    SimpleMailMessage msg = new SimpleMailMessage();
-    msg.setTo(to);
-    msg.setSubject(subject);
-    msg.setText(body);
-    mailSender.send(msg);
+    emailOutboxService.enqueue(to, subject, body);
   }
     // ✅ Implementación concreta para auto aprobación
   public void sendAutoApprovalNotification(DelegateExecution execution) {
@@ -70,10 +66,6 @@ public class EmailNotificationDelegate implements JavaDelegate {
     String body = String.format("Hola,\n\nTu solicitud con ID %s fue aprobada automáticamente porque el monto está por debajo del límite establecido.\n\nSaludos,\nEquipo de Compras",
             execution.getProcessInstanceId());
 
-    SimpleMailMessage msg = new SimpleMailMessage();
-    msg.setTo(to);
-    msg.setSubject(subject);
-    msg.setText(body);
-    mailSender.send(msg);
+    emailOutboxService.enqueue(to, subject, body);
   }
 }
@@ -17,6 +17,7 @@ public class UpdatePurchaseRequestDelegate implements JavaDelegate {
         pr.setStatus(PurchaseRequest.RequestStatus.APPROVED);
         pr.setApprovedBy(businessKey);
         pr.setApprovedAt(LocalDateTime.now());
+        pr.calculateProcessingTime();
         repo.save(pr);
     }
 }
@@ -11,8 +11,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleEvaluator;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.CurrencyService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DashboardCounters;
 
 import io.micrometer.common.util.StringUtils;
 
@@ -21,15 +26,18 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
     
     private static final Logger logger = LoggerFactory.getLogger(ValidatePurchaseRequestDelegate.class);
     
-    // ✅ Configurar límites de negocio
-    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.01");
-    private static final BigDecimal MAX_AMOUNT = new BigDecimal("1000000"); // $1M máximo
-    private static final BigDecimal AUTO_APPROVAL_LIMIT = new BigDecimal("200");
-    private static final BigDecimal URGENT_ESCALATION_LIMIT = new BigDecimal("50000");
-    
     @Autowired
     private PurchaseRequestRepository purchaseRequestRepository;
     
+    @Autowired
+    private CurrencyService currencyService;
+    
+    @Autowired
+    private ApprovalRuleEvaluator ruleEvaluator;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         logger.info("🧐 Antes de invocar la tabla DMN recibo: {}", execution.getVariables());
@@ -75,6 +83,8 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
      */
     private ValidationContext extractAndValidateBasicData(DelegateExecution execution) throws BpmnError {
         ValidationContext context = new ValidationContext();
+        // ✅ Una sola versión de umbrales para toda la validación
+        context.rules = ruleEvaluator.current();
         
         // Extraer variables principales
         context.businessKey = execution.getProcessBusinessKey();
@@ -86,6 +96,7 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
         context.priority = (String) execution.getVariable("priority");
         context.supplierName = (String) execution.getVariable("supplierName");
         context.supplierEmail = (String) execution.getVariable("supplierEmail");
+        context.currency = (String) execution.getVariable("currency");
         
         // ✅ Manejo robusto del monto (puede venir como Double o BigDecimal)
         Object amountVar = execution.getVariable("totalAmount");
@@ -103,6 +114,12 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
             throw new BpmnError("VALIDATION_ERROR", "Monto no proporcionado o en formato incorrecto");
         }
         
+        // ✅ Los límites están en USD: todas las comparaciones usan el monto normalizado
+        if (context.currency != null && !currencyService.isSupported(context.currency)) {
+            throw new BpmnError("VALIDATION_ERROR", "Moneda no soportada: " + context.currency);
+        }
+        context.amount = currencyService.toBase(context.amount, context.currency);
+        
         // Validaciones básicas de nulos y vacíos
         if (StringUtils.isBlank(context.requesterName)) {
             throw new BpmnError("VALIDATION_ERROR", "El nombre del solicitante es requerido");
@@ -156,7 +173,7 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
         }
         
         // ✅ Validar coherencia de datos
-        if ("URGENT".equals(context.priority) && context.amount.compareTo(URGENT_ESCALATION_LIMIT) > 0) {
+        if ("URGENT".equals(context.priority) && context.amount.compareTo(context.limits().getSpecialAttentionLimit()) > 0) {
             logger.warn("⚠️ Solicitud URGENTE por monto alto requiere atención especial: {}", context.amount);
             execution.setVariable("requiresSpecialAttention", true);
         }
@@ -167,23 +184,25 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
      */
     private void validateAmountLimits(ValidationContext context, DelegateExecution execution) throws BpmnError {
         
-        if (context.amount.compareTo(MIN_AMOUNT) < 0) {
+        ApprovalRuleConfig limits = context.limits();
+        
+        if (context.amount.compareTo(limits.getMinAmount()) < 0) {
             throw new BpmnError("VALIDATION_ERROR", 
-                String.format("El monto debe ser mayor a $%.2f", MIN_AMOUNT));
+                String.format("El monto debe ser mayor a $%.2f", limits.getMinAmount()));
         }
         
-        if (context.amount.compareTo(MAX_AMOUNT) > 0) {
+        if (context.amount.compareTo(limits.getMaxAmount()) > 0) {
             throw new BpmnError("VALIDATION_ERROR", 
-                String.format("El monto excede el límite máximo de $%.2f", MAX_AMOUNT));
+                String.format("El monto excede el límite máximo de $%.2f", limits.getMaxAmount()));
         }
         
         // ✅ Establecer flags para el proceso
         execution.setVariable("isAutoApprovalEligible", 
-            context.amount.compareTo(AUTO_APPROVAL_LIMIT) <= 0);
+            evaluateRoute(context).isAutoApprovalEligible());
         execution.setVariable("requiresCeoApproval", 
-            context.amount.compareTo(new BigDecimal("10000")) > 0);
+            context.amount.compareTo(limits.getManagerLimit()) > 0);
         execution.setVariable("isHighValue", 
-            context.amount.compareTo(new BigDecimal("5000")) > 0);
+            context.amount.compareTo(limits.getHighValueLimit()) > 0);
     }
     
     /**
@@ -207,8 +226,9 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
      * ✅ Establecer variables para el DMN Engine
      */
     private void setDmnVariables(ValidationContext context, DelegateExecution execution) {
-        // Variables exactas que espera el DMN
+        // Variables exactas que espera el DMN (monto en moneda base)
         execution.setVariable("Monto", context.amount);
+        execution.setVariable("normalizedAmount", context.amount.doubleValue());
         execution.setVariable("Categoría", context.category);
         execution.setVariable("priority", context.priority != null ? context.priority : "NORMAL");
         
@@ -229,27 +249,32 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
             Optional<PurchaseRequest> optionalRequest = purchaseRequestRepository.findByBusinessKey(context.businessKey);
             if (optionalRequest.isPresent()) {
                 PurchaseRequest request = optionalRequest.get();
+                PurchaseRequest.RequestStatus previousStatus = request.getStatus();
                 request.setStatus(PurchaseRequest.RequestStatus.IN_APPROVAL);
+                if (request.getNormalizedAmount() == null) {
+                    request.setNormalizedAmount(context.amount);
+                }
                 request.setComments("Solicitud validada y en proceso de aprobación");
                 purchaseRequestRepository.save(request);
+                // Solo la validación superada cuenta como PENDING → IN_APPROVAL
+                dashboardCounters.recordStatusChange(previousStatus,
+                    PurchaseRequest.RequestStatus.IN_APPROVAL, request.getNormalizedAmount());
                 logger.debug("📝 Estado actualizado en BD para solicitud: {}", context.businessKey);
             }
         }
     }
     
     /**
-     * ✅ Sugerir ruta de aprobación (para logging)
+     * ✅ Sugerir ruta de aprobación (para logging) con la tabla DMN compilada
      */
     private String suggestApprovalRoute(ValidationContext context) {
-        if (context.amount.compareTo(AUTO_APPROVAL_LIMIT) <= 0) {
-            return "AUTO";
-        } else if (context.amount.compareTo(new BigDecimal("10000")) > 0) {
-            return "CEO";
-        } else if (context.amount.compareTo(new BigDecimal("2000")) > 0) {
-            return "MANAGER";
-        } else {
-            return "SUPERVISOR";
-        }
+        return evaluateRoute(context).getRoute().name();
+    }
+    
+    // Mismas entradas que recibe el DMN (prioridad por defecto NORMAL)
+    private BusinessRulesService.ApprovalRouteResult evaluateRoute(ValidationContext context) {
+        return context.rules.evaluate(context.amount, context.category,
+            context.priority != null ? context.priority : "NORMAL");
     }
     
     /**
@@ -272,6 +297,12 @@ public class ValidatePurchaseRequestDelegate implements JavaDelegate {
         String priority;
         String supplierName;
         String supplierEmail;
-        BigDecimal amount;
+        String currency;
+        BigDecimal amount; // en moneda base
+        ApprovalRuleEvaluator.RuleSnapshot rules;
+        
+        ApprovalRuleConfig limits() {
+            return rules.configuration();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ⚖️ Versión inmutable de los umbrales de aprobación (montos en USD).
+ *
+ * Los evaluadores leen la versión vigente una sola vez por evaluación,
+ * así nunca mezclan umbrales de dos versiones.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ApprovalRuleConfig {
+
+    long version;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime updatedAt;
+    String updatedBy;
+    String comment;
+
+    // Límites absolutos del monto
+    BigDecimal minAmount;
+    BigDecimal maxAmount;
+
+    // Tabla DMN purchase-approval-rules
+    BigDecimal autoApprovalLimit;          // ≤ → AUTO
+    BigDecimal officeSuppliesAutoLimit;    // suministros de oficina ≤ → AUTO
+    BigDecimal officeSupervisorLimit;      // suministros/software ≤ → SUPERVISOR
+    BigDecimal supervisorLimit;            // equipamiento/hardware > → MANAGER
+    BigDecimal managerLimit;               // > → CEO
+    BigDecimal strategicCeoLimit;          // estratégico/consultoría > → CEO
+
+    // Marcas y avisos de la validación
+    BigDecimal highValueLimit;
+    BigDecimal specialAttentionLimit;
+    BigDecimal urgentJustificationLimit;
+    BigDecimal officeSuppliesReviewLimit;
+}
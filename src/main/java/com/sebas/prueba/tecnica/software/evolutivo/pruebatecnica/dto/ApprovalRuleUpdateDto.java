@@ -0,0 +1,36 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Cambio de umbrales para /api/admin/rules. Los campos nulos conservan el valor vigente;
+ * {@code expectedVersion} evita pisar una versión publicada por otro administrador.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApprovalRuleUpdateDto {
+
+    private Long expectedVersion;
+    private String updatedBy;
+    private String comment;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private BigDecimal autoApprovalLimit;
+    private BigDecimal officeSuppliesAutoLimit;
+    private BigDecimal officeSupervisorLimit;
+    private BigDecimal supervisorLimit;
+    private BigDecimal managerLimit;
+    private BigDecimal strategicCeoLimit;
+    private BigDecimal highValueLimit;
+    private BigDecimal specialAttentionLimit;
+    private BigDecimal urgentJustificationLimit;
+    private BigDecimal officeSuppliesReviewLimit;
+}
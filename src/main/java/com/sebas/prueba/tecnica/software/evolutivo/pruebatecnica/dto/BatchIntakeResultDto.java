@@ -0,0 +1,51 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 📦 Resultado de una carga masiva de solicitudes (/process/start-batch).
+ * Un elemento por solicitud recibida, en el mismo orden de entrada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchIntakeResultDto {
+
+    private int total;
+    private int started;
+    private int invalid;
+    private int failed;
+    private long elapsedMillis;
+
+    @Builder.Default
+    private List<ItemResult> items = new ArrayList<>();
+
+    public enum ItemStatus {
+        STARTED,
+        INVALID,
+        FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+        private int index;
+        private ItemStatus status;
+        private String businessKey;
+        private Long requestId;
+        private String processInstanceId;
+        @Builder.Default
+        private List<String> errors = new ArrayList<>();
+        @Builder.Default
+        private List<String> warnings = new ArrayList<>();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ * {@code nextCursor} es null cuando no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private int size;
+    private boolean hasMore;
+}
@@ -24,6 +24,14 @@ public class DashboardMetricsDto {
     private Double averageProcessingTime;
     private Long overdueRequests;
     
+    // Percentiles de tiempo de procesamiento (horas, ventana móvil)
+    private Double processingTimeP50;
+    private Double processingTimeP90;
+    private Double processingTimeP99;
+    
+    // Percentiles por etapa, ruta, categoría y departamento
+    private List<LatencyMetricDto> latencyPercentiles;
+    
     // Métricas financieras
     private String totalApprovedAmount;
     private String averageRequestAmount;
@@ -66,4 +74,18 @@ public class DashboardMetricsDto {
         private String userName;
         private Long taskCount;
     }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class LatencyMetricDto {
+        private String stage;
+        private String dimension;
+        private String group;
+        private Long count;
+        private Double p50Hours;
+        private Double p90Hours;
+        private Double p99Hours;
+    }
 }
\ No newline at end of file
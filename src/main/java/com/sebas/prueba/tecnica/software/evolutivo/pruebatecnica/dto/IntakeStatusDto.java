@@ -0,0 +1,35 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🔄 Progreso de una solicitud creada con /process/start-async
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntakeStatusDto {
+
+    public enum IntakeState {
+        QUEUED,     // Persistida, esperando arranque del proceso
+        STARTED,    // Instancia Camunda creada
+        FAILED      // No se pudo arrancar el proceso
+    }
+
+    private String businessKey;
+    private Long requestId;
+    private IntakeState state;
+    private String requestStatus;
+    private String processInstanceId;
+    private boolean processActive;
+    @Builder.Default
+    private List<String> activeActivities = new ArrayList<>();
+    private String message;
+}
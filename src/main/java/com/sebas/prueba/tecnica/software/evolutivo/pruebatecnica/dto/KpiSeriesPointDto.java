@@ -0,0 +1,43 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Un punto de la serie temporal de KPIs: solicitudes terminadas en la franja
+ * que empieza en {@code bucketStart}. Los tiempos están en horas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KpiSeriesPointDto {
+
+    private LocalDateTime bucketStart;
+
+    // Contadores
+    private long completed;
+    private long approved;
+    private long rejected;
+    private Double approvalRate;
+
+    // Montos en moneda base
+    private BigDecimal amountSum;
+    private BigDecimal approvedAmountSum;
+
+    // Tiempo de procesamiento (horas)
+    private Double averageProcessingHours;
+    private Double p50ProcessingHours;
+    private Double p90ProcessingHours;
+    private Double p99ProcessingHours;
+
+    // Tiempo en las tareas de aprobación (horas)
+    private Double p50ApprovalHours;
+    private Double p90ApprovalHours;
+    private Double p99ApprovalHours;
+}
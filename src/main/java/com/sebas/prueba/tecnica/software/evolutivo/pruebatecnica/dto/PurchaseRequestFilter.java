@@ -0,0 +1,28 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+
+/**
+ * Filtros opcionales para el listado paginado y la exportación de solicitudes.
+ * Un campo null significa "sin filtro". Los montos van en moneda base (USD) y se
+ * comparan con el monto normalizado de cada solicitud.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseRequestFilter {
+
+    private PurchaseRequest.RequestStatus status;
+    private String department;
+    private PurchaseRequest.PurchaseCategory category;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
@@ -0,0 +1,61 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 📋 Proyección ligera de PurchaseRequest para listados y gráficos.
+ *
+ * Solo selecciona las columnas que muestran las vistas; no carga
+ * comments, rejectionReason ni los datos del proveedor.
+ */
+public interface PurchaseRequestSummary {
+
+    Long getId();
+
+    String getBusinessKey();
+
+    String getRequesterName();
+
+    String getDepartment();
+
+    String getDescription();
+
+    BigDecimal getTotalAmount();
+
+    /**
+     * Monto en la moneda base (USD); igual a totalAmount en filas sin normalizar
+     */
+    BigDecimal getNormalizedAmount();
+
+    String getCurrency();
+
+    PurchaseCategory getCategory();
+
+    Priority getPriority();
+
+    RequestStatus getStatus();
+
+    String getApprovedBy();
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime getCreatedAt();
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime getDueDate();
+
+    /**
+     * Obtiene el monto formateado para mostrar (mismo formato que la entidad)
+     */
+    @JsonIgnore
+    default String getFormattedAmount() {
+        return String.format("%s %.2f", getCurrency(), getTotalAmount());
+    }
+}
@@ -0,0 +1,38 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🧪 Simulación "qué pasaría si" de rutas de aprobación sobre solicitudes históricas
+ * (/api/validation/simulate-batch). Cada candidato parte de los umbrales vigentes;
+ * los campos nulos conservan su valor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoutingSimulationRequestDto {
+
+    // Rango de creación [from, to); null = sin límite
+    private LocalDate from;
+    private LocalDate to;
+
+    @Builder.Default
+    private List<Candidate> candidates = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Candidate {
+        private String name;
+        private ApprovalRuleUpdateDto rules;
+    }
+}
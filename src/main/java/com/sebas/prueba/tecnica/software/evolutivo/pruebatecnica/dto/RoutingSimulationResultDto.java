@@ -0,0 +1,55 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🧪 Resultado de la simulación de rutas: reparto por ruta de la versión vigente
+ * y de cada candidato, con diferencias y horas estimadas de espera por aprobador.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoutingSimulationResultDto {
+
+    private long rows;
+    private long elapsedMillis;
+    private ScenarioResult baseline;
+
+    @Builder.Default
+    private List<ScenarioResult> candidates = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScenarioResult {
+        private String name;
+        private ApprovalRuleConfig rules;
+
+        // Solicitudes y horas laborables estimadas por ruta (estimateApprovalTime)
+        @Builder.Default
+        private Map<String, Long> routes = new LinkedHashMap<>();
+        @Builder.Default
+        private Map<String, Long> approverHours = new LinkedHashMap<>();
+
+        // Diferencia respecto a la versión vigente (vacías en el escenario base)
+        @Builder.Default
+        private Map<String, Long> routeDeltas = new LinkedHashMap<>();
+        @Builder.Default
+        private Map<String, Long> approverHoursDeltas = new LinkedHashMap<>();
+
+        // Solicitudes que cambian de ruta: ruta vigente -> ruta nueva -> cantidad
+        private long changedRequests;
+        @Builder.Default
+        private Map<String, Map<String, Long>> shifts = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,148 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ⚖️ Historial de versiones de los umbrales de aprobación
+ *
+ * Cada cambio desde la API de administración inserta una fila nueva; la de
+ * mayor versión es la vigente y se vuelve a activar al arrancar.
+ *
+ * Implementa {@link Persistable} para que {@code save} haga siempre un INSERT: con el
+ * id asignado, un {@code merge} sobrescribiría en silencio la versión de otro nodo.
+ */
+@Entity
+@Table(name = "approval_rule_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApprovalRuleVersion implements Persistable<Long> {
+
+    // Asignada por ApprovalRuleStore (versión vigente + 1); si dos nodos publican a la vez,
+    // la clave primaria rechaza el segundo INSERT y ese nodo responde con conflicto
+    @Id
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "updated_by")
+    private String updatedBy;
+
+    @Column(name = "comment", length = 500)
+    private String comment;
+
+    @Column(name = "min_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column(name = "auto_approval_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal autoApprovalLimit;
+
+    @Column(name = "office_supplies_auto_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal officeSuppliesAutoLimit;
+
+    @Column(name = "office_supervisor_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal officeSupervisorLimit;
+
+    @Column(name = "supervisor_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal supervisorLimit;
+
+    @Column(name = "manager_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal managerLimit;
+
+    @Column(name = "strategic_ceo_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal strategicCeoLimit;
+
+    @Column(name = "high_value_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal highValueLimit;
+
+    @Column(name = "special_attention_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal specialAttentionLimit;
+
+    @Column(name = "urgent_justification_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal urgentJustificationLimit;
+
+    @Column(name = "office_supplies_review_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal officeSuppliesReviewLimit;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    @Override
+    public Long getId() {
+        return version;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    public static ApprovalRuleVersion from(ApprovalRuleConfig config) {
+        return ApprovalRuleVersion.builder()
+            .version(config.getVersion())
+            .updatedAt(config.getUpdatedAt())
+            .updatedBy(config.getUpdatedBy())
+            .comment(config.getComment())
+            .minAmount(config.getMinAmount())
+            .maxAmount(config.getMaxAmount())
+            .autoApprovalLimit(config.getAutoApprovalLimit())
+            .officeSuppliesAutoLimit(config.getOfficeSuppliesAutoLimit())
+            .officeSupervisorLimit(config.getOfficeSupervisorLimit())
+            .supervisorLimit(config.getSupervisorLimit())
+            .managerLimit(config.getManagerLimit())
+            .strategicCeoLimit(config.getStrategicCeoLimit())
+            .highValueLimit(config.getHighValueLimit())
+            .specialAttentionLimit(config.getSpecialAttentionLimit())
+            .urgentJustificationLimit(config.getUrgentJustificationLimit())
+            .officeSuppliesReviewLimit(config.getOfficeSuppliesReviewLimit())
+            .build();
+    }
+
+    public ApprovalRuleConfig toConfig() {
+        return ApprovalRuleConfig.builder()
+            .version(version)
+            .updatedAt(updatedAt)
+            .updatedBy(updatedBy)
+            .comment(comment)
+            .minAmount(minAmount)
+            .maxAmount(maxAmount)
+            .autoApprovalLimit(autoApprovalLimit)
+            .officeSuppliesAutoLimit(officeSuppliesAutoLimit)
+            .officeSupervisorLimit(officeSupervisorLimit)
+            .supervisorLimit(supervisorLimit)
+            .managerLimit(managerLimit)
+            .strategicCeoLimit(strategicCeoLimit)
+            .highValueLimit(highValueLimit)
+            .specialAttentionLimit(specialAttentionLimit)
+            .urgentJustificationLimit(urgentJustificationLimit)
+            .officeSuppliesReviewLimit(officeSuppliesReviewLimit)
+            .build();
+    }
+}
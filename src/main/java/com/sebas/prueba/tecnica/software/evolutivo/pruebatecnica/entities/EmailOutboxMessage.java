@@ -0,0 +1,89 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 📮 Bandeja de salida (outbox) de correos
+ *
+ * Los correos se escriben en la misma transacción que el cambio de negocio
+ * (HTTP o Camunda) y los envía después EmailOutboxDispatcher, fuera de esa transacción.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "body", nullable = false, length = 8000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum OutboxStatus {
+        PENDING,    // Pendiente de envío o de reintento
+        SENT,       // Entregado al servidor SMTP
+        DEAD        // Superó el máximo de intentos
+    }
+
+    /**
+     * Registra un intento fallido: reprograma con backoff o pasa a DEAD.
+     */
+    public void markFailed(String error, LocalDateTime retryAt, int maxAttempts) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (this.attempts >= maxAttempts) {
+            this.status = OutboxStatus.DEAD;
+        } else {
+            this.nextAttemptAt = retryAt;
+        }
+    }
+
+    public void markSent(LocalDateTime when) {
+        this.attempts++;
+        this.status = OutboxStatus.SENT;
+        this.sentAt = when;
+        this.lastError = null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 📈 KPIs preagregados por franja de tiempo
+ *
+ * Una fila por granularidad (hora o día), inicio de franja, categoría, departamento
+ * y ruta de aprobación, con las solicitudes terminadas en esa franja. Los reportes de
+ * tendencia leen solo esta tabla; los tiempos de procesamiento y de aprobación se guardan
+ * como sketches de cuantiles codificados (ver DurationSketch) para poder combinar filas y
+ * sacar percentiles.
+ *
+ * Los volcados leen la fila, suman en memoria y la reescriben: {@code version} hace que
+ * dos escritores sobre la misma franja (otro nodo, o una reconstrucción a la vez que un
+ * volcado) fallen con conflicto en lugar de perder en silencio los conteos del otro.
+ */
+@Entity
+@Table(name = "kpi_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_kpi_rollup_bucket",
+        columnNames = {"granularity", "bucket_start", "category", "department", "approval_route"}),
+    indexes = @Index(name = "idx_kpi_rollup_granularity_bucket", columnList = "granularity, bucket_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KpiRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kpi_rollups_seq")
+    @SequenceGenerator(name = "kpi_rollups_seq", sequenceName = "kpi_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    // Filas existentes sin la columna quedan en 0 al actualizar el esquema
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "category", nullable = false)
+    private String category;
+
+    @Column(name = "department", nullable = false)
+    private String department;
+
+    @Column(name = "approval_route", nullable = false)
+    private String approvalRoute;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    // Montos en moneda base
+    @Column(name = "amount_sum", nullable = false, precision = 18, scale = 2)
+    @Builder.Default
+    private BigDecimal amountSum = BigDecimal.ZERO;
+
+    @Column(name = "approved_amount_sum", nullable = false, precision = 18, scale = 2)
+    @Builder.Default
+    private BigDecimal approvedAmountSum = BigDecimal.ZERO;
+
+    @Column(name = "processing_time_sum_ms", nullable = false)
+    private long processingTimeSumMillis;
+
+    // Instancias con tiempo de procesamiento conocido (denominador del promedio)
+    @Column(name = "processing_time_count", nullable = false)
+    private long processingTimeCount;
+
+    @Column(name = "processing_time_sketch", length = 8000)
+    private String processingTimeSketch;
+
+    // Tiempo en las tareas de aprobación (sin muestras en la ruta AUTO)
+    @Column(name = "approval_time_sketch", length = 8000)
+    private String approvalTimeSketch;
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+}
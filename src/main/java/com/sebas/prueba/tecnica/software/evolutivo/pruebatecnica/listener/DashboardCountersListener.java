@@ -0,0 +1,46 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.listener;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DashboardCounters;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 📡 Alimenta las tareas por usuario de {@link DashboardCounters} con los eventos del motor
+ *
+ * Usa el puente de eventos de Camunda Spring Boot ({@code camunda.bpm.eventing.task}).
+ * Altas y cambios de estado se cuentan donde se escribe purchase_requests, no aquí:
+ * así los contadores siguen la misma fuente que el reconciliador.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCountersListener {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+
+    private final DashboardCounters dashboardCounters;
+
+    @EventListener
+    public void onTaskEvent(DelegateTask task) {
+        String eventName = task.getEventName();
+        if (eventName == null || !isPurchaseProcess(task.getProcessDefinitionId())) {
+            return;
+        }
+
+        switch (eventName) {
+            case TaskListener.EVENTNAME_CREATE, TaskListener.EVENTNAME_ASSIGNMENT ->
+                dashboardCounters.recordTaskAssigned(task.getId(), task.getAssignee());
+            case TaskListener.EVENTNAME_COMPLETE, TaskListener.EVENTNAME_DELETE ->
+                dashboardCounters.recordTaskClosed(task.getId());
+            default -> { }
+        }
+    }
+
+    private boolean isPurchaseProcess(String processDefinitionId) {
+        return processDefinitionId != null && processDefinitionId.startsWith(PROCESS_KEY + ":");
+    }
+}
@@ -0,0 +1,114 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.listener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Set;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver.FinalStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 📈 Alimenta los rollups de KPIs cuando una solicitud llega al fin del proceso
+ *
+ * Al completar cada tarea de aprobación suma su duración a la variable
+ * {@code approvalTimeMillis} de la instancia, que se lee al terminar el proceso.
+ * Usa el mismo puente de eventos de Camunda Spring Boot que {@link DashboardCountersListener}.
+ */
+@Component
+@RequiredArgsConstructor
+public class KpiRollupListener {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+    static final String END_EVENT = "EndEvent_ProcessComplete";
+    static final Set<String> APPROVAL_TASKS = Set.of(
+        "UserTask_SupervisorApproval", "UserTask_ManagerApproval", "UserTask_CeoApproval");
+
+    private final KpiRollupService kpiRollupService;
+    private final HistoryService historyService;
+
+    @EventListener
+    public void onTaskEvent(DelegateTask task) {
+        if (!TaskListener.EVENTNAME_COMPLETE.equals(task.getEventName())
+                || !APPROVAL_TASKS.contains(task.getTaskDefinitionKey())
+                || !isPurchaseProcess(task.getProcessDefinitionId())
+                || task.getCreateTime() == null) {
+            return;
+        }
+
+        long taskMillis = ClockUtil.getCurrentTime().getTime() - task.getCreateTime().getTime();
+        DelegateExecution execution = task.getExecution();
+        Long previous = asLong(execution.getVariable(KpiRollupService.APPROVAL_TIME_VARIABLE));
+        execution.getProcessInstance().setVariable(KpiRollupService.APPROVAL_TIME_VARIABLE,
+            Math.max(0, taskMillis) + (previous != null ? previous : 0L));
+    }
+
+    @EventListener
+    public void onExecutionEvent(DelegateExecution execution) {
+        if (!ExecutionListener.EVENTNAME_END.equals(execution.getEventName())
+                || !END_EVENT.equals(execution.getCurrentActivityId())
+                || !isPurchaseProcess(execution.getProcessDefinitionId())) {
+            return;
+        }
+
+        Date now = ClockUtil.getCurrentTime();
+        kpiRollupService.recordCompletion(new KpiRollupService.Completion(
+            LocalDateTime.ofInstant(now.toInstant(), ZoneId.systemDefault()),
+            asString(execution.getVariable("category")),
+            asString(execution.getVariable("department")),
+            asString(execution.getVariable("approvalRoute")),
+            FinalStatus.parse(execution.getVariable(FinalStatusResolver.VARIABLE_NAME)),
+            baseAmount(execution),
+            processingTime(execution.getProcessInstanceId(), now),
+            asLong(execution.getVariable(KpiRollupService.APPROVAL_TIME_VARIABLE))
+        ));
+    }
+
+    private static boolean isPurchaseProcess(String processDefinitionId) {
+        return processDefinitionId != null && processDefinitionId.startsWith(PROCESS_KEY + ":");
+    }
+
+    // La fila histórica de la instancia se escribió al arrancar; sin historial no hay inicio conocido
+    private Long processingTime(String processInstanceId, Date now) {
+        HistoricProcessInstance instance = historyService.createHistoricProcessInstanceQuery()
+            .processInstanceId(processInstanceId)
+            .singleResult();
+        return instance != null && instance.getStartTime() != null
+            ? now.getTime() - instance.getStartTime().getTime()
+            : null;
+    }
+
+    private static BigDecimal baseAmount(DelegateExecution execution) {
+        Object normalized = execution.getVariable("normalizedAmount");
+        Object value = normalized != null ? normalized : execution.getVariable("totalAmount");
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
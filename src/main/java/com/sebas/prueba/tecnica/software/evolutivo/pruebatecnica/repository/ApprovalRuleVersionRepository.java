@@ -0,0 +1,18 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.ApprovalRuleVersion;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApprovalRuleVersionRepository extends JpaRepository<ApprovalRuleVersion, Long> {
+
+    Optional<ApprovalRuleVersion> findTopByOrderByVersionDesc();
+
+    List<ApprovalRuleVersion> findAllByOrderByVersionDesc(Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage.OutboxStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Reclama un lote de correos vencidos; SKIP LOCKED (-2) evita que dos nodos tomen las mismas filas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status = 'PENDING' AND m.nextAttemptAt <= :now ORDER BY m.id ASC")
+    List<EmailOutboxMessage> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,46 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface KpiRollupRepository extends JpaRepository<KpiRollup, Long> {
+
+    // Filas de las franjas indicadas (para sumar los deltas pendientes)
+    List<KpiRollup> findByGranularityAndBucketStartIn(Granularity granularity, Collection<LocalDateTime> bucketStarts);
+
+    // Filas del rango [from, to) con filtros opcionales, en orden de franja
+    @Query("SELECT r FROM KpiRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:category IS NULL OR r.category = :category) " +
+           "AND (:department IS NULL OR r.department = :department) " +
+           "AND (:route IS NULL OR r.approvalRoute = :route) " +
+           "ORDER BY r.bucketStart ASC")
+    List<KpiRollup> findSeries(@Param("granularity") Granularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("category") String category,
+                               @Param("department") String department,
+                               @Param("route") String route);
+
+    // Promedio global de procesamiento: [suma de ms, instancias con tiempo]
+    @Query("SELECT SUM(r.processingTimeSumMillis), SUM(r.processingTimeCount) FROM KpiRollup r " +
+           "WHERE r.granularity = :granularity")
+    List<Object[]> sumProcessingTime(@Param("granularity") Granularity granularity);
+
+    @Modifying
+    @Query("DELETE FROM KpiRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    long countByGranularity(Granularity granularity);
+}
@@ -1,24 +1,54 @@
 package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest, Long> {
     
+    // Monto en moneda base; las filas anteriores a la normalización caen a totalAmount
+    String BASE_AMOUNT = "COALESCE(p.normalizedAmount, p.totalAmount)";
+    
+    // minAmount/maxAmount en moneda base, para que el filtro compare solicitudes de distintas monedas
+    String FILTERS =
+        "(:status IS NULL OR p.status = :status) AND " +
+        "(:department IS NULL OR p.department = :department) AND " +
+        "(:category IS NULL OR p.category = :category) AND " +
+        "(:minAmount IS NULL OR " + BASE_AMOUNT + " >= :minAmount) AND " +
+        "(:maxAmount IS NULL OR " + BASE_AMOUNT + " <= :maxAmount)";
+    
+    // Columnas de la proyección PurchaseRequestSummary (alias = nombre de propiedad)
+    String SUMMARY_COLUMNS =
+        "p.id AS id, p.businessKey AS businessKey, p.requesterName AS requesterName, " +
+        "p.department AS department, p.description AS description, p.totalAmount AS totalAmount, " +
+        BASE_AMOUNT + " AS normalizedAmount, " +
+        "p.currency AS currency, p.category AS category, p.priority AS priority, p.status AS status, " +
+        "p.approvedBy AS approvedBy, p.createdAt AS createdAt, p.dueDate AS dueDate";
+    
     // Búsquedas básicas
     Optional<PurchaseRequest> findByProcessInstanceId(String processInstanceId);
+    List<PurchaseRequest> findByProcessInstanceIdIn(Collection<String> processInstanceIds);
     Optional<PurchaseRequest> findByBusinessKey(String businessKey);
     List<PurchaseRequest> findByRequesterEmail(String requesterEmail);
     List<PurchaseRequest> findByStatus(RequestStatus status);
@@ -39,11 +69,18 @@ public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest
     @Query("SELECT p FROM PurchaseRequest p WHERE p.dueDate < :currentDate AND p.status = 'PENDING'")
     List<PurchaseRequest> findOverdueRequests(@Param("currentDate") LocalDateTime currentDate);
     
+    @Query("SELECT COUNT(p) FROM PurchaseRequest p WHERE p.dueDate < :currentDate AND p.status = 'PENDING'")
+    long countOverdueRequests(@Param("currentDate") LocalDateTime currentDate);
+    
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM PurchaseRequest p " +
+           "WHERE p.dueDate < :currentDate AND p.status = 'PENDING' ORDER BY p.dueDate ASC")
+    List<PurchaseRequestSummary> findOverdueSummaries(@Param("currentDate") LocalDateTime currentDate);
+    
     // Métricas para dashboard
     @Query("SELECT AVG(p.processingTimeHours) FROM PurchaseRequest p WHERE p.processingTimeHours IS NOT NULL")
     Double getAverageProcessingTime();
     
-    @Query("SELECT SUM(p.totalAmount) FROM PurchaseRequest p WHERE p.status = 'APPROVED'")
+    @Query("SELECT SUM(" + BASE_AMOUNT + ") FROM PurchaseRequest p WHERE p.status = 'APPROVED'")
     BigDecimal getTotalApprovedAmount();
     
     @Query("SELECT p.category, COUNT(p) FROM PurchaseRequest p GROUP BY p.category")
@@ -51,5 +88,66 @@ public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest
     
     @Query("SELECT p.department, COUNT(p) FROM PurchaseRequest p GROUP BY p.department")
     List<Object[]> getRequestsByDepartment();
-}
+    
+    // Agregación de una sola pasada: [category, department, count, sum(monto base)]
+    @Query("SELECT p.category, p.department, COUNT(p), SUM(" + BASE_AMOUNT + ") FROM PurchaseRequest p " +
+           "GROUP BY p.category, p.department")
+    List<Object[]> aggregateByCategoryAndDepartment();
+    
+    // Conteo y monto por estado: [status, count, sum(monto base)]
+    @Query("SELECT p.status, COUNT(p), SUM(" + BASE_AMOUNT + ") FROM PurchaseRequest p GROUP BY p.status")
+    List<Object[]> aggregateByStatus();
+    
+    // Suma del monto base de las instancias indicadas (un lote del IN, ver FinalStatusResolver.chunks)
+    @Query("SELECT SUM(" + BASE_AMOUNT + ") FROM PurchaseRequest p WHERE p.processInstanceId IN :processInstanceIds")
+    BigDecimal sumAmountByProcessInstanceIdIn(@Param("processInstanceIds") Collection<String> processInstanceIds);
+    
+    // Paginación por keyset ordenada por (createdAt, id); afterCreatedAt null = primera página
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM PurchaseRequest p WHERE " + FILTERS + " AND " +
+           "(:afterCreatedAt IS NULL OR p.createdAt > :afterCreatedAt " +
+           " OR (p.createdAt = :afterCreatedAt AND p.id > :afterId)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<PurchaseRequestSummary> findPageAfter(@Param("status") RequestStatus status,
+                                               @Param("department") String department,
+                                               @Param("category") PurchaseCategory category,
+                                               @Param("minAmount") BigDecimal minAmount,
+                                               @Param("maxAmount") BigDecimal maxAmount,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    // Recorrido completo en streaming (usar dentro de una transacción de solo lectura)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p FROM PurchaseRequest p WHERE " + FILTERS + " ORDER BY p.createdAt ASC, p.id ASC")
+    Stream<PurchaseRequest> streamFiltered(@Param("status") RequestStatus status,
+                                           @Param("department") String department,
+                                           @Param("category") PurchaseCategory category,
+                                           @Param("minAmount") BigDecimal minAmount,
+                                           @Param("maxAmount") BigDecimal maxAmount);
+    
+    // Muestras para simulación de rutas: [monto base, category, priority], sin materializar entidades
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "2000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT " + BASE_AMOUNT + ", p.category, p.priority FROM PurchaseRequest p WHERE " +
+           "(:from IS NULL OR p.createdAt >= :from) AND (:to IS NULL OR p.createdAt < :to)")
+    Stream<Object[]> streamRoutingSamples(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+    
+    // Solicitudes más recientes para el dashboard (proyección cerrada: solo columnas de la vista)
+    List<PurchaseRequestSummary> findTop10ByOrderByCreatedAtDescIdDesc();
 
+    // Altas asíncronas aceptadas (202) que siguen sin instancia de proceso
+    @Query("SELECT p.id FROM PurchaseRequest p WHERE p.processInstanceId IS NULL AND p.status = 'PENDING' " +
+           "AND p.createdAt < :before ORDER BY p.createdAt ASC, p.id ASC")
+    List<Long> findQueuedIdsCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Bloquea la fila: dos arranques de la misma solicitud encolada (reintento del barrido) se serializan
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PurchaseRequest p WHERE p.id = :id")
+    Optional<PurchaseRequest> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,502 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRouteResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.model.dmn.Dmn;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.camunda.bpm.model.dmn.HitPolicy;
+import org.camunda.bpm.model.dmn.instance.Decision;
+import org.camunda.bpm.model.dmn.instance.DecisionTable;
+import org.camunda.bpm.model.dmn.instance.Input;
+import org.camunda.bpm.model.dmn.instance.InputEntry;
+import org.camunda.bpm.model.dmn.instance.OutputEntry;
+import org.camunda.bpm.model.dmn.instance.Rule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * ⚡ Evaluador compilado de la tabla DMN {@code purchase-approval-rules}
+ *
+ * Toma el fichero DMN como plantilla, le aplica los umbrales de la versión vigente
+ * de {@link ApprovalRuleConfig} y compila la tabla a un índice de intervalos sobre
+ * el monto (en centavos, {@code long}) por cada combinación categoría × prioridad.
+ * Evaluar es una búsqueda binaria sobre un array y devuelve el resultado inmutable
+ * compartido de la regla que aplica, con la misma semántica FIRST que el motor DMN.
+ * La misma plantilla con los mismos umbrales es la que se despliega en Camunda.
+ */
+@Component
+@Slf4j
+public class ApprovalRuleEvaluator {
+
+    public static final String DECISION_KEY = "purchase-approval-rules";
+
+    static final String AMOUNT_INPUT = "totalAmount";
+    static final String CATEGORY_INPUT = "category";
+    static final String PRIORITY_INPUT = "priority";
+
+    // Sin regla aplicable el DMN devuelve null; el proceso lo trata como supervisor
+    static final ApprovalRouteResult DEFAULT_RESULT = new ApprovalRouteResult(
+        null, ApprovalRoute.SUPERVISOR, "Regla por defecto - Aprobación Supervisor", false, false, false, false);
+
+    private static final PurchaseCategory[] CATEGORIES = PurchaseCategory.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Un hueco extra por dimensión para valores nulos o desconocidos
+    private static final int PRIORITY_SLOTS = PRIORITIES.length + 1;
+
+    private static final Pattern RANGE = Pattern.compile("^([\\[\\]\\(])\\s*(-?[\\d.]+)\\s*\\.\\.\\s*(-?[\\d.]+)\\s*([\\[\\]\\)])$");
+    private static final Pattern COMPARISON = Pattern.compile("^(<=|>=|<|>)\\s*(-?[\\d.]+)$");
+    private static final Pattern NUMBER = Pattern.compile("^-?[\\d.]+$");
+
+    // Umbrales configurables por regla de la plantilla: prueba unaria sobre el monto
+    private static final Map<String, Function<ApprovalRuleConfig, String>> AMOUNT_TESTS = Map.of(
+        "DecisionRule_1nc9l34", c -> "<= " + number(c.getAutoApprovalLimit()),
+        "DecisionRule_1bjylke", c -> openRange(c.getAutoApprovalLimit(), c.getOfficeSuppliesAutoLimit()),
+        "DecisionRule_025c8qw", c -> openRange(c.getOfficeSuppliesAutoLimit(), c.getOfficeSupervisorLimit()),
+        "DecisionRule_03pga1m", c -> openRange(c.getSupervisorLimit(), c.getManagerLimit()),
+        "DecisionRule_1u4s6r0", c -> "> " + number(c.getManagerLimit()),
+        "DecisionRule_0hp80le", c -> "> " + number(c.getStrategicCeoLimit())
+    );
+
+    private final byte[] template;
+    private volatile RuleSnapshot snapshot;
+
+    public ApprovalRuleEvaluator(
+            @Value("${app.rules.approval-dmn:classpath:processes/purchase-approval-rules.dmn}") Resource dmnResource,
+            ApprovalRuleProperties defaults) throws IOException {
+        try (InputStream in = dmnResource.getInputStream()) {
+            this.template = in.readAllBytes();
+        }
+        RuleSnapshot initial = snapshotOf(defaults.toConfig());
+        publish(initial.configuration, initial.table);
+    }
+
+    /**
+     * Versión vigente (umbrales + tabla compilada). Leerla una vez por evaluación
+     * garantiza que todos los umbrales usados son de la misma versión.
+     */
+    public RuleSnapshot current() {
+        return snapshot;
+    }
+
+    public ApprovalRouteResult evaluate(BigDecimal amount, PurchaseCategory category, Priority priority) {
+        return snapshot.evaluate(amount, category, priority);
+    }
+
+    /**
+     * Variante para variables de proceso (texto); valores desconocidos solo casan con "-".
+     */
+    public ApprovalRouteResult evaluate(BigDecimal amount, String category, String priority) {
+        return snapshot.evaluate(amount, category, priority);
+    }
+
+    /**
+     * Resultados de cada regla, en el orden de la tabla.
+     */
+    public List<ApprovalRouteResult> getRuleResults() {
+        return snapshot.table.rules.stream().map(CompiledRule::result).toList();
+    }
+
+    /**
+     * Compila {@code config} sin publicarla (simulaciones y comparativas).
+     */
+    public RuleSnapshot snapshotOf(ApprovalRuleConfig config) {
+        return new RuleSnapshot(config, compile(buildModel(config)));
+    }
+
+    /**
+     * Plantilla DMN con los umbrales de {@code config}; es lo que se despliega en Camunda.
+     */
+    public DmnModelInstance buildModel(ApprovalRuleConfig config) {
+        DmnModelInstance model = Dmn.readModelFromStream(new ByteArrayInputStream(template));
+        DecisionTable decisionTable = decisionTable(model);
+        int amountIndex = requireInput(inputNames(decisionTable), AMOUNT_INPUT);
+
+        AMOUNT_TESTS.forEach((ruleId, test) -> {
+            if (!(model.getModelElementById(ruleId) instanceof Rule rule)) {
+                throw new IllegalStateException("La plantilla DMN no contiene la regla " + ruleId);
+            }
+            InputEntry entry = new ArrayList<>(rule.getInputEntries()).get(amountIndex);
+            entry.getText().setTextContent(test.apply(config));
+        });
+        return model;
+    }
+
+    /**
+     * Publica una versión ya compilada con una sola escritura volátil.
+     */
+    void publish(ApprovalRuleConfig config, CompiledTable table) {
+        this.snapshot = new RuleSnapshot(config, table);
+        log.info("⚡ Reglas de aprobación v{} activas: {} reglas en la tabla {}",
+            config.getVersion(), table.rules.size(), DECISION_KEY);
+    }
+
+    private static String number(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static String openRange(BigDecimal from, BigDecimal to) {
+        return "(" + number(from) + ".." + number(to) + "]";
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValue();
+    }
+
+    private static int slot(int categorySlot, int prioritySlot) {
+        return categorySlot * PRIORITY_SLOTS + prioritySlot;
+    }
+
+    static int slot(PurchaseCategory category, Priority priority) {
+        return slot(category != null ? category.ordinal() : CATEGORIES.length,
+                    priority != null ? priority.ordinal() : PRIORITIES.length);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ================================================================
+    // COMPILACIÓN
+    // ================================================================
+
+    static CompiledTable compile(DmnModelInstance model) {
+        DecisionTable decisionTable = decisionTable(model);
+        HitPolicy hitPolicy = decisionTable.getHitPolicy();
+        if (hitPolicy != HitPolicy.FIRST && hitPolicy != HitPolicy.UNIQUE) {
+            throw new IllegalStateException("Política de aciertos no soportada: " + hitPolicy);
+        }
+
+        List<String> inputs = inputNames(decisionTable);
+        int amountIndex = requireInput(inputs, AMOUNT_INPUT);
+        int categoryIndex = requireInput(inputs, CATEGORY_INPUT);
+        int priorityIndex = requireInput(inputs, PRIORITY_INPUT);
+
+        List<CompiledRule> rules = new ArrayList<>();
+        for (Rule rule : decisionTable.getRules()) {
+            List<String> entries = rule.getInputEntries().stream().map(ApprovalRuleEvaluator::text).toList();
+            List<String> outputs = rule.getOutputEntries().stream().map(ApprovalRuleEvaluator::text).toList();
+            if (outputs.size() != 1) {
+                throw new IllegalStateException("La regla " + rule.getId() + " debe tener una única salida");
+            }
+
+            String amountTest = entries.get(amountIndex);
+            long[] interval = parseAmount(amountTest, rule.getId());
+            Set<String> categories = parseStrings(entries.get(categoryIndex), rule.getId());
+            Set<String> priorities = parseStrings(entries.get(priorityIndex), rule.getId());
+            ApprovalRoute route = ApprovalRoute.valueOf(unquote(outputs.get(0), rule.getId()));
+            String description = rule.getDescription() != null ? rule.getDescription().getTextContent() : null;
+
+            rules.add(new CompiledRule(interval[0], interval[1], categories, priorities,
+                buildResult(rule.getId(), route, amountTest, categories, priorities, description)));
+        }
+
+        return new CompiledTable(rules);
+    }
+
+    private static DecisionTable decisionTable(DmnModelInstance model) {
+        if (!(model.getModelElementById(DECISION_KEY) instanceof Decision decision)
+            || !(decision.getExpression() instanceof DecisionTable decisionTable)) {
+            throw new IllegalStateException("El DMN no contiene la tabla de decisión " + DECISION_KEY);
+        }
+        return decisionTable;
+    }
+
+    private static List<String> inputNames(DecisionTable decisionTable) {
+        return decisionTable.getInputs().stream()
+            .map(ApprovalRuleEvaluator::inputName)
+            .toList();
+    }
+
+    private static String inputName(Input input) {
+        return input.getInputExpression() != null && input.getInputExpression().getText() != null
+            ? input.getInputExpression().getText().getTextContent().trim()
+            : "";
+    }
+
+    private static int requireInput(List<String> inputs, String name) {
+        int index = inputs.indexOf(name);
+        if (index < 0) {
+            throw new IllegalStateException("La tabla " + DECISION_KEY + " no tiene la entrada " + name);
+        }
+        return index;
+    }
+
+    private static String text(InputEntry entry) {
+        return entry.getText() != null ? entry.getText().getTextContent().trim() : "";
+    }
+
+    private static String text(OutputEntry entry) {
+        return entry.getText() != null ? entry.getText().getTextContent().trim() : "";
+    }
+
+    /**
+     * Traduce una prueba unaria numérica a un intervalo cerrado [desde, hasta] en centavos.
+     */
+    static long[] parseAmount(String test, String ruleId) {
+        if (test.isEmpty() || "-".equals(test)) {
+            return new long[] {Long.MIN_VALUE, Long.MAX_VALUE};
+        }
+        Matcher range = RANGE.matcher(test);
+        if (range.matches()) {
+            long from = cents(range.group(2), ruleId);
+            long to = cents(range.group(3), ruleId);
+            return new long[] {
+                "[".equals(range.group(1)) ? from : from + 1,
+                "]".equals(range.group(4)) ? to : to - 1
+            };
+        }
+        Matcher comparison = COMPARISON.matcher(test);
+        if (comparison.matches()) {
+            long value = cents(comparison.group(2), ruleId);
+            return switch (comparison.group(1)) {
+                case "<=" -> new long[] {Long.MIN_VALUE, value};
+                case "<" -> new long[] {Long.MIN_VALUE, value - 1};
+                case ">=" -> new long[] {value, Long.MAX_VALUE};
+                default -> new long[] {value + 1, Long.MAX_VALUE};
+            };
+        }
+        if (NUMBER.matcher(test).matches()) {
+            long value = cents(test, ruleId);
+            return new long[] {value, value};
+        }
+        throw new IllegalStateException("Expresión de monto no soportada en la regla " + ruleId + ": " + test);
+    }
+
+    private static long cents(String number, String ruleId) {
+        try {
+            return new BigDecimal(number).movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalStateException("Límite de monto inválido en la regla " + ruleId + ": " + number, e);
+        }
+    }
+
+    /**
+     * Lista de literales {@code "A","B"}; null significa "cualquier valor".
+     */
+    private static Set<String> parseStrings(String test, String ruleId) {
+        if (test.isEmpty() || "-".equals(test)) {
+            return null;
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (String value : test.split(",")) {
+            values.add(unquote(value.trim(), ruleId));
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    private static String unquote(String value, String ruleId) {
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new IllegalStateException("Literal no soportado en la regla " + ruleId + ": " + value);
+        }
+        return value.substring(1, value.length() - 1);
+    }
+
+    private static ApprovalRouteResult buildResult(String ruleId, ApprovalRoute route, String amountTest,
+                                                   Set<String> categories, Set<String> priorities,
+                                                   String description) {
+        boolean strategic = categories != null
+            && Set.of(PurchaseCategory.STRATEGIC.name(), PurchaseCategory.CONSULTING.name()).containsAll(categories);
+        boolean urgent = priorities != null
+            && Set.of(Priority.HIGH.name(), Priority.URGENT.name()).containsAll(priorities);
+
+        String reason = description;
+        if (reason == null || reason.isBlank()) {
+            List<String> conditions = new ArrayList<>();
+            if (!amountTest.isEmpty() && !"-".equals(amountTest)) {
+                conditions.add("Monto " + describeAmount(amountTest));
+            }
+            if (categories != null) {
+                conditions.add(categories.stream().map(ApprovalRuleEvaluator::categoryName).collect(Collectors.joining("/")));
+            }
+            if (priorities != null) {
+                conditions.add("Prioridad " + String.join("/", priorities));
+            }
+            reason = (conditions.isEmpty() ? "Regla por defecto" : String.join(" · ", conditions))
+                + " - Aprobación " + route.getDisplayName();
+        }
+
+        return new ApprovalRouteResult(ruleId, route, reason,
+            route == ApprovalRoute.AUTO, urgent, route == ApprovalRoute.CEO && !strategic, strategic);
+    }
+
+    private static String describeAmount(String test) {
+        Matcher range = RANGE.matcher(test);
+        if (range.matches()) {
+            return "entre $" + range.group(2) + " y $" + range.group(3);
+        }
+        Matcher comparison = COMPARISON.matcher(test);
+        if (comparison.matches()) {
+            String operator = switch (comparison.group(1)) {
+                case "<=" -> "≤";
+                case ">=" -> "≥";
+                default -> comparison.group(1);
+            };
+            return operator + " $" + comparison.group(2);
+        }
+        return "= $" + test;
+    }
+
+    private static String categoryName(String category) {
+        PurchaseCategory value = parse(PurchaseCategory.class, category);
+        return value != null ? value.getDisplayName() : category;
+    }
+
+    // ================================================================
+    // ÍNDICE COMPILADO
+    // ================================================================
+
+    /**
+     * Umbrales y tabla compilada de una misma versión, publicados juntos.
+     */
+    public static final class RuleSnapshot {
+
+        private final ApprovalRuleConfig configuration;
+        private final CompiledTable table;
+
+        RuleSnapshot(ApprovalRuleConfig configuration, CompiledTable table) {
+            this.configuration = configuration;
+            this.table = table;
+        }
+
+        public ApprovalRuleConfig configuration() {
+            return configuration;
+        }
+
+        public ApprovalRouteResult evaluate(BigDecimal amount, PurchaseCategory category, Priority priority) {
+            if (amount == null) {
+                return table.nullAmountResults[slot(category, priority)];
+            }
+            return evaluateCents(toCents(amount), category, priority);
+        }
+
+        /**
+         * Camino sin {@link BigDecimal} para recorridos masivos: monto ya en centavos.
+         */
+        ApprovalRouteResult evaluateCents(long cents, PurchaseCategory category, Priority priority) {
+            int slot = slot(category, priority);
+            return table.results[slot][table.interval(slot, cents)];
+        }
+
+        public ApprovalRouteResult evaluate(BigDecimal amount, String category, String priority) {
+            return evaluate(amount, parse(PurchaseCategory.class, category), parse(Priority.class, priority));
+        }
+    }
+
+    record CompiledRule(long from, long to, Set<String> categories, Set<String> priorities,
+                        ApprovalRouteResult result) {
+
+        boolean matches(String category, String priority) {
+            return (categories == null || (category != null && categories.contains(category)))
+                && (priorities == null || (priority != null && priorities.contains(priority)));
+        }
+    }
+
+    /**
+     * Por cada hueco categoría × prioridad: inicios de intervalo ordenados y el
+     * resultado de la primera regla que aplica en cada intervalo.
+     */
+    static final class CompiledTable {
+
+        final List<CompiledRule> rules;
+        final long[][] starts;
+        final ApprovalRouteResult[][] results;
+        final ApprovalRouteResult[] nullAmountResults;
+
+        CompiledTable(List<CompiledRule> rules) {
+            this.rules = List.copyOf(rules);
+            int slots = (CATEGORIES.length + 1) * PRIORITY_SLOTS;
+            this.starts = new long[slots][];
+            this.results = new ApprovalRouteResult[slots][];
+            this.nullAmountResults = new ApprovalRouteResult[slots];
+
+            for (int c = 0; c <= CATEGORIES.length; c++) {
+                String category = c < CATEGORIES.length ? CATEGORIES[c].name() : null;
+                for (int p = 0; p < PRIORITY_SLOTS; p++) {
+                    String priority = p < PRIORITIES.length ? PRIORITIES[p].name() : null;
+                    index(slot(c, p), rules.stream().filter(r -> r.matches(category, priority)).toList());
+                }
+            }
+        }
+
+        /**
+         * Intervalo del hueco {@code slot} que contiene {@code cents}: dentro de un mismo
+         * intervalo todas las cantidades obtienen el mismo resultado.
+         */
+        int interval(int slot, long cents) {
+            int index = Arrays.binarySearch(starts[slot], cents);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        /**
+         * Mismas reglas (intervalos, categorías, prioridades y resultados) que {@code other}.
+         */
+        boolean sameRulesAs(CompiledTable other) {
+            return rules.equals(other.rules);
+        }
+
+        private void index(int slot, List<CompiledRule> applicable) {
+            // Puntos donde puede cambiar la regla ganadora
+            TreeSet<Long> boundaries = new TreeSet<>();
+            boundaries.add(Long.MIN_VALUE);
+            for (CompiledRule rule : applicable) {
+                boundaries.add(rule.from());
+                if (rule.to() != Long.MAX_VALUE) {
+                    boundaries.add(rule.to() + 1);
+                }
+            }
+
+            long[] slotStarts = boundaries.stream().mapToLong(Long::longValue).toArray();
+            ApprovalRouteResult[] slotResults = new ApprovalRouteResult[slotStarts.length];
+            for (int i = 0; i < slotStarts.length; i++) {
+                long cents = slotStarts[i];
+                slotResults[i] = applicable.stream()
+                    .filter(r -> r.from() <= cents && cents <= r.to())
+                    .map(CompiledRule::result)
+                    .findFirst()
+                    .orElse(DEFAULT_RESULT);
+            }
+
+            starts[slot] = slotStarts;
+            results[slot] = slotResults;
+            // Con monto nulo solo aplican reglas sin condición de monto ("-")
+            nullAmountResults[slot] = applicable.stream()
+                .filter(r -> r.from() == Long.MIN_VALUE && r.to() == Long.MAX_VALUE)
+                .map(CompiledRule::result)
+                .findFirst()
+                .orElse(DEFAULT_RESULT);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleUpdateDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.ApprovalRuleVersion;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.ApprovalRuleVersionRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleEvaluator.CompiledTable;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * ⚖️ Almacén versionado de umbrales de aprobación
+ *
+ * Cada cambio crea una versión nueva: se compila la tabla, se guarda la fila y,
+ * si las reglas difieren de la última decisión desplegada, se despliega el DMN
+ * con los nuevos umbrales. Solo después se publica en {@link ApprovalRuleEvaluator}
+ * con un único intercambio volátil, así las evaluaciones en curso terminan con la
+ * versión anterior y las siguientes ven la nueva sin bloqueos.
+ *
+ * La versión se inserta sin comprobar antes si existe: si otro nodo publicó el mismo
+ * número, la clave primaria rechaza la fila y este nodo no activa nada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApprovalRuleStore {
+
+    private final ApprovalRuleEvaluator evaluator;
+    private final ApprovalRuleVersionRepository versionRepository;
+    private final RepositoryService repositoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final DmnEvaluationService dmnEvaluationService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void activateOnStartup() {
+        ApprovalRuleConfig stored = versionRepository.findTopByOrderByVersionDesc()
+            .map(ApprovalRuleVersion::toConfig)
+            .orElse(null);
+        if (stored != null) {
+            log.info("⚖️ Activando reglas de aprobación v{}", stored.getVersion());
+            publish(stored, false);
+            return;
+        }
+
+        ApprovalRuleConfig defaults = current();
+        log.info("⚖️ Activando reglas de aprobación v{} (configuración por defecto)", defaults.getVersion());
+        try {
+            publish(defaults, true);
+        } catch (IllegalStateException e) {
+            // Otro nodo arrancó a la vez y guardó primero la versión inicial
+            ApprovalRuleConfig winner = versionRepository.findTopByOrderByVersionDesc()
+                .map(ApprovalRuleVersion::toConfig)
+                .orElseThrow(() -> e);
+            publish(winner, false);
+        }
+    }
+
+    /**
+     * Recoge versiones publicadas por otros nodos que comparten la base de datos.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.rules.refresh-interval-ms:60000}",
+        initialDelayString = "${app.rules.refresh-interval-ms:60000}"
+    )
+    public synchronized void refreshFromDatabase() {
+        versionRepository.findTopByOrderByVersionDesc()
+            .filter(latest -> latest.getVersion() > current().getVersion())
+            .ifPresent(latest -> {
+                ApprovalRuleConfig config = latest.toConfig();
+                evaluator.publish(config, ApprovalRuleEvaluator.compile(evaluator.buildModel(config)));
+            });
+    }
+
+    public ApprovalRuleConfig current() {
+        return evaluator.current().configuration();
+    }
+
+    public List<ApprovalRuleConfig> history(int limit) {
+        return versionRepository.findAllByOrderByVersionDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 100))))
+            .stream()
+            .map(ApprovalRuleVersion::toConfig)
+            .toList();
+    }
+
+    /**
+     * Publica una versión nueva con los campos informados en {@code update}.
+     *
+     * @throws IllegalStateException si {@code expectedVersion} no es la vigente
+     *         o si otro nodo publicó antes la misma versión
+     * @throws IllegalArgumentException si los umbrales resultantes no son coherentes
+     */
+    public synchronized ApprovalRuleConfig update(ApprovalRuleUpdateDto update) {
+        ApprovalRuleConfig base = current();
+        if (update.getExpectedVersion() != null && update.getExpectedVersion() != base.getVersion()) {
+            throw new IllegalStateException("La versión vigente es la " + base.getVersion()
+                + ", no la " + update.getExpectedVersion());
+        }
+
+        ApprovalRuleConfig next = applyUpdate(base, update);
+        validate(next);
+        return publishNewVersion(next);
+    }
+
+    /**
+     * Umbrales que resultarían de aplicar {@code update} a la versión vigente, sin publicarlos.
+     *
+     * @throws IllegalArgumentException si los umbrales resultantes no son coherentes
+     */
+    public ApprovalRuleConfig preview(ApprovalRuleUpdateDto update) {
+        ApprovalRuleConfig candidate = applyUpdate(current(), update);
+        validate(candidate);
+        return candidate;
+    }
+
+    private static ApprovalRuleConfig applyUpdate(ApprovalRuleConfig base, ApprovalRuleUpdateDto update) {
+        return base.toBuilder()
+            .version(base.getVersion() + 1)
+            .updatedAt(LocalDateTime.now())
+            .updatedBy(update.getUpdatedBy() != null ? update.getUpdatedBy() : "admin")
+            .comment(update.getComment())
+            .minAmount(merge(update.getMinAmount(), base.getMinAmount()))
+            .maxAmount(merge(update.getMaxAmount(), base.getMaxAmount()))
+            .autoApprovalLimit(merge(update.getAutoApprovalLimit(), base.getAutoApprovalLimit()))
+            .officeSuppliesAutoLimit(merge(update.getOfficeSuppliesAutoLimit(), base.getOfficeSuppliesAutoLimit()))
+            .officeSupervisorLimit(merge(update.getOfficeSupervisorLimit(), base.getOfficeSupervisorLimit()))
+            .supervisorLimit(merge(update.getSupervisorLimit(), base.getSupervisorLimit()))
+            .managerLimit(merge(update.getManagerLimit(), base.getManagerLimit()))
+            .strategicCeoLimit(merge(update.getStrategicCeoLimit(), base.getStrategicCeoLimit()))
+            .highValueLimit(merge(update.getHighValueLimit(), base.getHighValueLimit()))
+            .specialAttentionLimit(merge(update.getSpecialAttentionLimit(), base.getSpecialAttentionLimit()))
+            .urgentJustificationLimit(merge(update.getUrgentJustificationLimit(), base.getUrgentJustificationLimit()))
+            .officeSuppliesReviewLimit(merge(update.getOfficeSuppliesReviewLimit(), base.getOfficeSuppliesReviewLimit()))
+            .build();
+    }
+
+    /**
+     * Vuelve a los umbrales de una versión anterior publicándolos como versión nueva.
+     */
+    public synchronized ApprovalRuleConfig activate(long version, String updatedBy) {
+        ApprovalRuleConfig target = versionRepository.findById(version)
+            .map(ApprovalRuleVersion::toConfig)
+            .orElseThrow(() -> new IllegalArgumentException("No existe la versión " + version + " de las reglas"));
+
+        return publishNewVersion(target.toBuilder()
+            .version(current().getVersion() + 1)
+            .updatedAt(LocalDateTime.now())
+            .updatedBy(updatedBy != null ? updatedBy : "admin")
+            .comment("Reactivación de la versión " + version)
+            .build());
+    }
+
+    static void validate(ApprovalRuleConfig config) {
+        List<Function<ApprovalRuleConfig, BigDecimal>> limits = List.of(
+            ApprovalRuleConfig::getMinAmount, ApprovalRuleConfig::getMaxAmount,
+            ApprovalRuleConfig::getAutoApprovalLimit, ApprovalRuleConfig::getOfficeSuppliesAutoLimit,
+            ApprovalRuleConfig::getOfficeSupervisorLimit, ApprovalRuleConfig::getSupervisorLimit,
+            ApprovalRuleConfig::getManagerLimit, ApprovalRuleConfig::getStrategicCeoLimit,
+            ApprovalRuleConfig::getHighValueLimit, ApprovalRuleConfig::getSpecialAttentionLimit,
+            ApprovalRuleConfig::getUrgentJustificationLimit, ApprovalRuleConfig::getOfficeSuppliesReviewLimit);
+        for (Function<ApprovalRuleConfig, BigDecimal> limit : limits) {
+            BigDecimal value = limit.apply(config);
+            if (value == null || value.signum() <= 0 || value.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("Todos los umbrales deben ser montos positivos con hasta 2 decimales");
+            }
+        }
+
+        requireAscending("monto mínimo < aprobación automática",
+            config.getMinAmount(), config.getAutoApprovalLimit(), true);
+        requireAscending("aprobación automática ≤ automática de suministros",
+            config.getAutoApprovalLimit(), config.getOfficeSuppliesAutoLimit(), false);
+        requireAscending("automática de suministros ≤ supervisor de suministros",
+            config.getOfficeSuppliesAutoLimit(), config.getOfficeSupervisorLimit(), false);
+        requireAscending("aprobación automática ≤ límite de supervisor",
+            config.getAutoApprovalLimit(), config.getSupervisorLimit(), false);
+        requireAscending("límite de supervisor < límite de gerente",
+            config.getSupervisorLimit(), config.getManagerLimit(), true);
+        requireAscending("límite de gerente < monto máximo",
+            config.getManagerLimit(), config.getMaxAmount(), true);
+    }
+
+    private static void requireAscending(String rule, BigDecimal lower, BigDecimal upper, boolean strict) {
+        int comparison = lower.compareTo(upper);
+        if (comparison > 0 || strict && comparison == 0) {
+            throw new IllegalArgumentException("Umbrales incoherentes: " + rule + " (" + lower + " / " + upper + ")");
+        }
+    }
+
+    private static BigDecimal merge(BigDecimal value, BigDecimal current) {
+        return value != null ? value : current;
+    }
+
+    private ApprovalRuleConfig publishNewVersion(ApprovalRuleConfig config) {
+        publish(config, true);
+        log.info("⚖️ Reglas de aprobación v{} publicadas por {}", config.getVersion(), config.getUpdatedBy());
+        return config;
+    }
+
+    /**
+     * Compila, persiste y despliega antes de publicar: si algo falla,
+     * la versión vigente sigue intacta. La tabla se activa en este nodo solo
+     * cuando {@code execute} ha confirmado la transacción.
+     *
+     * @param insert {@code false} al reactivar una versión que ya está en base de datos
+     * @throws IllegalArgumentException si los umbrales no producen una tabla válida
+     * @throws IllegalStateException si la versión ya fue publicada por otro nodo
+     */
+    private void publish(ApprovalRuleConfig config, boolean insert) {
+        DmnModelInstance model;
+        CompiledTable table;
+        try {
+            model = evaluator.buildModel(config);
+            table = ApprovalRuleEvaluator.compile(model);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Los umbrales no generan una tabla válida: " + e.getMessage(), e);
+        }
+
+        Boolean deployed;
+        try {
+            deployed = transactionTemplate.execute(status -> {
+                if (insert) {
+                    versionRepository.saveAndFlush(ApprovalRuleVersion.from(config));
+                }
+                return deployIfChanged(config, model, table);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("La versión " + config.getVersion()
+                + " de las reglas ya fue publicada por otro nodo", e);
+        }
+
+        evaluator.publish(config, table);
+        if (Boolean.TRUE.equals(deployed)) {
+            dmnEvaluationService.refreshDefinition();
+        }
+    }
+
+    private boolean deployIfChanged(ApprovalRuleConfig config, DmnModelInstance model, CompiledTable table) {
+        if (isDeployed(table)) {
+            return false;
+        }
+        repositoryService.createDeployment()
+            .name(ApprovalRuleEvaluator.DECISION_KEY + " v" + config.getVersion())
+            .addModelInstance(ApprovalRuleEvaluator.DECISION_KEY + ".dmn", model)
+            .deploy();
+        log.info("🚀 Desplegada la tabla {} con los umbrales v{}", ApprovalRuleEvaluator.DECISION_KEY, config.getVersion());
+        return true;
+    }
+
+    private boolean isDeployed(CompiledTable table) {
+        DecisionDefinition latest = repositoryService.createDecisionDefinitionQuery()
+            .decisionDefinitionKey(ApprovalRuleEvaluator.DECISION_KEY)
+            .latestVersion()
+            .singleResult();
+        if (latest == null) {
+            return false;
+        }
+        try {
+            return ApprovalRuleEvaluator.compile(repositoryService.getDmnModelInstance(latest.getId())).sameRulesAs(table);
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.AuditReportDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
+import org.camunda.bpm.engine.history.NativeHistoricActivityInstanceQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 🗄️ Exportación del reporte de auditoría
+ *
+ * Recorre las instancias históricas de {@code purchase-request-process} por páginas de
+ * {@code app.reports.audit.page-size}, ordenadas por fecha de inicio. Cada página se
+ * completa con dos consultas en bloque (solicitudes y actividades históricas) y se entrega
+ * registro a registro, así que la memoria usada depende del tamaño de página y no del
+ * rango exportado.
+ *
+ * El cursor es la fecha de inicio del último registro más el número de registros ya
+ * entregados con esa misma fecha, para no perder ni repetir instancias empatadas.
+ * No se abre una transacción: cada consulta usa su propio contexto de persistencia y
+ * las entidades de una página se liberan al pasar a la siguiente.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditExportService {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+
+    // IN (...) por página: no superar el límite de parámetros de la BD
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final List<String> CSV_COLUMNS = List.of(
+        "processInstanceId", "businessKey", "processDefinitionKey", "startTime", "endTime", "duration", "state",
+        "requesterName", "requesterEmail", "department", "description", "totalAmount", "currency", "category",
+        "priority", "approvalRoute", "approvedBy", "approvedAt", "rejectionReason", "activities");
+
+    private final HistoryService historyService;
+    private final ManagementService managementService;
+    private final PurchaseRequestRepository purchaseRequestRepository;
+
+    @Value("${app.reports.audit.page-size:500}")
+    int pageSize = 500;
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + value);
+            }
+        }
+    }
+
+    /**
+     * Entrega al consumidor las instancias iniciadas en {@code [from, to)}; ambos extremos son opcionales.
+     *
+     * @return número de registros exportados
+     */
+    public long export(Date from, Date to, Consumer<AuditReportDto> consumer) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        Date cursor = from;
+        int tiesAtCursor = 0;
+        long exported = 0;
+
+        while (true) {
+            List<HistoricProcessInstance> page = pageQuery(cursor, to).listPage(tiesAtCursor, size);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Map<String, PurchaseRequest> requests = loadRequests(page);
+            Map<String, List<AuditReportDto.ActivityDto>> activities = loadActivities(page);
+            for (HistoricProcessInstance instance : page) {
+                consumer.accept(toDto(instance, requests.get(instance.getId()), activities.get(instance.getId())));
+            }
+            exported += page.size();
+
+            Date last = page.get(page.size() - 1).getStartTime();
+            int tiesInPage = tiesAtEnd(page, last);
+            if (cursor != null && last.getTime() == cursor.getTime()) {
+                tiesAtCursor += tiesInPage;
+            } else {
+                cursor = last;
+                tiesAtCursor = tiesInPage;
+            }
+            if (page.size() < size) {
+                break;
+            }
+        }
+
+        log.info("🗄️ Reporte de auditoría exportado: {} instancias", exported);
+        return exported;
+    }
+
+    /**
+     * Cabecera CSV, en el mismo orden que {@link #toCsvRow(AuditReportDto)}.
+     */
+    public static String csvHeader() {
+        return String.join(",", CSV_COLUMNS);
+    }
+
+    /**
+     * Una fila CSV (RFC 4180). Las actividades se resumen como {@code actividad:estado} separadas por {@code |}.
+     */
+    public static String toCsvRow(AuditReportDto dto) {
+        String activities = dto.getActivities() == null ? null : dto.getActivities().stream()
+            .map(activity -> activity.getActivityId() + ":" + activity.getState())
+            .collect(Collectors.joining("|"));
+
+        StringJoiner row = new StringJoiner(",");
+        for (String value : new String[] {
+            dto.getProcessInstanceId(), dto.getBusinessKey(), dto.getProcessDefinitionKey(),
+            dto.getStartTime(), dto.getEndTime(), dto.getDuration(), dto.getState(),
+            dto.getRequesterName(), dto.getRequesterEmail(), dto.getDepartment(), dto.getDescription(),
+            dto.getTotalAmount(), dto.getCurrency(), dto.getCategory(), dto.getPriority(),
+            dto.getApprovalRoute(), dto.getApprovedBy(), dto.getApprovedAt(), dto.getRejectionReason(), activities
+        }) {
+            row.add(csvField(value));
+        }
+        return row.toString();
+    }
+
+    // ===================== MÉTODOS PRIVADOS =====================
+
+    private HistoricProcessInstanceQuery pageQuery(Date cursor, Date to) {
+        HistoricProcessInstanceQuery query = historyService.createHistoricProcessInstanceQuery()
+            .processDefinitionKey(PROCESS_KEY);
+        if (cursor != null) {
+            query.startedAfter(cursor); // >= en Camunda: los empates se saltan con el offset
+        }
+        if (to != null) {
+            query.startedBefore(new Date(to.getTime() - 1)); // <= en Camunda: límite superior exclusivo
+        }
+        return query
+            .orderByProcessInstanceStartTime().asc()
+            .orderByProcessInstanceId().asc();
+    }
+
+    private static int tiesAtEnd(List<HistoricProcessInstance> page, Date last) {
+        int ties = 0;
+        for (int i = page.size() - 1; i >= 0 && page.get(i).getStartTime().getTime() == last.getTime(); i--) {
+            ties++;
+        }
+        return ties;
+    }
+
+    private Map<String, PurchaseRequest> loadRequests(List<HistoricProcessInstance> page) {
+        List<String> ids = page.stream().map(HistoricProcessInstance::getId).toList();
+        return purchaseRequestRepository.findByProcessInstanceIdIn(ids).stream()
+            .collect(Collectors.toMap(PurchaseRequest::getProcessInstanceId, Function.identity(), (a, b) -> a));
+    }
+
+    /**
+     * Actividades de toda la página en una consulta nativa: la API de consultas de
+     * actividades históricas solo filtra por una instancia de proceso.
+     */
+    private Map<String, List<AuditReportDto.ActivityDto>> loadActivities(List<HistoricProcessInstance> page) {
+        StringJoiner in = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < page.size(); i++) {
+            in.add("#{p" + i + "}");
+        }
+        NativeHistoricActivityInstanceQuery query = historyService.createNativeHistoricActivityInstanceQuery()
+            .sql("SELECT * FROM " + managementService.getTableName(HistoricActivityInstance.class)
+                + " WHERE PROC_INST_ID_ IN " + in
+                + " ORDER BY PROC_INST_ID_, START_TIME_, SEQUENCE_COUNTER_");
+        for (int i = 0; i < page.size(); i++) {
+            query.parameter("p" + i, page.get(i).getId());
+        }
+
+        Map<String, List<AuditReportDto.ActivityDto>> activities = new HashMap<>();
+        for (HistoricActivityInstance activity : query.list()) {
+            activities.computeIfAbsent(activity.getProcessInstanceId(), id -> new ArrayList<>())
+                .add(AuditReportDto.ActivityDto.builder()
+                    .activityId(activity.getActivityId())
+                    .activityName(activity.getActivityName())
+                    .activityType(activity.getActivityType())
+                    .startTime(format(activity.getStartTime()))
+                    .endTime(format(activity.getEndTime()))
+                    .duration(format(activity.getDurationInMillis()))
+                    .assignee(activity.getAssignee())
+                    .state(activity.getEndTime() == null ? "ACTIVE" : activity.isCanceled() ? "CANCELED" : "COMPLETED")
+                    .build());
+        }
+        return activities;
+    }
+
+    private static AuditReportDto toDto(HistoricProcessInstance instance, PurchaseRequest request,
+                                        List<AuditReportDto.ActivityDto> activities) {
+        AuditReportDto.AuditReportDtoBuilder dto = AuditReportDto.builder()
+            .processInstanceId(instance.getId())
+            .businessKey(instance.getBusinessKey())
+            .processDefinitionKey(instance.getProcessDefinitionKey())
+            .startTime(format(instance.getStartTime()))
+            .endTime(format(instance.getEndTime()))
+            .duration(format(instance.getDurationInMillis()))
+            .state(instance.getState())
+            .activities(activities != null ? activities : List.of());
+
+        if (request != null) {
+            dto.requesterName(request.getRequesterName())
+                .requesterEmail(request.getRequesterEmail())
+                .department(request.getDepartment())
+                .description(request.getDescription())
+                .totalAmount(request.getTotalAmount() != null ? request.getTotalAmount().toPlainString() : null)
+                .currency(request.getCurrency())
+                .category(request.getCategory() != null ? request.getCategory().name() : null)
+                .priority(request.getPriority() != null ? request.getPriority().name() : null)
+                .approvalRoute(request.getApprovalRoute())
+                .approvedBy(request.getApprovedBy())
+                .approvedAt(format(request.getApprovedAt()))
+                .rejectionReason(request.getRejectionReason());
+        }
+        return dto.build();
+    }
+
+    private static String format(Date date) {
+        return date != null ? date.toInstant().toString() : null;
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toString() : null;
+    }
+
+    private static String format(Long millis) {
+        return millis != null ? Duration.ofMillis(millis).toString() : null;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,5 +1,6 @@
 package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,109 +13,32 @@ import java.util.List;
 
 /**
  * ✅ Servicio especializado en validaciones de reglas de negocio
- * Implementa toda la lógica DMN en código Java para validaciones previas
+ * La ruta de aprobación sale de la misma tabla DMN que ejecuta el proceso
+ * (ver {@link ApprovalRuleEvaluator}) para validaciones previas
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BusinessRulesService {
     
-    // ✅ Constantes de límites de negocio
-    public static final BigDecimal AUTO_APPROVAL_LIMIT = new BigDecimal("200");
-    public static final BigDecimal SUPERVISOR_LIMIT = new BigDecimal("2000");
-    public static final BigDecimal MANAGER_LIMIT = new BigDecimal("10000");
-    public static final BigDecimal OFFICE_SUPPLIES_AUTO_LIMIT = new BigDecimal("500");
-    public static final BigDecimal STRATEGIC_CEO_LIMIT = new BigDecimal("5000");
-    public static final BigDecimal URGENT_ESCALATION_LIMIT = new BigDecimal("500");
+    private final CurrencyService currencyService;
+    private final ApprovalRuleEvaluator ruleEvaluator;
     
     /**
-     * ✅ Determinar la ruta de aprobación según las reglas DMN
+     * ✅ Determinar la ruta de aprobación según la tabla DMN (evaluador compilado)
      */
     public ApprovalRouteResult determineApprovalRoute(PurchaseRequest request) {
-        log.debug("🎯 Determinando ruta de aprobación para: {} - Monto: {}", 
-            request.getBusinessKey(), request.getTotalAmount());
-        
-        ApprovalRouteResult result = new ApprovalRouteResult();
-        result.setAmount(request.getTotalAmount());
-        result.setCategory(request.getCategory());
-        result.setPriority(request.getPriority());
-        
-        // ✅ REGLA 1: Auto-aprobación para montos muy bajos
-        if (request.getTotalAmount().compareTo(AUTO_APPROVAL_LIMIT) <= 0) {
-            result.setRoute(ApprovalRoute.AUTO);
-            result.setReason("Monto ≤ $200 - Aprobación automática");
-            result.setAutoApprovalEligible(true);
-            return result;
-        }
-        
-        // ✅ REGLA 2: Auto-aprobación para suministros de oficina hasta $500
-        if (request.getCategory() == PurchaseRequest.PurchaseCategory.OFFICE_SUPPLIES 
-            && request.getTotalAmount().compareTo(OFFICE_SUPPLIES_AUTO_LIMIT) <= 0) {
-            result.setRoute(ApprovalRoute.AUTO);
-            result.setReason("Suministros de oficina ≤ $500 - Aprobación automática");
-            result.setAutoApprovalEligible(true);
-            return result;
-        }
-        
-        // ✅ REGLA 3: Escalamiento inmediato para solicitudes urgentes con monto alto
-        if ((request.getPriority() == PurchaseRequest.Priority.HIGH 
-             || request.getPriority() == PurchaseRequest.Priority.URGENT)
-            && request.getTotalAmount().compareTo(URGENT_ESCALATION_LIMIT) > 0) {
-            
-            if (request.getTotalAmount().compareTo(MANAGER_LIMIT) > 0) {
-                result.setRoute(ApprovalRoute.CEO);
-                result.setReason("Solicitud URGENTE con monto alto > $500 - Escalamiento a CEO");
-            } else {
-                result.setRoute(ApprovalRoute.MANAGER);
-                result.setReason("Solicitud URGENTE con monto > $500 - Escalamiento a Manager");
-            }
-            result.setUrgentEscalation(true);
-            return result;
-        }
-        
-        // ✅ REGLA 4: CEO para categorías estratégicas
-        if ((request.getCategory() == PurchaseRequest.PurchaseCategory.STRATEGIC 
-             || request.getCategory() == PurchaseRequest.PurchaseCategory.CONSULTING)
-            && request.getTotalAmount().compareTo(STRATEGIC_CEO_LIMIT) > 0) {
-            result.setRoute(ApprovalRoute.CEO);
-            result.setReason("Categoría estratégica/consultoría > $5,000 - Requiere aprobación CEO");
-            result.setStrategicCategory(true);
-            return result;
-        }
-        
-        // ✅ REGLA 5: CEO para montos muy altos
-        if (request.getTotalAmount().compareTo(MANAGER_LIMIT) > 0) {
-            result.setRoute(ApprovalRoute.CEO);
-            result.setReason("Monto > $10,000 - Requiere aprobación CEO");
-            result.setHighValueRequest(true);
-            return result;
-        }
-        
-        // ✅ REGLA 6: Manager para montos medios-altos y equipamiento
-        if (request.getTotalAmount().compareTo(SUPERVISOR_LIMIT) > 0 
-            && request.getTotalAmount().compareTo(MANAGER_LIMIT) <= 0) {
-            
-            if (request.getCategory() == PurchaseRequest.PurchaseCategory.EQUIPMENT 
-                || request.getCategory() == PurchaseRequest.PurchaseCategory.IT_HARDWARE) {
-                result.setRoute(ApprovalRoute.MANAGER);
-                result.setReason("Equipamiento/Hardware IT entre $2,001-$10,000 - Aprobación Manager");
-                return result;
-            }
-        }
-        
-        // ✅ REGLA 7: Supervisor para montos medios
-        if (request.getTotalAmount().compareTo(AUTO_APPROVAL_LIMIT) > 0 
-            && request.getTotalAmount().compareTo(SUPERVISOR_LIMIT) <= 0) {
-            result.setRoute(ApprovalRoute.SUPERVISOR);
-            result.setReason("Monto entre $201-$2,000 - Aprobación Supervisor");
-            return result;
-        }
-        
-        // ✅ REGLA DEFAULT: Supervisor como fallback
-        result.setRoute(ApprovalRoute.SUPERVISOR);
-        result.setReason("Regla por defecto - Aprobación Supervisor");
-        
-        log.debug("✅ Ruta determinada: {} - {}", result.getRoute(), result.getReason());
+        return determineApprovalRoute(request, ruleEvaluator.current());
+    }
+    
+    private ApprovalRouteResult determineApprovalRoute(PurchaseRequest request, ApprovalRuleEvaluator.RuleSnapshot rules) {
+        // Los límites están en USD: se compara siempre el monto normalizado
+        BigDecimal amount = baseAmount(request);
+        ApprovalRouteResult result = rules.evaluate(amount, request.getCategory(), request.getPriority());
+        
+        log.debug("✅ Ruta para {} - Monto: {} {} ({} {}): {} - {}", 
+            request.getBusinessKey(), request.getTotalAmount(), request.getCurrency(),
+            amount, CurrencyService.BASE_CURRENCY, result.getRoute(), result.getReason());
         return result;
     }
     
@@ -125,27 +49,36 @@ public class BusinessRulesService {
         ValidationResult validation = new ValidationResult();
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
+        // ✅ Umbrales de la versión vigente, leída una sola vez
+        ApprovalRuleEvaluator.RuleSnapshot rules = ruleEvaluator.current();
+        ApprovalRuleConfig limits = rules.configuration();
+        
+        if (request.getCurrency() != null && !currencyService.isSupported(request.getCurrency())) {
+            errors.add("Moneda no soportada: " + request.getCurrency());
+        }
+        BigDecimal amount = baseAmount(request);
         
         // Validaciones básicas
         if (request.getTotalAmount() == null || request.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
             errors.add("El monto debe ser mayor a $0");
         }
         
-        if (request.getTotalAmount() != null && request.getTotalAmount().compareTo(new BigDecimal("1000000")) > 0) {
-            errors.add("El monto excede el límite máximo de $1,000,000");
+        if (amount != null && amount.compareTo(limits.getMaxAmount()) > 0) {
+            errors.add(String.format("El monto excede el límite máximo de $%,.2f", limits.getMaxAmount()));
         }
         
         // Validaciones de coherencia
         if (request.getPriority() == PurchaseRequest.Priority.URGENT 
-            && request.getTotalAmount() != null 
-            && request.getTotalAmount().compareTo(new BigDecimal("100000")) > 0) {
-            warnings.add("Solicitud URGENTE por monto muy alto ($100K+) requiere justificación especial");
+            && amount != null 
+            && amount.compareTo(limits.getUrgentJustificationLimit()) > 0) {
+            warnings.add(String.format("Solicitud URGENTE por monto muy alto (más de $%,.0f) requiere justificación especial",
+                limits.getUrgentJustificationLimit()));
         }
         
         // Validaciones por categoría
         if (request.getCategory() == PurchaseRequest.PurchaseCategory.OFFICE_SUPPLIES 
-            && request.getTotalAmount() != null 
-            && request.getTotalAmount().compareTo(new BigDecimal("5000")) > 0) {
+            && amount != null 
+            && amount.compareTo(limits.getOfficeSuppliesReviewLimit()) > 0) {
             warnings.add("Suministros de oficina por monto alto - Verificar necesidad real");
         }
         
@@ -162,11 +95,24 @@ public class BusinessRulesService {
         validation.setValid(errors.isEmpty());
         validation.setErrors(errors);
         validation.setWarnings(warnings);
-        validation.setApprovalRoute(determineApprovalRoute(request));
+        validation.setApprovalRoute(determineApprovalRoute(request, rules));
         
         return validation;
     }
     
+    /**
+     * ✅ Monto en moneda base (USD); sin moneda reconocida se usa el monto tal cual
+     */
+    public BigDecimal baseAmount(PurchaseRequest request) {
+        if (request.getNormalizedAmount() != null) {
+            return request.getNormalizedAmount();
+        }
+        if (request.getTotalAmount() == null || !currencyService.isSupported(request.getCurrency())) {
+            return request.getTotalAmount();
+        }
+        return currencyService.toBase(request.getTotalAmount(), request.getCurrency());
+    }
+    
     /**
      * ✅ Calcular el tiempo estimado de aprobación
      */
@@ -240,17 +186,18 @@ public class BusinessRulesService {
         }
     }
     
-    @lombok.Data
+    /**
+     * Resultado inmutable de una regla de la tabla DMN; se comparte entre evaluaciones.
+     */
+    @lombok.Value
     public static class ApprovalRouteResult {
-        private ApprovalRoute route;
-        private String reason;
-        private BigDecimal amount;
-        private PurchaseRequest.PurchaseCategory category;
-        private PurchaseRequest.Priority priority;
-        private boolean autoApprovalEligible;
-        private boolean urgentEscalation;
-        private boolean highValueRequest;
-        private boolean strategicCategory;
+        String ruleId;
+        ApprovalRoute route;
+        String reason;
+        boolean autoApprovalEligible;
+        boolean urgentEscalation;
+        boolean highValueRequest;
+        boolean strategicCategory;
     }
     
     @lombok.Data
@@ -3,44 +3,144 @@ package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
 
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CurrencyRateDto;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CurrencyOptionDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+/**
+ * 💱 Motor de tipos de cambio
+ *
+ * Mantiene un snapshot inmutable de tasas (unidades de cada moneda por 1 USD)
+ * que se reemplaza de forma atómica en cada refresco programado. Las conversiones
+ * a la moneda base solo leen el snapshot vigente y multiplican por un factor
+ * {@link BigDecimal} precalculado, sin divisiones ni llamadas externas.
+ */
 @Service
+@Slf4j
 public class CurrencyService {
 
+    public static final String BASE_CURRENCY = "USD";
+    public static final List<String> SUPPORTED_CURRENCIES = List.of("USD", "EUR", "COP", "ECU");
+
+    private static final int AMOUNT_SCALE = 2;
+
+    private final ExternalServiceClient externalServiceClient;
+    private final AtomicReference<RateSnapshot> snapshot;
+
+    public CurrencyService(ExternalServiceClient externalServiceClient,
+                           @Value("${app.currency.default-rates:USD=1,EUR=0.92,COP=4000,ECU=1}") String defaultRates) {
+        this.externalServiceClient = externalServiceClient;
+        this.snapshot = new AtomicReference<>(
+            RateSnapshot.of(LocalDate.now().toString(), parseDefaultRates(defaultRates)));
+    }
+
+    /**
+     * Refresca las tasas desde el servicio externo. Si falla o no trae datos,
+     * se conserva el snapshot anterior; las monedas ausentes mantienen su tasa previa.
+     */
+    @Scheduled(fixedDelayString = "${app.currency.refresh-interval-ms:900000}")
+    public void refreshRates() {
+        CurrencyRateDto response = externalServiceClient.getCurrencyRates();
+        if (response == null || !Boolean.TRUE.equals(response.getSuccess()) || !(response.getRates() instanceof Map<?, ?> raw)) {
+            log.debug("💱 Sin tasas nuevas, se mantiene el snapshot del {}", snapshot.get().date());
+            return;
+        }
+
+        Map<String, BigDecimal> received = new HashMap<>();
+        raw.forEach((code, value) -> {
+            if (code != null && value instanceof Number number) {
+                received.put(code.toString().toUpperCase(), new BigDecimal(number.toString()));
+            }
+        });
+
+        // Si el proveedor usa otra base, se re-expresan las tasas por USD
+        String base = response.getBase() != null ? response.getBase().toUpperCase() : BASE_CURRENCY;
+        BigDecimal basePerUsd = BASE_CURRENCY.equals(base) ? BigDecimal.ONE : received.get(BASE_CURRENCY);
+        if (basePerUsd == null || basePerUsd.signum() <= 0) {
+            log.warn("⚠️ Tasas con base {} sin cotización de {}; se ignoran", base, BASE_CURRENCY);
+            return;
+        }
+
+        RateSnapshot current = snapshot.get();
+        Map<String, BigDecimal> rates = new HashMap<>(current.rates());
+        for (String code : SUPPORTED_CURRENCIES) {
+            BigDecimal rate = received.get(code);
+            if (rate != null && rate.signum() > 0) {
+                rates.put(code, rate.divide(basePerUsd, MathContext.DECIMAL64));
+            }
+        }
+        rates.put(BASE_CURRENCY, BigDecimal.ONE);
+
+        String date = response.getDate() != null ? response.getDate() : LocalDate.now().toString();
+        snapshot.set(RateSnapshot.of(date, rates));
+        log.info("💱 Tasas de cambio actualizadas ({}): {}", date, rates);
+    }
+
+    /**
+     * Convierte un monto a la moneda base (USD), redondeado a 2 decimales (HALF_EVEN).
+     *
+     * @throws IllegalArgumentException si la moneda no está soportada
+     */
+    public BigDecimal toBase(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return null;
+        }
+        String code = currency != null ? currency : BASE_CURRENCY;
+        BigDecimal factor = snapshot.get().toBaseFactors().get(code);
+        if (factor == null) {
+            throw new IllegalArgumentException("Moneda no soportada: " + currency);
+        }
+        return amount.multiply(factor).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Calcula y guarda en la solicitud su monto normalizado.
+     */
+    public void normalize(PurchaseRequest request) {
+        request.setNormalizedAmount(toBase(request.getTotalAmount(), request.getCurrency()));
+    }
+
+    public boolean isSupported(String currency) {
+        return currency != null && snapshot.get().toBaseFactors().containsKey(currency);
+    }
+
+    public RateSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     public CurrencyRateDto getRatesFromApi() {
-        // MOCK temporal para pruebas (borra esto después si conectas al API real)
-        Map<String, Double> mockRates = Map.of(
-            "USD", 1.0,
-            "EUR", 0.9,
-            "GBP", 0.75,
-            "JPY", 130.0
-        );
+        RateSnapshot current = snapshot.get();
+        Map<String, Double> rates = current.rates().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().doubleValue()));
 
         return CurrencyRateDto.builder()
-            .base("USD")
-            .date("2025-08-01")
-            .timestamp(System.currentTimeMillis() / 1000)
-            .rates(mockRates)
+            .base(BASE_CURRENCY)
+            .date(current.date())
+            .timestamp(current.refreshedAt().getEpochSecond())
+            .rates(rates)
             .success(true)
             .build();
     }
 
     public List<CurrencyOptionDto> getCurrencyOptions() {
-        CurrencyRateDto response = getRatesFromApi();
-
-        // ✅ Protección contra null
-        if (response == null || response.getRates() == null) {
-            return List.of(); // evita error y regresa lista vacía
-        }
+        RateSnapshot current = snapshot.get();
 
-        Map<String, Double> rates = (Map<String, Double>) response.getRates();
-
-        return rates.keySet().stream()
+        return SUPPORTED_CURRENCIES.stream()
+            .filter(current.rates()::containsKey)
             .map(code -> new CurrencyOptionDto(
                 code,
                 getCurrencyName(code),
@@ -51,10 +151,8 @@ public class CurrencyService {
 
     private String getCurrencySymbol(String code) {
         return switch (code) {
-            case "USD" -> "$";
+            case "USD", "COP", "ECU" -> "$";
             case "EUR" -> "€";
-            case "GBP" -> "£";
-            case "JPY" -> "¥";
             default -> code;
         };
     }
@@ -63,9 +161,40 @@ public class CurrencyService {
         return switch (code) {
             case "USD" -> "Dólar estadounidense";
             case "EUR" -> "Euro";
-            case "GBP" -> "Libra esterlina";
-            case "JPY" -> "Yen japonés";
+            case "COP" -> "Peso colombiano";
+            case "ECU" -> "Dólar (Ecuador)";
             default -> code;
         };
     }
-}
\ No newline at end of file
+
+    private static Map<String, BigDecimal> parseDefaultRates(String defaultRates) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (String entry : defaultRates.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length == 2) {
+                BigDecimal rate = new BigDecimal(parts[1].trim());
+                if (rate.signum() > 0) {
+                    rates.put(parts[0].trim().toUpperCase(), rate);
+                }
+            }
+        }
+        rates.put(BASE_CURRENCY, BigDecimal.ONE);
+        return rates;
+    }
+
+    /**
+     * Snapshot inmutable de tasas. {@code toBaseFactors} = 1 / tasa, calculado una sola vez.
+     */
+    public record RateSnapshot(String date,
+                               Instant refreshedAt,
+                               Map<String, BigDecimal> rates,
+                               Map<String, BigDecimal> toBaseFactors) {
+
+        static RateSnapshot of(String date, Map<String, BigDecimal> rates) {
+            Map<String, BigDecimal> factors = new HashMap<>();
+            rates.forEach((code, rate) ->
+                factors.put(code, BigDecimal.ONE.divide(rate, MathContext.DECIMAL64)));
+            return new RateSnapshot(date, Instant.now(), Map.copyOf(rates), Map.copyOf(factors));
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 📊 Contadores materializados del dashboard
+ *
+ * Se actualizan de forma incremental en los mismos puntos que escriben
+ * purchase_requests (alta, validación, {@link PurchaseRequestService#updateRequestStatus})
+ * y desde los eventos de tareas de Camunda, de modo que leer las métricas no requiere
+ * recorrer la tabla. Los montos llegan de la entidad como {@link BigDecimal}.
+ * {@link DashboardCountersReconciler} reconstruye el estado completo desde la base de
+ * datos al arrancar y de forma periódica para corregir cualquier deriva.
+ *
+ * Mientras se reconstruye, cada delta confirmado se aplica al estado vigente y se anota
+ * en un diario; al publicar el estado nuevo el diario se reaplica sobre él, así que los
+ * deltas confirmados durante la lectura no se pierden con el reemplazo. El diario se abre
+ * en el punto del snapshot: la primera lectura se hace con las confirmaciones en pausa
+ * (cada transacción que registra un delta entra en {@code commitGate} antes de confirmar
+ * y sale al terminar), de modo que un delta está en las filas leídas o en el diario,
+ * nunca en ambos.
+ */
+@Component
+@Slf4j
+public class DashboardCounters {
+
+    private volatile State state = new State(false);
+
+    // Lectura: confirmar y aplicar un delta. Escritura: fijar el snapshot o publicar un estado reconstruido
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private Queue<Consumer<State>> journal;
+
+    // ===================== ACTUALIZACIONES INCREMENTALES =====================
+
+    /**
+     * Nueva solicitud que inicia el proceso (estado inicial PENDING)
+     */
+    public void recordRequestCreated(String category, String department, BigDecimal amount) {
+        afterCommit(current -> {
+            current.total.increment();
+            current.status(RequestStatus.PENDING).increment();
+            if (category != null) {
+                current.byCategory.computeIfAbsent(category, k -> new LongAdder()).increment();
+            }
+            if (department != null) {
+                current.byDepartment.computeIfAbsent(department, k -> new LongAdder()).increment();
+            }
+            current.totalAmountCents.add(toCents(amount));
+        });
+    }
+
+    /**
+     * Transición de estado de una solicitud existente
+     */
+    public void recordStatusChange(RequestStatus from, RequestStatus to, BigDecimal amount) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(current -> {
+            if (from != null) {
+                current.status(from).decrement();
+            }
+            current.status(to).increment();
+
+            long cents = toCents(amount);
+            if (from == RequestStatus.APPROVED) {
+                current.approvedAmountCents.add(-cents);
+            }
+            if (to == RequestStatus.APPROVED) {
+                current.approvedAmountCents.add(cents);
+            }
+        });
+    }
+
+    /**
+     * Tarea creada o reasignada ({@code assignee} null = sin asignar)
+     */
+    public void recordTaskAssigned(String taskId, String assignee) {
+        afterCommit(current -> {
+            String previous = current.openTaskAssignees.put(taskId, assignee != null ? assignee : "");
+            if (previous != null && !previous.isEmpty()) {
+                current.tasksByAssignee.computeIfAbsent(previous, k -> new LongAdder()).decrement();
+            }
+            if (assignee != null && !assignee.isEmpty()) {
+                current.tasksByAssignee.computeIfAbsent(assignee, k -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    /**
+     * Tarea completada o eliminada
+     */
+    public void recordTaskClosed(String taskId) {
+        afterCommit(current -> {
+            String previous = current.openTaskAssignees.remove(taskId);
+            if (previous != null && !previous.isEmpty()) {
+                current.tasksByAssignee.computeIfAbsent(previous, k -> new LongAdder()).decrement();
+            }
+        });
+    }
+
+    // ===================== RECONCILIACIÓN =====================
+
+    /**
+     * Reemplaza el estado con uno reconstruido desde la base de datos. Los deltas
+     * confirmados después de la primera lectura de {@code loader} se reaplican sobre
+     * el estado nuevo.
+     */
+    public synchronized void rebuild(Loader loader) {
+        State rebuilt;
+        try {
+            rebuilt = build(loader.load(this::pinSnapshot));
+            if (journal == null) {
+                throw new IllegalStateException("La carga de contadores no fijó el snapshot");
+            }
+        } catch (RuntimeException e) {
+            closeJournal(null);
+            throw e;
+        }
+
+        int replayed = closeJournal(rebuilt);
+        log.debug("🔄 Contadores del dashboard reconstruidos - Total: {}, deltas reaplicados: {}",
+            rebuilt.total.sum(), replayed);
+    }
+
+    /**
+     * Primera lectura de la transacción de reconstrucción. Espera a que terminen las
+     * confirmaciones en curso y retiene las nuevas hasta que la lectura fija el
+     * snapshot: lo confirmado antes está en las filas, lo confirmado después va al diario.
+     */
+    private <T> T pinSnapshot(Supplier<T> firstRead) {
+        commitGate.writeLock().lock();
+        try {
+            T rows = firstRead.get();
+            journal = new ConcurrentLinkedQueue<>();
+            return rows;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    // Publica el estado reconstruido (null = se conserva el vigente) y cierra el diario
+    private int closeJournal(State rebuilt) {
+        commitGate.writeLock().lock();
+        try {
+            int replayed = journal != null ? journal.size() : 0;
+            if (rebuilt != null) {
+                journal.forEach(delta -> delta.accept(rebuilt));
+                state = rebuilt;
+            }
+            journal = null;
+            return replayed;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    private State build(Source source) {
+        State rebuilt = new State(true);
+
+        for (Object[] row : source.getStatusRows()) {
+            RequestStatus status = (RequestStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            rebuilt.status(status).add(count);
+            if (status == RequestStatus.APPROVED) {
+                rebuilt.approvedAmountCents.add(toCents((BigDecimal) row[2]));
+            }
+        }
+
+        for (Object[] row : source.getGroupedRows()) {
+            String category = row[0].toString();
+            String department = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+
+            rebuilt.total.add(count);
+            rebuilt.byCategory.computeIfAbsent(category, k -> new LongAdder()).add(count);
+            rebuilt.byDepartment.computeIfAbsent(department, k -> new LongAdder()).add(count);
+            rebuilt.totalAmountCents.add(toCents((BigDecimal) row[3]));
+        }
+
+        source.getTaskAssignees().forEach((taskId, assignee) -> {
+            rebuilt.openTaskAssignees.put(taskId, assignee != null ? assignee : "");
+            if (assignee != null && !assignee.isEmpty()) {
+                rebuilt.tasksByAssignee.computeIfAbsent(assignee, k -> new LongAdder()).increment();
+            }
+        });
+
+        return rebuilt;
+    }
+
+    // ===================== LECTURA =====================
+
+    /**
+     * Copia inmutable del estado actual. Su costo depende solo del número de
+     * categorías, departamentos y usuarios, no del número de solicitudes.
+     */
+    public Snapshot snapshot() {
+        State current = state;
+
+        Map<RequestStatus, Long> byStatus = new EnumMap<>(RequestStatus.class);
+        current.byStatus.forEach((status, adder) -> byStatus.put(status, adder.sum()));
+
+        return Snapshot.builder()
+            .initialized(current.initialized)
+            .totalRequests(current.total.sum())
+            .byStatus(Collections.unmodifiableMap(byStatus))
+            .byCategory(sums(current.byCategory))
+            .byDepartment(sums(current.byDepartment))
+            .tasksByAssignee(sums(current.tasksByAssignee))
+            .openTasks(current.openTaskAssignees.size())
+            .totalAmount(fromCents(current.totalAmountCents.sum()))
+            .approvedAmount(fromCents(current.approvedAmountCents.sum()))
+            .build();
+    }
+
+    // ===================== MÉTODOS PRIVADOS =====================
+
+    /**
+     * Aplica la actualización solo si la transacción actual confirma, para no
+     * contar cambios que luego se revierten. Entre {@code beforeCommit} y la
+     * aplicación del delta se retiene {@code commitGate}, así la confirmación no cae
+     * dentro de {@link #pinSnapshot}.
+     */
+    private void afterCommit(Consumer<State> delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean entered;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitGate.readLock().lock();
+                    entered = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    try {
+                        apply(delta);
+                    } finally {
+                        leave();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    leave();
+                }
+
+                private void leave() {
+                    if (entered) {
+                        entered = false;
+                        commitGate.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            apply(delta);
+        }
+    }
+
+    private void apply(Consumer<State> delta) {
+        commitGate.readLock().lock();
+        try {
+            delta.accept(state);
+            if (journal != null) {
+                journal.add(delta);
+            }
+        } finally {
+            commitGate.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        adders.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value > 0) {
+                result.put(key, value);
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class State {
+        private final boolean initialized;
+        private final LongAdder total = new LongAdder();
+        private final Map<RequestStatus, LongAdder> byStatus = new EnumMap<>(RequestStatus.class);
+        private final Map<String, LongAdder> byCategory = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byDepartment = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> tasksByAssignee = new ConcurrentHashMap<>();
+        private final Map<String, String> openTaskAssignees = new ConcurrentHashMap<>();
+        private final LongAdder totalAmountCents = new LongAdder();
+        private final LongAdder approvedAmountCents = new LongAdder();
+
+        State(boolean initialized) {
+            this.initialized = initialized;
+            // El mapa por estado se llena completo aquí y después solo se lee
+            for (RequestStatus status : RequestStatus.values()) {
+                byStatus.put(status, new LongAdder());
+            }
+        }
+
+        LongAdder status(RequestStatus status) {
+            return byStatus.get(status);
+        }
+    }
+
+    /**
+     * Lectura de los contadores desde la base de datos, en una sola transacción con
+     * snapshot. La primera consulta va dentro de {@code pin}.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Source load(SnapshotPin pin);
+    }
+
+    @FunctionalInterface
+    public interface SnapshotPin {
+        <T> T firstRead(Supplier<T> read);
+    }
+
+    /**
+     * Filas leídas de la base de datos para reconstruir los contadores
+     */
+    @Value
+    public static class Source {
+        // [status, count, sum(monto base)]
+        List<Object[]> statusRows;
+        // [category, department, count, sum(monto base)]
+        List<Object[]> groupedRows;
+        // taskId → assignee de las tareas abiertas (valor null = sin asignar)
+        Map<String, String> taskAssignees;
+    }
+
+    @Value
+    @Builder
+    public static class Snapshot {
+        boolean initialized;
+        long totalRequests;
+        Map<RequestStatus, Long> byStatus;
+        Map<String, Long> byCategory;
+        Map<String, Long> byDepartment;
+        Map<String, Long> tasksByAssignee;
+        long openTasks;
+        BigDecimal totalAmount;
+        BigDecimal approvedAmount;
+
+        public long count(RequestStatus status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.task.Task;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔄 Reconstruye {@link DashboardCounters} desde la base de datos
+ *
+ * Se ejecuta al arrancar la aplicación y luego de forma periódica
+ * ({@code app.dashboard.counters.reconcile-interval-ms}) para que los
+ * contadores incrementales no puedan desviarse de los datos reales.
+ *
+ * Las tres lecturas van en una transacción de solo lectura REPEATABLE_READ: ven la
+ * misma instantánea, que fija la primera (el agregado por estado), y los deltas
+ * confirmados después se reaplican desde el diario de {@link DashboardCounters}.
+ */
+@Component
+@Slf4j
+public class DashboardCountersReconciler {
+
+    private final PurchaseRequestRepository purchaseRequestRepository;
+    private final TaskService taskService;
+    private final DashboardCounters dashboardCounters;
+    private final TransactionTemplate snapshotTransaction;
+
+    public DashboardCountersReconciler(PurchaseRequestRepository purchaseRequestRepository,
+                                       TaskService taskService,
+                                       DashboardCounters dashboardCounters,
+                                       PlatformTransactionManager transactionManager) {
+        this.purchaseRequestRepository = purchaseRequestRepository;
+        this.taskService = taskService;
+        this.dashboardCounters = dashboardCounters;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        log.info("🔄 Inicializando contadores del dashboard");
+        reconcile();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.dashboard.counters.reconcile-interval-ms:300000}",
+        initialDelayString = "${app.dashboard.counters.reconcile-interval-ms:300000}"
+    )
+    public void reconcile() {
+        try {
+            dashboardCounters.rebuild(pin -> snapshotTransaction.execute(status -> load(pin)));
+        } catch (Exception e) {
+            log.error("❌ Error reconciliando contadores del dashboard: {}", e.getMessage(), e);
+        }
+    }
+
+    private DashboardCounters.Source load(DashboardCounters.SnapshotPin pin) {
+        List<Object[]> statusRows = pin.firstRead(purchaseRequestRepository::aggregateByStatus);
+
+        Map<String, String> taskAssignees = new HashMap<>();
+        for (Task task : taskService.createTaskQuery()
+                .processDefinitionKey("purchase-request-process")
+                .list()) {
+            taskAssignees.put(task.getId(), task.getAssignee());
+        }
+
+        return new DashboardCounters.Source(
+            statusRows,
+            purchaseRequestRepository.aggregateByCategoryAndDepartment(),
+            taskAssignees
+        );
+    }
+}
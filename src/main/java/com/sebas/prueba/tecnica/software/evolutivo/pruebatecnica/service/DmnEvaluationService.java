@@ -0,0 +1,258 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MetricTags;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleEvaluator.CompiledTable;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleEvaluator.RuleSnapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.dmn.engine.DmnDecisionResult;
+import org.camunda.bpm.engine.DecisionService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.engine.variable.Variables;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🎯 Evaluación de la tabla DMN desplegada con memoización
+ *
+ * Evalúa {@code purchase-approval-rules} con el {@link DecisionService} de Camunda sobre
+ * la última definición desplegada, que se resuelve una vez por versión (no en cada
+ * llamada). La tabla desplegada también se compila a intervalos: todas las cantidades
+ * de un mismo intervalo obtienen el mismo resultado, así que el resultado se memoiza por
+ * (versión, intervalo de monto, categoría, prioridad) en una LRU acotada. Si la tabla
+ * usa expresiones que no se pueden compilar, la clave usa el monto exacto.
+ *
+ * Métricas: {@code dmn.evaluation{source}} (latencia, memo o motor) y
+ * {@code dmn.evaluation.result{category, route}} (evaluaciones por resultado).
+ */
+@Service
+@Slf4j
+public class DmnEvaluationService {
+
+    public static final String DECISION_KEY = ApprovalRuleEvaluator.DECISION_KEY;
+
+    // Centinela para "ninguna regla aplica" (la LRU no guarda nulls)
+    private static final String NO_MATCH = "";
+
+    private final RepositoryService repositoryService;
+    private final DecisionService decisionService;
+    private final ApprovalRuleEvaluator evaluator;
+    private final Map<MemoKey, String> memo;
+
+    private final Timer memoTimer;
+    private final Timer engineTimer;
+    private final MeterRegistry meterRegistry;
+    private final Map<ResultKey, Counter> resultCounters = new ConcurrentHashMap<>();
+
+    private volatile DeployedDecision deployed;
+
+    public DmnEvaluationService(RepositoryService repositoryService,
+                                DecisionService decisionService,
+                                ApprovalRuleEvaluator evaluator,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.dmn.memo.max-entries:10000}") int maxEntries) {
+        this.repositoryService = repositoryService;
+        this.decisionService = decisionService;
+        this.evaluator = evaluator;
+        this.meterRegistry = meterRegistry;
+        this.memo = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemoKey, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.memoTimer = evaluationTimer(meterRegistry, "memo");
+        this.engineTimer = evaluationTimer(meterRegistry, "engine");
+        Gauge.builder("dmn.evaluation.memo.size", this, DmnEvaluationService::memoSize)
+            .description("Resultados DMN memoizados")
+            .register(meterRegistry);
+        Gauge.builder("dmn.decision.version", this, service -> {
+                DeployedDecision current = service.deployed;
+                return current != null ? current.version() : 0;
+            })
+            .description("Versión desplegada de la tabla " + DECISION_KEY + " en uso")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ruta de aprobación según la tabla desplegada, o null si ninguna regla aplica
+     * (mismo resultado que la tarea de reglas de negocio con {@code singleEntry}).
+     */
+    public String evaluateRoute(BigDecimal amount, String category, String priority) {
+        long start = System.nanoTime();
+        DeployedDecision decision = deployed();
+        MemoKey key = decision.key(amount, category, priority);
+
+        String route = lookup(key);
+        if (route != null) {
+            memoTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            countResult(category, route);
+            return NO_MATCH.equals(route) ? null : route;
+        }
+
+        DmnDecisionResult result = decisionService.evaluateDecisionById(decision.definitionId())
+            .variables(Variables.createVariables()
+                .putValue("totalAmount", amount != null ? amount.doubleValue() : null)
+                .putValue("category", category)
+                .putValue("priority", priority))
+            .evaluate();
+        Object value = result.getSingleEntry();
+        route = value != null ? value.toString() : NO_MATCH;
+
+        synchronized (memo) {
+            memo.put(key, route);
+        }
+        engineTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        countResult(category, route);
+        return NO_MATCH.equals(route) ? null : route;
+    }
+
+    /**
+     * Tabla desplegada compilada, con los umbrales vigentes como etiqueta; si no se pudo
+     * compilar se usa la versión vigente del evaluador.
+     */
+    public RuleSnapshot deployedRules() {
+        RuleSnapshot live = evaluator.current();
+        CompiledTable table = deployed().table();
+        return table != null ? new RuleSnapshot(live.configuration(), table) : live;
+    }
+
+    public int deployedVersion() {
+        return deployed().version();
+    }
+
+    /**
+     * Vuelve a resolver la última definición desplegada; si cambió, descarta la memoización.
+     * Se llama tras publicar reglas y periódicamente para despliegues externos (Modeler, otros nodos).
+     */
+    @Scheduled(
+        fixedDelayString = "${app.dmn.definition-check-interval-ms:30000}",
+        initialDelayString = "${app.dmn.definition-check-interval-ms:30000}"
+    )
+    public synchronized void refreshDefinition() {
+        DecisionDefinition latest = repositoryService.createDecisionDefinitionQuery()
+            .decisionDefinitionKey(DECISION_KEY)
+            .latestVersion()
+            .singleResult();
+        if (latest == null) {
+            throw new IllegalStateException("No hay ninguna versión desplegada de " + DECISION_KEY);
+        }
+        DeployedDecision current = deployed;
+        if (current != null && current.definitionId().equals(latest.getId())) {
+            return;
+        }
+
+        CompiledTable table;
+        try {
+            table = ApprovalRuleEvaluator.compile(repositoryService.getDmnModelInstance(latest.getId()));
+        } catch (IllegalStateException e) {
+            log.warn("⚠️ {} v{} no se puede compilar ({}); se memoiza por monto exacto",
+                DECISION_KEY, latest.getVersion(), e.getMessage());
+            table = null;
+        }
+
+        deployed = new DeployedDecision(latest.getId(), latest.getVersion(), table);
+        synchronized (memo) {
+            memo.clear();
+        }
+        log.info("🎯 Tabla {} v{} en uso para evaluaciones DMN", DECISION_KEY, latest.getVersion());
+    }
+
+    public int memoSize() {
+        synchronized (memo) {
+            return memo.size();
+        }
+    }
+
+    private DeployedDecision deployed() {
+        DeployedDecision current = deployed;
+        if (current == null) {
+            refreshDefinition();
+            current = deployed;
+        }
+        return current;
+    }
+
+    private String lookup(MemoKey key) {
+        synchronized (memo) {
+            return memo.get(key);
+        }
+    }
+
+    private void countResult(String category, String route) {
+        ResultKey key = new ResultKey(MetricTags.category(category),
+                                      MetricTags.route(NO_MATCH.equals(route) ? null : route));
+        resultCounters.computeIfAbsent(key, k -> Counter.builder("dmn.evaluation.result")
+                .description("Evaluaciones de " + DECISION_KEY + " por categoría y ruta resultante")
+                .tag("category", k.category())
+                .tag("route", k.route())
+                .register(meterRegistry))
+            .increment();
+    }
+
+    private static Timer evaluationTimer(MeterRegistry registry, String source) {
+        return Timer.builder("dmn.evaluation")
+            .description("Latencia de evaluación de " + DECISION_KEY)
+            .tag("source", source)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Clave de memoización: {@code interval} ≥ 0 si el monto cae en un intervalo de la tabla
+     * compilada; si no, {@code exactAmount} lleva el monto tal cual.
+     */
+    record MemoKey(String definitionId, String category, String priority, int interval, BigDecimal exactAmount) {
+    }
+
+    /** Etiquetas ya acotadas de {@code dmn.evaluation.result}. */
+    record ResultKey(String category, String route) {
+    }
+
+    record DeployedDecision(String definitionId, int version, CompiledTable table) {
+
+        MemoKey key(BigDecimal amount, String category, String priority) {
+            if (amount == null) {
+                return new MemoKey(definitionId, category, priority, -1, null);
+            }
+            PurchaseCategory knownCategory = category != null ? parse(PurchaseCategory.class, category) : null;
+            Priority knownPriority = priority != null ? parse(Priority.class, priority) : null;
+            // Solo con valores conocidos y montos al centavo el intervalo compilado es exacto
+            boolean compiled = table != null
+                && (category == null || knownCategory != null)
+                && (priority == null || knownPriority != null)
+                && amount.stripTrailingZeros().scale() <= 2;
+            if (!compiled) {
+                return new MemoKey(definitionId, category, priority, -1, amount.stripTrailingZeros());
+            }
+            int slot = ApprovalRuleEvaluator.slot(knownCategory, knownPriority);
+            return new MemoKey(definitionId, category, priority,
+                table.interval(slot, ApprovalRuleEvaluator.toCents(amount)), null);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ⏱️ Sketch de cuantiles de duraciones (milisegundos)
+ *
+ * Cubetas logarítmicas al estilo HDR/DDSketch: la cubeta {@code i} cubre
+ * {@code (γ^(i-1), γ^i]} con {@code γ = (1+α)/(1-α)}, así que cualquier cuantil se
+ * devuelve con un error relativo de como mucho {@code α} (2 %), sea de minutos o de semanas.
+ * Solo se guardan las cubetas con datos (unas 300 entre 1 ms y un año) y dos sketches se
+ * combinan sumando conteos, lo que permite agregarlos por hora, día, ruta o departamento.
+ */
+public final class DurationSketch {
+
+    static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // Duraciones por debajo de 1 ms
+    private long zeroCount;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        if (value < 1) {
+            zeroCount++;
+        } else {
+            buckets.merge(index(value), 1L, Long::sum);
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(DurationSketch other) {
+        if (other == null || other.count == 0) {
+            return;
+        }
+        zeroCount += other.zeroCount;
+        other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Cuantil aproximado en milisegundos ({@code quantile} entre 0 y 1), o null sin datos.
+     */
+    public Long quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(Math.max(0.0, Math.min(1.0, quantile)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0L;
+        }
+        long cumulative = zeroCount;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            cumulative += bucket.getValue();
+            if (cumulative > rank) {
+                // Punto medio relativo de la cubeta, acotado por los extremos observados
+                long estimate = Math.round(2 * Math.pow(GAMMA, bucket.getKey()) / (GAMMA + 1));
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Codificación compacta para guardar en base de datos:
+     * {@code count;min;max;zeroCount;indice:conteo,indice:conteo,...}
+     */
+    public String encode() {
+        if (count == 0) {
+            return "";
+        }
+        StringBuilder encoded = new StringBuilder()
+            .append(count).append(';').append(min).append(';').append(max).append(';').append(zeroCount).append(';');
+        boolean first = true;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            if (!first) {
+                encoded.append(',');
+            }
+            encoded.append(bucket.getKey()).append(':').append(bucket.getValue());
+            first = false;
+        }
+        return encoded.toString();
+    }
+
+    public static DurationSketch decode(String encoded) {
+        DurationSketch sketch = new DurationSketch();
+        if (encoded == null || encoded.isBlank()) {
+            return sketch;
+        }
+        String[] parts = encoded.split(";", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Sketch de duraciones inválido: " + encoded);
+        }
+        sketch.count = Long.parseLong(parts[0]);
+        sketch.min = Long.parseLong(parts[1]);
+        sketch.max = Long.parseLong(parts[2]);
+        sketch.zeroCount = Long.parseLong(parts[3]);
+        if (!parts[4].isEmpty()) {
+            for (String bucket : parts[4].split(",")) {
+                int separator = bucket.indexOf(':');
+                sketch.buckets.put(Integer.parseInt(bucket.substring(0, separator)),
+                    Long.parseLong(bucket.substring(separator + 1)));
+            }
+        }
+        return sketch;
+    }
+
+    private static int index(long millis) {
+        return (int) Math.ceil(Math.log(millis) / LOG_GAMMA);
+    }
+}
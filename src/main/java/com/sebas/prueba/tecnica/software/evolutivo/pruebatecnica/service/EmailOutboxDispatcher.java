@@ -0,0 +1,236 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage.OutboxStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.EmailOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📤 Despachador de la bandeja de salida de correos
+ *
+ * Toma lotes de correos pendientes y los envía con una sola llamada a
+ * {@link JavaMailSender#send(SimpleMailMessage...)}, que reutiliza la misma
+ * conexión SMTP para todo el lote. Los fallos se reintentan con backoff
+ * exponencial y pasan a DEAD tras {@code maxAttempts} intentos.
+ *
+ * El lote se reclama en una transacción corta que aplaza {@code nextAttemptAt} por
+ * {@code claimLease}; el envío SMTP ocurre sin transacción ni bloqueos abiertos y el
+ * resultado se guarda en una segunda transacción. Si el nodo cae a mitad de envío,
+ * los correos vuelven a estar vencidos al expirar la reserva (entrega al menos una vez).
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String fromEmail;
+    private final boolean mailEnabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimLease;
+
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+    private final Timer batchLatency;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.mail.from:demo.bpm.consultant@gmail.com}") String fromEmail,
+                                 @Value("${app.mail.enabled:false}") boolean mailEnabled,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+                                 @Value("${app.mail.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                                 @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                                 @Value("${app.mail.outbox.claim-lease-ms:300000}") long claimLeaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.fromEmail = fromEmail;
+        this.mailEnabled = mailEnabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.claimLease = Duration.ofMillis(claimLeaseMs);
+
+        Gauge.builder("email.outbox.depth", pendingDepth, AtomicLong::get)
+            .description("Correos pendientes en la bandeja de salida")
+            .tag("status", "pending")
+            .register(meterRegistry);
+        Gauge.builder("email.outbox.depth", deadDepth, AtomicLong::get)
+            .description("Correos descartados tras agotar reintentos")
+            .tag("status", "dead")
+            .register(meterRegistry);
+        this.batchLatency = Timer.builder("email.outbox.send.latency")
+            .description("Duración de cada envío SMTP por lotes")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.sentCounter = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("email.outbox.failed").register(meterRegistry);
+        this.deadCounter = Counter.builder("email.outbox.dead").register(meterRegistry);
+    }
+
+    /**
+     * Drena la bandeja de salida hasta que no quedan correos vencidos.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        try {
+            int processed;
+            do {
+                processed = dispatchBatch();
+            } while (processed == batchSize);
+        } catch (Exception e) {
+            log.error("❌ Error drenando la bandeja de salida: {}", e.getMessage(), e);
+        } finally {
+            refreshDepth();
+        }
+    }
+
+    /**
+     * Reclama y envía un lote. Devuelve cuántos correos se procesaron.
+     */
+    public int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> {
+            List<EmailOutboxMessage> claimed = outboxRepository.claimDue(now, PageRequest.of(0, batchSize));
+            // La reserva libera los bloqueos al confirmar: ningún otro nodo los ve vencidos mientras tanto
+            LocalDateTime leaseUntil = now.plus(claimLease);
+            claimed.forEach(message -> message.setNextAttemptAt(leaseUntil));
+            return outboxRepository.saveAll(claimed);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        send(batch, now);
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private void send(List<EmailOutboxMessage> batch, LocalDateTime now) {
+        if (!mailEnabled) {
+            batch.forEach(m -> {
+                log.info("📧 [SIMULADO] Email a: {} | Asunto: {}", m.getRecipient(), m.getSubject());
+                m.markSent(now);
+            });
+            sentCounter.increment(batch.size());
+            return;
+        }
+
+        // Identidad: MailSendException devuelve como clave el SimpleMailMessage original
+        Map<SimpleMailMessage, EmailOutboxMessage> byMessage = new IdentityHashMap<>();
+        for (EmailOutboxMessage outbox : batch) {
+            byMessage.put(toMailMessage(outbox), outbox);
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        long start = System.nanoTime();
+        try {
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                // Fallo de conexión: ningún correo del lote salió
+                failures = new IdentityHashMap<>();
+                for (SimpleMailMessage message : byMessage.keySet()) {
+                    failures.put(message, e);
+                }
+            }
+        } catch (Exception e) {
+            failures = new IdentityHashMap<>();
+            for (SimpleMailMessage message : byMessage.keySet()) {
+                failures.put(message, e);
+            }
+        } finally {
+            batchLatency.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        Map<EmailOutboxMessage, Exception> failedOutbox = new IdentityHashMap<>();
+        for (Map.Entry<Object, Exception> failure : failures.entrySet()) {
+            EmailOutboxMessage outbox = byMessage.get(failure.getKey());
+            if (outbox != null) {
+                failedOutbox.put(outbox, failure.getValue());
+            }
+        }
+
+        for (EmailOutboxMessage outbox : batch) {
+            Exception error = failedOutbox.get(outbox);
+            if (error == null) {
+                outbox.markSent(now);
+                sentCounter.increment();
+                continue;
+            }
+
+            outbox.markFailed(error.getMessage(), now.plus(backoff(outbox.getAttempts() + 1)), maxAttempts);
+            failedCounter.increment();
+            if (outbox.getStatus() == OutboxStatus.DEAD) {
+                deadCounter.increment();
+                log.error("💀 Correo #{} a {} descartado tras {} intentos: {}",
+                    outbox.getId(), outbox.getRecipient(), outbox.getAttempts(), error.getMessage());
+            } else {
+                log.warn("⚠️ Correo #{} a {} falló (intento {}), reintento a las {}",
+                    outbox.getId(), outbox.getRecipient(), outbox.getAttempts(), outbox.getNextAttemptAt());
+            }
+        }
+    }
+
+    /**
+     * Backoff exponencial: initialBackoff * 2^(intento-1), acotado por maxBackoff.
+     */
+    Duration backoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 20);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private SimpleMailMessage toMailMessage(EmailOutboxMessage outbox) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(outbox.getRecipient());
+        message.setSubject(outbox.getSubject());
+        message.setText(outbox.getBody());
+        return message;
+    }
+
+    private void refreshDepth() {
+        try {
+            pendingDepth.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+            deadDepth.set(outboxRepository.countByStatus(OutboxStatus.DEAD));
+        } catch (Exception e) {
+            log.debug("No se pudo actualizar la profundidad de la bandeja: {}", e.getMessage());
+        }
+    }
+}
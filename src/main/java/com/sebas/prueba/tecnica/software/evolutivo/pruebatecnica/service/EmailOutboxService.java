@@ -0,0 +1,46 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.EmailOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 📮 Encola correos en la tabla outbox.
+ *
+ * Se une a la transacción en curso: si la transacción de Camunda o del
+ * controlador hace rollback, el correo tampoco se envía.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+
+    /**
+     * @throws IllegalArgumentException si no hay destinatario; no marca rollback-only la
+     *         transacción del llamador, que decide si el paso falla
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public EmailOutboxMessage enqueue(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("El destinatario del correo es obligatorio");
+        }
+
+        EmailOutboxMessage message = outboxRepository.save(EmailOutboxMessage.builder()
+            .recipient(to)
+            .subject(subject)
+            .body(body)
+            .nextAttemptAt(LocalDateTime.now())
+            .build());
+
+        log.debug("📮 Correo encolado #{} para {} | Asunto: {}", message.getId(), to, subject);
+        return message;
+    }
+}
@@ -8,7 +8,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -26,34 +25,42 @@ public class ExternalApiService {
     @Value("${app.services.categories.url}")
     private String categoriesUrl;
     
+    private static final String CATALOG_KEY = "suppliers-api";
+    
     private final RestTemplate restTemplate;
+    private final ExternalServiceGuard guard;
+    private final SupplierCatalogCache catalogCache;
 
     
-    public ExternalApiService(RestTemplate restTemplate) {
+    public ExternalApiService(RestTemplate restTemplate, ExternalServiceGuard guard, SupplierCatalogCache catalogCache) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
+        this.catalogCache = catalogCache;
     }
     
-    @Cacheable("suppliers")
     public List<SupplierDto> getSuppliers() {
-        try {
+        return catalogCache.get(CATALOG_KEY, () -> {
             logger.info("Consultando proveedores desde: {}", suppliersUrl);
-            
-            // Usando JSONPlaceholder users como proveedores
-            JsonNode[] users = restTemplate.getForObject(suppliersUrl, JsonNode[].class);
-            
-            return Arrays.stream(users)
-                    .map(user -> new SupplierDto(
-                        null, user.get("id").asText(),
-                        user.get("name").asText(),
-                        user.get("company").get("name").asText(),
-                        user.get("email").asText(), categoriesUrl, null, null
-                    ))
-                    .collect(Collectors.toList());
-                    
-        } catch (Exception e) {
-            logger.error("Error consultando proveedores: {}", e.getMessage());
-            return getDefaultSuppliers();
+            // Comparte circuito y bulkhead con ExternalServiceClient: es el mismo servicio de proveedores
+            return guard.call(ExternalServiceClient.SUPPLIERS_SERVICE, this::fetchSuppliers, () -> null);
+        }, this::getDefaultSuppliers);
+    }
+    
+    private List<SupplierDto> fetchSuppliers() {
+        // Usando JSONPlaceholder users como proveedores
+        JsonNode[] users = restTemplate.getForObject(suppliersUrl, JsonNode[].class);
+        if (users == null) {
+            return null;
         }
+        
+        return Arrays.stream(users)
+                .map(user -> new SupplierDto(
+                    null, user.get("id").asText(),
+                    user.get("name").asText(),
+                    user.get("company").get("name").asText(),
+                    user.get("email").asText(), categoriesUrl, null, null
+                ))
+                .collect(Collectors.toList());
     }
     
     private List<SupplierDto> getDefaultSuppliers() {
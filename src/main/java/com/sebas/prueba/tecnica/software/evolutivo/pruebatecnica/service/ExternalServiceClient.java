@@ -22,40 +22,60 @@ public class ExternalServiceClient {
 
     private final RestTemplate restTemplate;
     private final AppServiceProperties properties;
+    private final ExternalServiceGuard guard;
+    private final SupplierCatalogCache catalogCache;
+
+    public static final String SUPPLIERS_SERVICE = "suppliers";
+    public static final String CURRENCIES_SERVICE = "currencies";
 
     public List<SupplierDto> getSuppliers() {
         String url = properties.getSuppliersUrl();
-        log.info("🌐 Consultando proveedores externos desde: {}", url);
-        try {
-            ResponseEntity<List<SupplierDto>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {}
-            );
-            List<SupplierDto> suppliers = response.getBody();
-            return (suppliers != null && !suppliers.isEmpty()) ? suppliers : getMockSuppliers();
-        } catch (Exception e) {
-            log.error("❌ Error consultando proveedores externos: {}", e.getMessage());
-            return getMockSuppliers();
-        }
+        // Caché SWR: el formulario no espera al upstream y, si cae, se usa el último catálogo bueno
+        return catalogCache.get(
+            SUPPLIERS_SERVICE,
+            () -> {
+                log.info("🌐 Consultando proveedores externos desde: {}", url);
+                return guard.call(SUPPLIERS_SERVICE, () -> fetchSuppliers(url), () -> null);
+            },
+            this::getMockSuppliers
+        );
     }
 
     public List<String> getCurrencies() {
         String url = properties.getCurrenciesUrl();
         log.info("💱 Consultando monedas disponibles desde: {}", url);
-        try {
-            ResponseEntity<CurrencyRateDto> response = restTemplate.getForEntity(
-                url, CurrencyRateDto.class
-            );
-            CurrencyRateDto currencyData = response.getBody();
-            return (currencyData != null && Boolean.TRUE.equals(currencyData.getSuccess()))
-                    ? Arrays.asList("USD", "EUR", "COP", "ECU")
-                    : getDefaultCurrencies();
-        } catch (Exception e) {
-            log.error("❌ Error consultando monedas: {}", e.getMessage());
-            return getDefaultCurrencies();
-        }
+        return guard.call(CURRENCIES_SERVICE, () -> fetchCurrencies(url), this::getDefaultCurrencies);
+    }
+
+    /**
+     * Tasas de cambio actuales; null si el servicio no responde o el circuito está abierto.
+     */
+    public CurrencyRateDto getCurrencyRates() {
+        String url = properties.getCurrenciesUrl();
+        log.debug("💱 Consultando tasas de cambio desde: {}", url);
+        return guard.call(CURRENCIES_SERVICE, () -> restTemplate.getForObject(url, CurrencyRateDto.class), () -> null);
+    }
+
+    // Las excepciones se propagan al guard para que cuenten como fallo del circuito
+    private List<SupplierDto> fetchSuppliers(String url) {
+        ResponseEntity<List<SupplierDto>> response = restTemplate.exchange(
+            url,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<>() {}
+        );
+        // null o vacío = sin datos reales; la caché decide entre snapshot previo y mock
+        return response.getBody();
+    }
+
+    private List<String> fetchCurrencies(String url) {
+        ResponseEntity<CurrencyRateDto> response = restTemplate.getForEntity(
+            url, CurrencyRateDto.class
+        );
+        CurrencyRateDto currencyData = response.getBody();
+        return (currencyData != null && Boolean.TRUE.equals(currencyData.getSuccess()))
+                ? Arrays.asList("USD", "EUR", "COP", "ECU")
+                : getDefaultCurrencies();
     }
 
     private List<SupplierDto> getMockSuppliers() {
@@ -0,0 +1,194 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HttpClientProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MetricTags;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 🛡️ Protección de llamadas a servicios externos
+ *
+ * Por cada servicio (proveedores, monedas...) mantiene:
+ * - un bulkhead: semáforo que limita las llamadas simultáneas
+ * - un circuit breaker: tras N fallos consecutivos deja de llamar durante
+ *   {@code openDuration} y responde directamente con el fallback
+ *
+ * Métricas por servicio: {@code external.service.call{service, outcome}} (latencia de las
+ * llamadas reales), {@code external.service.rejected{service, reason}} (respuestas con
+ * fallback sin llamar) y {@code external.service.circuit.state{service}} (0 cerrado,
+ * 1 abierto, 2 semiabierto).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExternalServiceGuard {
+
+    private final HttpClientProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta {@code call} protegido; si el circuito está abierto, no hay permiso
+     * en el bulkhead o la llamada falla, devuelve {@code fallback}.
+     */
+    public <T> T call(String service, Supplier<T> call, Supplier<T> fallback) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(service, this::newBreaker);
+        if (!breaker.allowRequest()) {
+            log.debug("🔌 Circuito abierto para {}, usando fallback", service);
+            rejected(service, "circuit_open");
+            return fallback.get();
+        }
+
+        Semaphore bulkhead = bulkheads.computeIfAbsent(service,
+            s -> new Semaphore(properties.getBulkhead().getMaxConcurrentCalls()));
+        if (!tryAcquire(bulkhead)) {
+            breaker.releaseTrial();
+            log.warn("🚧 Bulkhead lleno para {}, usando fallback", service);
+            rejected(service, "bulkhead_full");
+            return fallback.get();
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            breaker.recordSuccess();
+            recordCall(service, MetricTags.SUCCESS, start);
+            return result;
+        } catch (RuntimeException e) {
+            recordCall(service, MetricTags.ERROR, start);
+            if (breaker.recordFailure()) {
+                log.error("🔌 Circuito ABIERTO para {} tras fallos consecutivos: {}", service, e.getMessage());
+            } else {
+                log.error("❌ Error llamando a {}: {}", service, e.getMessage());
+            }
+            return fallback.get();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitState getState(String service) {
+        CircuitBreaker breaker = breakers.get(service);
+        return breaker != null ? breaker.getState() : CircuitState.CLOSED;
+    }
+
+    private CircuitBreaker newBreaker(String service) {
+        CircuitBreaker breaker = new CircuitBreaker(properties.getCircuitBreaker());
+        Gauge.builder("external.service.circuit.state", breaker, b -> b.getState().ordinal())
+            .description("Estado del circuit breaker (0 cerrado, 1 abierto, 2 semiabierto)")
+            .tag("service", service)
+            .register(meterRegistry);
+        return breaker;
+    }
+
+    private void recordCall(String service, String outcome, long start) {
+        Timer.builder("external.service.call")
+            .description("Latencia de las llamadas a servicios externos")
+            .tag("service", service)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void rejected(String service, String reason) {
+        Counter.builder("external.service.rejected")
+            .description("Llamadas resueltas con fallback sin llamar al servicio")
+            .tag("service", service)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private boolean tryAcquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(properties.getBulkhead().getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Circuit breaker por fallos consecutivos. En HALF_OPEN deja pasar una sola llamada de prueba.
+     */
+    static class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openNanos;
+
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        CircuitBreaker(HttpClientProperties.CircuitBreaker config) {
+            this.failureThreshold = config.getFailureThreshold();
+            this.openNanos = config.getOpenDuration().toNanos();
+        }
+
+        synchronized boolean allowRequest() {
+            if (state == CircuitState.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = CircuitState.HALF_OPEN;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            }
+            return state == CircuitState.CLOSED;
+        }
+
+        synchronized void releaseTrial() {
+            trialInFlight = false;
+        }
+
+        synchronized void recordSuccess() {
+            state = CircuitState.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        /**
+         * @return true si este fallo abre el circuito
+         */
+        synchronized boolean recordFailure() {
+            trialInFlight = false;
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                boolean opened = state != CircuitState.OPEN;
+                state = CircuitState.OPEN;
+                openedAt = System.nanoTime();
+                return opened;
+            }
+            return false;
+        }
+
+        synchronized CircuitState getState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.NativeHistoricVariableInstanceQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 🏁 Resuelve en bloque la variable histórica {@code finalStatus}
+ *
+ * Reemplaza la consulta por solicitud ({@code isRequestApproved}) por
+ * consultas {@code processInstanceIdIn(...)} en lotes de
+ * {@code app.reports.final-status.chunk-size} instancias.
+ *
+ * Solo cuentan las instancias terminadas: {@code finalStatus} se escribe antes del
+ * correo final, así que una instancia aún en curso ya puede tenerla. La variable
+ * histórica no tiene filtro {@code finished()}, por eso las consultas son nativas y
+ * cruzan con la instancia histórica ({@code END_TIME_ IS NOT NULL}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinalStatusResolver {
+
+    public static final String PROCESS_KEY = "purchase-request-process";
+    public static final String VARIABLE_NAME = "finalStatus";
+
+    private final HistoryService historyService;
+    private final ManagementService managementService;
+
+    private int chunkSize = 500;
+
+    @Value("${app.reports.final-status.chunk-size:500}")
+    public void setChunkSize(int chunkSize) {
+        // Con 0 o un valor negativo chunks() no avanzaría nunca
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public enum FinalStatus {
+        APPROVED,
+        REJECTED;
+
+        public static FinalStatus parse(Object value) {
+            if (value == null) {
+                return null;
+            }
+            return switch (value.toString()) {
+                case "APPROVED" -> APPROVED;
+                case "REJECTED" -> REJECTED;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * Estado final de las instancias indicadas. Las que aún no tienen
+     * {@code finalStatus} no aparecen en el mapa.
+     */
+    public Map<String, FinalStatus> resolve(Collection<String> processInstanceIds) {
+        Map<String, FinalStatus> result = new HashMap<>();
+        if (processInstanceIds == null || processInstanceIds.isEmpty()) {
+            return result;
+        }
+
+        for (List<String> chunk : chunks(processInstanceIds)) {
+            String placeholders = IntStream.range(0, chunk.size())
+                .mapToObj(i -> "#{id" + i + "}")
+                .collect(Collectors.joining(", "));
+            NativeHistoricVariableInstanceQuery query = nativeQuery(
+                "SELECT V.* " + finishedVariables() + " AND V.PROC_INST_ID_ IN (" + placeholders + ")");
+            for (int i = 0; i < chunk.size(); i++) {
+                query.parameter("id" + i, chunk.get(i));
+            }
+            collect(query.list(), result);
+        }
+
+        log.debug("🏁 finalStatus resuelto para {} de {} instancias", result.size(), processInstanceIds.size());
+        return result;
+    }
+
+    /**
+     * Estado final de todas las instancias terminadas del proceso en una sola consulta
+     */
+    public Map<String, FinalStatus> resolveAll() {
+        Map<String, FinalStatus> result = new HashMap<>();
+        collect(nativeQuery("SELECT V.* " + finishedVariables() + " AND P.PROC_DEF_KEY_ = #{processKey}")
+            .parameter("processKey", PROCESS_KEY)
+            .list(), result);
+        return result;
+    }
+
+    /**
+     * Cuenta en la base de datos las instancias terminadas del proceso con el estado indicado
+     */
+    public long countAll(FinalStatus status) {
+        return nativeQuery("SELECT COUNT(*) " + finishedVariables()
+                + " AND P.PROC_DEF_KEY_ = #{processKey} AND V.TEXT_ = #{status}")
+            .parameter("processKey", PROCESS_KEY)
+            .parameter("status", status.name())
+            .count();
+    }
+
+    /**
+     * Parte los ids en lotes de {@code chunk-size}, el tamaño de cada {@code IN (...)}
+     */
+    public List<List<String>> chunks(Collection<String> ids) {
+        List<String> all = new ArrayList<>(ids);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += chunkSize) {
+            chunks.add(all.subList(from, Math.min(from + chunkSize, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Cuenta cuántas instancias terminaron con el estado indicado
+     */
+    public static long count(Map<String, FinalStatus> finalStatuses, FinalStatus status) {
+        return finalStatuses.values().stream()
+            .filter(status::equals)
+            .count();
+    }
+
+    // Variables finalStatus vigentes de instancias terminadas
+    private String finishedVariables() {
+        return "FROM " + managementService.getTableName(HistoricVariableInstance.class) + " V "
+            + "INNER JOIN " + managementService.getTableName(HistoricProcessInstance.class) + " P "
+            + "ON P.PROC_INST_ID_ = V.PROC_INST_ID_ "
+            + "WHERE V.NAME_ = #{name} AND V.STATE_ = 'CREATED' AND P.END_TIME_ IS NOT NULL";
+    }
+
+    private NativeHistoricVariableInstanceQuery nativeQuery(String sql) {
+        return historyService
+            .createNativeHistoricVariableInstanceQuery()
+            .sql(sql)
+            .parameter("name", VARIABLE_NAME)
+            .disableCustomObjectDeserialization();
+    }
+
+    private void collect(List<HistoricVariableInstance> variables, Map<String, FinalStatus> result) {
+        for (HistoricVariableInstance variable : variables) {
+            FinalStatus status = FinalStatus.parse(variable.getValue());
+            if (status != null) {
+                result.put(variable.getProcessInstanceId(), status);
+            }
+        }
+    }
+}
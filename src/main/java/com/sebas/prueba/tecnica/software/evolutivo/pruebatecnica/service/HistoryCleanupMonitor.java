@@ -0,0 +1,116 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.history.CleanableHistoricProcessInstanceReportResult;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.Metrics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧹 Métricas de la limpieza del historial
+ *
+ * El job {@code history-cleanup} de Camunda registra lo que borra en las métricas del
+ * motor ({@code history-cleanup-removed-*}, volcadas a la BD periódicamente). En cada
+ * ciclo se lee la ventana transcurrida desde el anterior y se publica en Micrometer:
+ * <ul>
+ *   <li>{@code history.cleanup.removed{type}}: filas raíz borradas (instancias de proceso,
+ *       decisiones, operaciones batch);</li>
+ *   <li>{@code history.cleanup.throughput}: instancias de proceso borradas por segundo en
+ *       la última ventana con actividad;</li>
+ *   <li>{@code history.cleanup.backlog}: instancias de {@code purchase-request-process}
+ *       terminadas y ya vencidas que siguen esperando a la limpieza.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class HistoryCleanupMonitor {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+
+    private static final Map<String, String> REMOVED_METRICS = new LinkedHashMap<>();
+    static {
+        REMOVED_METRICS.put(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES, "process-instances");
+        REMOVED_METRICS.put(Metrics.HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES, "decision-instances");
+        REMOVED_METRICS.put(Metrics.HISTORY_CLEANUP_REMOVED_BATCH_OPERATIONS, "batch-operations");
+    }
+
+    private final ManagementService managementService;
+    private final HistoryService historyService;
+    private final Map<String, Counter> removed = new LinkedHashMap<>();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong throughput = new AtomicLong();
+
+    private Date windowStart;
+
+    public HistoryCleanupMonitor(ManagementService managementService,
+                                 HistoryService historyService,
+                                 MeterRegistry meterRegistry) {
+        this.managementService = managementService;
+        this.historyService = historyService;
+        this.windowStart = ClockUtil.getCurrentTime();
+
+        REMOVED_METRICS.forEach((metric, type) -> removed.put(metric,
+            Counter.builder("history.cleanup.removed")
+                .description("Entradas raíz del historial borradas por la limpieza")
+                .tag("type", type)
+                .register(meterRegistry)));
+        Gauge.builder("history.cleanup.throughput", throughput, AtomicLong::get)
+            .description("Instancias de proceso borradas por segundo en la última ventana con limpieza")
+            .register(meterRegistry);
+        Gauge.builder("history.cleanup.backlog", backlog, AtomicLong::get)
+            .description("Instancias terminadas con el TTL vencido pendientes de limpieza")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.history.cleanup.metrics-interval-ms:60000}",
+        initialDelayString = "${app.history.cleanup.metrics-interval-ms:60000}"
+    )
+    public synchronized void poll() {
+        try {
+            Date windowEnd = ClockUtil.getCurrentTime();
+            long processInstances = 0;
+            for (Map.Entry<String, Counter> entry : removed.entrySet()) {
+                long count = managementService.createMetricsQuery()
+                    .name(entry.getKey())
+                    .startDate(windowStart)
+                    .endDate(windowEnd)
+                    .sum();
+                entry.getValue().increment(count);
+                if (Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES.equals(entry.getKey())) {
+                    processInstances = count;
+                }
+            }
+
+            if (processInstances > 0) {
+                double seconds = Math.max(1, windowEnd.getTime() - windowStart.getTime()) / 1000.0;
+                throughput.set(Math.round(processInstances / seconds));
+                log.info("🧹 Limpieza del historial: {} instancias borradas en {} s ({} instancias/s)",
+                    processInstances, Math.round(seconds), throughput.get());
+            }
+            windowStart = windowEnd;
+
+            backlog.set(historyService.createCleanableHistoricProcessInstanceReport()
+                .processDefinitionKeyIn(PROCESS_KEY)
+                .list().stream()
+                .mapToLong(CleanableHistoricProcessInstanceReportResult::getCleanableProcessInstanceCount)
+                .sum());
+
+        } catch (Exception e) {
+            log.error("❌ Error leyendo las métricas de limpieza del historial: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AdaptiveJobExecutor;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.JobExecutorTuningProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🎛️ Ajuste periódico del job executor bajo carga de timers
+ *
+ * En cada ciclo lee la ventana de {@link AdaptiveJobExecutor} (adquiridos, rechazados,
+ * duración media por job), la ocupación del pool y el retraso del timer vencido más
+ * antiguo, y decide:
+ * <ul>
+ *   <li><b>hilos</b>: crece si hay rechazos, cola alta o backlog de timers mientras los
+ *       jobs sean rápidos (si son lentos el cuello es la BD y más hilos no ayudan);
+ *       decrece de uno en uno cuando el pool está ocioso;</li>
+ *   <li><b>lote de adquisición</b>: los huecos libres del pool (hilos + cola), para no
+ *       bloquear jobs que el pool rechazaría: es la contrapresión sobre la adquisición.</li>
+ * </ul>
+ * Solo existe con {@code app.job-executor.adaptive.enabled=true}.
+ */
+@Slf4j
+public class JobExecutorTuner {
+
+    private final AdaptiveJobExecutor executor;
+    private final ProcessEngineConfigurationImpl engineConfiguration;
+    private final JobExecutorTuningProperties properties;
+    private final int queueCapacity;
+
+    private final AtomicLong timerLagMillis = new AtomicLong();
+    private volatile Settings settings;
+
+    public JobExecutorTuner(AdaptiveJobExecutor executor,
+                            ProcessEngineConfigurationImpl engineConfiguration,
+                            JobExecutorTuningProperties properties,
+                            int queueCapacity,
+                            MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.engineConfiguration = engineConfiguration;
+        this.properties = properties;
+        this.queueCapacity = queueCapacity;
+        this.settings = new Settings(executor.getPool().getCorePoolSize(), executor.getBatchSize());
+
+        Gauge.builder("jobexecutor.timer.lag", timerLagMillis, lag -> lag.get() / 1000.0)
+            .description("Retraso del timer vencido más antiguo sin ejecutar")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.job-executor.adaptive.interval-ms:5000}",
+        initialDelayString = "${app.job-executor.adaptive.interval-ms:5000}"
+    )
+    public synchronized void tune() {
+        try {
+            ThreadPoolTaskExecutor pool = executor.getPool();
+            AdaptiveJobExecutor.Window window = executor.drainWindow();
+            long lag = oldestDueTimerLag();
+            timerLagMillis.set(lag);
+
+            Load load = new Load(window.rejected(), window.avgJobMillis(), pool.getActiveCount(),
+                pool.getQueueSize(), queueCapacity, lag);
+            Settings next = decide(load, settings, properties);
+            apply(next);
+
+            if (!next.equals(settings)) {
+                log.info("🎛️ Job executor: hilos {}→{}, lote {}→{} "
+                        + "(adquiridos {}, rechazados {}, cola {}/{}, {} ms/job, retraso timers {} ms)",
+                    settings.poolSize(), next.poolSize(), settings.batchSize(), next.batchSize(),
+                    window.acquired(), window.rejected(), load.queued(),
+                    queueCapacity, Math.round(window.avgJobMillis()), lag);
+            }
+            settings = next;
+        } catch (Exception e) {
+            log.error("❌ Error ajustando el job executor: {}", e.getMessage(), e);
+        }
+    }
+
+    public Settings current() {
+        return settings;
+    }
+
+    /**
+     * Siguiente configuración a partir de la carga observada; sin efectos secundarios.
+     */
+    static Settings decide(Load load, Settings current, JobExecutorTuningProperties properties) {
+        boolean saturated = load.rejected() > 0
+            || load.queued() >= load.queueCapacity() * properties.getQueueHighWatermark();
+        boolean backlog = load.timerLagMillis() > properties.getTimerLagThresholdMillis();
+        boolean slow = load.avgJobMillis() > properties.getTargetJobMillis();
+
+        int poolSize = current.poolSize();
+        if ((saturated || backlog) && !slow) {
+            poolSize = Math.min(properties.getMaxPoolSize(), poolSize + properties.getPoolStep());
+        } else if (!saturated && !backlog && load.queued() == 0 && load.active() < poolSize / 2) {
+            poolSize = Math.max(properties.getMinPoolSize(), poolSize - 1);
+        }
+
+        int free = Math.max(0, poolSize - load.active()) + Math.max(0, load.queueCapacity() - load.queued());
+        int batchSize = Math.max(properties.getMinBatch(), Math.min(properties.getMaxBatch(), free));
+
+        return new Settings(poolSize, batchSize);
+    }
+
+    private void apply(Settings next) {
+        ThreadPoolTaskExecutor pool = executor.getPool();
+        if (next.poolSize() != pool.getCorePoolSize()) {
+            if (next.poolSize() > pool.getMaxPoolSize()) {
+                pool.setMaxPoolSize(next.poolSize());
+            }
+            pool.setCorePoolSize(next.poolSize());
+        }
+        executor.setBatchSize(next.batchSize());
+    }
+
+    private long oldestDueTimerLag() {
+        List<Job> oldest = engineConfiguration.getManagementService().createJobQuery()
+            .timers()
+            .executable()
+            .orderByJobDuedate().asc()
+            .listPage(0, 1);
+        if (oldest.isEmpty() || oldest.get(0).getDuedate() == null) {
+            return 0;
+        }
+        return Math.max(0, ClockUtil.getCurrentTime().getTime() - oldest.get(0).getDuedate().getTime());
+    }
+
+    /**
+     * Carga observada en un ciclo.
+     */
+    record Load(long rejected, double avgJobMillis, int active, int queued, int queueCapacity,
+                long timerLagMillis) {
+    }
+
+    /**
+     * Configuración aplicada: hilos base del pool y jobs por adquisición.
+     */
+    public record Settings(int poolSize, int batchSize) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ⏫ Prioridad de los jobs de {@code purchase-request-process}
+ *
+ * Se usa desde el atributo {@code camunda:jobPriority} del proceso, así que aplica a
+ * todas sus continuaciones asíncronas y timers. Con
+ * {@code jobExecutorAcquireByPriority} el job executor adquiere primero los jobs
+ * de mayor valor: las solicitudes URGENT adelantan a las demás cuando hay cola.
+ */
+@Component("jobPriorityPolicy")
+public class JobPriorityPolicy {
+
+    public static final long DEFAULT_PRIORITY = 10;
+
+    private static final Map<Priority, Long> PRIORITIES = new EnumMap<>(Map.of(
+        Priority.URGENT, 100L,
+        Priority.HIGH, 50L,
+        Priority.NORMAL, DEFAULT_PRIORITY,
+        Priority.LOW, 0L
+    ));
+
+    /**
+     * Prioridad del job según la variable {@code priority} de la instancia;
+     * sin variable o con un valor desconocido se usa la de NORMAL.
+     */
+    public long priorityOf(VariableScope execution) {
+        Object value = execution.getVariable("priority");
+        if (value == null) {
+            return DEFAULT_PRIORITY;
+        }
+        try {
+            return PRIORITIES.get(Priority.valueOf(value.toString()));
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_PRIORITY;
+        }
+    }
+}
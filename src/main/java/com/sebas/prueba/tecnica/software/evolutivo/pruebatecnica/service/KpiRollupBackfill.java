@@ -0,0 +1,204 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.KpiRollupRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService.Completion;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService.Delta;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService.RollupKey;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 🔄 Reconstruye los rollups de KPIs desde el historial
+ *
+ * Recorre por días las instancias terminadas de {@code purchase-request-process}, en páginas
+ * de {@code app.kpi.rollup.page-size} con dos consultas en bloque por página (solicitudes y
+ * variables {@code finalStatus}/{@code approvalRoute}/{@code approvalTimeMillis}), y reemplaza
+ * las filas de cada día y los sketches de latencia en memoria de esos días.
+ * Solo se reconstruyen días cerrados: el día en curso lo alimentan las instancias que terminan.
+ *
+ * Se ejecuta al arrancar si la tabla está vacía, cada noche para los dos últimos días
+ * ({@code app.kpi.rollup.reconcile-cron}) y bajo demanda desde {@code /api/kpi/backfill}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KpiRollupBackfill {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+    private static final int RECONCILE_DAYS = 2;
+
+    private final HistoryService historyService;
+    private final PurchaseRequestRepository purchaseRequestRepository;
+    private final KpiRollupRepository kpiRollupRepository;
+    private final KpiRollupService kpiRollupService;
+    private final ProcessingLatencyMonitor processingLatencyMonitor;
+
+    @Value("${app.kpi.rollup.page-size:500}")
+    private int pageSize = 500;
+
+    @Value("${app.kpi.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup || kpiRollupRepository.countByGranularity(Granularity.DAY) > 0) {
+            return;
+        }
+        try {
+            log.info("🔄 Tabla de rollups vacía: reconstruyendo KPIs desde el historial");
+            backfill(null, null);
+        } catch (Exception e) {
+            log.error("❌ Error reconstruyendo rollups de KPIs: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${app.kpi.rollup.reconcile-cron:0 15 0 * * *}")
+    public void reconcileRecentDays() {
+        try {
+            LocalDate today = LocalDate.now();
+            backfill(today.minusDays(RECONCILE_DAYS), today);
+        } catch (Exception e) {
+            log.error("❌ Error reconciliando rollups de KPIs: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reconstruye los días {@code [from, to)}. Sin {@code from} empieza en la primera
+     * instancia terminada; {@code to} se limita al día en curso.
+     *
+     * @return instancias agregadas
+     */
+    public synchronized long backfill(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = to == null || to.isAfter(today) ? today : to;
+        LocalDate start = from != null ? from : firstCompletionDay();
+        if (start == null || !start.isBefore(end)) {
+            return 0;
+        }
+
+        long total = 0;
+        for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+            total += backfillDay(day);
+        }
+        processingLatencyMonitor.reloadDays(start, end);
+        log.info("🔄 Rollups de KPIs reconstruidos del {} al {}: {} instancias", start, end.minusDays(1), total);
+        return total;
+    }
+
+    // ===================== MÉTODOS PRIVADOS =====================
+
+    private long backfillDay(LocalDate day) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        int size = Math.max(1, Math.min(pageSize, 1000));
+        int offset = 0;
+
+        while (true) {
+            List<HistoricProcessInstance> page = historyService.createHistoricProcessInstanceQuery()
+                .processDefinitionKey(PROCESS_KEY)
+                .finished()
+                .finishedAfter(toDate(dayStart))                        // >=
+                .finishedBefore(new Date(toDate(dayEnd).getTime() - 1))  // <=: día semiabierto
+                .orderByProcessInstanceEndTime().asc()
+                .orderByProcessInstanceId().asc()
+                .listPage(offset, size);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<String> ids = page.stream().map(HistoricProcessInstance::getId).toList();
+            Map<String, PurchaseRequest> requests = purchaseRequestRepository.findByProcessInstanceIdIn(ids).stream()
+                .collect(Collectors.toMap(PurchaseRequest::getProcessInstanceId, Function.identity(), (a, b) -> a));
+            Map<String, Map<String, Object>> variables = loadVariables(ids);
+
+            for (HistoricProcessInstance instance : page) {
+                KpiRollupService.accumulate(deltas, toCompletion(instance,
+                    requests.get(instance.getId()), variables.getOrDefault(instance.getId(), Map.of())));
+            }
+
+            offset += page.size();
+            if (page.size() < size) {
+                break;
+            }
+        }
+
+        kpiRollupService.replaceRange(dayStart, dayEnd, deltas);
+        return offset;
+    }
+
+    private Map<String, Map<String, Object>> loadVariables(List<String> ids) {
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        for (HistoricVariableInstance variable : historyService.createHistoricVariableInstanceQuery()
+                .processInstanceIdIn(ids.toArray(new String[0]))
+                .variableNameIn(FinalStatusResolver.VARIABLE_NAME, "approvalRoute", KpiRollupService.APPROVAL_TIME_VARIABLE)
+                .disableBinaryFetching()
+                .disableCustomObjectDeserialization()
+                .list()) {
+            variables.computeIfAbsent(variable.getProcessInstanceId(), id -> new HashMap<>())
+                .put(variable.getName(), variable.getValue());
+        }
+        return variables;
+    }
+
+    private static Completion toCompletion(HistoricProcessInstance instance, PurchaseRequest request,
+                                           Map<String, Object> variables) {
+        Object route = variables.get("approvalRoute");
+        Object status = variables.get(FinalStatusResolver.VARIABLE_NAME);
+        Object approvalTime = variables.get(KpiRollupService.APPROVAL_TIME_VARIABLE);
+        return new Completion(
+            toLocalDateTime(instance.getEndTime()),
+            request != null && request.getCategory() != null ? request.getCategory().name() : null,
+            request != null ? request.getDepartment() : null,
+            route != null ? route.toString() : request != null ? request.getApprovalRoute() : null,
+            status != null ? FinalStatusResolver.FinalStatus.parse(status) : null,
+            request != null ? baseAmount(request) : BigDecimal.ZERO,
+            instance.getDurationInMillis(),
+            approvalTime instanceof Number ? ((Number) approvalTime).longValue() : null);
+    }
+
+    private static BigDecimal baseAmount(PurchaseRequest request) {
+        return request.getNormalizedAmount() != null ? request.getNormalizedAmount() : request.getTotalAmount();
+    }
+
+    private LocalDate firstCompletionDay() {
+        List<HistoricProcessInstance> first = historyService.createHistoricProcessInstanceQuery()
+            .processDefinitionKey(PROCESS_KEY)
+            .finished()
+            .orderByProcessInstanceEndTime().asc()
+            .listPage(0, 1);
+        return first.isEmpty() ? null : toLocalDateTime(first.get(0).getEndTime()).toLocalDate();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
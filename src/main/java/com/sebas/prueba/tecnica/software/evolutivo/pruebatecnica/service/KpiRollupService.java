@@ -0,0 +1,373 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.KpiSeriesPointDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.KpiRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 📈 Rollups de KPIs por hora y por día
+ *
+ * Cada solicitud que termina el proceso se acumula, después del commit, en un búfer de
+ * deltas por franja (hora y día), categoría, departamento y ruta. El búfer se vuelca a
+ * {@code kpi_rollups} cada {@code app.kpi.rollup.flush-interval-ms}, de modo que las
+ * escrituras por fila son pocas. {@link KpiRollupBackfill} reconstruye días completos
+ * desde el historial y corrige lo que se pierda si el nodo cae con deltas sin volcar.
+ * Si otro nodo (o una reconstrucción) actualiza o crea la misma fila a la vez, el
+ * volcado falla por la versión de la fila o la clave única y sus deltas vuelven al
+ * búfer. Las mismas solicitudes alimentan los sketches de latencia en memoria de
+ * {@link ProcessingLatencyMonitor}.
+ *
+ * Las series y el tiempo medio de procesamiento se leen solo de los rollups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KpiRollupService {
+
+    static final String UNKNOWN = "UNKNOWN";
+    // Milisegundos acumulados en tareas de aprobación (variable de la instancia)
+    public static final String APPROVAL_TIME_VARIABLE = "approvalTimeMillis";
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final KpiRollupRepository kpiRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessingLatencyMonitor processingLatencyMonitor;
+
+    private final Object pendingLock = new Object();
+    private Map<RollupKey, Delta> pending = new HashMap<>();
+
+    @Value("${app.kpi.rollup.max-points:5000}")
+    private int maxPoints = 5000;
+
+    /**
+     * Solicitud terminada. {@code processingTimeMillis} es null si no se conoce el inicio y
+     * {@code approvalTimeMillis} si no pasó por tareas de aprobación.
+     */
+    public record Completion(LocalDateTime endTime, String category, String department, String approvalRoute,
+                             FinalStatusResolver.FinalStatus finalStatus, BigDecimal amount, Long processingTimeMillis,
+                             Long approvalTimeMillis) {
+    }
+
+    // ===================== ESCRITURA =====================
+
+    /**
+     * Acumula la solicitud en el búfer y en los sketches de latencia cuando la transacción
+     * que la terminó confirma.
+     */
+    public void recordCompletion(Completion completion) {
+        Runnable add = () -> {
+            synchronized (pendingLock) {
+                accumulate(pending, completion);
+            }
+            processingLatencyMonitor.record(completion);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add.run();
+                }
+            });
+        } else {
+            add.run();
+        }
+    }
+
+    /**
+     * Vuelca el búfer en una transacción; si falla, los deltas vuelven al búfer para el siguiente ciclo.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.kpi.rollup.flush-interval-ms:10000}",
+        initialDelayString = "${app.kpi.rollup.flush-interval-ms:10000}"
+    )
+    public synchronized void flush() {
+        Map<RollupKey, Delta> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> merge(batch));
+            log.debug("📈 Rollups de KPIs: {} filas actualizadas", batch.size());
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.warn("⚠️ Rollups de KPIs modificados por otro escritor, se reintenta en el próximo ciclo: {}",
+                e.getMessage());
+            requeue(batch);
+        } catch (Exception e) {
+            log.error("❌ Error volcando rollups de KPIs, se reintenta en el próximo ciclo: {}", e.getMessage(), e);
+            requeue(batch);
+        }
+    }
+
+    private void requeue(Map<RollupKey, Delta> batch) {
+        synchronized (pendingLock) {
+            batch.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new Delta()).merge(delta));
+        }
+    }
+
+    /**
+     * Reemplaza las filas de {@code [from, to)} por las reconstruidas. Antes se vuelca el
+     * búfer para que sus deltas no se sumen después sobre los datos reconstruidos.
+     */
+    public synchronized void replaceRange(LocalDateTime from, LocalDateTime to, Map<RollupKey, Delta> rebuilt) {
+        flush();
+        transactionTemplate.executeWithoutResult(status -> {
+            kpiRollupRepository.deleteRange(from, to);
+            kpiRollupRepository.saveAll(rebuilt.entrySet().stream()
+                .map(entry -> entry.getValue().applyTo(newRow(entry.getKey())))
+                .toList());
+        });
+    }
+
+    // ===================== LECTURA =====================
+
+    /**
+     * Serie temporal de {@code [from, to)} con una entrada por franja, incluidas las vacías.
+     * Los filtros nulos no restringen.
+     */
+    public List<KpiSeriesPointDto> series(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                          String category, String department, String approvalRoute) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("El rango debe cumplir from < to");
+        }
+        LocalDateTime start = bucketStart(granularity, from);
+        long points = ChronoUnit.HOURS.between(start, to) / (granularity == Granularity.DAY ? 24 : 1) + 1;
+        if (points > maxPoints) {
+            throw new IllegalArgumentException("El rango pedido tiene " + points + " puntos (máximo " + maxPoints
+                + "); use una granularidad mayor o un rango menor");
+        }
+
+        Map<LocalDateTime, Delta> byBucket = new TreeMap<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = next(granularity, bucket)) {
+            byBucket.put(bucket, new Delta());
+        }
+        for (KpiRollup row : kpiRollupRepository.findSeries(granularity, start, to, category, department, approvalRoute)) {
+            byBucket.computeIfAbsent(row.getBucketStart(), k -> new Delta()).merge(Delta.of(row));
+        }
+
+        return byBucket.entrySet().stream()
+            .map(entry -> entry.getValue().toPoint(entry.getKey()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Tiempo medio de procesamiento (horas) de todas las solicitudes terminadas.
+     */
+    public double averageProcessingTimeHours() {
+        List<Object[]> rows = kpiRollupRepository.sumProcessingTime(Granularity.DAY);
+        if (rows.isEmpty() || rows.get(0)[0] == null || rows.get(0)[1] == null) {
+            return 0.0;
+        }
+        long count = ((Number) rows.get(0)[1]).longValue();
+        return count > 0 ? ((Number) rows.get(0)[0]).longValue() / MILLIS_PER_HOUR / count : 0.0;
+    }
+
+    // ===================== MÉTODOS DE APOYO =====================
+
+    /**
+     * Suma la solicitud en sus dos franjas (hora y día).
+     */
+    static void accumulate(Map<RollupKey, Delta> deltas, Completion completion) {
+        for (Granularity granularity : Granularity.values()) {
+            RollupKey key = new RollupKey(granularity, bucketStart(granularity, completion.endTime()),
+                orUnknown(completion.category()), orUnknown(completion.department()),
+                orUnknown(completion.approvalRoute()));
+            deltas.computeIfAbsent(key, k -> new Delta()).add(completion);
+        }
+    }
+
+    static LocalDateTime bucketStart(Granularity granularity, LocalDateTime time) {
+        return granularity == Granularity.DAY ? time.truncatedTo(ChronoUnit.DAYS) : time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static LocalDateTime next(Granularity granularity, LocalDateTime bucket) {
+        return granularity == Granularity.DAY ? bucket.plusDays(1) : bucket.plusHours(1);
+    }
+
+    static String orUnknown(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value;
+    }
+
+    private void merge(Map<RollupKey, Delta> batch) {
+        List<KpiRollup> touched = new ArrayList<>();
+        for (Granularity granularity : Granularity.values()) {
+            List<LocalDateTime> buckets = batch.keySet().stream()
+                .filter(key -> key.granularity() == granularity)
+                .map(RollupKey::bucketStart)
+                .distinct()
+                .toList();
+            if (buckets.isEmpty()) {
+                continue;
+            }
+            Map<RollupKey, KpiRollup> existing = kpiRollupRepository.findByGranularityAndBucketStartIn(granularity, buckets)
+                .stream()
+                .collect(Collectors.toMap(RollupKey::of, Function.identity()));
+
+            batch.forEach((key, delta) -> {
+                if (key.granularity() == granularity) {
+                    touched.add(delta.applyTo(existing.computeIfAbsent(key, KpiRollupService::newRow)));
+                }
+            });
+        }
+        kpiRollupRepository.saveAll(touched);
+    }
+
+    private static KpiRollup newRow(RollupKey key) {
+        return KpiRollup.builder()
+            .granularity(key.granularity())
+            .bucketStart(key.bucketStart())
+            .category(key.category())
+            .department(key.department())
+            .approvalRoute(key.approvalRoute())
+            .build();
+    }
+
+    /**
+     * Identidad de una fila de {@code kpi_rollups}.
+     */
+    public record RollupKey(Granularity granularity, LocalDateTime bucketStart,
+                            String category, String department, String approvalRoute) {
+
+        static RollupKey of(KpiRollup row) {
+            return new RollupKey(row.getGranularity(), row.getBucketStart(),
+                row.getCategory(), row.getDepartment(), row.getApprovalRoute());
+        }
+    }
+
+    /**
+     * Valores acumulados de una franja; se suman a una fila existente o crean una nueva.
+     */
+    public static final class Delta {
+        private long completed;
+        private long approved;
+        private long rejected;
+        private BigDecimal amountSum = BigDecimal.ZERO;
+        private BigDecimal approvedAmountSum = BigDecimal.ZERO;
+        private long processingTimeSumMillis;
+        private long processingTimeCount;
+        private final DurationSketch processingTime;
+        private final DurationSketch approvalTime;
+
+        Delta() {
+            this(new DurationSketch(), new DurationSketch());
+        }
+
+        private Delta(DurationSketch processingTime, DurationSketch approvalTime) {
+            this.processingTime = processingTime;
+            this.approvalTime = approvalTime;
+        }
+
+        static Delta of(KpiRollup row) {
+            Delta delta = new Delta(DurationSketch.decode(row.getProcessingTimeSketch()),
+                DurationSketch.decode(row.getApprovalTimeSketch()));
+            delta.completed = row.getCompletedCount();
+            delta.approved = row.getApprovedCount();
+            delta.rejected = row.getRejectedCount();
+            delta.amountSum = row.getAmountSum();
+            delta.approvedAmountSum = row.getApprovedAmountSum();
+            delta.processingTimeSumMillis = row.getProcessingTimeSumMillis();
+            delta.processingTimeCount = row.getProcessingTimeCount();
+            return delta;
+        }
+
+        void add(Completion completion) {
+            BigDecimal amount = completion.amount() != null ? completion.amount() : BigDecimal.ZERO;
+            completed++;
+            amountSum = amountSum.add(amount);
+            if (completion.finalStatus() == FinalStatusResolver.FinalStatus.APPROVED) {
+                approved++;
+                approvedAmountSum = approvedAmountSum.add(amount);
+            } else if (completion.finalStatus() == FinalStatusResolver.FinalStatus.REJECTED) {
+                rejected++;
+            }
+            if (completion.processingTimeMillis() != null) {
+                processingTimeSumMillis += completion.processingTimeMillis();
+                processingTimeCount++;
+                processingTime.record(completion.processingTimeMillis());
+            }
+            if (completion.approvalTimeMillis() != null) {
+                approvalTime.record(completion.approvalTimeMillis());
+            }
+        }
+
+        void merge(Delta other) {
+            completed += other.completed;
+            approved += other.approved;
+            rejected += other.rejected;
+            amountSum = amountSum.add(other.amountSum);
+            approvedAmountSum = approvedAmountSum.add(other.approvedAmountSum);
+            processingTimeSumMillis += other.processingTimeSumMillis;
+            processingTimeCount += other.processingTimeCount;
+            processingTime.merge(other.processingTime);
+            approvalTime.merge(other.approvalTime);
+        }
+
+        KpiRollup applyTo(KpiRollup row) {
+            Delta total = Delta.of(row);
+            total.merge(this);
+            row.setCompletedCount(total.completed);
+            row.setApprovedCount(total.approved);
+            row.setRejectedCount(total.rejected);
+            row.setAmountSum(total.amountSum.setScale(2, RoundingMode.HALF_UP));
+            row.setApprovedAmountSum(total.approvedAmountSum.setScale(2, RoundingMode.HALF_UP));
+            row.setProcessingTimeSumMillis(total.processingTimeSumMillis);
+            row.setProcessingTimeCount(total.processingTimeCount);
+            row.setProcessingTimeSketch(total.processingTime.encode());
+            row.setApprovalTimeSketch(total.approvalTime.encode());
+            return row;
+        }
+
+        KpiSeriesPointDto toPoint(LocalDateTime bucketStart) {
+            return KpiSeriesPointDto.builder()
+                .bucketStart(bucketStart)
+                .completed(completed)
+                .approved(approved)
+                .rejected(rejected)
+                .approvalRate(completed > 0 ? approved * 100.0 / completed : null)
+                .amountSum(amountSum.setScale(2, RoundingMode.HALF_UP))
+                .approvedAmountSum(approvedAmountSum.setScale(2, RoundingMode.HALF_UP))
+                .averageProcessingHours(processingTimeCount > 0
+                    ? processingTimeSumMillis / MILLIS_PER_HOUR / processingTimeCount : null)
+                .p50ProcessingHours(hours(processingTime.quantile(0.50)))
+                .p90ProcessingHours(hours(processingTime.quantile(0.90)))
+                .p99ProcessingHours(hours(processingTime.quantile(0.99)))
+                .p50ApprovalHours(hours(approvalTime.quantile(0.50)))
+                .p90ApprovalHours(hours(approvalTime.quantile(0.90)))
+                .p99ApprovalHours(hours(approvalTime.quantile(0.99)))
+                .build();
+        }
+
+        static Double hours(Long millis) {
+            return millis != null ? millis / MILLIS_PER_HOUR : null;
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MetricTags;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 
@@ -21,84 +24,13 @@ import java.time.LocalDateTime;
 @Slf4j
 public class NotificationService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final PurchaseRequestRepository prRepository;
-
-    @Value("${app.mail.from:demo.bpm.consultant@gmail.com}")
-    private String fromEmail;
-
-    @Value("${app.mail.enabled:false}")
-    private boolean mailEnabled;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.base.url:http://localhost:8080}")
     private String baseUrl;
     
-/**
- * Método requerido por SendReminderDelegate
- * ✅ CORREGIDO: Usar java.math.BigDecimal
- */
-public void sendReminderEmail(String toEmail, String requestId, String taskName, 
-                             java.math.BigDecimal amount, String description) {
-    try {
-        log.info("⏰ Enviando recordatorio - RequestId: {}, Task: {}", requestId, taskName);
-        
-        // Buscar la solicitud en la base de datos
-        PurchaseRequest request = prRepository.findByBusinessKey(requestId)
-            .orElse(null);
-        
-        if (request != null) {
-            // Incrementar contador de recordatorios
-            request.setReminderCount(request.getReminderCount() + 1);
-            prRepository.save(request);
-            
-            // Usar el método existente con datos completos
-            sendReminderNotification(request, toEmail, taskName);
-            
-        } else {
-            // Si no encontramos la solicitud, enviar recordatorio básico
-            log.warn("Solicitud no encontrada en BD: {}, enviando recordatorio básico", requestId);
-            sendBasicReminderEmail(toEmail, requestId, taskName, amount, description);
-        }
-        
-    } catch (Exception e) {
-        log.error("❌ Error enviando recordatorio: {}", e.getMessage(), e);
-    }
-}
-
-/**
- * Recordatorio básico cuando no se encuentra la solicitud en BD
- * ✅ CORREGIDO: Usar java.math.BigDecimal
- */
-private void sendBasicReminderEmail(String toEmail, String requestId, String taskName, 
-                                   java.math.BigDecimal amount, String description) {
-    String subject = String.format("⏰ Recordatorio: Solicitud pendiente - %s", requestId);
-    String body = String.format("""
-        Estimado aprobador,
-        
-        ⏰ RECORDATORIO: Tiene una solicitud pendiente de aprobación
-        
-        📋 DETALLES:
-        • Número: %s
-        • Tarea: %s
-        • Monto: $%s
-        • Descripción: %s
-        
-        🔗 Acceda al sistema para completar la aprobación:
-        %s/camunda/app/tasklist
-        
-        Saludos,
-        Sistema BPM - Software Evolutivo
-        """,
-        requestId,
-        taskName,
-        amount != null ? amount.toString() : "N/A",
-        description,
-        baseUrl
-    );
-    
-    sendEmail(toEmail, subject, body);
-}
-    
 /**
  * Invocado desde el SendFinalNotificationDelegate cuando el estado es APPROVED.
  */
@@ -116,6 +48,8 @@ public void sendApprovalNotification(String toEmail, String requestId, DelegateE
         request.setApprovedAt(LocalDateTime.now());
     }
 
+    request.calculateProcessingTime();
+
     // 3) Persistir el cambio
     prRepository.save(request);
 
@@ -143,6 +77,8 @@ public void sendRejectionNotification(String toEmail, String requestId, Delegate
         request.setApprovedAt(LocalDateTime.now());
     }
 
+    request.calculateProcessingTime();
+
     // 3) Acceder a la razón de rechazo (se guardó en rejectionReason)
     String reason = request.getRejectionReason() != null
         ? request.getRejectionReason()
@@ -160,66 +96,73 @@ public void sendRejectionNotification(String toEmail, String requestId, Delegate
 }
 
     public void sendApprovalNotification(PurchaseRequest request, String approverEmail) {
-        try {
-            log.info("📧 Enviando notificación de aprobación a: {}", approverEmail);
-
-            String subject = String.format("Nueva solicitud de compra para aprobar - %s", request.getBusinessKey());
-            String body    = buildApprovalNotificationBody(request);
+        log.info("📧 Enviando notificación de aprobación a: {}", approverEmail);
 
-            sendEmail(approverEmail, subject, body);
+        String subject = String.format("Nueva solicitud de compra para aprobar - %s", request.getBusinessKey());
+        String body    = buildApprovalNotificationBody(request);
 
-        } catch (Exception e) {
-            log.error("❌ Error enviando notificación de aprobación: {}", e.getMessage(), e);
-        }
+        sendEmail("approval_request", approverEmail, subject, body);
     }
 
-    public void sendReminderNotification(PurchaseRequest request, String approverEmail, String taskName) {
-        try {
-            log.info("⏰ Enviando recordatorio a: {}", approverEmail);
-
-            String subject = String.format("Recordatorio: Solicitud pendiente - %s", request.getBusinessKey());
-            String body    = buildReminderNotificationBody(request, taskName);
-
-            sendEmail(approverEmail, subject, body);
-
-        } catch (Exception e) {
-            log.error("❌ Error enviando recordatorio: {}", e.getMessage(), e);
-        }
+    /**
+     * Un solo correo por aprobador con todas sus tareas vencidas del barrido
+     * ({@link ReminderSweepScheduler}); con {@code escalation} es el aviso al administrador
+     * de las solicitudes que alcanzaron el último nivel.
+     */
+    public void sendReminderDigest(String toEmail, List<ReminderItem> items, boolean escalation) {
+        log.info("⏰ Enviando {} a: {} ({} solicitudes)",
+            escalation ? "escalamiento" : "recordatorio", toEmail, items.size());
+
+        String subject = escalation
+            ? String.format("🚨 Escalamiento: %d solicitudes sin aprobar", items.size())
+            : String.format("⏰ Recordatorio: %d solicitudes pendientes de aprobación", items.size());
+        String body    = buildReminderDigestBody(items, escalation);
+
+        sendEmail(escalation ? "escalation" : "reminder", toEmail, subject, body);
     }
 
     public void sendFinalNotification(PurchaseRequest request, String status, String message) {
-        try {
-            log.info("📬 Enviando notificación final a: {}", request.getRequesterEmail());
-
-            String subject = String.format("Estado de su solicitud - %s", request.getBusinessKey());
-            String body    = buildFinalNotificationBody(request, status, message);
+        log.info("📬 Enviando notificación final a: {}", request.getRequesterEmail());
 
-            sendEmail(request.getRequesterEmail(), subject, body);
+        String subject = String.format("Estado de su solicitud - %s", request.getBusinessKey());
+        String body    = buildFinalNotificationBody(request, status, message);
 
-        } catch (Exception e) {
-            log.error("❌ Error enviando notificación final: {}", e.getMessage(), e);
-        }
+        sendEmail("final", request.getRequesterEmail(), subject, body);
     }
 
-    private void sendEmail(String to, String subject, String body) {
-        if (!mailEnabled) {
-            log.info("📧 [SIMULADO] Email a: {} | Asunto: {}", to, subject);
-            log.debug("📧 [SIMULADO] Cuerpo:\n{}", body);
-            return;
-        }
-
+    /**
+     * Encola el correo en la outbox (dentro de la transacción actual).
+     * El envío SMTP lo hace EmailOutboxDispatcher en segundo plano.
+     * La duración se mide en {@code notification.email{type, outcome}}.
+     *
+     * Un fallo al encolar se propaga: la transacción del llamador (barrido, delegate)
+     * se revierte con el correo en lugar de confirmar la escritura sin él.
+     */
+    private void sendEmail(String type, String to, String subject, String body) {
+        long start = System.nanoTime();
+        String outcome = MetricTags.SUCCESS;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-
-            mailSender.send(message);
-            log.info("✅ Email enviado exitosamente a: {}", to);
-
-        } catch (Exception e) {
-            log.error("❌ Error enviando email a {}: {}", to, e.getMessage());
+            // Se valida aquí y no en enqueue: una excepción dentro del proxy transaccional
+            // marcaría rollback-only la transacción del llamador (delegate o barrido)
+            if (to == null || to.isBlank()) {
+                outcome = MetricTags.ERROR;
+                log.error("❌ Email '{}' sin destinatario, no se encola | Asunto: {}", type, subject);
+                return;
+            }
+            emailOutboxService.enqueue(to, subject, body);
+            log.info("📮 Email encolado para: {} | Asunto: {}", to, subject);
+
+        } catch (RuntimeException e) {
+            outcome = MetricTags.ERROR;
+            log.error("❌ Error encolando email a {}: {}", to, e.getMessage());
+            throw e;
+        } finally {
+            Timer.builder("notification.email")
+                .description("Duración del encolado de correos por tipo de notificación")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -262,37 +205,44 @@ public void sendRejectionNotification(String toEmail, String requestId, Delegate
         );
     }
 
-    private String buildReminderNotificationBody(PurchaseRequest request, String taskName) {
-        long daysPending = java.time.Duration.between(request.getCreatedAt(), java.time.LocalDateTime.now()).toDays();
+    private String buildReminderDigestBody(List<ReminderItem> items, boolean escalation) {
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder lines = new StringBuilder();
+        for (ReminderItem item : items) {
+            PurchaseRequest request = item.request();
+            long daysPending = request.getCreatedAt() != null
+                ? java.time.Duration.between(request.getCreatedAt(), now).toDays()
+                : 0;
+            lines.append(String.format("• %s | %s | %s | %s %s | %d días | recordatorio %d de %d%n",
+                request.getBusinessKey(),
+                item.taskName(),
+                request.getRequesterName(),
+                request.getCurrency(),
+                request.getTotalAmount(),
+                daysPending,
+                item.level(),
+                item.maxLevel()));
+        }
 
         return String.format("""
-            Estimado aprobador,
+            %s
             
-            ⏰ RECORDATORIO: Tiene una solicitud pendiente de aprobación
-            
-            📋 DETALLES:
-            • Número: %s
-            • Tarea: %s
-            • Solicitante: %s
-            • Monto: %s %s
-            • Días pendiente: %d
+            %s
             
+            📋 SOLICITUDES:
+            %s
             🔗 Acceda al sistema para completar la aprobación:
             %s/camunda/app/tasklist
             
-            Este es el recordatorio #%d para esta solicitud.
-            
             Saludos,
             Sistema BPM - Software Evolutivo
             """,
-            request.getBusinessKey(),
-            taskName,
-            request.getRequesterName(),
-            request.getCurrency(),
-            request.getTotalAmount(),
-            daysPending,
-            baseUrl,
-            request.getReminderCount()
+            escalation ? "Estimado administrador," : "Estimado aprobador,",
+            escalation
+                ? "🚨 ESCALAMIENTO: Estas solicitudes agotaron los recordatorios sin ser aprobadas"
+                : "⏰ RECORDATORIO: Tiene solicitudes pendientes de aprobación",
+            lines,
+            baseUrl
         );
     }
 
@@ -336,4 +286,10 @@ public void sendRejectionNotification(String toEmail, String requestId, Delegate
             baseUrl
         );
     }
+
+    /**
+     * Tarea vencida dentro de un resumen: la solicitud, la tarea y el nivel de recordatorio alcanzado.
+     */
+    public record ReminderItem(PurchaseRequest request, String taskName, int level, int maxLevel) {
+    }
 }
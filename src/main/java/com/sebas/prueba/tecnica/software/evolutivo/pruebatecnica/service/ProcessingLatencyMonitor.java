@@ -0,0 +1,286 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.DashboardMetricsDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.KpiRollupRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * ⏱️ Percentiles de latencia de las solicitudes en memoria
+ *
+ * Mantiene un {@link DurationSketch} por día, etapa ({@code end_to_end}: de inicio a fin
+ * del proceso; {@code approval}: tiempo en tareas de aprobación) y grupo (total, ruta,
+ * categoría y departamento), con los últimos {@code app.latency.window-days} días. Cada
+ * solicitud terminada se suma después del commit desde {@link KpiRollupService}; al
+ * arrancar la ventana se carga de los rollups diarios, que guardan los mismos sketches.
+ *
+ * Cada {@code app.latency.refresh-interval-ms} se combinan los días de la ventana y se
+ * publican p50/p90/p99 en segundos como {@code purchase.request.duration{stage, dimension,
+ * group, quantile}}. Los grupos por dimensión están acotados por
+ * {@code app.latency.max-groups-per-dimension}; el resto se cuenta en {@code OTHER}.
+ */
+@Component
+@Slf4j
+public class ProcessingLatencyMonitor {
+
+    static final String END_TO_END = "end_to_end";
+    static final String APPROVAL = "approval";
+    static final String ALL = "all";
+    static final String OTHER = "OTHER";
+    static final double[] QUANTILES = {0.50, 0.90, 0.99};
+
+    private final KpiRollupRepository kpiRollupRepository;
+    private final MeterRegistry meterRegistry;
+    private final int windowDays;
+    private final int maxGroupsPerDimension;
+
+    private final Map<LatencyKey, TreeMap<LocalDate, DurationSketch>> sketches = new HashMap<>();
+    private final Map<String, Set<String>> groupsByDimension = new HashMap<>();
+    private final Set<LatencyKey> registered = new HashSet<>();
+    private volatile Map<LatencyKey, Percentiles> snapshot = Map.of();
+
+    public ProcessingLatencyMonitor(KpiRollupRepository kpiRollupRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.latency.window-days:30}") int windowDays,
+                                    @Value("${app.latency.max-groups-per-dimension:50}") int maxGroupsPerDimension) {
+        this.kpiRollupRepository = kpiRollupRepository;
+        this.meterRegistry = meterRegistry;
+        this.windowDays = Math.max(1, windowDays);
+        this.maxGroupsPerDimension = Math.max(1, maxGroupsPerDimension);
+    }
+
+    // ===================== ESCRITURA =====================
+
+    /**
+     * Suma una solicitud terminada (ya confirmada) a los sketches de su día.
+     */
+    public synchronized void record(KpiRollupService.Completion completion) {
+        if (completion.endTime() == null) {
+            return;
+        }
+        LocalDate day = completion.endTime().toLocalDate();
+        if (day.isBefore(windowStart())) {
+            return;
+        }
+        String route = KpiRollupService.orUnknown(completion.approvalRoute());
+        String category = KpiRollupService.orUnknown(completion.category());
+        String department = KpiRollupService.orUnknown(completion.department());
+
+        if (completion.processingTimeMillis() != null) {
+            for (LatencyKey key : keys(END_TO_END, route, category, department)) {
+                daily(key, day).record(completion.processingTimeMillis());
+            }
+        }
+        if (completion.approvalTimeMillis() != null) {
+            for (LatencyKey key : keys(APPROVAL, route, category, department)) {
+                daily(key, day).record(completion.approvalTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Carga la ventana desde los rollups diarios. Los días cerrados se reemplazan (pueden
+     * venir de un backfill previo); el día en curso se suma a lo registrado desde el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWindow() {
+        LocalDate today = today();
+        reloadDays(windowStart(), today);
+        synchronized (this) {
+            for (KpiRollup row : dailyRows(today, today.plusDays(1))) {
+                addRow(row);
+            }
+        }
+        refresh();
+        log.info("⏱️ Sketches de latencia cargados: {} grupos en {} días", snapshot.size(), windowDays);
+    }
+
+    /**
+     * Reemplaza los días cerrados de {@code [from, to)} por lo que hay en los rollups
+     * diarios; lo llama el backfill después de reconstruirlos.
+     */
+    public void reloadDays(LocalDate from, LocalDate to) {
+        LocalDate start = from.isBefore(windowStart()) ? windowStart() : from;
+        LocalDate end = to.isAfter(today()) ? today() : to;
+        if (!start.isBefore(end)) {
+            return;
+        }
+        List<KpiRollup> rows = dailyRows(start, end);
+        synchronized (this) {
+            sketches.values().forEach(days -> days.subMap(start, end).clear());
+            rows.forEach(this::addRow);
+        }
+    }
+
+    // ===================== LECTURA =====================
+
+    /**
+     * Descarta los días fuera de la ventana, recalcula los percentiles y registra los
+     * gauges de los grupos nuevos.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.latency.refresh-interval-ms:30000}",
+        initialDelayString = "${app.latency.refresh-interval-ms:30000}"
+    )
+    public synchronized void refresh() {
+        LocalDate windowStart = windowStart();
+        Map<LatencyKey, Percentiles> next = new LinkedHashMap<>();
+        sketches.values().forEach(days -> days.headMap(windowStart).clear());
+        sketches.forEach((key, days) -> {
+            DurationSketch window = new DurationSketch();
+            days.values().forEach(window::merge);
+            if (!window.isEmpty()) {
+                next.put(key, Percentiles.of(window));
+            }
+        });
+        snapshot = next;
+
+        for (LatencyKey key : next.keySet()) {
+            if (registered.add(key)) {
+                for (double quantile : QUANTILES) {
+                    Gauge.builder("purchase.request.duration", this, monitor -> monitor.seconds(key, quantile))
+                        .description("Percentiles de duración de las solicitudes en la ventana móvil")
+                        .baseUnit("seconds")
+                        .tag("stage", key.stage())
+                        .tag("dimension", key.dimension())
+                        .tag("group", key.group())
+                        .tag("quantile", Double.toString(quantile))
+                        .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Percentiles (horas) del total de una etapa, o null si no hay muestras en la ventana.
+     */
+    public DashboardMetricsDto.LatencyMetricDto overall(String stage) {
+        Percentiles percentiles = snapshot.get(new LatencyKey(stage, ALL, ALL));
+        return percentiles != null ? percentiles.toDto(new LatencyKey(stage, ALL, ALL)) : null;
+    }
+
+    /**
+     * Percentiles (horas) de todos los grupos, ordenados por etapa, dimensión y grupo.
+     */
+    public List<DashboardMetricsDto.LatencyMetricDto> percentiles() {
+        List<DashboardMetricsDto.LatencyMetricDto> result = new ArrayList<>();
+        snapshot.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey(Comparator.comparing(LatencyKey::stage)
+                .thenComparing(LatencyKey::dimension)
+                .thenComparing(LatencyKey::group)))
+            .forEach(entry -> result.add(entry.getValue().toDto(entry.getKey())));
+        return result;
+    }
+
+    // ===================== MÉTODOS DE APOYO =====================
+
+    private double seconds(LatencyKey key, double quantile) {
+        Percentiles percentiles = snapshot.get(key);
+        Long millis = percentiles != null ? percentiles.millis(quantile) : null;
+        return millis != null ? millis / 1000.0 : Double.NaN;
+    }
+
+    private void addRow(KpiRollup row) {
+        LocalDate day = row.getBucketStart().toLocalDate();
+        DurationSketch processing = DurationSketch.decode(row.getProcessingTimeSketch());
+        DurationSketch approval = DurationSketch.decode(row.getApprovalTimeSketch());
+        if (!processing.isEmpty()) {
+            for (LatencyKey key : keys(END_TO_END, row.getApprovalRoute(), row.getCategory(), row.getDepartment())) {
+                daily(key, day).merge(processing);
+            }
+        }
+        if (!approval.isEmpty()) {
+            for (LatencyKey key : keys(APPROVAL, row.getApprovalRoute(), row.getCategory(), row.getDepartment())) {
+                daily(key, day).merge(approval);
+            }
+        }
+    }
+
+    private List<LatencyKey> keys(String stage, String route, String category, String department) {
+        return List.of(
+            new LatencyKey(stage, ALL, ALL),
+            new LatencyKey(stage, "route", group("route", route)),
+            new LatencyKey(stage, "category", group("category", category)),
+            new LatencyKey(stage, "department", group("department", department)));
+    }
+
+    // Acota la cardinalidad de las etiquetas: los grupos que no caben van a OTHER
+    private String group(String dimension, String value) {
+        Set<String> groups = groupsByDimension.computeIfAbsent(dimension, d -> new HashSet<>());
+        if (groups.contains(value)) {
+            return value;
+        }
+        if (groups.size() < maxGroupsPerDimension) {
+            groups.add(value);
+            return value;
+        }
+        return OTHER;
+    }
+
+    private DurationSketch daily(LatencyKey key, LocalDate day) {
+        return sketches.computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(day, d -> new DurationSketch());
+    }
+
+    private List<KpiRollup> dailyRows(LocalDate from, LocalDate to) {
+        return kpiRollupRepository.findSeries(Granularity.DAY, from.atStartOfDay(), to.atStartOfDay(), null, null, null);
+    }
+
+    private LocalDate windowStart() {
+        return today().minusDays(windowDays - 1L);
+    }
+
+    private static LocalDate today() {
+        return LocalDateTime.ofInstant(ClockUtil.getCurrentTime().toInstant(), ZoneId.systemDefault()).toLocalDate();
+    }
+
+    record LatencyKey(String stage, String dimension, String group) {
+    }
+
+    private record Percentiles(long count, Long p50, Long p90, Long p99) {
+
+        static Percentiles of(DurationSketch sketch) {
+            return new Percentiles(sketch.count(), sketch.quantile(0.50), sketch.quantile(0.90), sketch.quantile(0.99));
+        }
+
+        Long millis(double quantile) {
+            return quantile == 0.50 ? p50 : quantile == 0.90 ? p90 : p99;
+        }
+
+        DashboardMetricsDto.LatencyMetricDto toDto(LatencyKey key) {
+            return DashboardMetricsDto.LatencyMetricDto.builder()
+                .stage(key.stage())
+                .dimension(key.dimension())
+                .group(key.group())
+                .count(count)
+                .p50Hours(KpiRollupService.Delta.hours(p50))
+                .p90Hours(KpiRollupService.Delta.hours(p90))
+                .p99Hours(KpiRollupService.Delta.hours(p99))
+                .build();
+        }
+    }
+}
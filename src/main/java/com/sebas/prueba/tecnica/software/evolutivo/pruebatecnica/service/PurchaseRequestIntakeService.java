@@ -0,0 +1,614 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AsyncConfiguration;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto.ItemResult;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto.ItemStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.IntakeStatusDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.IntakeStatusDto.IntakeState;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * 📥 Alta de solicitudes de compra: mapeo desde JSON, variables de Camunda
+ * y arranque de instancias, tanto individual como en lote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PurchaseRequestIntakeService {
+
+    public static final String PROCESS_KEY = "purchase-request-process";
+
+    private static final TypeReference<Map<String, Object>> REQUEST_TYPE = new TypeReference<>() {};
+
+    // Solicitudes reenviadas por barrido; el executor rechaza lo que no quepa en su cola
+    private static final int RESUBMIT_PAGE = 200;
+
+    private final RuntimeService runtimeService;
+    private final PurchaseRequestRepository requestRepo;
+    private final BusinessRulesService businessRulesService;
+    private final NotificationService notificationService;
+    private final CurrencyService currencyService;
+    private final DashboardCounters dashboardCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private TaskExecutor intakeExecutor;
+
+    // Solicitudes por transacción al arrancar un lote
+    private int chunkSize = 100;
+
+    private int maxItems = 10000;
+
+    // Antigüedad a partir de la cual una solicitud en cola se considera perdida (reinicio)
+    private long resubmitAfterMillis = 300_000;
+
+    @Autowired
+    public void setIntakeExecutor(@Qualifier(AsyncConfiguration.INTAKE_EXECUTOR) TaskExecutor intakeExecutor) {
+        this.intakeExecutor = intakeExecutor;
+    }
+
+    @Value("${app.intake.batch.chunk-size:100}")
+    public void setChunkSize(int chunkSize) {
+        // Con 0 o un valor negativo el recorrido por lotes no avanzaría nunca
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Value("${app.intake.batch.max-items:10000}")
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    @Value("${app.intake.async.resubmit-after-ms:300000}")
+    public void setResubmitAfterMillis(long resubmitAfterMillis) {
+        this.resubmitAfterMillis = resubmitAfterMillis;
+    }
+
+    /**
+     * Crea una PurchaseRequest desde el Map recibido por la API.
+     * Lanza IllegalArgumentException si el monto, los enums o la fecha son inválidos.
+     */
+    public PurchaseRequest fromRequestData(Map<String, Object> requestData) {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+
+        // Mapear campos básicos
+        purchaseRequest.setRequesterName((String) requestData.get("requesterName"));
+        purchaseRequest.setRequesterEmail((String) requestData.get("requesterEmail"));
+        purchaseRequest.setDepartment((String) requestData.get("department"));
+        purchaseRequest.setDescription((String) requestData.get("description"));
+
+        // ✅ Manejo seguro del monto
+        Object amountObj = requestData.get("totalAmount");
+        if (amountObj instanceof Number) {
+            purchaseRequest.setTotalAmount(BigDecimal.valueOf(((Number) amountObj).doubleValue()));
+        } else {
+            throw new IllegalArgumentException("totalAmount debe ser un número");
+        }
+
+        purchaseRequest.setCurrency((String) requestData.get("currency"));
+        // Monto en moneda base para reglas, DMN y totales; una moneda no soportada la rechaza la validación
+        if (currencyService.isSupported(purchaseRequest.getCurrency())) {
+            currencyService.normalize(purchaseRequest);
+        }
+        purchaseRequest.setSupplierName((String) requestData.get("supplierName"));
+        purchaseRequest.setSupplierEmail((String) requestData.get("supplierEmail"));
+
+        // ✅ Manejo seguro de enums
+        String categoryStr = (String) requestData.get("category");
+        String priorityStr = (String) requestData.get("priority");
+
+        try {
+            purchaseRequest.setCategory(PurchaseRequest.PurchaseCategory.valueOf(categoryStr));
+            purchaseRequest.setPriority(PurchaseRequest.Priority.valueOf(priorityStr));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.error("❌ Enum inválido - Category: {}, Priority: {}", categoryStr, priorityStr);
+            throw new IllegalArgumentException("Categoría o prioridad inválida: " + e.getMessage());
+        }
+
+        // ✅ CORRECCIÓN DE FECHA: Manejo flexible
+        Object dueDateObj = requestData.get("dueDate");
+        if (dueDateObj != null) {
+            try {
+                String dueDateStr = dueDateObj.toString();
+                LocalDateTime dueDateTime;
+
+                if (dueDateStr.contains("T")) {
+                    // Ya tiene formato LocalDateTime: "2025-08-02T23:59:59"
+                    dueDateTime = LocalDateTime.parse(dueDateStr);
+                } else {
+                    // Solo fecha: "2025-08-02" -> convertir a "2025-08-02T23:59:59"
+                    LocalDate dueDate = LocalDate.parse(dueDateStr);
+                    dueDateTime = dueDate.atTime(23, 59, 59);
+                }
+
+                purchaseRequest.setDueDate(dueDateTime);
+
+            } catch (Exception e) {
+                log.error("❌ Error procesando fecha: {}", dueDateObj, e);
+                throw new IllegalArgumentException("Formato de fecha inválido: " + dueDateObj);
+            }
+        }
+
+        return purchaseRequest;
+    }
+
+    /**
+     * ✅ Mapear a variables de Camunda (nombres exactos para DMN)
+     */
+    public Map<String, Object> buildProcessVariables(PurchaseRequest purchaseRequest) {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("businessKey", purchaseRequest.getBusinessKey());
+        vars.put("requestId", purchaseRequest.getBusinessKey());
+        vars.put("requesterName", purchaseRequest.getRequesterName());
+        vars.put("requesterEmail", purchaseRequest.getRequesterEmail());
+        vars.put("department", purchaseRequest.getDepartment());
+        vars.put("description", purchaseRequest.getDescription());
+
+        // ✅ Variables para el DMN (nombres exactos)
+        vars.put("Monto", baseAmount(purchaseRequest).doubleValue());      // Para DMN (moneda base)
+        vars.put("Categoría", purchaseRequest.getCategory().name());        // Para DMN
+        vars.put("priority", purchaseRequest.getPriority().name());         // Para DMN
+
+        // Variables adicionales
+        vars.put("totalAmount", purchaseRequest.getTotalAmount().doubleValue());
+        vars.put("normalizedAmount", baseAmount(purchaseRequest).doubleValue());
+        vars.put("currency", purchaseRequest.getCurrency());
+        vars.put("category", purchaseRequest.getCategory().name());
+        vars.put("supplierName", purchaseRequest.getSupplierName());
+        vars.put("supplierEmail", purchaseRequest.getSupplierEmail());
+
+        if (purchaseRequest.getDueDate() != null) {
+            vars.put("dueDate", purchaseRequest.getDueDate());
+        }
+
+        return vars;
+    }
+
+    private BigDecimal baseAmount(PurchaseRequest purchaseRequest) {
+        return purchaseRequest.getNormalizedAmount() != null
+            ? purchaseRequest.getNormalizedAmount()
+            : purchaseRequest.getTotalAmount();
+    }
+
+    /**
+     * Inserta una solicitud nueva y la suma a los contadores del dashboard cuando la
+     * transacción confirma. Toda alta pasa por aquí o por {@link #startBatch(List)}.
+     */
+    public PurchaseRequest persistNew(PurchaseRequest purchaseRequest) {
+        PurchaseRequest saved = requestRepo.save(purchaseRequest);
+        recordCreated(saved);
+        return saved;
+    }
+
+    private void recordCreated(PurchaseRequest purchaseRequest) {
+        dashboardCounters.recordRequestCreated(
+            purchaseRequest.getCategory() != null ? purchaseRequest.getCategory().name() : null,
+            purchaseRequest.getDepartment(),
+            baseAmount(purchaseRequest)
+        );
+    }
+
+    /**
+     * Arranca la instancia de proceso de una solicitud ya persistida y guarda su processInstanceId.
+     */
+    public ProcessInstance startProcess(PurchaseRequest purchaseRequest) {
+        ProcessInstance pi = runtimeService.startProcessInstanceByKey(
+            PROCESS_KEY,
+            purchaseRequest.getBusinessKey(),
+            buildProcessVariables(purchaseRequest)
+        );
+        purchaseRequest.setProcessInstanceId(pi.getId());
+        return pi;
+    }
+
+    /**
+     * ⚡ Alta asíncrona: valida y persiste la solicitud y delega el arranque del
+     * proceso y el correo al executor acotado. El hilo HTTP no espera al motor ni al SMTP.
+     *
+     * @throws IllegalArgumentException si la solicitud no es válida
+     * @throws TaskRejectedException si la cola de alta está llena (la solicitud queda CANCELLED)
+     */
+    public PurchaseRequest acceptAsync(Map<String, Object> requestData) {
+        PurchaseRequest purchaseRequest = fromRequestData(requestData);
+
+        BusinessRulesService.ValidationResult validation = businessRulesService.validatePurchaseRequest(purchaseRequest);
+        if (!validation.isValid()) {
+            throw new IllegalArgumentException(String.join("; ", validation.getErrors()));
+        }
+
+        // Sufijo aleatorio: varias altas concurrentes pueden caer en el mismo milisegundo
+        purchaseRequest.setBusinessKey("PR-" + System.currentTimeMillis() + "-"
+            + UUID.randomUUID().toString().substring(0, 8));
+        PurchaseRequest saved = persistNew(purchaseRequest);
+        log.info("📥 Solicitud {} encolada para arranque asíncrono", saved.getBusinessKey());
+
+        try {
+            intakeExecutor.execute(() -> startQueued(saved.getId()));
+        } catch (TaskRejectedException e) {
+            log.warn("⚠️ Cola de alta llena, solicitud {} cancelada", saved.getBusinessKey());
+            markFailed(saved.getId(), "Cola de alta llena, reintente más tarde");
+            throw e;
+        }
+        return saved;
+    }
+
+    /**
+     * Arranque diferido de una solicitud encolada por {@link #acceptAsync(Map)}.
+     * Idempotente: si la solicitud ya tiene instancia o fue cancelada no hace nada.
+     */
+    void startQueued(Long requestId) {
+        PurchaseRequest started;
+        try {
+            started = transactionTemplate.execute(status -> {
+                PurchaseRequest request = requestRepo.findByIdForUpdate(requestId)
+                    .orElseThrow(() -> new IllegalStateException("Solicitud no encontrada: " + requestId));
+                if (request.getProcessInstanceId() != null
+                        || request.getStatus() != PurchaseRequest.RequestStatus.PENDING) {
+                    log.debug("Solicitud {} ya iniciada o cancelada, se omite", request.getBusinessKey());
+                    return null;
+                }
+                ProcessInstance pi = startProcess(request);
+                log.info("🚀 Proceso iniciado (async) - ID: {}, BusinessKey: {}", pi.getId(), request.getBusinessKey());
+                return request;
+            });
+        } catch (Exception e) {
+            log.error("❌ Error iniciando proceso de la solicitud {}: {}", requestId, e.getMessage(), e);
+            markFailed(requestId, "Error iniciando proceso: " + e.getMessage());
+            return;
+        }
+        if (started == null) {
+            return;
+        }
+
+        notifyCreated(started);
+    }
+
+    /**
+     * 🔄 Progreso de una solicitud a partir de su businessKey
+     */
+    public Optional<IntakeStatusDto> getIntakeStatus(String businessKey) {
+        return requestRepo.findByBusinessKey(businessKey).map(request -> {
+            IntakeStatusDto.IntakeStatusDtoBuilder status = IntakeStatusDto.builder()
+                .businessKey(request.getBusinessKey())
+                .requestId(request.getId())
+                .requestStatus(request.getStatus().name())
+                .processInstanceId(request.getProcessInstanceId());
+
+            if (request.getProcessInstanceId() == null) {
+                boolean failed = request.getStatus() == PurchaseRequest.RequestStatus.CANCELLED;
+                return status
+                    .state(failed ? IntakeState.FAILED : IntakeState.QUEUED)
+                    .message(request.getRejectionReason())
+                    .build();
+            }
+
+            boolean active = runtimeService.createProcessInstanceQuery()
+                .processInstanceId(request.getProcessInstanceId())
+                .count() > 0;
+            return status
+                .state(IntakeState.STARTED)
+                .processActive(active)
+                .activeActivities(active
+                    ? runtimeService.getActiveActivityIds(request.getProcessInstanceId())
+                    : new ArrayList<>())
+                .build();
+        });
+    }
+
+    /**
+     * 🔁 Reenvía al executor las solicitudes aceptadas con 202 que siguen sin instancia
+     * pasado {@code resubmit-after-ms}: la cola del executor vive en memoria y una caída
+     * o un reinicio la pierde. Como {@link #startQueued(Long)} es idempotente, una solicitud
+     * que todavía esperaba en la cola no arranca dos veces.
+     *
+     * @return solicitudes reenviadas
+     */
+    @Scheduled(
+        fixedDelayString = "${app.intake.async.resubmit-interval-ms:60000}",
+        initialDelayString = "${app.intake.async.resubmit-interval-ms:60000}"
+    )
+    public int resubmitStaleQueued() {
+        int resubmitted = 0;
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(resubmitAfterMillis));
+            for (Long requestId : requestRepo.findQueuedIdsCreatedBefore(before, PageRequest.of(0, RESUBMIT_PAGE))) {
+                intakeExecutor.execute(() -> startQueued(requestId));
+                resubmitted++;
+            }
+        } catch (TaskRejectedException e) {
+            // Cola llena: el resto queda para el siguiente barrido
+            log.warn("⚠️ Cola de alta llena tras reenviar {} solicitudes pendientes", resubmitted);
+        } catch (Exception e) {
+            log.error("❌ Error reenviando solicitudes en cola: {}", e.getMessage(), e);
+        }
+        if (resubmitted > 0) {
+            log.info("🔁 {} solicitudes en cola reenviadas al executor de alta", resubmitted);
+        }
+        return resubmitted;
+    }
+
+    private void markFailed(Long requestId, String reason) {
+        requestRepo.findById(requestId).ifPresent(request -> {
+            PurchaseRequest.RequestStatus previous = request.getStatus();
+            request.setStatus(PurchaseRequest.RequestStatus.CANCELLED);
+            request.setRejectionReason(reason);
+            requestRepo.save(request);
+            dashboardCounters.recordStatusChange(previous, PurchaseRequest.RequestStatus.CANCELLED, baseAmount(request));
+        });
+    }
+
+    /**
+     * 📦 Carga masiva: valida en paralelo, persiste por lotes y arranca las
+     * instancias en transacciones de {@code chunkSize} solicitudes.
+     * Si un lote falla, sus solicitudes se reintentan una a una para aislar el error.
+     */
+    public BatchIntakeResultDto startBatch(List<Map<String, Object>> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException(
+                "El lote excede el máximo de " + maxItems + " solicitudes (" + items.size() + ")");
+        }
+
+        long start = System.currentTimeMillis();
+        String batchPrefix = batchPrefix(start);
+        log.info("📦 Iniciando carga masiva de {} solicitudes", items.size());
+
+        // 1) Mapeo y validación en paralelo (sin estado compartido)
+        List<PreparedItem> prepared = IntStream.range(0, items.size())
+            .parallel()
+            .mapToObj(i -> prepare(i, items.get(i), batchPrefix))
+            .toList();
+
+        // 2) Persistencia y arranque por lotes
+        List<PreparedItem> valid = prepared.stream().filter(p -> p.request != null).toList();
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            runChunk(valid.subList(from, Math.min(from + chunkSize, valid.size())));
+        }
+
+        // 3) Reporte por elemento, en orden de entrada
+        BatchIntakeResultDto report = new BatchIntakeResultDto();
+        for (PreparedItem item : prepared) {
+            ItemResult result = item.toResult();
+            report.getItems().add(result);
+            tally(report, result);
+        }
+        return finish(report, start);
+    }
+
+    /**
+     * 🌊 Carga masiva en streaming: lee una solicitud JSON por línea, procesa cada
+     * {@code chunkSize} líneas como en {@link #startBatch(List)} y entrega el resultado
+     * de cada elemento a {@code sink} en cuanto su lote termina, sin retener el lote completo.
+     * Las líneas que no son JSON válido o que exceden {@code maxItems} se reportan como INVALID.
+     *
+     * @return resumen de la carga, sin la lista de elementos
+     */
+    public BatchIntakeResultDto streamBatch(Iterator<String> lines, Consumer<ItemResult> sink) {
+        long start = System.currentTimeMillis();
+        String batchPrefix = batchPrefix(start);
+        log.info("🌊 Iniciando carga masiva en streaming");
+
+        BatchIntakeResultDto report = new BatchIntakeResultDto();
+        List<String> pending = new ArrayList<>(chunkSize);
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.isBlank()) {
+                continue;
+            }
+            pending.add(line);
+            if (pending.size() == chunkSize) {
+                streamChunk(pending, batchPrefix, report, sink);
+                pending.clear();
+            }
+        }
+        if (!pending.isEmpty()) {
+            streamChunk(pending, batchPrefix, report, sink);
+        }
+        return finish(report, start);
+    }
+
+    private void streamChunk(List<String> lines, String batchPrefix, BatchIntakeResultDto report,
+                             Consumer<ItemResult> sink) {
+        int offset = report.getTotal();
+        List<PreparedItem> prepared = IntStream.range(0, lines.size())
+            .parallel()
+            .mapToObj(i -> prepareLine(offset + i, lines.get(i), batchPrefix))
+            .toList();
+        runChunk(prepared.stream().filter(p -> p.request != null).toList());
+        for (PreparedItem item : prepared) {
+            ItemResult result = item.toResult();
+            sink.accept(result);
+            tally(report, result);
+        }
+    }
+
+    private PreparedItem prepareLine(int index, String line, String batchPrefix) {
+        if (index >= maxItems) {
+            PreparedItem item = new PreparedItem(index);
+            item.errors.add("El lote excede el máximo de " + maxItems + " solicitudes");
+            return item;
+        }
+        Map<String, Object> data;
+        try {
+            data = objectMapper.readValue(line, REQUEST_TYPE);
+        } catch (JsonProcessingException e) {
+            PreparedItem item = new PreparedItem(index);
+            item.errors.add("JSON inválido: " + e.getOriginalMessage());
+            return item;
+        }
+        return prepare(index, data, batchPrefix);
+    }
+
+    private void runChunk(List<PreparedItem> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAndStart(chunk));
+        } catch (Exception e) {
+            log.warn("⚠️ Falló el lote [{}-{}], reintentando una a una: {}",
+                chunk.get(0).index, chunk.get(chunk.size() - 1).index, e.getMessage());
+            chunk.forEach(PreparedItem::reset);
+            chunk.forEach(this::startSingle);
+        }
+        notifyCreated(chunk);
+    }
+
+    private static void tally(BatchIntakeResultDto report, ItemResult result) {
+        report.setTotal(report.getTotal() + 1);
+        switch (result.getStatus()) {
+            case STARTED -> report.setStarted(report.getStarted() + 1);
+            case INVALID -> report.setInvalid(report.getInvalid() + 1);
+            case FAILED -> report.setFailed(report.getFailed() + 1);
+        }
+    }
+
+    private static BatchIntakeResultDto finish(BatchIntakeResultDto report, long start) {
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("✅ Carga masiva terminada: {} iniciadas, {} inválidas, {} fallidas en {} ms",
+            report.getStarted(), report.getInvalid(), report.getFailed(), report.getElapsedMillis());
+        return report;
+    }
+
+    // Sufijo aleatorio por lote: dos lotes (o dos nodos) pueden arrancar en el mismo milisegundo
+    private static String batchPrefix(long start) {
+        return "PR-" + start + "-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    }
+
+    private PreparedItem prepare(int index, Map<String, Object> data, String batchPrefix) {
+        PreparedItem item = new PreparedItem(index);
+        try {
+            PurchaseRequest request = fromRequestData(data);
+            BusinessRulesService.ValidationResult validation = businessRulesService.validatePurchaseRequest(request);
+            item.warnings.addAll(validation.getWarnings());
+            if (!validation.isValid()) {
+                item.errors.addAll(validation.getErrors());
+                return item;
+            }
+            // generateBusinessKey() usa solo milisegundos: en un lote se añade el índice
+            request.setBusinessKey(batchPrefix + index);
+            item.request = request;
+        } catch (RuntimeException e) {
+            item.errors.add(e.getMessage());
+        }
+        return item;
+    }
+
+    private void persistAndStart(List<PreparedItem> chunk) {
+        // IDs por secuencia: saveAll se traduce en inserts JDBC por lotes
+        requestRepo.saveAll(chunk.stream().map(p -> p.request).toList());
+        for (PreparedItem item : chunk) {
+            recordCreated(item.request);
+            startProcess(item.request);
+            item.status = ItemStatus.STARTED;
+        }
+    }
+
+    private void startSingle(PreparedItem item) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                persistNew(item.request);
+                startProcess(item.request);
+            });
+            item.status = ItemStatus.STARTED;
+        } catch (Exception e) {
+            log.error("❌ Error iniciando solicitud {} del lote: {}", item.index, e.getMessage());
+            item.reset();
+            item.status = ItemStatus.FAILED;
+            item.errors.add(e.getMessage());
+        }
+    }
+
+    private void notifyCreated(List<PreparedItem> chunk) {
+        for (PreparedItem item : chunk) {
+            if (item.status == ItemStatus.STARTED) {
+                notifyCreated(item.request);
+            }
+        }
+    }
+
+    // Confirmación posterior al commit del arranque: un fallo al encolarla no deshace la solicitud ya iniciada
+    private void notifyCreated(PurchaseRequest request) {
+        try {
+            notificationService.sendFinalNotification(
+                request,
+                "CREATED",
+                "Su solicitud de compra ha sido creada exitosamente."
+            );
+        } catch (RuntimeException e) {
+            log.error("❌ Error encolando la confirmación de {}: {}", request.getBusinessKey(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Estado de trabajo de una solicitud dentro del lote.
+     */
+    private static class PreparedItem {
+        private final int index;
+        private final List<String> errors = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private PurchaseRequest request;
+        private ItemStatus status;
+
+        PreparedItem(int index) {
+            this.index = index;
+        }
+
+        // Tras un rollback el id y el processInstanceId asignados ya no son válidos
+        void reset() {
+            if (request != null) {
+                request.setId(null);
+                request.setProcessInstanceId(null);
+            }
+            status = null;
+        }
+
+        ItemResult toResult() {
+            ItemStatus finalStatus = request == null ? ItemStatus.INVALID
+                : status == ItemStatus.STARTED ? ItemStatus.STARTED : ItemStatus.FAILED;
+            boolean started = finalStatus == ItemStatus.STARTED;
+            return ItemResult.builder()
+                .index(index)
+                .status(finalStatus)
+                .businessKey(request != null ? request.getBusinessKey() : null)
+                .requestId(started ? request.getId() : null)
+                .processInstanceId(started ? request.getProcessInstanceId() : null)
+                .errors(errors)
+                .warnings(warnings)
+                .build();
+        }
+    }
+}
@@ -5,13 +5,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CursorPageDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestFilter;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
 
+import jakarta.persistence.EntityManager;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,7 +31,12 @@ import java.util.Optional;
 @Transactional
 public class PurchaseRequestService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final PurchaseRequestRepository repository;
+    private final DashboardCounters dashboardCounters;
+    private final EntityManager entityManager;
 
     public PurchaseRequest save(PurchaseRequest request) {
         log.debug("💾 Guardando solicitud: {}", request.getBusinessKey());
@@ -46,16 +63,79 @@ public class PurchaseRequestService {
         return repository.findAll();
     }
 
+    /**
+     * Página de solicitudes ordenada por (createdAt, id) a partir de un cursor opaco.
+     * La memoria usada depende solo del tamaño de página.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PurchaseRequestSummary> findPage(PurchaseRequestFilter filter, String cursor, Integer size) {
+        PurchaseRequestFilter f = filter != null ? filter : new PurchaseRequestFilter();
+        int pageSize = normalizePageSize(size);
+        Cursor after = Cursor.decode(cursor);
+
+        // Se pide un elemento extra para saber si hay más páginas
+        List<PurchaseRequestSummary> rows = repository.findPageAfter(
+            f.getStatus(), f.getDepartment(), f.getCategory(), f.getMinAmount(), f.getMaxAmount(),
+            after != null ? after.createdAt() : null,
+            after != null ? after.id() : null,
+            PageRequest.of(0, pageSize + 1)
+        );
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PurchaseRequestSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        PurchaseRequestSummary last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return CursorPageDto.<PurchaseRequestSummary>builder()
+            .items(items)
+            .size(items.size())
+            .hasMore(hasMore)
+            .nextCursor(hasMore && last != null ? Cursor.encode(last.getCreatedAt(), last.getId()) : null)
+            .build();
+    }
+
+    /**
+     * Recorre todas las solicitudes que cumplen el filtro sin materializarlas en memoria.
+     * Cada entidad se desvincula del contexto de persistencia después de procesarla.
+     */
+    @Transactional(readOnly = true)
+    public void streamRequests(PurchaseRequestFilter filter, Consumer<PurchaseRequest> consumer) {
+        PurchaseRequestFilter f = filter != null ? filter : new PurchaseRequestFilter();
+        try (Stream<PurchaseRequest> stream = repository.streamFiltered(
+                f.getStatus(), f.getDepartment(), f.getCategory(), f.getMinAmount(), f.getMaxAmount())) {
+            stream.forEach(request -> {
+                consumer.accept(request);
+                entityManager.detach(request);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<PurchaseRequestSummary> findMostRecent() {
+        return repository.findTop10ByOrderByCreatedAtDescIdDesc();
+    }
+
     public List<PurchaseRequest> findOverdueRequests() {
         return repository.findOverdueRequests(LocalDateTime.now());
     }
 
+    @Transactional(readOnly = true)
+    public List<PurchaseRequestSummary> findOverdueSummaries() {
+        return repository.findOverdueSummaries(LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public long countOverdueRequests() {
+        return repository.countOverdueRequests(LocalDateTime.now());
+    }
+
     public Long getTotalRequests() {
-        return repository.count();
+        DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
+        return counters.isInitialized() ? counters.getTotalRequests() : repository.count();
     }
 
     public Long getRequestsByStatus(RequestStatus status) {
-        return repository.countByStatus(status);
+        DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
+        return counters.isInitialized() ? counters.count(status) : repository.countByStatus(status);
     }
 
     public void deleteById(Long id) {
@@ -79,13 +159,53 @@ public class PurchaseRequestService {
         PurchaseRequest request = repository.findByBusinessKey(businessKey)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found: " + businessKey));
 
+        RequestStatus previousStatus = request.getStatus();
+        RequestStatus newStatus = RequestStatus.valueOf(status);
+
         // Actualizar campos
-        request.setStatus(RequestStatus.valueOf(status));
+        request.setStatus(newStatus);
         request.setApprovedBy(approvedBy);
         request.setComments(comments);
         request.setUpdatedAt(LocalDateTime.now());
 
         log.debug("✏️ Actualizando solicitud {} a estado {} por {}", businessKey, status, approvedBy);
         repository.save(request);
+
+        BigDecimal baseAmount = request.getNormalizedAmount() != null ? request.getNormalizedAmount() : request.getTotalAmount();
+        dashboardCounters.recordStatusChange(previousStatus, newStatus, baseAmount);
+    }
+
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Cursor keyset: posición (createdAt, id) de la última fila entregada, codificada en Base64 URL-safe.
+     */
+    private record Cursor(LocalDateTime createdAt, Long id) {
+
+        static String encode(LocalDateTime createdAt, Long id) {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+                );
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+        }
     }
 }
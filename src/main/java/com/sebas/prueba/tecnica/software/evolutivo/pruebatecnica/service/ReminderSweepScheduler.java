@@ -0,0 +1,249 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MetricTags;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ReminderProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.NotificationService.ReminderItem;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.task.NativeTaskQuery;
+import org.camunda.bpm.engine.task.Task;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ⏰ Barrido periódico de recordatorios de aprobación
+ *
+ * Sustituye a los timers de borde por tarea: en cada ciclo una sola consulta trae las
+ * tareas de aprobación más antiguas que el primer nivel de {@code app.reminders.escalation},
+ * se calcula el nivel que corresponde a su antigüedad y solo las que subieron de nivel
+ * respecto a {@link PurchaseRequest#getReminderCount()} generan aviso. Se envía un resumen
+ * por aprobador y, al llegar al último nivel, otro al correo de escalamiento. El número de
+ * niveles acota los recordatorios por solicitud.
+ *
+ * El nivel avisado también se guarda como variable local {@value #LEVEL_VARIABLE} de la tarea,
+ * y la consulta excluye las que ya tienen avisado el nivel que corresponde a su antigüedad:
+ * no generarían aviso en este ciclo y, al ser las más antiguas, acabarían llenando
+ * {@code max-tasks-per-sweep} y dejando sin recordatorio a las tareas vencidas más recientes.
+ * Vuelven a la consulta cuando su antigüedad cruza el siguiente umbral.
+ *
+ * Cada barrido se mide en {@code reminder.sweep{outcome}} y los avisos se cuentan en
+ * {@code reminder.sent{level}} (recordatorio o escalamiento).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderSweepScheduler {
+
+    static final String PROCESS_KEY = "purchase-request-process";
+    static final String LEVEL_VARIABLE = "reminderLevel";
+
+    // IN (...) por lotes para no superar el límite de parámetros de la BD
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private static final Map<String, ApprovalRoute> ROUTES_BY_TASK = Map.of(
+        "UserTask_SupervisorApproval", ApprovalRoute.SUPERVISOR,
+        "UserTask_ManagerApproval", ApprovalRoute.MANAGER,
+        "UserTask_CeoApproval", ApprovalRoute.CEO
+    );
+
+    private final TaskService taskService;
+    private final ManagementService managementService;
+    private final PurchaseRequestRepository purchaseRequestRepository;
+    private final NotificationService notificationService;
+    private final BusinessRulesService businessRulesService;
+    private final ReminderProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(
+        fixedDelayString = "${app.reminders.sweep-interval-ms:60000}",
+        initialDelayString = "${app.reminders.sweep-interval-ms:60000}"
+    )
+    @Transactional
+    public void sweep() {
+        long start = System.nanoTime();
+        String outcome = MetricTags.SUCCESS;
+        try {
+            SweepResult result = sweepAt(new Date());
+            if (result.reminded() > 0) {
+                log.info("⏰ Barrido de recordatorios: {} tareas vencidas, {} recordatorios en {} resúmenes, {} escaladas",
+                    result.overdueTasks(), result.reminded(), result.digests(), result.escalated());
+            }
+            sentCounter("reminder").increment(result.reminded() - result.escalated());
+            sentCounter("escalation").increment(result.escalated());
+        } catch (Exception e) {
+            outcome = MetricTags.ERROR;
+            log.error("❌ Error en el barrido de recordatorios: {}", e.getMessage(), e);
+            // Niveles y contadores vuelven atrás con el resumen que no se encoló; el próximo barrido lo reintenta
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        } finally {
+            Timer.builder("reminder.sweep")
+                .description("Duración del barrido de recordatorios")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Counter sentCounter(String level) {
+        return Counter.builder("reminder.sent")
+            .description("Tareas de aprobación avisadas por el barrido")
+            .tag("level", level)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Un barrido con {@code now} como hora de referencia.
+     */
+    public SweepResult sweepAt(Date now) {
+        List<Duration> escalation = properties.getEscalation();
+        if (escalation == null || escalation.isEmpty()) {
+            return SweepResult.EMPTY;
+        }
+        int maxLevel = escalation.size();
+
+        NativeTaskQuery query = taskService.createNativeTaskQuery()
+            .sql(overdueTasksSql(maxLevel))
+            .parameter("processKey", PROCESS_KEY)
+            .parameter("levelVariable", LEVEL_VARIABLE);
+        for (int i = 0; i < maxLevel; i++) {
+            query.parameter("createdBefore" + i, new Date(now.getTime() - escalation.get(i).toMillis()));
+        }
+        List<Task> overdue = query.listPage(0, properties.getMaxTasksPerSweep());
+        if (overdue.isEmpty()) {
+            return SweepResult.EMPTY;
+        }
+
+        Map<String, PurchaseRequest> requests = loadRequests(overdue);
+        Map<String, List<ReminderItem>> digests = new LinkedHashMap<>();
+        List<ReminderItem> escalated = new ArrayList<>();
+        List<PurchaseRequest> updated = new ArrayList<>();
+
+        for (Task task : overdue) {
+            PurchaseRequest request = requests.get(task.getProcessInstanceId());
+            if (request == null || task.getCreateTime() == null) {
+                continue;
+            }
+            int level = levelFor(now.getTime() - task.getCreateTime().getTime(), escalation);
+            int sent = request.getReminderCount() != null ? request.getReminderCount() : 0;
+            if (level <= sent) {
+                // Nivel ya avisado en una tarea anterior de la solicitud: la tarea sale de la
+                // consulta hasta que su antigüedad supere ese nivel
+                taskService.setVariableLocal(task.getId(), LEVEL_VARIABLE, Math.min(sent, maxLevel));
+                continue;
+            }
+
+            request.setReminderCount(level);
+            updated.add(request);
+            taskService.setVariableLocal(task.getId(), LEVEL_VARIABLE, level);
+
+            ReminderItem item = new ReminderItem(request, taskName(task), level, maxLevel);
+            digests.computeIfAbsent(approverEmail(task), email -> new ArrayList<>()).add(item);
+            if (level == maxLevel) {
+                escalated.add(item);
+            }
+        }
+
+        if (updated.isEmpty()) {
+            return new SweepResult(overdue.size(), 0, 0, 0);
+        }
+        purchaseRequestRepository.saveAll(updated);
+
+        digests.forEach((email, items) -> notificationService.sendReminderDigest(email, items, false));
+        if (!escalated.isEmpty()) {
+            notificationService.sendReminderDigest(properties.getEscalationEmail(), escalated, true);
+        }
+
+        return new SweepResult(overdue.size(), updated.size(), digests.size(), escalated.size());
+    }
+
+    /**
+     * Tareas activas del proceso que superan el primer umbral, más antiguas primero, sin las
+     * que ya tienen en {@link #LEVEL_VARIABLE} el nivel de su antigüedad. El nivel se calcula
+     * como en {@link #levelFor}: un {@code CASE} por umbral ({@code createdBefore<i>}).
+     */
+    private String overdueTasksSql(int levels) {
+        String ageLevel = IntStream.range(0, levels)
+            .mapToObj(i -> "(CASE WHEN RES.CREATE_TIME_ < #{createdBefore" + i + "} THEN 1 ELSE 0 END)")
+            .collect(Collectors.joining(" + "));
+        return "SELECT RES.* FROM " + managementService.getTableName(TaskEntity.class) + " RES"
+            + " INNER JOIN " + managementService.getTableName(ProcessDefinitionEntity.class) + " D"
+            + " ON RES.PROC_DEF_ID_ = D.ID_"
+            + " WHERE D.KEY_ = #{processKey}"
+            + " AND RES.SUSPENSION_STATE_ = 1"
+            + " AND RES.CREATE_TIME_ < #{createdBefore0}"
+            + " AND NOT EXISTS (SELECT 1 FROM " + managementService.getTableName(VariableInstanceEntity.class) + " V"
+            + " WHERE V.TASK_ID_ = RES.ID_ AND V.NAME_ = #{levelVariable} AND V.LONG_ >= " + ageLevel + ")"
+            + " ORDER BY RES.CREATE_TIME_ ASC, RES.ID_ ASC";
+    }
+
+    /**
+     * Niveles de escalamiento superados por una tarea con esta antigüedad.
+     */
+    static int levelFor(long ageMillis, List<Duration> escalation) {
+        int level = 0;
+        for (Duration threshold : escalation) {
+            if (ageMillis >= threshold.toMillis()) {
+                level++;
+            }
+        }
+        return level;
+    }
+
+    private Map<String, PurchaseRequest> loadRequests(List<Task> tasks) {
+        List<String> ids = tasks.stream().map(Task::getProcessInstanceId).distinct().toList();
+        Map<String, PurchaseRequest> requests = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK));
+            requests.putAll(purchaseRequestRepository.findByProcessInstanceIdIn(chunk).stream()
+                .collect(Collectors.toMap(PurchaseRequest::getProcessInstanceId, Function.identity(), (a, b) -> a)));
+        }
+        return requests;
+    }
+
+    private String approverEmail(Task task) {
+        ApprovalRoute route = ROUTES_BY_TASK.get(task.getTaskDefinitionKey());
+        String email = route != null ? businessRulesService.getApproverEmail(route) : null;
+        return email != null ? email : properties.getEscalationEmail();
+    }
+
+    private static String taskName(Task task) {
+        // Los nombres del BPMN llevan saltos de línea para el diagrama
+        return task.getName() != null ? task.getName().replaceAll("\\s+", " ").trim() : task.getTaskDefinitionKey();
+    }
+
+    /**
+     * Resumen de un barrido: tareas vencidas revisadas, recordatorios nuevos, correos por aprobador y escalamientos.
+     */
+    public record SweepResult(int overdueTasks, int reminded, int digests, int escalated) {
+
+        static final SweepResult EMPTY = new SweepResult(0, 0, 0, 0);
+    }
+}
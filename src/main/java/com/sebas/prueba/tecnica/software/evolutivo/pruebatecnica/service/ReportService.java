@@ -2,24 +2,26 @@ package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
 
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.DashboardMetricsDto;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
 import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver.FinalStatus;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.camunda.bpm.engine.HistoryService;
-import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.TaskService;
-import org.camunda.bpm.engine.history.HistoricProcessInstance;
-import org.camunda.bpm.engine.history.HistoricVariableInstance;
-import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.task.Task;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,48 +32,77 @@ import java.util.stream.Collectors;
 public class ReportService {
 
     private final PurchaseRequestRepository purchaseRequestRepository;
-    private final RuntimeService runtimeService;
     private final HistoryService historyService;
     private final TaskService taskService;
+    private final DashboardCounters dashboardCounters;
+    private final FinalStatusResolver finalStatusResolver;
+    private final KpiRollupService kpiRollupService;
+    private final ProcessingLatencyMonitor processingLatencyMonitor;
 
     /**
      * 📊 Obtiene métricas completas para el dashboard
+     *
+     * Ninguna métrica consulta por solicitud ni por instancia histórica:
+     * una agregación agrupada sobre purchase_requests, la suma de montos de las
+     * instancias aprobadas (una consulta por lote de {@code chunk-size} ids),
+     * una sola consulta de variables históricas {@code finalStatus} y conteos
+     * directos en el motor. El tiempo medio de procesamiento sale de los rollups de KPIs
+     * y sus percentiles de los sketches en memoria de {@link ProcessingLatencyMonitor}.
+     *
+     * Una vez inicializados, los contadores materializados de
+     * {@link DashboardCounters} reemplazan a las agregaciones.
      */
     public DashboardMetricsDto getDashboardMetrics() {
         log.info("📊 Generando métricas del dashboard");
         
         try {
-            // Obtener todas las solicitudes
-            List<PurchaseRequest> allRequests = purchaseRequestRepository.findAll();
+            DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
+            if (counters.isInitialized()) {
+                return getMetricsFromCounters(counters);
+            }
+
+            // Agregación agrupada por categoría y departamento (una sola consulta)
+            RequestAggregate aggregate = RequestAggregate.from(
+                purchaseRequestRepository.aggregateByCategoryAndDepartment());
+            
+            // Estado final de todas las instancias (una sola consulta al historial)
+            Map<String, FinalStatus> finalStatuses = finalStatusResolver.resolveAll();
             
             // Contadores básicos
-            long totalRequests = allRequests.size();
+            long totalRequests = aggregate.totalCount;
             long pendingRequests = getPendingRequestsCount();
-            long approvedRequests = getApprovedRequestsCount();
-            long rejectedRequests = getRejectedRequestsCount();
+            long approvedRequests = FinalStatusResolver.count(finalStatuses, FinalStatus.APPROVED);
+            long rejectedRequests = FinalStatusResolver.count(finalStatuses, FinalStatus.REJECTED);
             
             // Métricas de tiempo
             Double avgProcessingTime = calculateAverageProcessingTime();
             long overdueRequests = getOverdueRequestsCount();
             
             // Métricas financieras
-            String totalApprovedAmount = calculateTotalApprovedAmount();
-            String averageRequestAmount = calculateAverageRequestAmount();
+            String totalApprovedAmount = calculateTotalApprovedAmount(finalStatuses);
+            String averageRequestAmount = calculateAverageRequestAmount(aggregate);
             
             // Distribuciones
             List<DashboardMetricsDto.CategoryMetricDto> categoryDistribution = 
-                getCategoryDistribution(allRequests);
+                getCategoryDistribution(aggregate);
             List<DashboardMetricsDto.DepartmentMetricDto> departmentDistribution = 
-                getDepartmentDistribution(allRequests);
+                getDepartmentDistribution(aggregate);
             List<DashboardMetricsDto.UserTaskMetricDto> userTasks = 
                 getUserTaskMetrics();
 
+            DashboardMetricsDto.LatencyMetricDto processingTime = 
+                processingLatencyMonitor.overall(ProcessingLatencyMonitor.END_TO_END);
+
             return DashboardMetricsDto.builder()
                 .totalRequests(totalRequests)
                 .pendingRequests(pendingRequests)
                 .approvedRequests(approvedRequests)
                 .rejectedRequests(rejectedRequests)
                 .averageProcessingTime(avgProcessingTime)
+                .processingTimeP50(processingTime != null ? processingTime.getP50Hours() : null)
+                .processingTimeP90(processingTime != null ? processingTime.getP90Hours() : null)
+                .processingTimeP99(processingTime != null ? processingTime.getP99Hours() : null)
+                .latencyPercentiles(processingLatencyMonitor.percentiles())
                 .overdueRequests(overdueRequests)
                 .totalApprovedAmount(totalApprovedAmount)
                 .averageRequestAmount(averageRequestAmount)
@@ -88,22 +119,22 @@ public class ReportService {
 
     /**
      * 📈 Obtiene el reporte de auditoría
+     *
+     * Solo conteos en la base de datos: el detalle por instancia se descarga con
+     * {@link AuditExportService}, que lo recorre por páginas.
      */
     public Map<String, Object> getAuditReport() {
         log.info("📈 Generando reporte de auditoría");
         
         try {
-            // Obtener procesos históricos
-            List<HistoricProcessInstance> historicProcesses = historyService
-                .createHistoricProcessInstanceQuery()
-                .processDefinitionKey("purchase-request-process")
-                .list();
-
             // Estadísticas básicas
-            long totalProcesses = historicProcesses.size();
-            long completedProcesses = historicProcesses.stream()
-                .mapToLong(p -> p.getEndTime() != null ? 1 : 0)
-                .sum();
+            long totalProcesses = historyService.createHistoricProcessInstanceQuery()
+                .processDefinitionKey("purchase-request-process")
+                .count();
+            long completedProcesses = historyService.createHistoricProcessInstanceQuery()
+                .processDefinitionKey("purchase-request-process")
+                .finished()
+                .count();
             long activeProcesses = totalProcesses - completedProcesses;
 
             // Crear el mapa con los tipos correctos
@@ -111,8 +142,9 @@ public class ReportService {
                 "totalProcesses", totalProcesses,
                 "completedProcesses", completedProcesses,
                 "activeProcesses", activeProcesses,
-                "completionRate", totalProcesses > 0 ? (completedProcesses * 100.0 / totalProcesses) : 0.0,
-                "historicProcesses", historicProcesses
+                "approvedProcesses", finalStatusResolver.countAll(FinalStatus.APPROVED),
+                "rejectedProcesses", finalStatusResolver.countAll(FinalStatus.REJECTED),
+                "completionRate", totalProcesses > 0 ? (completedProcesses * 100.0 / totalProcesses) : 0.0
             );
             
             return auditData;
@@ -123,204 +155,141 @@ public class ReportService {
                 "totalProcesses", 0L,
                 "completedProcesses", 0L,
                 "activeProcesses", 0L,
-                "completionRate", 0.0,
-                "historicProcesses", List.of()
+                "approvedProcesses", 0L,
+                "rejectedProcesses", 0L,
+                "completionRate", 0.0
             );
         }
     }
 
     // ===================== MÉTODOS PRIVADOS =====================
 
-    private long getPendingRequestsCount() {
-        // Contar instancias de proceso activas
-        List<ProcessInstance> activeInstances = runtimeService
-            .createProcessInstanceQuery()
-            .processDefinitionKey("purchase-request-process")
-            .active()
-            .list();
-        
-        return activeInstances.size();
-    }
+    private DashboardMetricsDto getMetricsFromCounters(DashboardCounters.Snapshot counters) {
+        long totalRequests = counters.getTotalRequests();
 
-    private long getApprovedRequestsCount() {
-        // Buscar procesos históricos que terminaron con aprobación
-        List<HistoricProcessInstance> finishedProcesses = historyService
-            .createHistoricProcessInstanceQuery()
-            .processDefinitionKey("purchase-request-process")
-            .finished()
-            .list();
+        String averageRequestAmount = totalRequests > 0
+            ? String.format("$%,.2f", counters.getTotalAmount().divide(
+                BigDecimal.valueOf(totalRequests), 2, RoundingMode.HALF_UP))
+            : "$0.00";
 
-        long approvedCount = 0;
-        for (HistoricProcessInstance process : finishedProcesses) {
-            // Buscar variable histórica finalStatus
-            List<HistoricVariableInstance> variables = historyService
-                .createHistoricVariableInstanceQuery()
-                .processInstanceId(process.getId())
-                .variableName("finalStatus")
-                .list();
-                
-            for (HistoricVariableInstance variable : variables) {
-                if ("APPROVED".equals(variable.getValue())) {
-                    approvedCount++;
-                    break;
-                }
-            }
-        }
-        
-        return approvedCount;
-    }
+        List<DashboardMetricsDto.CategoryMetricDto> categoryDistribution = counters.getByCategory().entrySet().stream()
+            .map(entry -> DashboardMetricsDto.CategoryMetricDto.builder()
+                .category(entry.getKey())
+                .count(entry.getValue())
+                .percentage((entry.getValue() * 100.0) / totalRequests)
+                .build())
+            .collect(Collectors.toList());
 
-    private long getRejectedRequestsCount() {
-        // Buscar procesos históricos que terminaron con rechazo
-        List<HistoricProcessInstance> finishedProcesses = historyService
-            .createHistoricProcessInstanceQuery()
-            .processDefinitionKey("purchase-request-process")
-            .finished()
-            .list();
+        List<DashboardMetricsDto.DepartmentMetricDto> departmentDistribution = counters.getByDepartment().entrySet().stream()
+            .map(entry -> DashboardMetricsDto.DepartmentMetricDto.builder()
+                .department(entry.getKey())
+                .count(entry.getValue())
+                .percentage((entry.getValue() * 100.0) / totalRequests)
+                .build())
+            .collect(Collectors.toList());
+
+        List<DashboardMetricsDto.UserTaskMetricDto> userTasks = counters.getTasksByAssignee().entrySet().stream()
+            .map(entry -> DashboardMetricsDto.UserTaskMetricDto.builder()
+                .userId(entry.getKey())
+                .userName(entry.getKey())
+                .taskCount(entry.getValue())
+                .build())
+            .collect(Collectors.toList());
+
+        DashboardMetricsDto.LatencyMetricDto processingTime =
+            processingLatencyMonitor.overall(ProcessingLatencyMonitor.END_TO_END);
+
+        return DashboardMetricsDto.builder()
+            .totalRequests(totalRequests)
+            .pendingRequests(counters.count(PurchaseRequest.RequestStatus.PENDING)
+                + counters.count(PurchaseRequest.RequestStatus.IN_APPROVAL))
+            .approvedRequests(counters.count(PurchaseRequest.RequestStatus.APPROVED))
+            .rejectedRequests(counters.count(PurchaseRequest.RequestStatus.REJECTED))
+            .averageProcessingTime(calculateAverageProcessingTime())
+            .processingTimeP50(processingTime != null ? processingTime.getP50Hours() : null)
+            .processingTimeP90(processingTime != null ? processingTime.getP90Hours() : null)
+            .processingTimeP99(processingTime != null ? processingTime.getP99Hours() : null)
+            .latencyPercentiles(processingLatencyMonitor.percentiles())
+            .overdueRequests(getOverdueRequestsCount())
+            .totalApprovedAmount(String.format("$%,.2f", counters.getApprovedAmount()))
+            .averageRequestAmount(averageRequestAmount)
+            .categoryDistribution(categoryDistribution)
+            .departmentDistribution(departmentDistribution)
+            .userTasks(userTasks)
+            .build();
+    }
 
-        long rejectedCount = 0;
-        for (HistoricProcessInstance process : finishedProcesses) {
-            // Buscar variable histórica finalStatus
-            List<HistoricVariableInstance> variables = historyService
-                .createHistoricVariableInstanceQuery()
-                .processInstanceId(process.getId())
-                .variableName("finalStatus")
-                .list();
-                
-            for (HistoricVariableInstance variable : variables) {
-                if ("REJECTED".equals(variable.getValue())) {
-                    rejectedCount++;
-                    break;
-                }
+    private long getPendingRequestsCount() {
+        // Misma definición que los contadores: solicitudes PENDING o IN_APPROVAL
+        long pending = 0;
+        for (Object[] row : purchaseRequestRepository.aggregateByStatus()) {
+            RequestStatus status = (RequestStatus) row[0];
+            if (status == RequestStatus.PENDING || status == RequestStatus.IN_APPROVAL) {
+                pending += ((Number) row[1]).longValue();
             }
         }
-        
-        return rejectedCount;
+        return pending;
     }
 
     private Double calculateAverageProcessingTime() {
-        List<HistoricProcessInstance> completedProcesses = historyService
-            .createHistoricProcessInstanceQuery()
-            .processDefinitionKey("purchase-request-process")
-            .finished()
-            .list();
-
-        if (completedProcesses.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalHours = completedProcesses.stream()
-            .filter(p -> p.getStartTime() != null && p.getEndTime() != null)
-            .mapToDouble(p -> {
-                long durationMillis = p.getEndTime().getTime() - p.getStartTime().getTime();
-                return durationMillis / (1000.0 * 60.0 * 60.0); // Convertir a horas
-            })
-            .sum();
-
-        return totalHours / completedProcesses.size();
+        // Sumas preagregadas en kpi_rollups, sin recorrer el historial
+        return kpiRollupService.averageProcessingTimeHours();
     }
 
     private long getOverdueRequestsCount() {
         LocalDateTime cutoffDate = LocalDateTime.now().minus(7, ChronoUnit.DAYS);
         
-        List<ProcessInstance> activeInstances = runtimeService
-            .createProcessInstanceQuery()
+        // Instancias activas iniciadas antes del corte, contadas en la base de datos
+        return historyService
+            .createHistoricProcessInstanceQuery()
             .processDefinitionKey("purchase-request-process")
             .active()
-            .list();
-
-        return activeInstances.stream()
-            .filter(instance -> {
-                List<HistoricProcessInstance> historic = historyService
-                    .createHistoricProcessInstanceQuery()
-                    .processInstanceId(instance.getId())
-                    .list();
-                
-                if (!historic.isEmpty() && historic.get(0).getStartTime() != null) {
-                    LocalDateTime startTime = historic.get(0).getStartTime()
-                        .toInstant()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toLocalDateTime();
-                    return startTime.isBefore(cutoffDate);
-                }
-                return false;
-            })
+            .startedBefore(Date.from(cutoffDate.atZone(ZoneId.systemDefault()).toInstant()))
             .count();
     }
 
-    private String calculateTotalApprovedAmount() {
-        List<PurchaseRequest> approvedRequests = purchaseRequestRepository.findAll()
-            .stream()
-            .filter(r -> r.getProcessInstanceId() != null)
-            .filter(this::isRequestApproved)
-            .collect(Collectors.toList());
+    private String calculateTotalApprovedAmount(Map<String, FinalStatus> finalStatuses) {
+        BigDecimal total = BigDecimal.ZERO;
 
-        BigDecimal total = approvedRequests.stream()
-            .map(PurchaseRequest::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Solo se leen los montos de las instancias aprobadas, por lotes del IN
+        List<String> approvedIds = finalStatuses.entrySet().stream()
+            .filter(entry -> entry.getValue() == FinalStatus.APPROVED)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+        for (List<String> chunk : finalStatusResolver.chunks(approvedIds)) {
+            BigDecimal amount = purchaseRequestRepository.sumAmountByProcessInstanceIdIn(chunk);
+            if (amount != null) {
+                total = total.add(amount);
+            }
+        }
 
         return String.format("$%,.2f", total);
     }
 
-    private String calculateAverageRequestAmount() {
-        List<PurchaseRequest> allRequests = purchaseRequestRepository.findAll();
-        
-        if (allRequests.isEmpty()) {
+    private String calculateAverageRequestAmount(RequestAggregate aggregate) {
+        if (aggregate.totalCount == 0) {
             return "$0.00";
         }
 
-        BigDecimal total = allRequests.stream()
-            .map(PurchaseRequest::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal average = total.divide(
-            BigDecimal.valueOf(allRequests.size()), 
+        BigDecimal average = aggregate.totalAmount.divide(
+            BigDecimal.valueOf(aggregate.totalCount), 
             2, 
-            BigDecimal.ROUND_HALF_UP
+            RoundingMode.HALF_UP
         );
 
         return String.format("$%,.2f", average);
     }
 
-    private boolean isRequestApproved(PurchaseRequest request) {
-        try {
-            if (request.getProcessInstanceId() == null) {
-                return false;
-            }
-            
-            // Buscar variables históricas del proceso
-            List<HistoricVariableInstance> variables = historyService
-                .createHistoricVariableInstanceQuery()
-                .processInstanceId(request.getProcessInstanceId())
-                .variableName("finalStatus")
-                .list();
-
-            return variables.stream()
-                .anyMatch(var -> "APPROVED".equals(var.getValue()));
-                
-        } catch (Exception e) {
-            log.warn("Error verificando estado de aprobación para request {}: {}", 
-                request.getId(), e.getMessage());
-            return false;
-        }
-    }
-
     private List<DashboardMetricsDto.CategoryMetricDto> getCategoryDistribution(
-            List<PurchaseRequest> requests) {
+            RequestAggregate aggregate) {
         
-        if (requests.isEmpty()) {
+        if (aggregate.totalCount == 0) {
             return new ArrayList<>();
         }
 
-        Map<String, Long> categoryCount = requests.stream()
-            .collect(Collectors.groupingBy(
-                r -> r.getCategory().name(),
-                Collectors.counting()
-            ));
-
-        long total = requests.size();
+        long total = aggregate.totalCount;
 
-        return categoryCount.entrySet().stream()
+        return aggregate.categoryCount.entrySet().stream()
             .map(entry -> DashboardMetricsDto.CategoryMetricDto.builder()
                 .category(entry.getKey())
                 .count(entry.getValue())
@@ -330,21 +299,15 @@ public class ReportService {
     }
 
     private List<DashboardMetricsDto.DepartmentMetricDto> getDepartmentDistribution(
-            List<PurchaseRequest> requests) {
+            RequestAggregate aggregate) {
         
-        if (requests.isEmpty()) {
+        if (aggregate.totalCount == 0) {
             return new ArrayList<>();
         }
 
-        Map<String, Long> departmentCount = requests.stream()
-            .collect(Collectors.groupingBy(
-                PurchaseRequest::getDepartment,
-                Collectors.counting()
-            ));
+        long total = aggregate.totalCount;
 
-        long total = requests.size();
-
-        return departmentCount.entrySet().stream()
+        return aggregate.departmentCount.entrySet().stream()
             .map(entry -> DashboardMetricsDto.DepartmentMetricDto.builder()
                 .department(entry.getKey())
                 .count(entry.getValue())
@@ -381,6 +344,7 @@ public class ReportService {
             .approvedRequests(0L)
             .rejectedRequests(0L)
             .averageProcessingTime(0.0)
+            .latencyPercentiles(new ArrayList<>())
             .overdueRequests(0L)
             .totalApprovedAmount("$0.00")
             .averageRequestAmount("$0.00")
@@ -389,4 +353,30 @@ public class ReportService {
             .userTasks(new ArrayList<>())
             .build();
     }
+
+    /**
+     * Resultado de la agregación agrupada (categoría × departamento) sobre purchase_requests.
+     */
+    private static final class RequestAggregate {
+        private final Map<String, Long> categoryCount = new LinkedHashMap<>();
+        private final Map<String, Long> departmentCount = new LinkedHashMap<>();
+        private long totalCount;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+
+        static RequestAggregate from(List<Object[]> rows) {
+            RequestAggregate aggregate = new RequestAggregate();
+            for (Object[] row : rows) {
+                String category = ((PurchaseRequest.PurchaseCategory) row[0]).name();
+                String department = (String) row[1];
+                long count = ((Number) row[2]).longValue();
+                BigDecimal amount = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+
+                aggregate.categoryCount.merge(category, count, Long::sum);
+                aggregate.departmentCount.merge(department, count, Long::sum);
+                aggregate.totalCount += count;
+                aggregate.totalAmount = aggregate.totalAmount.add(amount);
+            }
+            return aggregate;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,364 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AsyncConfiguration;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleUpdateDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationRequestDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationResultDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationResultDto.ScenarioResult;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ApprovalRuleEvaluator.RuleSnapshot;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * 🧪 Simulación masiva de rutas de aprobación
+ *
+ * Recorre en streaming las solicitudes históricas (solo monto base, categoría y
+ * prioridad), las agrupa en bloques columnares de primitivos y reparte cada bloque
+ * en el ForkJoinPool de simulación. Cada fila se evalúa con la tabla desplegada y con
+ * cada candidato sobre tablas compiladas; solo se acumulan contadores, así el costo
+ * por fila son unas pocas búsquedas binarias y la memoria queda acotada a los
+ * bloques en vuelo.
+ */
+@Service
+@Slf4j
+public class RoutingSimulationService {
+
+    static final int CHUNK_SIZE = 65_536;
+    static final int SPLIT_THRESHOLD = 8_192;
+    static final int MAX_CANDIDATES = 10;
+    // Una jornada laboral por cada día estimado de aprobación
+    static final int WORKING_HOURS_PER_DAY = 8;
+
+    private static final ApprovalRoute[] ROUTES = ApprovalRoute.values();
+    private static final PurchaseCategory[] CATEGORIES = PurchaseCategory.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Un hueco extra para prioridad nula
+    private static final int PRIORITY_SLOTS = PRIORITIES.length + 1;
+    private static final byte NONE = -1;
+    private static final long NULL_AMOUNT = Long.MIN_VALUE;
+
+    private final PurchaseRequestRepository repository;
+    private final ApprovalRuleEvaluator evaluator;
+    private final ApprovalRuleStore ruleStore;
+    private final DmnEvaluationService dmnEvaluationService;
+    private final BusinessRulesService businessRulesService;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    public RoutingSimulationService(PurchaseRequestRepository repository,
+                                    ApprovalRuleEvaluator evaluator,
+                                    ApprovalRuleStore ruleStore,
+                                    DmnEvaluationService dmnEvaluationService,
+                                    BusinessRulesService businessRulesService,
+                                    @Qualifier(AsyncConfiguration.SIMULATION_POOL) ForkJoinPool pool) {
+        this.repository = repository;
+        this.evaluator = evaluator;
+        this.ruleStore = ruleStore;
+        this.dmnEvaluationService = dmnEvaluationService;
+        this.businessRulesService = businessRulesService;
+        this.pool = pool;
+        this.maxInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Evalúa los candidatos sobre las solicitudes creadas en [from, to).
+     *
+     * @throws IllegalArgumentException si no hay candidatos, son demasiados o sus umbrales no son coherentes
+     */
+    @Transactional(readOnly = true)
+    public RoutingSimulationResultDto simulate(RoutingSimulationRequestDto request) {
+        List<RoutingSimulationRequestDto.Candidate> candidates =
+            request.getCandidates() != null ? request.getCandidates() : List.of();
+        if (candidates.isEmpty() || candidates.size() > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("Se requieren entre 1 y " + MAX_CANDIDATES + " candidatos");
+        }
+        LocalDate from = request.getFrom();
+        LocalDate to = request.getTo();
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("El rango de fechas es vacío: " + from + " - " + to);
+        }
+
+        RuleSnapshot[] scenarios = new RuleSnapshot[candidates.size() + 1];
+        String[] names = new String[scenarios.length];
+        // Escenario base: la tabla desplegada en Camunda, la que ejecutan los procesos
+        scenarios[0] = dmnEvaluationService.deployedRules();
+        names[0] = "v" + scenarios[0].configuration().getVersion() + " (vigente, DMN v"
+            + dmnEvaluationService.deployedVersion() + ")";
+        for (int i = 0; i < candidates.size(); i++) {
+            RoutingSimulationRequestDto.Candidate candidate = candidates.get(i);
+            ApprovalRuleUpdateDto rules = candidate.getRules() != null ? candidate.getRules() : new ApprovalRuleUpdateDto();
+            scenarios[i + 1] = evaluator.snapshotOf(ruleStore.preview(rules));
+            names[i + 1] = candidate.getName() != null && !candidate.getName().isBlank()
+                ? candidate.getName() : "Candidato " + (i + 1);
+        }
+
+        long start = System.nanoTime();
+        Tally tally;
+        try (Stream<Object[]> rows = repository.streamRoutingSamples(startOf(from), startOf(to))) {
+            tally = run(rows.iterator(), scenarios);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("🧪 Simulación de rutas: {} solicitudes × {} escenarios en {} ms",
+            tally.rows, scenarios.length, elapsedMillis);
+        return toResult(tally, scenarios, names, elapsedMillis);
+    }
+
+    /**
+     * Lee bloques en el hilo llamante y los evalúa en el pool; como mucho
+     * {@code maxInFlight} bloques pendientes para que la lectura no acumule memoria.
+     */
+    Tally run(Iterator<Object[]> rows, RuleSnapshot[] scenarios) {
+        Deque<ForkJoinTask<Tally>> inFlight = new ArrayDeque<>();
+        Tally total = new Tally(scenarios.length);
+
+        Samples chunk = new Samples(CHUNK_SIZE);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size == CHUNK_SIZE) {
+                inFlight.add(pool.submit(new SimulationTask(chunk, scenarios, 0, chunk.size)));
+                chunk = new Samples(CHUNK_SIZE);
+                if (inFlight.size() >= maxInFlight) {
+                    total.merge(inFlight.poll().join());
+                }
+            }
+        }
+        if (chunk.size > 0) {
+            inFlight.add(pool.submit(new SimulationTask(chunk, scenarios, 0, chunk.size)));
+        }
+        while (!inFlight.isEmpty()) {
+            total.merge(inFlight.poll().join());
+        }
+        return total;
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    // ================================================================
+    // RESULTADO
+    // ================================================================
+
+    private RoutingSimulationResultDto toResult(Tally tally, RuleSnapshot[] scenarios, String[] names, long elapsedMillis) {
+        long[][] hoursPerRequest = approverHoursPerRequest();
+
+        ScenarioResult baseline = scenario(tally, 0, names[0], scenarios[0].configuration(), hoursPerRequest, null);
+        List<ScenarioResult> candidates = new ArrayList<>();
+        for (int s = 1; s < scenarios.length; s++) {
+            candidates.add(scenario(tally, s, names[s], scenarios[s].configuration(), hoursPerRequest, baseline));
+        }
+
+        return RoutingSimulationResultDto.builder()
+            .rows(tally.rows)
+            .elapsedMillis(elapsedMillis)
+            .baseline(baseline)
+            .candidates(candidates)
+            .build();
+    }
+
+    private static ScenarioResult scenario(Tally tally, int s, String name, ApprovalRuleConfig rules,
+                                           long[][] hoursPerRequest, ScenarioResult baseline) {
+        Map<String, Long> routes = new LinkedHashMap<>();
+        Map<String, Long> hours = new LinkedHashMap<>();
+        for (ApprovalRoute route : ROUTES) {
+            long count = 0;
+            long routeHours = 0;
+            for (int p = 0; p < PRIORITY_SLOTS; p++) {
+                long requests = tally.routes[s][route.ordinal() * PRIORITY_SLOTS + p];
+                count += requests;
+                routeHours += requests * hoursPerRequest[route.ordinal()][p];
+            }
+            routes.put(route.name(), count);
+            hours.put(route.name(), routeHours);
+        }
+
+        ScenarioResult.ScenarioResultBuilder result = ScenarioResult.builder()
+            .name(name)
+            .rules(rules)
+            .routes(routes)
+            .approverHours(hours);
+        if (baseline == null) {
+            return result.build();
+        }
+
+        Map<String, Long> routeDeltas = new LinkedHashMap<>();
+        Map<String, Long> hoursDeltas = new LinkedHashMap<>();
+        for (ApprovalRoute route : ROUTES) {
+            routeDeltas.put(route.name(), routes.get(route.name()) - baseline.getRoutes().get(route.name()));
+            hoursDeltas.put(route.name(), hours.get(route.name()) - baseline.getApproverHours().get(route.name()));
+        }
+
+        long changed = 0;
+        Map<String, Map<String, Long>> shifts = new LinkedHashMap<>();
+        for (ApprovalRoute from : ROUTES) {
+            for (ApprovalRoute to : ROUTES) {
+                long moved = tally.shifts[s][from.ordinal() * ROUTES.length + to.ordinal()];
+                if (moved > 0) {
+                    changed += moved;
+                    shifts.computeIfAbsent(from.name(), k -> new LinkedHashMap<>()).put(to.name(), moved);
+                }
+            }
+        }
+
+        return result
+            .routeDeltas(routeDeltas)
+            .approverHoursDeltas(hoursDeltas)
+            .changedRequests(changed)
+            .shifts(shifts)
+            .build();
+    }
+
+    /**
+     * Horas laborables por solicitud según ruta y prioridad; sin aprobador humano no hay horas.
+     */
+    private long[][] approverHoursPerRequest() {
+        long[][] hours = new long[ROUTES.length][PRIORITY_SLOTS];
+        for (ApprovalRoute route : ROUTES) {
+            if (businessRulesService.getApproverEmail(route) == null) {
+                continue;
+            }
+            for (int p = 0; p < PRIORITY_SLOTS; p++) {
+                Priority priority = p < PRIORITIES.length ? PRIORITIES[p] : null;
+                hours[route.ordinal()][p] = (long) businessRulesService.estimateApprovalTime(route, priority)
+                    .getEstimatedDays() * WORKING_HOURS_PER_DAY;
+            }
+        }
+        return hours;
+    }
+
+    // ================================================================
+    // EVALUACIÓN EN PARALELO
+    // ================================================================
+
+    /**
+     * Bloque columnar de muestras: monto en centavos y ordinales de categoría/prioridad.
+     */
+    static final class Samples {
+
+        final long[] cents;
+        final byte[] categories;
+        final byte[] priorities;
+        int size;
+
+        Samples(int capacity) {
+            this.cents = new long[capacity];
+            this.categories = new byte[capacity];
+            this.priorities = new byte[capacity];
+        }
+
+        void add(Object[] row) {
+            cents[size] = row[0] instanceof BigDecimal amount ? ApprovalRuleEvaluator.toCents(amount)
+                : row[0] instanceof Number number ? ApprovalRuleEvaluator.toCents(new BigDecimal(number.toString()))
+                : NULL_AMOUNT;
+            categories[size] = row[1] instanceof PurchaseCategory category ? (byte) category.ordinal() : NONE;
+            priorities[size] = row[2] instanceof Priority priority ? (byte) priority.ordinal() : NONE;
+            size++;
+        }
+    }
+
+    /**
+     * Contadores por escenario: solicitudes por (ruta, prioridad) y cambios de ruta
+     * respecto a la versión vigente (escenario 0).
+     */
+    static final class Tally {
+
+        long rows;
+        final long[][] routes;
+        final long[][] shifts;
+
+        Tally(int scenarios) {
+            this.routes = new long[scenarios][ROUTES.length * PRIORITY_SLOTS];
+            this.shifts = new long[scenarios][ROUTES.length * ROUTES.length];
+        }
+
+        void merge(Tally other) {
+            rows += other.rows;
+            for (int s = 0; s < routes.length; s++) {
+                for (int i = 0; i < routes[s].length; i++) {
+                    routes[s][i] += other.routes[s][i];
+                }
+                for (int i = 0; i < shifts[s].length; i++) {
+                    shifts[s][i] += other.shifts[s][i];
+                }
+            }
+        }
+    }
+
+    static final class SimulationTask extends RecursiveTask<Tally> {
+
+        private final Samples samples;
+        private final RuleSnapshot[] scenarios;
+        private final int start;
+        private final int end;
+
+        SimulationTask(Samples samples, RuleSnapshot[] scenarios, int start, int end) {
+            this.samples = samples;
+            this.scenarios = scenarios;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (end - start > SPLIT_THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                SimulationTask left = new SimulationTask(samples, scenarios, start, middle);
+                left.fork();
+                Tally tally = new SimulationTask(samples, scenarios, middle, end).compute();
+                tally.merge(left.join());
+                return tally;
+            }
+
+            Tally tally = new Tally(scenarios.length);
+            for (int i = start; i < end; i++) {
+                long cents = samples.cents[i];
+                PurchaseCategory category = samples.categories[i] != NONE ? CATEGORIES[samples.categories[i]] : null;
+                int prioritySlot = samples.priorities[i] != NONE ? samples.priorities[i] : PRIORITIES.length;
+                Priority priority = prioritySlot < PRIORITIES.length ? PRIORITIES[prioritySlot] : null;
+
+                int baseline = route(scenarios[0], cents, category, priority);
+                tally.routes[0][baseline * PRIORITY_SLOTS + prioritySlot]++;
+                for (int s = 1; s < scenarios.length; s++) {
+                    int route = route(scenarios[s], cents, category, priority);
+                    tally.routes[s][route * PRIORITY_SLOTS + prioritySlot]++;
+                    if (route != baseline) {
+                        tally.shifts[s][baseline * ROUTES.length + route]++;
+                    }
+                }
+            }
+            tally.rows = end - start;
+            return tally;
+        }
+
+        private static int route(RuleSnapshot rules, long cents, PurchaseCategory category, Priority priority) {
+            return (cents == NULL_AMOUNT
+                ? rules.evaluate((BigDecimal) null, category, priority)
+                : rules.evaluateCents(cents, category, priority)).getRoute().ordinal();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.SupplierDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 🗂️ Caché del catálogo de proveedores (stale-while-revalidate)
+ *
+ * - Fresco (edad < ttl): se sirve desde memoria.
+ * - Caducado (ttl ≤ edad < maxStale): se sirve el snapshot y se refresca en segundo plano.
+ * - Vencido o ausente: se carga en línea.
+ * Si el upstream falla (el loader devuelve null) se mantiene el último snapshot bueno;
+ * el fallback fijo solo se usa cuando nunca hubo datos reales.
+ * El número de catálogos en memoria está acotado (LRU).
+ */
+@Component
+@Slf4j
+public class SupplierCatalogCache {
+
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Map<String, Entry> entries;
+    private final ExecutorService refresher;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter refreshFailures;
+
+    public SupplierCatalogCache(MeterRegistry meterRegistry,
+                                @Value("${app.suppliers.cache.ttl:5m}") Duration ttl,
+                                @Value("${app.suppliers.cache.max-stale:1h}") Duration maxStale,
+                                @Value("${app.suppliers.cache.max-entries:16}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        // Un hilo y cola corta: los refrescos son pocos y se deduplican por entrada
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxEntries), r -> {
+                Thread thread = new Thread(r, "supplier-catalog-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.staleHits = cacheCounter(meterRegistry, "stale");
+        this.misses = cacheCounter(meterRegistry, "miss");
+        this.refreshFailures = Counter.builder("supplier.catalog.refresh.failures")
+            .description("Refrescos del catálogo de proveedores sin datos del upstream")
+            .register(meterRegistry);
+        Gauge.builder("supplier.catalog.cache.size", this, SupplierCatalogCache::size)
+            .description("Catálogos de proveedores en memoria")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param key      catálogo (servicio de origen)
+     * @param loader   consulta al upstream; devuelve null si no obtuvo datos reales
+     * @param fallback datos fijos cuando no hay snapshot previo
+     */
+    public List<SupplierDto> get(String key, Supplier<List<SupplierDto>> loader, Supplier<List<SupplierDto>> fallback) {
+        Entry entry = lookup(key);
+        long now = System.nanoTime();
+
+        if (entry != null) {
+            long age = now - entry.loadedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                return entry.suppliers;
+            }
+            if (age < maxStaleNanos) {
+                staleHits.increment();
+                refreshAsync(key, entry, loader);
+                return entry.suppliers;
+            }
+        }
+
+        misses.increment();
+        List<SupplierDto> loaded = load(key, loader);
+        if (loaded != null) {
+            return loaded;
+        }
+        if (entry != null) {
+            log.warn("⚠️ Upstream de {} sin datos, sirviendo último snapshot válido", key);
+            return entry.suppliers;
+        }
+        return fallback.get();
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void refreshAsync(String key, Entry entry, Supplier<List<SupplierDto>> loader) {
+        // Un solo refresco en curso por entrada
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(key, loader);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private List<SupplierDto> load(String key, Supplier<List<SupplierDto>> loader) {
+        List<SupplierDto> loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            log.error("❌ Error refrescando catálogo {}: {}", key, e.getMessage());
+            loaded = null;
+        }
+
+        if (loaded == null || loaded.isEmpty()) {
+            refreshFailures.increment();
+            return null;
+        }
+
+        List<SupplierDto> snapshot = List.copyOf(loaded);
+        synchronized (entries) {
+            entries.put(key, new Entry(snapshot, System.nanoTime()));
+        }
+        log.debug("🗂️ Catálogo {} actualizado con {} proveedores", key, snapshot.size());
+        return snapshot;
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String result) {
+        return Counter.builder("supplier.catalog.cache")
+            .description("Accesos a la caché del catálogo de proveedores")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static final class Entry {
+        private final List<SupplierDto> suppliers;
+        private final long loadedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<SupplierDto> suppliers, long loadedAt) {
+            this.suppliers = suppliers;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ExtensionElements;
+import org.camunda.bpm.model.bpmn.instance.StartEvent;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaExecutionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AdaptiveJobExecutor;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.JobExecutorTuningProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobExecutorTuner;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobPriorityPolicy;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prueba de resistencia del job executor adaptativo: 10k tareas de supervisor
+ * esperando y todas aprobadas de golpe, lo que encola dos continuaciones asíncronas
+ * por solicitud (procesar aprobación y notificación final).
+ *
+ * Se ejecuta solo bajo demanda: {@code mvn test -Dtest=JobExecutorSoakTest -Dsoak=true}
+ */
+@EnabledIfSystemProperty(named = "soak", matches = "true")
+@Slf4j
+class JobExecutorSoakTest {
+
+    private static final String PROCESS_KEY = "purchase-request-process";
+    private static final int TASKS = Integer.getInteger("soak.tasks", 10_000);
+    private static final int QUEUE_CAPACITY = 10;
+    private static final long TIMEOUT_MILLIS = 15 * 60_000;
+    // Presupuesto mínimo de drenado de la tormenta
+    private static final int MIN_JOBS_PER_SECOND = Integer.getInteger("soak.minJobsPerSecond", 50);
+
+    private final AtomicInteger approvals = new AtomicInteger();
+    private final AtomicInteger notifications = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ProcessEngine engine;
+    private ThreadPoolTaskExecutor pool;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void approvalStormOverTenThousandWaitingTasksDrainsWithoutLosingJobs() throws Exception {
+        JobExecutorTuningProperties tuning = new JobExecutorTuningProperties();
+        ProcessEngineConfigurationImpl configuration = buildEngine();
+        AdaptiveJobExecutor executor = (AdaptiveJobExecutor) configuration.getJobExecutor();
+        JobExecutorTuner tuner = new JobExecutorTuner(executor, configuration, tuning, QUEUE_CAPACITY, registry);
+
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("priority", i % 10 == 0 ? "URGENT" : "NORMAL");
+            variables.put("category", "SOFTWARE");
+            variables.put("totalAmount", 1500.0);
+            engine.getRuntimeService().startProcessInstanceByKey(PROCESS_KEY, variables);
+        }
+        await(tuner, () -> engine.getTaskService().createTaskQuery().count() == TASKS);
+        log.info("🧪 {} tareas de supervisor en espera tras {} s", TASKS, (System.nanoTime() - startNanos) / 1_000_000_000);
+
+        // Se aprueban todas a la vez: cada una deja dos jobs asíncronos en cola
+        long stormNanos = System.nanoTime();
+        for (Task task : engine.getTaskService().createTaskQuery().list()) {
+            engine.getTaskService().complete(task.getId(), Map.of("approved", true));
+        }
+        configuration.getJobExecutor().jobWasAdded();
+        int maxPool = executor.getPool().getCorePoolSize();
+        int maxBatch = executor.getBatchSize();
+        while (notifications.get() < TASKS) {
+            assertTrue(System.nanoTime() - stormNanos < TIMEOUT_MILLIS * 1_000_000, "Timeout drenando los jobs");
+            tuner.tune();
+            JobExecutorTuner.Settings settings = tuner.current();
+            maxPool = Math.max(maxPool, settings.poolSize());
+            maxBatch = Math.max(maxBatch, settings.batchSize());
+            Thread.sleep(500);
+        }
+        double seconds = (System.nanoTime() - stormNanos) / 1e9;
+        double jobsPerSecond = 2 * TASKS / seconds;
+
+        log.info("🧪 Tormenta de {} jobs drenada en {} s ({} jobs/s)",
+            2 * TASKS, Math.round(seconds), Math.round(jobsPerSecond));
+        log.info("🧪 Adquiridos {}, rechazados {}, hilos máx {}, lote máx {}",
+            (long) registry.get("jobexecutor.jobs.acquired").counter().count(),
+            (long) registry.get("jobexecutor.jobs.rejected").counter().count(),
+            maxPool, maxBatch);
+        Timer wait = registry.get("jobexecutor.jobs.wait").timer();
+        Timer duration = registry.get("jobexecutor.jobs.duration").timer();
+        log.info("🧪 Espera en cola media {} ms (máx {}), duración por job media {} ms (máx {})",
+            Math.round(wait.mean(TimeUnit.MILLISECONDS)), Math.round(wait.max(TimeUnit.MILLISECONDS)),
+            Math.round(duration.mean(TimeUnit.MILLISECONDS)), Math.round(duration.max(TimeUnit.MILLISECONDS)));
+
+        assertEquals(TASKS, approvals.get());
+        assertEquals(TASKS, notifications.get());
+        assertTrue(jobsPerSecond >= MIN_JOBS_PER_SECOND,
+            "Throughput de drenado " + Math.round(jobsPerSecond) + " jobs/s < " + MIN_JOBS_PER_SECOND);
+        assertEquals(0, engine.getManagementService().createJobQuery().withException().count());
+        await(tuner, () -> engine.getRuntimeService().createProcessInstanceQuery().count() == 0);
+    }
+
+    private ProcessEngineConfigurationImpl buildEngine() throws Exception {
+        pool = new ThreadPoolTaskExecutor();
+        pool.setThreadNamePrefix("soak-job-");
+        pool.setCorePoolSize(3);
+        pool.setMaxPoolSize(20);
+        pool.setQueueCapacity(QUEUE_CAPACITY);
+        pool.initialize();
+
+        AdaptiveJobExecutor executor = new AdaptiveJobExecutor(pool, registry);
+        executor.setMaxJobsPerAcquisition(20);
+        executor.setBatchSize(10);
+        executor.setWaitTimeInMillis(500);
+
+        JavaDelegate noop = execution -> { };
+        Map<Object, Object> beans = new HashMap<>();
+        beans.put("jobPriorityPolicy", new JobPriorityPolicy());
+        beans.put("validatePurchaseRequestDelegate", noop);
+        beans.put("determineApprovalRouteDelegate",
+            (JavaDelegate) execution -> execution.setVariable("approvalRoute", "SUPERVISOR"));
+        beans.put("autoApprovalDelegate", noop);
+        beans.put("processApprovalDelegate", (JavaDelegate) execution -> approvals.incrementAndGet());
+        beans.put("processRejectionDelegate", noop);
+        beans.put("sendFinalNotificationDelegate", (JavaDelegate) execution -> notifications.incrementAndGet());
+
+        ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl)
+            ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+                .setJdbcUrl("jdbc:h2:mem:job-executor-soak;DB_CLOSE_DELAY=-1")
+                .setHistory(ProcessEngineConfiguration.HISTORY_ACTIVITY)
+                .setJobExecutorActivate(true)
+                .setProcessEngineName("job-executor-soak");
+        configuration.setJobExecutor(executor);
+        configuration.setJobExecutorAcquireByPriority(true);
+        configuration.setBeans(beans);
+        engine = configuration.buildProcessEngine();
+
+        BpmnModelInstance model;
+        try (InputStream in = new ClassPathResource("processes/" + PROCESS_KEY + ".bpmn").getInputStream()) {
+            model = Bpmn.readModelFromStream(in);
+        }
+        // El listener de depuración del inicio depende del contexto Spring
+        for (StartEvent startEvent : model.getModelElementsByType(StartEvent.class)) {
+            ExtensionElements extensions = startEvent.getExtensionElements();
+            if (extensions != null) {
+                extensions.getElementsQuery().filterByType(CamundaExecutionListener.class).list()
+                    .forEach(extensions::removeChildElement);
+            }
+        }
+        engine.getRepositoryService().createDeployment()
+            .addModelInstance(PROCESS_KEY + ".bpmn", model)
+            .deploy();
+        return configuration;
+    }
+
+    private static void await(JobExecutorTuner tuner, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout esperando a las tareas");
+            tuner.tune();
+            Thread.sleep(500);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ExtensionElements;
+import org.camunda.bpm.model.bpmn.instance.FlowNode;
+import org.camunda.bpm.model.bpmn.instance.StartEvent;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaExecutionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HistoryConfiguration;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HistoryProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.LeanHistoryLevel;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.DashboardCounters;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.HistoryCleanupMonitor;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobPriorityPolicy;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.KpiRollupService;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ProcessingLatencyMonitor;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.ReportService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Historial {@code purchase-lean} frente a {@code full} con el proceso real y delegates
+ * simulados: mismo reporte de auditoría con una fracción de las filas, y limpieza por
+ * removal time con sus métricas.
+ *
+ * Comparación del reporte de auditoría sobre 100k instancias bajo demanda:
+ * {@code mvn test -Dtest=LeanHistoryLevelTest -Dbenchmark=true}
+ */
+@Slf4j
+class LeanHistoryLevelTest {
+
+    private static final String PROCESS_KEY = "purchase-request-process";
+
+    private final List<ProcessEngine> engines = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        ClockUtil.reset();
+        engines.forEach(ProcessEngine::close);
+    }
+
+    @Test
+    void auditReportMatchesFullHistoryWithFarFewerRows() throws IOException {
+        ProcessEngine full = buildEngine("full", ProcessEngineConfiguration.HISTORY_FULL);
+        ProcessEngine lean = buildEngine("lean", LeanHistoryLevel.NAME);
+        for (int i = 0; i < 20; i++) {
+            start(full, i);
+            start(lean, i);
+        }
+
+        Map<String, Object> fullReport = reportService(full).getAuditReport();
+        Map<String, Object> leanReport = reportService(lean).getAuditReport();
+        for (String key : List.of("totalProcesses", "completedProcesses", "approvedProcesses", "rejectedProcesses")) {
+            assertEquals(fullReport.get(key), leanReport.get(key), key);
+        }
+        assertEquals(16L, leanReport.get("approvedProcesses"));
+        assertEquals(4L, leanReport.get("rejectedProcesses"));
+
+        assertEquals(0, lean.getHistoryService().createHistoricActivityInstanceQuery().count());
+        assertEquals(0, lean.getHistoryService().createHistoricDetailQuery().count());
+        Set<String> variables = lean.getHistoryService().createHistoricVariableInstanceQuery().list().stream()
+            .map(HistoricVariableInstance::getName)
+            .collect(Collectors.toSet());
+        assertTrue(new HistoryProperties().getLeanVariables().containsAll(variables), variables.toString());
+        assertTrue(variables.contains(FinalStatusResolver.VARIABLE_NAME));
+
+        long fullRows = historyRows(full);
+        long leanRows = historyRows(lean);
+        assertTrue(leanRows * 3 < fullRows, "lean=" + leanRows + " full=" + fullRows);
+    }
+
+    @Test
+    void expiredInstancesAreRemovedByRemovalTimeAndCounted() throws IOException {
+        ProcessEngine lean = buildEngine("cleanup", LeanHistoryLevel.NAME);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HistoryCleanupMonitor monitor = new HistoryCleanupMonitor(
+            lean.getManagementService(), lean.getHistoryService(), registry);
+        for (int i = 0; i < 10; i++) {
+            start(lean, i);
+        }
+
+        // historyTimeToLive=30 del proceso, contado desde el fin de la instancia
+        ClockUtil.setCurrentTime(new Date(System.currentTimeMillis() + 31L * 24 * 3_600_000));
+        monitor.poll();
+        assertEquals(10.0, registry.get("history.cleanup.backlog").gauge().value());
+
+        // Las métricas del motor se registran con la hora del volcado: ventanas separadas por una hora
+        advanceClockOneHour();
+        Job cleanup = lean.getHistoryService().cleanUpHistoryAsync(true);
+        lean.getManagementService().executeJob(cleanup.getId());
+        lean.getManagementService().reportDbMetricsNow();
+        advanceClockOneHour();
+        monitor.poll();
+
+        assertEquals(0, lean.getHistoryService().createHistoricProcessInstanceQuery().count());
+        assertEquals(0, lean.getHistoryService().createHistoricVariableInstanceQuery().count());
+        assertEquals(10.0, registry.get("history.cleanup.removed").tag("type", "process-instances").counter().count());
+        assertEquals(0.0, registry.get("history.cleanup.backlog").gauge().value());
+    }
+
+    @Test
+    void backfillVariablesAreKeptEvenIfTheConfiguredListOmitsThem() {
+        LeanHistoryLevel level = new LeanHistoryLevel(Set.of("approved"));
+
+        assertTrue(level.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_CREATE, variable("approved")));
+        for (String required : LeanHistoryLevel.REQUIRED_VARIABLES) {
+            assertTrue(level.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_CREATE, variable(required)),
+                required);
+        }
+        assertFalse(level.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_CREATE, variable("comments")));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAuditReportFullVsLean() throws IOException {
+        int instances = Integer.getInteger("benchmark.instances", 100_000);
+
+        Map<String, Long> reportNanos = new HashMap<>();
+        Map<String, Long> rows = new HashMap<>();
+        for (String level : List.of(ProcessEngineConfiguration.HISTORY_FULL, LeanHistoryLevel.NAME)) {
+            ProcessEngine engine = buildEngine("benchmark-" + level, level);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < instances; i++) {
+                start(engine, i);
+            }
+            double startSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+            ReportService reportService = reportService(engine);
+            reportService.getAuditReport();
+            long bestNanos = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                long runNanos = System.nanoTime();
+                reportService.getAuditReport();
+                bestNanos = Math.min(bestNanos, System.nanoTime() - runNanos);
+            }
+
+            reportNanos.put(level, bestNanos);
+            rows.put(level, historyRows(engine));
+            log.info("🧪 Historial {}: {} instancias en {} s ({}/s), {} filas ACT_HI_*, reporte de auditoría {} ms",
+                level, instances, Math.round(startSeconds), Math.round(instances / startSeconds), rows.get(level),
+                bestNanos / 1_000_000);
+            engine.close();
+            engines.remove(engine);
+        }
+
+        assertTrue(rows.get(LeanHistoryLevel.NAME) < rows.get(ProcessEngineConfiguration.HISTORY_FULL),
+            "filas de historial: " + rows);
+        assertTrue(reportNanos.get(LeanHistoryLevel.NAME) < reportNanos.get(ProcessEngineConfiguration.HISTORY_FULL),
+            "reporte de auditoría (ns): " + reportNanos);
+    }
+
+    private static VariableInstance variable(String name) {
+        VariableInstance variable = mock(VariableInstance.class);
+        when(variable.getName()).thenReturn(name);
+        return variable;
+    }
+
+    private static void advanceClockOneHour() {
+        ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 3_600_000));
+    }
+
+    private static void start(ProcessEngine engine, int i) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("priority", i % 10 == 0 ? "URGENT" : "NORMAL");
+        variables.put("category", "SOFTWARE");
+        // Una de cada cinco supera el límite simulado y se rechaza
+        variables.put("totalAmount", i % 5 == 0 ? 450.0 : 150.0);
+        variables.put("requesterEmail", "solicitante@softwareevolutivo.com");
+        variables.put("requestId", "PR-" + i);
+        engine.getRuntimeService().startProcessInstanceByKey(PROCESS_KEY, variables);
+    }
+
+    private static long historyRows(ProcessEngine engine) {
+        return engine.getManagementService().getTableCount().entrySet().stream()
+            .filter(entry -> entry.getKey().toUpperCase().startsWith("ACT_HI_"))
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+
+    private static ReportService reportService(ProcessEngine engine) {
+        return new ReportService(mock(PurchaseRequestRepository.class), engine.getHistoryService(),
+            engine.getTaskService(), mock(DashboardCounters.class), finalStatusResolver(engine),
+            mock(KpiRollupService.class), mock(ProcessingLatencyMonitor.class));
+    }
+
+    private static FinalStatusResolver finalStatusResolver(ProcessEngine engine) {
+        return new FinalStatusResolver(engine.getHistoryService(), engine.getManagementService());
+    }
+
+    private ProcessEngine buildEngine(String name, String historyLevel) throws IOException {
+        Map<Object, Object> beans = new HashMap<>();
+        beans.put("jobPriorityPolicy", new JobPriorityPolicy());
+        beans.put("validatePurchaseRequestDelegate", (JavaDelegate) execution -> {
+            Object amount = execution.getVariable("totalAmount");
+            execution.setVariable("validationStatus", "VALID");
+            execution.setVariable("validatedAmount", amount);
+            execution.setVariable("normalizedAmount", amount);
+            execution.setVariable("validatedCategory", execution.getVariable("category"));
+            execution.setVariable("validatedPriority", execution.getVariable("priority"));
+            execution.setVariable("isHighValue", false);
+        });
+        beans.put("determineApprovalRouteDelegate", (JavaDelegate) execution -> {
+            execution.setVariable("approvalRoute", "AUTO");
+            execution.setVariable("isAutoApprovalEligible", true);
+        });
+        beans.put("autoApprovalDelegate", (JavaDelegate) execution -> {
+            execution.setVariable("approved", ((Number) execution.getVariable("totalAmount")).doubleValue() < 400);
+            execution.setVariable("approvedBy", "SYSTEM");
+            execution.setVariable("approvalDate", new Date());
+        });
+        beans.put("processApprovalDelegate", (JavaDelegate) execution -> {
+            execution.setVariable("finalStatus", "APPROVED");
+            execution.setVariable("processEndDate", new Date());
+        });
+        beans.put("processRejectionDelegate", (JavaDelegate) execution -> {
+            execution.setVariable("finalStatus", "REJECTED");
+            execution.setVariable("processEndDate", new Date());
+        });
+        beans.put("sendFinalNotificationDelegate",
+            (JavaDelegate) execution -> execution.setVariable("processCompletedAt", new Date()));
+
+        List<ProcessEnginePlugin> plugins = new ArrayList<>();
+        plugins.add(new HistoryConfiguration().leanHistoryLevelPlugin(new HistoryProperties()));
+
+        ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl)
+            ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+                .setJdbcUrl("jdbc:h2:mem:lean-history-" + name + ";DB_CLOSE_DELAY=-1")
+                .setHistory(historyLevel)
+                .setJobExecutorActivate(false)
+                .setProcessEngineName("lean-history-" + name);
+        // Mismos valores que camunda.bpm.generic-properties en application.properties
+        configuration.setHistoryCleanupStrategy("removalTimeBased");
+        configuration.setHistoryRemovalTimeStrategy("end");
+        configuration.setProcessEnginePlugins(plugins);
+        configuration.setBeans(beans);
+        ProcessEngine engine = configuration.buildProcessEngine();
+        engines.add(engine);
+
+        engine.getRepositoryService().createDeployment()
+            .addModelInstance(PROCESS_KEY + ".bpmn", processModel())
+            .deploy();
+        return engine;
+    }
+
+    /**
+     * Proceso real sin asyncBefore (cada instancia termina en el arranque) y sin el
+     * listener de depuración del inicio, que depende del contexto Spring.
+     */
+    private static BpmnModelInstance processModel() throws IOException {
+        BpmnModelInstance model;
+        try (InputStream in = new ClassPathResource("processes/" + PROCESS_KEY + ".bpmn").getInputStream()) {
+            model = Bpmn.readModelFromStream(in);
+        }
+        for (StartEvent startEvent : model.getModelElementsByType(StartEvent.class)) {
+            ExtensionElements extensions = startEvent.getExtensionElements();
+            if (extensions != null) {
+                extensions.getElementsQuery().filterByType(CamundaExecutionListener.class).list()
+                    .forEach(extensions::removeChildElement);
+            }
+        }
+        model.getModelElementsByType(FlowNode.class).forEach(node -> node.setCamundaAsyncBefore(false));
+        return model;
+    }
+}
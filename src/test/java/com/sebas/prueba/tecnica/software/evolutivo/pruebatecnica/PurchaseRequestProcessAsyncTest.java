@@ -0,0 +1,228 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ExtensionElements;
+import org.camunda.bpm.model.bpmn.instance.FlowNode;
+import org.camunda.bpm.model.bpmn.instance.StartEvent;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaExecutionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobPriorityPolicy;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Continuaciones asíncronas de {@code purchase-request-process} sobre un motor en
+ * memoria con delegates simulados: prioridad de jobs, reintentos de las tareas de
+ * correo y ejecución completa.
+ *
+ * Throughput de arranque síncrono vs. asíncrono bajo demanda:
+ * {@code mvn test -Dtest=PurchaseRequestProcessAsyncTest -Dbenchmark=true}
+ */
+@Slf4j
+class PurchaseRequestProcessAsyncTest {
+
+    private static final String PROCESS_KEY = "purchase-request-process";
+
+    private final AtomicBoolean failEmails = new AtomicBoolean();
+    private ProcessEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    @Test
+    void startReturnsAtTheFirstAsyncBoundaryWithPriorityFromRequest() throws IOException {
+        engine = buildEngine("priority", processModel(true), 0);
+
+        String low = start("LOW");
+        String urgent = start("URGENT");
+        String normal = start("NORMAL");
+
+        List<Job> jobs = engine.getManagementService().createJobQuery()
+            .orderByJobPriority().desc()
+            .list();
+        assertEquals(List.of(urgent, normal, low), jobs.stream().map(Job::getProcessInstanceId).toList());
+        assertEquals(100L, jobs.get(0).getPriority());
+        assertEquals(JobPriorityPolicy.DEFAULT_PRIORITY, jobs.get(1).getPriority());
+        // Nada se ejecutó aún en la transacción del llamador
+        assertEquals(List.of("ServiceTask_ValidateRequest"),
+            engine.getRuntimeService().getActiveActivityIds(urgent));
+
+        drainJobs();
+        assertEquals(0, engine.getRuntimeService().createProcessInstanceQuery().count());
+    }
+
+    @Test
+    void failingEmailTaskIsRetriedWithItsTimeCycle() throws IOException {
+        engine = buildEngine("retries", processModel(true), 0);
+        String instance = start("HIGH");
+        // Validación + DMN: la instancia queda antes de la aprobación automática
+        executeNextJob();
+
+        assertEquals(List.of("ServiceTask_AutoApproval"), engine.getRuntimeService().getActiveActivityIds(instance));
+
+        failEmails.set(true);
+        Job emailJob = engine.getManagementService().createJobQuery().processInstanceId(instance).singleResult();
+        assertThrows(RuntimeException.class, () -> engine.getManagementService().executeJob(emailJob.getId()));
+
+        Job retried = engine.getManagementService().createJobQuery().jobId(emailJob.getId()).singleResult();
+        assertEquals(2, retried.getRetries());
+        assertNotNull(retried.getDuedate());
+        assertTrue(retried.getDuedate().getTime() - System.currentTimeMillis() > 50_000,
+            "El reintento debe esperar ~1 minuto (R3/PT1M)");
+        assertEquals(50L, retried.getPriority());
+
+        failEmails.set(false);
+        engine.getManagementService().executeJob(retried.getId());
+        drainJobs();
+        assertEquals(0, engine.getRuntimeService().createProcessInstanceQuery().count());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkStartThroughputSyncVsAsync() throws IOException {
+        int instances = Integer.getInteger("benchmark.instances", 2_000);
+        // Costo simulado por delegate (validación, correo...), en ms
+        long delegateMillis = Long.getLong("benchmark.delegateMillis", 2);
+
+        double[] perSecond = new double[2];
+        for (boolean async : new boolean[] {false, true}) {
+            engine = buildEngine(async ? "async" : "sync", processModel(async), delegateMillis);
+            for (int warmup = 0; warmup < 50; warmup++) {
+                start("NORMAL");
+            }
+
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < instances; i++) {
+                start(i % 10 == 0 ? "URGENT" : "NORMAL");
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            perSecond[async ? 1 : 0] = instances / seconds;
+
+            log.info("🧪 Arranque {}: {} instancias en {} s ({} instancias/s)",
+                async ? "asíncrono" : "síncrono", instances, String.format("%.2f", seconds),
+                Math.round(instances / seconds));
+            engine.close();
+            engine = null;
+        }
+
+        // El arranque asíncrono solo llega a la primera continuación: debe ser claramente más rápido
+        assertTrue(perSecond[1] > perSecond[0] * 2,
+            "asíncrono " + perSecond[1] + "/s, síncrono " + perSecond[0] + "/s");
+    }
+
+    private String start(String priority) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("priority", priority);
+        variables.put("category", "SOFTWARE");
+        variables.put("totalAmount", 150.0);
+        variables.put("requesterEmail", "solicitante@softwareevolutivo.com");
+        variables.put("requestId", "PR-TEST");
+        return engine.getRuntimeService().startProcessInstanceByKey(PROCESS_KEY, variables).getId();
+    }
+
+    private void executeNextJob() {
+        Job job = engine.getManagementService().createJobQuery()
+            .executable()
+            .orderByJobPriority().desc()
+            .listPage(0, 1)
+            .get(0);
+        engine.getManagementService().executeJob(job.getId());
+    }
+
+    private void drainJobs() {
+        while (engine.getManagementService().createJobQuery().executable().count() > 0) {
+            executeNextJob();
+        }
+    }
+
+    private ProcessEngine buildEngine(String name, BpmnModelInstance model, long delegateMillis) {
+        JavaDelegate work = execution -> pause(delegateMillis);
+        JavaDelegate email = execution -> {
+            if (failEmails.get()) {
+                throw new IllegalStateException("SMTP no disponible");
+            }
+            pause(delegateMillis);
+        };
+
+        Map<Object, Object> beans = new HashMap<>();
+        beans.put("jobPriorityPolicy", new JobPriorityPolicy());
+        beans.put("validatePurchaseRequestDelegate", work);
+        beans.put("determineApprovalRouteDelegate",
+            (JavaDelegate) execution -> execution.setVariable("approvalRoute", "AUTO"));
+        beans.put("autoApprovalDelegate", (JavaDelegate) execution -> {
+            email.execute(execution);
+            execution.setVariable("approved", true);
+        });
+        beans.put("processApprovalDelegate", work);
+        beans.put("processRejectionDelegate", work);
+        beans.put("sendFinalNotificationDelegate", email);
+
+        ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl)
+            ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+                .setJdbcUrl("jdbc:h2:mem:purchase-process-" + name + ";DB_CLOSE_DELAY=-1")
+                .setHistory(ProcessEngineConfiguration.HISTORY_FULL)
+                .setJobExecutorActivate(false)
+                .setProcessEngineName("purchase-process-" + name);
+        configuration.setBeans(beans);
+        ProcessEngine processEngine = configuration.buildProcessEngine();
+
+        processEngine.getRepositoryService().createDeployment()
+            .addModelInstance(PROCESS_KEY + ".bpmn", model)
+            .deploy();
+        return processEngine;
+    }
+
+    /**
+     * Modelo desplegado; {@code async=false} quita los asyncBefore (proceso original).
+     * El listener de depuración del inicio depende del contexto Spring y se omite.
+     */
+    private static BpmnModelInstance processModel(boolean async) throws IOException {
+        BpmnModelInstance model;
+        try (InputStream in = new ClassPathResource("processes/" + PROCESS_KEY + ".bpmn").getInputStream()) {
+            model = Bpmn.readModelFromStream(in);
+        }
+        for (StartEvent startEvent : model.getModelElementsByType(StartEvent.class)) {
+            ExtensionElements extensions = startEvent.getExtensionElements();
+            if (extensions != null) {
+                extensions.getElementsQuery().filterByType(CamundaExecutionListener.class).list()
+                    .forEach(extensions::removeChildElement);
+            }
+        }
+        if (!async) {
+            model.getModelElementsByType(FlowNode.class).forEach(node -> node.setCamundaAsyncBefore(false));
+        }
+        return model;
+    }
+
+    private static void pause(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
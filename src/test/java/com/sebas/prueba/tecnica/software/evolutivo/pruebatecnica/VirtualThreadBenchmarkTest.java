@@ -0,0 +1,153 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Comparativa hilos de plataforma vs perfil {@code virtual}: 2.000 peticiones concurrentes
+ * a {@code /process/create} y {@code /api/dashboard/data} con el servicio de proveedores
+ * respondiendo con latencia inyectada. Arranca la aplicación dos veces (sin y con el perfil).
+ *
+ * Solo bajo demanda y con Java 21:
+ * {@code mvn -Pjava21 test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@Slf4j
+class VirtualThreadBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2_000);
+    private static final long SUPPLIER_LATENCY_MILLIS = Long.getLong("benchmark.supplierLatencyMs", 300);
+    private static final String SUPPLIERS_JSON =
+        "[{\"id\":10,\"name\":\"Proveedor Stub\",\"email\":\"stub@proveedor.com\"}]";
+
+    private HttpServer supplierServer;
+
+    @AfterEach
+    void tearDown() {
+        if (supplierServer != null) {
+            supplierServer.stop(0);
+        }
+    }
+
+    @Test
+    void virtualThreadsServeSlowSupplierLookupsFasterThanPlatformThreads() throws Exception {
+        startSupplierStub();
+
+        Map<String, Long> wallMillis = new HashMap<>();
+        for (String mode : List.of("platform", "virtual")) {
+            try (ConfigurableApplicationContext context = startApplication(mode)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                fire(baseUrl, 200);
+
+                long start = System.nanoTime();
+                List<Long> latencies = fire(baseUrl, CONCURRENCY);
+                long wall = (System.nanoTime() - start) / 1_000_000;
+                wallMillis.put(mode, wall);
+
+                Collections.sort(latencies);
+                log.info("🏁 Hilos {}: {} peticiones en {} ms, p50 {} ms, p95 {} ms, p99 {} ms",
+                    mode, CONCURRENCY, wall, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99));
+            }
+        }
+
+        // Con 200 hilos de Tomcat bloqueados en el proveedor las peticiones hacen cola por tandas
+        assertTrue(wallMillis.get("virtual") * 2 < wallMillis.get("platform"), "tiempos (ms): " + wallMillis);
+    }
+
+    private void startSupplierStub() throws IOException {
+        supplierServer = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCY);
+        supplierServer.setExecutor(Executors.newCachedThreadPool());
+        supplierServer.createContext("/api/suppliers", exchange -> {
+            try {
+                Thread.sleep(SUPPLIER_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = SUPPLIERS_JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        supplierServer.start();
+    }
+
+    private ConfigurableApplicationContext startApplication(String mode) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PruebatecnicaApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:vt-benchmark-" + mode + ";DB_CLOSE_DELAY=-1",
+                "app.services.suppliers.url=http://localhost:" + supplierServer.getAddress().getPort()
+                    + "/api/suppliers",
+                // Sin caché ni bulkhead: cada formulario espera al proveedor, que es lo que se mide
+                "app.suppliers.cache.ttl=0s",
+                "app.suppliers.cache.max-stale=0s",
+                "app.http.max-connections=" + CONCURRENCY,
+                "app.http.max-connections-per-route=" + CONCURRENCY,
+                "app.http.bulkhead.max-concurrent-calls=" + CONCURRENCY,
+                "app.http.circuit-breaker.failure-threshold=" + CONCURRENCY,
+                "app.mail.enabled=false");
+        if ("virtual".equals(mode)) {
+            builder.profiles("virtual");
+        }
+        return builder.run();
+    }
+
+    // Mitad formulario de alta (consulta proveedores), mitad datos del dashboard
+    private static List<Long> fire(String baseUrl, int requests) {
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+        List<CompletableFuture<Long>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            String path = i % 2 == 0 ? "/process/create" : "/api/dashboard/data";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(2))
+                .GET()
+                .build();
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(response -> {
+                assertEquals(200, response.statusCode(), path);
+                return (System.nanoTime() - sent) / 1_000_000;
+            }));
+        }
+        return new ArrayList<>(calls.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(quantile * sorted.size()) - 1));
+    }
+}
@@ -0,0 +1,80 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.bpmn.delegate.JavaDelegateInvocation;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.management.Metrics;
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MetricTags;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.MicrometerMetricsRegistry;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.TimedDelegateInterceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Instrumentación del motor: cada delegado se mide con etiquetas acotadas y las métricas
+ * internas de Camunda llegan al mismo registro de Micrometer.
+ */
+class WorkflowMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TimedDelegateInterceptor interceptor =
+        new TimedDelegateInterceptor(DelegateInvocation::proceed, registry);
+
+    @Test
+    void delegatesAreTimedByActivityRouteCategoryAndOutcome() throws Exception {
+        DelegateExecution execution = execution("ServiceTask_ProcessApproval", "MANAGER", "IT_HARDWARE");
+
+        interceptor.handleInvocation(new JavaDelegateInvocation(e -> { }, execution));
+        JavaDelegate failing = e -> {
+            throw new BpmnError("VALIDATION_ERROR");
+        };
+        assertThrows(BpmnError.class, () -> interceptor.handleInvocation(new JavaDelegateInvocation(failing, execution)));
+
+        assertEquals(1L, timerCount("ServiceTask_ProcessApproval", "MANAGER", "IT_HARDWARE", MetricTags.SUCCESS));
+        assertEquals(1L, timerCount("ServiceTask_ProcessApproval", "MANAGER", "IT_HARDWARE", MetricTags.BPMN_ERROR));
+    }
+
+    @Test
+    void unknownTagValuesAreCollapsed() throws Exception {
+        DelegateExecution execution = execution("ServiceTask_ValidateRequest", "BOARD-42", null);
+
+        interceptor.handleInvocation(new JavaDelegateInvocation(e -> { }, execution));
+
+        assertEquals(1L, timerCount("ServiceTask_ValidateRequest", MetricTags.OTHER, MetricTags.NONE, MetricTags.SUCCESS));
+    }
+
+    @Test
+    void engineMetricsAreBridgedAsCounters() {
+        MicrometerMetricsRegistry metrics = new MicrometerMetricsRegistry(registry);
+        metrics.createDbMeter(Metrics.JOB_SUCCESSFUL);
+
+        metrics.markOccurrence(Metrics.JOB_SUCCESSFUL);
+        metrics.markOccurrence(Metrics.JOB_SUCCESSFUL, 2);
+
+        assertEquals(3.0, registry.counter("camunda.engine.events", "metric", Metrics.JOB_SUCCESSFUL).count());
+        // El meter del motor sigue acumulando para el reporter de la BD
+        assertEquals(3L, metrics.getDbMeterByName(Metrics.JOB_SUCCESSFUL).get());
+    }
+
+    private long timerCount(String activity, String route, String category, String outcome) {
+        return registry.timer("purchase.delegate",
+            "activity", activity, "route", route, "category", category, "outcome", outcome).count();
+    }
+
+    private static DelegateExecution execution(String activityId, String route, String category) {
+        DelegateExecution execution = mock(DelegateExecution.class);
+        when(execution.getCurrentActivityId()).thenReturn(activityId);
+        when(execution.getVariable("approvalRoute")).thenReturn(route);
+        when(execution.getVariable("category")).thenReturn(category);
+        return execution;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prueba de carga: inserta 100k solicitudes por lotes y exige un throughput mínimo
+ * ({@code loadtest.minRowsPerSecond}).
+ *
+ * Usa el datasource configurado, no una base embebida: con el perfil prod mide PostgreSQL
+ * con el pool Hikari, los inserts por lotes y los índices reales.
+ * Se ejecuta solo bajo demanda:
+ * {@code mvn test -Dtest=PurchaseRequestLoadTest -Dloadtest=true -Dspring.profiles.active=prod}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@Slf4j
+class PurchaseRequestLoadTest {
+
+    private static final int TOTAL = Integer.getInteger("loadtest.rows", 100_000);
+    private static final int CHUNK = 1_000;
+    private static final int MIN_ROWS_PER_SECOND = Integer.getInteger("loadtest.minRowsPerSecond", 2_000);
+
+    @Autowired
+    private PurchaseRequestRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void inserts100kPurchaseRequestsInBatches() {
+        long start = System.nanoTime();
+
+        List<PurchaseRequest> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < TOTAL; i++) {
+            chunk.add(newRequest(i));
+            if (chunk.size() == CHUNK) {
+                flushChunk(chunk);
+            }
+        }
+        flushChunk(chunk);
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("📈 Insertadas {} solicitudes en {} ms ({} filas/s)",
+            TOTAL, Math.round(seconds * 1000), Math.round(TOTAL / seconds));
+
+        assertEquals(TOTAL, repository.count());
+        assertTrue(TOTAL / seconds >= MIN_ROWS_PER_SECOND,
+            Math.round(TOTAL / seconds) + " filas/s por debajo del mínimo de " + MIN_ROWS_PER_SECOND);
+    }
+
+    private void flushChunk(List<PurchaseRequest> chunk) {
+        repository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private PurchaseRequest newRequest(int i) {
+        PurchaseRequest.PurchaseCategory[] categories = PurchaseRequest.PurchaseCategory.values();
+        return PurchaseRequest.builder()
+            .businessKey("PR-LOAD-" + i)
+            .processInstanceId("load-" + i)
+            .status(PurchaseRequest.RequestStatus.PENDING)
+            .requesterName("Usuario " + i)
+            .requesterEmail("user" + i + "@softwareevolutivo.com")
+            .department("DEPT-" + (i % 10))
+            .description("Solicitud de carga número " + i)
+            .totalAmount(BigDecimal.valueOf(100 + (i % 20_000)))
+            .currency("USD")
+            .category(categories[i % categories.length])
+            .priority(PurchaseRequest.Priority.NORMAL)
+            .supplierName("Proveedor " + (i % 50))
+            .dueDate(LocalDateTime.now().plusDays(7))
+            .reminderCount(0)
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Comparativa entidad vs proyección {@code PurchaseRequestSummary} sobre 100k solicitudes
+ * con {@code comments} de 1000 caracteres, usando la consulta de vencidas (índice status, due_date).
+ *
+ * Se ejecuta solo bajo demanda contra el datasource configurado (H2 por defecto, PostgreSQL con el perfil prod):
+ * {@code mvn test -Dtest=PurchaseRequestProjectionBenchmarkTest -Dbenchmark=true [-Dspring.profiles.active=prod]}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class PurchaseRequestProjectionBenchmarkTest {
+
+    private static final int TOTAL = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int CHUNK = 1_000;
+    private static final int ROUNDS = 5;
+    private static final String COMMENTS = "x".repeat(1000);
+
+    @Autowired
+    private PurchaseRequestRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void projectionFetchesOverdueRequestsFasterThanEntities() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PurchaseRequest> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < TOTAL; i++) {
+            chunk.add(newRequest(i, now));
+            if (chunk.size() == CHUNK) {
+                flushChunk(chunk);
+            }
+        }
+        flushChunk(chunk);
+
+        long entityNanos = best(() -> repository.findOverdueRequests(now).size());
+        long projectionNanos = best(() -> repository.findOverdueSummaries(now).size());
+
+        log.info("🏁 Vencidas sobre {} filas: entidad {} ms, proyección {} ms",
+            TOTAL, entityNanos / 1_000_000, projectionNanos / 1_000_000);
+        assertEquals(repository.findOverdueRequests(now).size(), repository.findOverdueSummaries(now).size());
+        assertTrue(projectionNanos < entityNanos,
+            "proyección " + projectionNanos + " ns, entidad " + entityNanos + " ns");
+    }
+
+    // Mejor de varias rondas, con el contexto de persistencia vacío en cada una
+    private long best(Supplier<Integer> fetch) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            fetch.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private void flushChunk(List<PurchaseRequest> chunk) {
+        repository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private PurchaseRequest newRequest(int i, LocalDateTime now) {
+        PurchaseRequest.PurchaseCategory[] categories = PurchaseRequest.PurchaseCategory.values();
+        PurchaseRequest.RequestStatus[] statuses = PurchaseRequest.RequestStatus.values();
+        return PurchaseRequest.builder()
+            .businessKey("PR-BENCH-" + i)
+            .processInstanceId("bench-" + i)
+            .status(statuses[i % statuses.length])
+            .requesterName("Usuario " + i)
+            .requesterEmail("user" + i + "@softwareevolutivo.com")
+            .department("DEPT-" + (i % 10))
+            .description("Solicitud de comparativa número " + i)
+            .comments(COMMENTS)
+            .totalAmount(BigDecimal.valueOf(100 + (i % 20_000)))
+            .currency("USD")
+            .category(categories[i % categories.length])
+            .priority(PurchaseRequest.Priority.NORMAL)
+            .supplierName("Proveedor " + (i % 50))
+            // Un tercio vencidas
+            .dueDate(i % 3 == 0 ? now.minusDays(1) : now.plusDays(7))
+            .reminderCount(0)
+            .build();
+    }
+}
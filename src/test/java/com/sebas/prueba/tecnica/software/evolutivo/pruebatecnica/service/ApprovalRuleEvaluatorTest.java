@@ -0,0 +1,211 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.camunda.bpm.dmn.engine.DmnDecision;
+import org.camunda.bpm.dmn.engine.DmnEngine;
+import org.camunda.bpm.dmn.engine.DmnEngineConfiguration;
+import org.camunda.bpm.model.dmn.Dmn;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.camunda.bpm.model.dmn.instance.InputEntry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRouteResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * El evaluador compilado debe dar la misma ruta que el motor DMN de Camunda
+ * sobre el fichero desplegado, para cualquier monto, categoría y prioridad.
+ *
+ * Comparativa de rendimiento bajo demanda:
+ * {@code mvn test -Dtest=ApprovalRuleEvaluatorTest -Dbenchmark=true}
+ */
+@Slf4j
+class ApprovalRuleEvaluatorTest {
+
+    private static final String DMN_RESOURCE = "processes/purchase-approval-rules.dmn";
+
+    private static ApprovalRuleEvaluator evaluator;
+    private static DmnEngine dmnEngine;
+    private static DmnDecision decision;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        evaluator = new ApprovalRuleEvaluator(new ClassPathResource(DMN_RESOURCE), new ApprovalRuleProperties());
+        dmnEngine = DmnEngineConfiguration.createDefaultDmnEngineConfiguration().buildEngine();
+        try (InputStream in = new ClassPathResource(DMN_RESOURCE).getInputStream()) {
+            decision = dmnEngine.parseDecision(ApprovalRuleEvaluator.DECISION_KEY, in);
+        }
+    }
+
+    @Test
+    void matchesCamundaDmnEngineOnBoundariesAndRandomAmounts() {
+        List<Long> amounts = new ArrayList<>();
+        for (long threshold : new long[] {0, 200, 500, 2000, 5000, 10000}) {
+            for (long delta = -2; delta <= 2; delta++) {
+                amounts.add(threshold * 100 + delta);
+            }
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            amounts.add((long) random.nextInt(2_000_000));
+        }
+
+        for (PurchaseCategory category : PurchaseCategory.values()) {
+            for (Priority priority : Priority.values()) {
+                for (long cents : amounts) {
+                    BigDecimal amount = BigDecimal.valueOf(cents, 2);
+                    assertEquals(dmnRoute(amount, category.name(), priority.name()),
+                        evaluator.evaluate(amount, category, priority).getRoute().name(),
+                        () -> "Difiere del DMN para " + amount + " " + category + " " + priority);
+                }
+            }
+        }
+    }
+
+    @Test
+    void returnsSharedResultPerRule() {
+        ApprovalRouteResult first = evaluator.evaluate(new BigDecimal("150.00"), PurchaseCategory.SOFTWARE, Priority.LOW);
+        ApprovalRouteResult second = evaluator.evaluate(new BigDecimal("20.50"), PurchaseCategory.EQUIPMENT, Priority.URGENT);
+
+        assertSame(first, second);
+        assertEquals(ApprovalRoute.AUTO, first.getRoute());
+        assertEquals(true, first.isAutoApprovalEligible());
+        assertEquals("DecisionRule_1nc9l34", first.getRuleId());
+    }
+
+    @Test
+    void flagsStrategicAndHighValueRules() {
+        ApprovalRouteResult strategic = evaluator.evaluate(new BigDecimal("6000"), PurchaseCategory.STRATEGIC, Priority.NORMAL);
+        ApprovalRouteResult highValue = evaluator.evaluate(new BigDecimal("15000"), PurchaseCategory.OTHER, Priority.NORMAL);
+
+        assertEquals(ApprovalRoute.CEO, strategic.getRoute());
+        assertEquals(true, strategic.isStrategicCategory());
+        assertEquals(ApprovalRoute.CEO, highValue.getRoute());
+        assertEquals(true, highValue.isHighValueRequest());
+    }
+
+    @Test
+    void unknownTextInputsOnlyMatchWildcardRules() {
+        assertEquals(ApprovalRoute.AUTO, evaluator.evaluate(new BigDecimal("100"), "FOO", null).getRoute());
+        assertEquals(ApprovalRoute.SUPERVISOR, evaluator.evaluate(new BigDecimal("300"), "FOO", "BAR").getRoute());
+    }
+
+    @Test
+    void rejectsExpressionsItCannotCompile() throws IOException {
+        DmnModelInstance model;
+        try (InputStream in = new ClassPathResource(DMN_RESOURCE).getInputStream()) {
+            model = Dmn.readModelFromStream(in);
+        }
+        InputEntry entry = model.getModelElementById("UnaryTests_0c9imwh");
+        entry.getText().setTextContent("not(<= 200)");
+
+        assertThrows(IllegalStateException.class, () -> ApprovalRuleEvaluator.compile(model));
+    }
+
+    @Test
+    void publishedThresholdsMatchTheDmnBuiltForThem() throws IOException {
+        ApprovalRuleEvaluator local = new ApprovalRuleEvaluator(new ClassPathResource(DMN_RESOURCE), new ApprovalRuleProperties());
+        ApprovalRuleConfig config = new ApprovalRuleProperties().toConfig().toBuilder()
+            .version(2)
+            .autoApprovalLimit(new BigDecimal("350.50"))
+            .managerLimit(new BigDecimal("8000"))
+            .build();
+        DmnModelInstance model = local.buildModel(config);
+        DmnDecision configured = dmnEngine.parseDecision(ApprovalRuleEvaluator.DECISION_KEY, model);
+
+        ApprovalRuleEvaluator.RuleSnapshot before = local.current();
+        local.publish(config, ApprovalRuleEvaluator.compile(model));
+
+        assertEquals(2, local.current().configuration().getVersion());
+        for (long cents : new long[] {35049, 35050, 35051, 799999, 800000, 800001, 1000001}) {
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            for (PurchaseCategory category : PurchaseCategory.values()) {
+                assertEquals(dmnRoute(configured, amount, category.name(), Priority.NORMAL.name()),
+                    local.evaluate(amount, category, Priority.NORMAL).getRoute().name(),
+                    () -> "Difiere del DMN configurado para " + amount + " " + category);
+            }
+        }
+        // Quien ya leyó la versión anterior sigue evaluando con ella
+        assertEquals(ApprovalRoute.SUPERVISOR,
+            before.evaluate(new BigDecimal("300"), PurchaseCategory.OTHER, Priority.NORMAL).getRoute());
+        assertEquals(ApprovalRoute.AUTO,
+            local.evaluate(new BigDecimal("300"), PurchaseCategory.OTHER, Priority.NORMAL).getRoute());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkCompiledEvaluatorAgainstDmnEngine() {
+        int total = Integer.getInteger("benchmark.requests", 5_000_000);
+        PurchaseCategory[] categories = PurchaseCategory.values();
+        Priority[] priorities = Priority.values();
+        Random random = new Random(7);
+
+        BigDecimal[] amounts = new BigDecimal[total];
+        PurchaseCategory[] requestCategories = new PurchaseCategory[total];
+        Priority[] requestPriorities = new Priority[total];
+        for (int i = 0; i < total; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(2_000_000), 2);
+            requestCategories[i] = categories[random.nextInt(categories.length)];
+            requestPriorities[i] = priorities[random.nextInt(priorities.length)];
+        }
+
+        // Calentamiento del JIT
+        int blackhole = 0;
+        for (int i = 0; i < Math.min(total, 500_000); i++) {
+            blackhole += evaluator.evaluate(amounts[i], requestCategories[i], requestPriorities[i]).getRoute().ordinal();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            blackhole += evaluator.evaluate(amounts[i], requestCategories[i], requestPriorities[i]).getRoute().ordinal();
+        }
+        double compiledNs = (System.nanoTime() - start) / (double) total;
+
+        int engineTotal = Math.min(total, 100_000);
+        start = System.nanoTime();
+        for (int i = 0; i < engineTotal; i++) {
+            blackhole += dmnRoute(amounts[i], requestCategories[i].name(), requestPriorities[i].name()).length();
+        }
+        double engineNs = (System.nanoTime() - start) / (double) engineTotal;
+
+        log.info("⚡ Evaluador compilado: {} ns/op ({} solicitudes) | Motor DMN: {} ns/op ({}) | x{} [{}]",
+            Math.round(compiledNs), total, Math.round(engineNs), engineTotal, Math.round(engineNs / compiledNs),
+            blackhole);
+        assertTrue(compiledNs * 10 < engineNs,
+            "compilado " + compiledNs + " ns/op, motor DMN " + engineNs + " ns/op");
+    }
+
+    private static String dmnRoute(BigDecimal amount, String category, String priority) {
+        return dmnRoute(decision, amount, category, priority);
+    }
+
+    private static String dmnRoute(DmnDecision decision, BigDecimal amount, String category, String priority) {
+        Object route = dmnEngine.evaluateDecisionTable(decision, Map.<String, Object>of(
+            "totalAmount", amount.doubleValue(),
+            "category", category,
+            "priority", priority
+        )).getSingleEntry();
+        return route != null ? route.toString() : ApprovalRoute.SUPERVISOR.name();
+    }
+}
@@ -0,0 +1,123 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleConfig;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleUpdateDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.ApprovalRuleVersion;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.ApprovalRuleVersionRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+
+/**
+ * Publicación de versiones de umbrales: validación, conflicto de versión
+ * (también entre nodos) y cambio en caliente de la ruta evaluada.
+ */
+class ApprovalRuleStoreTest {
+
+    private final ApprovalRuleVersionRepository repository = mock(ApprovalRuleVersionRepository.class);
+    private final RepositoryService repositoryService = mock(RepositoryService.class, RETURNS_DEEP_STUBS);
+
+    private ApprovalRuleEvaluator evaluator;
+    private ApprovalRuleStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        evaluator = new ApprovalRuleEvaluator(
+            new ClassPathResource("processes/purchase-approval-rules.dmn"), new ApprovalRuleProperties());
+        store = new ApprovalRuleStore(evaluator, repository, repositoryService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(DmnEvaluationService.class));
+    }
+
+    @Test
+    void updatePublishesNewVersionAndChangesRouting() {
+        assertEquals(ApprovalRoute.SUPERVISOR,
+            evaluator.evaluate(new BigDecimal("300"), PurchaseCategory.OTHER, Priority.NORMAL).getRoute());
+
+        ApprovalRuleConfig published = store.update(ApprovalRuleUpdateDto.builder()
+            .expectedVersion(1L)
+            .updatedBy("finanzas")
+            .autoApprovalLimit(new BigDecimal("400"))
+            .build());
+
+        assertEquals(2, published.getVersion());
+        assertEquals(published, store.current());
+        assertEquals(new BigDecimal("500"), published.getOfficeSuppliesAutoLimit());
+        assertEquals(ApprovalRoute.AUTO,
+            evaluator.evaluate(new BigDecimal("300"), PurchaseCategory.OTHER, Priority.NORMAL).getRoute());
+        verify(repository).saveAndFlush(any(ApprovalRuleVersion.class));
+    }
+
+    @Test
+    void staleExpectedVersionIsRejected() {
+        assertThrows(IllegalStateException.class, () -> store.update(ApprovalRuleUpdateDto.builder()
+            .expectedVersion(7L)
+            .managerLimit(new BigDecimal("20000"))
+            .build()));
+
+        assertEquals(1, store.current().getVersion());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void incoherentThresholdsAreRejected() {
+        // Supervisor por encima de gerente
+        assertThrows(IllegalArgumentException.class, () -> store.update(ApprovalRuleUpdateDto.builder()
+            .supervisorLimit(new BigDecimal("12000"))
+            .build()));
+        assertThrows(IllegalArgumentException.class, () -> store.update(ApprovalRuleUpdateDto.builder()
+            .autoApprovalLimit(new BigDecimal("-1"))
+            .build()));
+
+        assertEquals(1, store.current().getVersion());
+    }
+
+    @Test
+    void versionAlreadyPublishedByAnotherNodeIsAConflictAndIsNotActivated() {
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("PK approval_rule_versions"));
+
+        assertThrows(IllegalStateException.class, () -> store.update(ApprovalRuleUpdateDto.builder()
+            .expectedVersion(1L)
+            .autoApprovalLimit(new BigDecimal("400"))
+            .build()));
+
+        assertEquals(1, store.current().getVersion());
+        assertEquals(ApprovalRoute.SUPERVISOR,
+            evaluator.evaluate(new BigDecimal("300"), PurchaseCategory.OTHER, Priority.NORMAL).getRoute());
+    }
+
+    @Test
+    void startupReactivatesStoredVersionWithoutInsertingIt() {
+        ApprovalRuleConfig stored = store.current().toBuilder()
+            .version(5L)
+            .autoApprovalLimit(new BigDecimal("400"))
+            .build();
+        when(repository.findTopByOrderByVersionDesc()).thenReturn(Optional.of(ApprovalRuleVersion.from(stored)));
+
+        store.activateOnStartup();
+
+        assertEquals(5, store.current().getVersion());
+        verify(repository, never()).saveAndFlush(any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.AuditReportDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+/**
+ * Exportación de auditoría contra un motor en memoria: páginas por fecha de inicio sin
+ * perder ni repetir instancias empatadas, y datos de la solicitud y actividades unidos
+ * con una consulta por página.
+ */
+class AuditExportServiceTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final Date T0 = new Date(1_700_000_000_000L);
+
+    private final List<PurchaseRequest> requests = new ArrayList<>();
+    private final PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+    private final ProcessEngine engine = ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+        .setJdbcUrl("jdbc:h2:mem:audit-export;DB_CLOSE_DELAY=-1")
+        .setHistory(ProcessEngineConfiguration.HISTORY_FULL)
+        .setJobExecutorActivate(false)
+        .setProcessEngineName("audit-export")
+        .buildProcessEngine();
+    private final AuditExportService service = new AuditExportService(
+        engine.getHistoryService(), engine.getManagementService(), repository);
+    private int lookups;
+
+    AuditExportServiceTest() {
+        when(repository.findByProcessInstanceIdIn(any())).thenAnswer(invocation -> {
+            lookups++;
+            Collection<?> ids = invocation.getArgument(0);
+            return requests.stream().filter(request -> ids.contains(request.getProcessInstanceId())).toList();
+        });
+        engine.getRepositoryService().createDeployment()
+            .addModelInstance(AuditExportService.PROCESS_KEY + ".bpmn",
+                Bpmn.createExecutableProcess(AuditExportService.PROCESS_KEY)
+                    .camundaHistoryTimeToLive(30)
+                    .startEvent("Start")
+                    .userTask("Review").camundaAssignee("supervisor")
+                    .endEvent("End")
+                    .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClockUtil.reset();
+        engine.close();
+    }
+
+    @Test
+    void pagesByStartTimeWithoutLosingOrRepeatingTies() {
+        // 4 instancias en T0, 2 en T0+1 y 1 en T0+2: con páginas de 2 los empates cruzan páginas
+        List<String> started = new ArrayList<>();
+        int[] minutes = { 0, 0, 0, 0, 1, 1, 2 };
+        for (int i = 0; i < minutes.length; i++) {
+            started.add(start(i, minutes[i]));
+        }
+        service.pageSize = 2;
+
+        List<AuditReportDto> exported = new ArrayList<>();
+        long count = service.export(null, null, exported::add);
+
+        assertEquals(minutes.length, count);
+        List<String> ids = exported.stream().map(AuditReportDto::getProcessInstanceId).toList();
+        assertEquals(minutes.length, ids.stream().distinct().count());
+        assertTrue(ids.containsAll(started));
+        for (int i = 1; i < exported.size(); i++) {
+            assertTrue(exported.get(i - 1).getStartTime().compareTo(exported.get(i).getStartTime()) <= 0);
+        }
+        // Una búsqueda de solicitudes por página, no por instancia
+        assertEquals(4, lookups);
+    }
+
+    @Test
+    void joinsRequestAndActivitiesAndHonoursTheDateRange() {
+        String first = start(0, 0);
+        String second = start(1, 10);
+        start(2, 20);
+        engine.getTaskService().complete(
+            engine.getTaskService().createTaskQuery().processInstanceId(first).singleResult().getId());
+
+        List<AuditReportDto> exported = new ArrayList<>();
+        service.export(T0, new Date(T0.getTime() + 20 * MINUTE), exported::add);
+
+        assertEquals(List.of(first, second), exported.stream().map(AuditReportDto::getProcessInstanceId).toList());
+        AuditReportDto completed = exported.get(0);
+        assertEquals("COMPLETED", completed.getState());
+        assertEquals("Solicitante 0", completed.getRequesterName());
+        assertEquals("150.00", completed.getTotalAmount());
+        assertEquals(List.of("Start", "Review", "End"),
+            completed.getActivities().stream().map(AuditReportDto.ActivityDto::getActivityId).toList());
+        assertEquals("supervisor", completed.getActivities().get(1).getAssignee());
+
+        AuditReportDto active = exported.get(1);
+        assertEquals("ACTIVE", active.getState());
+        assertNull(active.getEndTime());
+        assertEquals("ACTIVE", active.getActivities().get(1).getState());
+    }
+
+    @Test
+    void csvRowsAreQuotedWhenNeeded() {
+        AuditReportDto dto = AuditReportDto.builder()
+            .processInstanceId("pi-1")
+            .description("Monitores, teclados y \"docks\"")
+            .activities(List.of(AuditReportDto.ActivityDto.builder().activityId("Review").state("ACTIVE").build()))
+            .build();
+
+        String row = AuditExportService.toCsvRow(dto);
+
+        assertTrue(row.startsWith("pi-1,"));
+        assertTrue(row.contains(",\"Monitores, teclados y \"\"docks\"\"\","));
+        assertTrue(row.endsWith(",Review:ACTIVE"));
+    }
+
+    private String start(int i, int minute) {
+        ClockUtil.setCurrentTime(new Date(T0.getTime() + minute * MINUTE));
+        ProcessInstance instance = engine.getRuntimeService()
+            .startProcessInstanceByKey(AuditExportService.PROCESS_KEY, "PR-" + i);
+
+        PurchaseRequest request = new PurchaseRequest();
+        request.setProcessInstanceId(instance.getId());
+        request.setBusinessKey("PR-" + i);
+        request.setRequesterName("Solicitante " + i);
+        request.setTotalAmount(new BigDecimal("150.00"));
+        requests.add(request);
+        return instance.getId();
+    }
+}
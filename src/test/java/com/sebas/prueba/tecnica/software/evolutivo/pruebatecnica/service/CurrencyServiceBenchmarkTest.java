@@ -0,0 +1,85 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coste por conversión en la ruta de validación: {@code toBase} y {@code normalize} con factores
+ * precalculados frente a dividir por la tasa en cada llamada.
+ *
+ * Se ejecuta solo bajo demanda: {@code mvn test -Dtest=CurrencyServiceBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class CurrencyServiceBenchmarkTest {
+
+    private static final int OPERATIONS = Integer.getInteger("benchmark.operations", 2_000_000);
+    private static final long MAX_NANOS_PER_CONVERSION = Long.getLong("benchmark.maxNanosPerConversion", 1_000);
+    private static final int ROUNDS = 5;
+    private static final String[] CURRENCIES = { "USD", "EUR", "COP", "ECU" };
+    private static final Map<String, BigDecimal> RATES = Map.of(
+        "USD", BigDecimal.ONE, "EUR", new BigDecimal("0.92"), "COP", new BigDecimal("4000"), "ECU", BigDecimal.ONE);
+
+    private final CurrencyService service =
+        new CurrencyService(mock(ExternalServiceClient.class), "USD=1,EUR=0.92,COP=4000,ECU=1");
+
+    @Test
+    void conversionWithPrecomputedFactorsStaysWithinBudget() {
+        BigDecimal[] amounts = new BigDecimal[1024];
+        PurchaseRequest[] requests = new PurchaseRequest[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = BigDecimal.valueOf(100 + i * 37L, 2);
+            requests[i] = PurchaseRequest.builder().totalAmount(amounts[i]).currency(CURRENCIES[i % CURRENCIES.length]).build();
+        }
+
+        long toBaseNanos = best(i -> service.toBase(amounts[i & 1023], CURRENCIES[i & 3]).unscaledValue().longValue());
+        long normalizeNanos = best(i -> {
+            PurchaseRequest request = requests[i & 1023];
+            service.normalize(request);
+            return request.getNormalizedAmount().unscaledValue().longValue();
+        });
+        long divideNanos = best(i -> amounts[i & 1023]
+            .divide(RATES.get(CURRENCIES[i & 3]), MathContext.DECIMAL64)
+            .setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValue());
+
+        double toBasePerOp = (double) toBaseNanos / OPERATIONS;
+        double normalizePerOp = (double) normalizeNanos / OPERATIONS;
+        log.info("🏁 {} conversiones: toBase {} ns/op, normalize {} ns/op, división por llamada {} ns/op",
+            OPERATIONS, String.format("%.1f", toBasePerOp), String.format("%.1f", normalizePerOp),
+            String.format("%.1f", (double) divideNanos / OPERATIONS));
+
+        assertEquals(new BigDecimal("108.70"), service.toBase(new BigDecimal("100"), "EUR"));
+        assertTrue(toBasePerOp < MAX_NANOS_PER_CONVERSION, "toBase " + toBasePerOp + " ns/op");
+        assertTrue(normalizePerOp < MAX_NANOS_PER_CONVERSION, "normalize " + normalizePerOp + " ns/op");
+        assertTrue(toBaseNanos < divideNanos, "factores " + toBaseNanos + " ns, división " + divideNanos + " ns");
+    }
+
+    // Mejor de varias rondas; la suma evita que el JIT descarte el trabajo
+    private static long best(IntToLongFunction operation) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < OPERATIONS; i++) {
+                sink += operation.applyAsLong(i);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertTrue(sink != 0);
+        return best;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CurrencyRateDto;
+
+/**
+ * Conversión a moneda base con el snapshot de tasas y refresco atómico.
+ */
+class CurrencyServiceTest {
+
+    private final ExternalServiceClient client = mock(ExternalServiceClient.class);
+    private final CurrencyService service = new CurrencyService(client, "USD=1,EUR=0.92,COP=4000,ECU=1");
+
+    @Test
+    void convertsAmountsToBaseCurrencyWithDefaultRates() {
+        assertEquals(new BigDecimal("250.00"), service.toBase(new BigDecimal("250"), "USD"));
+        assertEquals(new BigDecimal("250.00"), service.toBase(new BigDecimal("250"), "ECU"));
+        assertEquals(new BigDecimal("108.70"), service.toBase(new BigDecimal("100"), "EUR"));
+        assertEquals(new BigDecimal("1000.00"), service.toBase(new BigDecimal("4000000"), "COP"));
+    }
+
+    @Test
+    void unsupportedCurrencyIsRejected() {
+        assertFalse(service.isSupported("GBP"));
+        assertThrows(IllegalArgumentException.class, () -> service.toBase(BigDecimal.TEN, "GBP"));
+    }
+
+    @Test
+    void refreshSwapsSnapshotAndKeepsRatesMissingFromResponse() {
+        when(client.getCurrencyRates()).thenReturn(CurrencyRateDto.builder()
+            .base("USD")
+            .date("2025-08-02")
+            .rates(Map.of("USD", 1.0, "EUR", 0.8))
+            .success(true)
+            .build());
+
+        service.refreshRates();
+
+        assertEquals("2025-08-02", service.getSnapshot().date());
+        assertEquals(new BigDecimal("125.00"), service.toBase(new BigDecimal("100"), "EUR"));
+        assertEquals(new BigDecimal("1000.00"), service.toBase(new BigDecimal("4000000"), "COP"));
+    }
+
+    @Test
+    void ratesQuotedInAnotherBaseAreRebasedToUsd() {
+        // 1 EUR = 1.25 USD = 5000 COP
+        when(client.getCurrencyRates()).thenReturn(CurrencyRateDto.builder()
+            .base("EUR")
+            .rates(Map.of("EUR", 1.0, "USD", 1.25, "COP", 5000))
+            .success(true)
+            .build());
+
+        service.refreshRates();
+
+        assertEquals(new BigDecimal("125.00"), service.toBase(new BigDecimal("100"), "EUR"));
+        assertEquals(new BigDecimal("1.00"), service.toBase(new BigDecimal("4000"), "COP"));
+    }
+
+    @Test
+    void failedRefreshKeepsCurrentSnapshot() {
+        CurrencyService.RateSnapshot before = service.getSnapshot();
+        when(client.getCurrencyRates()).thenReturn(null);
+
+        service.refreshRates();
+
+        assertSame(before, service.getSnapshot());
+    }
+}
@@ -0,0 +1,211 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.listener.DashboardCountersListener;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+/**
+ * Contadores materializados del dashboard: deltas tras el commit, reconstrucción sin
+ * perder ni duplicar los deltas confirmados durante la lectura y montos exactos en BigDecimal.
+ */
+class DashboardCountersTest {
+
+    private final DashboardCounters counters = new DashboardCounters();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deltasAreAppliedOnlyWhenTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.recordRequestCreated("IT_HARDWARE", "IT", new BigDecimal("10.00"));
+        assertEquals(0L, counters.snapshot().getTotalRequests());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        counters.recordRequestCreated("IT_HARDWARE", "IT", new BigDecimal("99.00"));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertEquals(1L, snapshot.getTotalRequests());
+        assertEquals(1L, snapshot.count(RequestStatus.PENDING));
+        assertEquals(new BigDecimal("10.00"), snapshot.getTotalAmount());
+    }
+
+    @Test
+    void deltasCommittedWhileRebuildingAreReplayedOnTheNewState() {
+        counters.rebuild(pin -> {
+            DashboardCounters.Source rows = pin.firstRead(() -> source(5, new BigDecimal("500.00")));
+            // Confirmado después de fijar el snapshot: no viene en las filas
+            counters.recordRequestCreated("IT_HARDWARE", "IT", new BigDecimal("25.00"));
+            counters.recordStatusChange(RequestStatus.PENDING, RequestStatus.APPROVED, new BigDecimal("100.00"));
+            return rows;
+        });
+
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertTrue(snapshot.isInitialized());
+        assertEquals(6L, snapshot.getTotalRequests());
+        assertEquals(5L, snapshot.count(RequestStatus.PENDING));
+        assertEquals(1L, snapshot.count(RequestStatus.APPROVED));
+        assertEquals(new BigDecimal("525.00"), snapshot.getTotalAmount());
+        assertEquals(new BigDecimal("100.00"), snapshot.getApprovedAmount());
+
+        // Diario cerrado: los deltas siguientes se aplican una sola vez
+        counters.recordRequestCreated("IT_HARDWARE", "IT", BigDecimal.ONE);
+        assertEquals(7L, counters.snapshot().getTotalRequests());
+    }
+
+    @Test
+    void commitInFlightAtTheSnapshotIsCountedOnlyOnce() throws Exception {
+        // Transacción ya en beforeCommit: su fila entra en el snapshot, su afterCommit aún no corrió
+        TransactionSynchronizationManager.initSynchronization();
+        counters.recordRequestCreated("IT_HARDWARE", "IT", new BigDecimal("25.00"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.beforeCommit(false));
+
+        CountDownLatch reading = new CountDownLatch(1);
+        ExecutorService reconciler = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> rebuild = reconciler.submit(() -> counters.rebuild(pin -> pin.firstRead(() -> {
+                reading.countDown();
+                return source(1, new BigDecimal("25.00"));
+            })));
+
+            // La lectura espera a que la confirmación en curso aplique su delta
+            assertFalse(reading.await(200, TimeUnit.MILLISECONDS));
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            rebuild.get(5, TimeUnit.SECONDS);
+        } finally {
+            reconciler.shutdownNow();
+        }
+
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertEquals(1L, snapshot.getTotalRequests());
+        assertEquals(new BigDecimal("25.00"), snapshot.getTotalAmount());
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentState() {
+        counters.recordRequestCreated("IT_HARDWARE", "IT", BigDecimal.TEN);
+
+        assertThrows(IllegalStateException.class, () -> counters.rebuild(pin -> {
+            throw new IllegalStateException("base de datos caída");
+        }));
+        counters.recordRequestCreated("IT_HARDWARE", "IT", BigDecimal.TEN);
+
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertFalse(snapshot.isInitialized());
+        assertEquals(2L, snapshot.getTotalRequests());
+    }
+
+    @Test
+    void amountsKeepBigDecimalPrecision() {
+        BigDecimal large = new BigDecimal("123456789012345.67");
+        counters.recordRequestCreated("IT_HARDWARE", "IT", large);
+        counters.recordStatusChange(RequestStatus.PENDING, RequestStatus.APPROVED, large);
+
+        assertEquals(large, counters.snapshot().getTotalAmount());
+        assertEquals(large, counters.snapshot().getApprovedAmount());
+    }
+
+    @Test
+    void reconcilerReadsOneReadOnlySnapshot() {
+        PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+        when(repository.aggregateByStatus()).thenReturn(source(3, BigDecimal.TEN).getStatusRows());
+        when(repository.aggregateByCategoryAndDepartment()).thenReturn(source(3, BigDecimal.TEN).getGroupedRows());
+        Task task = mock(Task.class);
+        when(task.getId()).thenReturn("task-1");
+        when(task.getAssignee()).thenReturn("supervisor1");
+        TaskQuery taskQuery = mock(TaskQuery.class, RETURNS_SELF);
+        when(taskQuery.list()).thenReturn(List.of(task));
+        TaskService taskService = mock(TaskService.class);
+        when(taskService.createTaskQuery()).thenReturn(taskQuery);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        new DashboardCountersReconciler(repository, taskService, counters, transactionManager).reconcile();
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, definition.getValue().getIsolationLevel());
+
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertEquals(3L, snapshot.getTotalRequests());
+        assertEquals(Map.of("supervisor1", 1L), snapshot.getTasksByAssignee());
+    }
+
+    @Test
+    void listenerTracksTasksByAssignee() {
+        DashboardCountersListener listener = new DashboardCountersListener(counters);
+
+        listener.onTaskEvent(task(TaskListener.EVENTNAME_CREATE, null));
+        listener.onTaskEvent(task(TaskListener.EVENTNAME_ASSIGNMENT, "manager1"));
+        assertEquals(Map.of("manager1", 1L), counters.snapshot().getTasksByAssignee());
+        assertEquals(1L, counters.snapshot().getOpenTasks());
+
+        listener.onTaskEvent(task(TaskListener.EVENTNAME_COMPLETE, "manager1"));
+        assertEquals(Map.of(), counters.snapshot().getTasksByAssignee());
+        assertEquals(0L, counters.snapshot().getOpenTasks());
+    }
+
+    private static DelegateTask task(String eventName, String assignee) {
+        DelegateTask task = mock(DelegateTask.class);
+        when(task.getId()).thenReturn("task-1");
+        when(task.getEventName()).thenReturn(eventName);
+        when(task.getAssignee()).thenReturn(assignee);
+        when(task.getProcessDefinitionId()).thenReturn("purchase-request-process:1:abc");
+        return task;
+    }
+
+    // {@code pending} solicitudes PENDING de IT_HARDWARE/IT que suman {@code amount}
+    private static DashboardCounters.Source source(long pending, BigDecimal amount) {
+        List<Object[]> statusRows = new ArrayList<>();
+        statusRows.add(new Object[] { RequestStatus.PENDING, pending, amount });
+        List<Object[]> groupedRows = new ArrayList<>();
+        groupedRows.add(new Object[] { PurchaseCategory.IT_HARDWARE, "IT", pending, amount });
+        return new DashboardCounters.Source(statusRows, groupedRows, Map.of());
+    }
+}
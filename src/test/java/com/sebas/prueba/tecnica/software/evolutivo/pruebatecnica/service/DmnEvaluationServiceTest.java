@@ -0,0 +1,124 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+import org.camunda.bpm.dmn.engine.DmnDecisionResult;
+import org.camunda.bpm.engine.DecisionService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.dmn.DecisionsEvaluationBuilder;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.model.dmn.Dmn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Memoización por intervalo de la tabla desplegada: el motor solo se invoca
+ * una vez por (intervalo, categoría, prioridad) y versión desplegada.
+ */
+class DmnEvaluationServiceTest {
+
+    private static final String DMN_RESOURCE = "processes/purchase-approval-rules.dmn";
+
+    private final RepositoryService repositoryService = mock(RepositoryService.class, RETURNS_DEEP_STUBS);
+    private final DecisionService decisionService = mock(DecisionService.class);
+    private final DecisionsEvaluationBuilder evaluation = mock(DecisionsEvaluationBuilder.class);
+    private final DmnDecisionResult result = mock(DmnDecisionResult.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DmnEvaluationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deploy("purchase-approval-rules:1", 1);
+        when(decisionService.evaluateDecisionById(anyString())).thenReturn(evaluation);
+        when(evaluation.variables(any())).thenReturn(evaluation);
+        when(evaluation.evaluate()).thenReturn(result);
+
+        ApprovalRuleEvaluator evaluator = new ApprovalRuleEvaluator(
+            new ClassPathResource(DMN_RESOURCE), new ApprovalRuleProperties());
+        service = new DmnEvaluationService(repositoryService, decisionService, evaluator, registry, 100);
+    }
+
+    @Test
+    void amountsInTheSameIntervalReuseTheEngineResult() {
+        when(result.getSingleEntry()).thenReturn("SUPERVISOR");
+
+        assertEquals("SUPERVISOR", service.evaluateRoute(new BigDecimal("600.00"), "SOFTWARE", "NORMAL"));
+        assertEquals("SUPERVISOR", service.evaluateRoute(new BigDecimal("4999.99"), "SOFTWARE", "NORMAL"));
+        assertEquals("SUPERVISOR", service.evaluateRoute(new BigDecimal("1200"), "SOFTWARE", "NORMAL"));
+
+        verify(decisionService, times(1)).evaluateDecisionById("purchase-approval-rules:1");
+        assertEquals(1L, registry.timer("dmn.evaluation", "source", "engine").count());
+        assertEquals(2L, registry.timer("dmn.evaluation", "source", "memo").count());
+    }
+
+    @Test
+    void differentIntervalsCategoriesAndSubCentAmountsAreEvaluated() {
+        when(result.getSingleEntry()).thenReturn("AUTO");
+
+        service.evaluateRoute(new BigDecimal("150"), "SOFTWARE", "NORMAL");
+        service.evaluateRoute(new BigDecimal("600"), "SOFTWARE", "NORMAL");
+        service.evaluateRoute(new BigDecimal("150"), "EQUIPMENT", "NORMAL");
+        // Fracciones de centavo: sin intervalo, clave por monto exacto
+        service.evaluateRoute(new BigDecimal("200.004"), "SOFTWARE", "NORMAL");
+        service.evaluateRoute(new BigDecimal("200.004"), "SOFTWARE", "NORMAL");
+
+        verify(decisionService, times(4)).evaluateDecisionById(anyString());
+        assertEquals(4, service.memoSize());
+    }
+
+    @Test
+    void noMatchingRuleIsMemoizedAsNull() {
+        when(result.getSingleEntry()).thenReturn(null);
+
+        assertNull(service.evaluateRoute(new BigDecimal("300"), "OTHER", "NORMAL"));
+        assertNull(service.evaluateRoute(new BigDecimal("301"), "OTHER", "NORMAL"));
+
+        verify(decisionService, times(1)).evaluateDecisionById(anyString());
+    }
+
+    @Test
+    void newDeploymentSwitchesDefinitionAndClearsMemo() throws IOException {
+        when(result.getSingleEntry()).thenReturn("MANAGER");
+        service.evaluateRoute(new BigDecimal("3000"), "EQUIPMENT", "NORMAL");
+        assertEquals(1, service.deployedVersion());
+
+        deploy("purchase-approval-rules:2", 2);
+        service.refreshDefinition();
+        service.evaluateRoute(new BigDecimal("3000"), "EQUIPMENT", "NORMAL");
+
+        assertEquals(2, service.deployedVersion());
+        verify(decisionService).evaluateDecisionById("purchase-approval-rules:2");
+        assertEquals(1, service.memoSize());
+    }
+
+    private void deploy(String id, int version) throws IOException {
+        DecisionDefinition definition = mock(DecisionDefinition.class);
+        when(definition.getId()).thenReturn(id);
+        when(definition.getVersion()).thenReturn(version);
+        when(repositoryService.createDecisionDefinitionQuery()
+            .decisionDefinitionKey(DmnEvaluationService.DECISION_KEY)
+            .latestVersion()
+            .singleResult()).thenReturn(definition);
+        try (InputStream in = new ClassPathResource(DMN_RESOURCE).getInputStream()) {
+            when(repositoryService.getDmnModelInstance(id)).thenReturn(Dmn.readModelFromStream(in));
+        }
+    }
+}
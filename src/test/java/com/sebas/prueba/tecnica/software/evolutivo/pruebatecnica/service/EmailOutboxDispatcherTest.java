@@ -0,0 +1,160 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.EmailOutboxMessage.OutboxStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.EmailOutboxRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Envía la bandeja de salida contra un SMTP en memoria (GreenMail) y
+ * verifica reintentos con backoff, dead-letter y que el envío no retiene la transacción.
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void sendsWholeBatchOverSmtpAndMarksMessagesSent() throws Exception {
+        List<EmailOutboxMessage> batch = messages(3);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailOutboxDispatcher dispatcher = dispatcher(batch, ServerSetupTest.SMTP.getPort(), registry);
+
+        assertEquals(3, dispatcher.dispatchBatch());
+
+        assertEquals(3, greenMail.getReceivedMessages().length);
+        batch.forEach(m -> {
+            assertEquals(OutboxStatus.SENT, m.getStatus());
+            assertEquals(1, m.getAttempts());
+            assertNotNull(m.getSentAt());
+        });
+        assertEquals(3.0, registry.counter("email.outbox.sent").count());
+        assertEquals(1L, registry.timer("email.outbox.send.latency").count());
+    }
+
+    @Test
+    void unreachableServerSchedulesRetryAndDeadLettersAfterMaxAttempts() {
+        List<EmailOutboxMessage> batch = messages(1);
+        EmailOutboxMessage message = batch.get(0);
+        // Puerto sin servidor SMTP: falla la conexión
+        EmailOutboxDispatcher dispatcher = dispatcher(batch, 1, new SimpleMeterRegistry());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+
+        assertEquals(OutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(before.plusSeconds(29)));
+        assertNotNull(message.getLastError());
+
+        for (int i = 1; i < 3; i++) {
+            dispatcher.dispatchBatch();
+        }
+        assertEquals(OutboxStatus.DEAD, message.getStatus());
+        assertEquals(3, message.getAttempts());
+    }
+
+    @Test
+    void batchIsClaimedWithALeaseAndSentOutsideAnyTransaction() {
+        List<EmailOutboxMessage> batch = messages(2);
+        AtomicInteger openTransactions = new AtomicInteger();
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            openTransactions.incrementAndGet();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            openTransactions.decrementAndGet();
+            return null;
+        }).when(transactionManager).commit(any());
+
+        List<Integer> openWhileSending = new ArrayList<>();
+        List<LocalDateTime> leasesWhileSending = new ArrayList<>();
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doAnswer(inv -> {
+            openWhileSending.add(openTransactions.get());
+            batch.forEach(m -> leasesWhileSending.add(m.getNextAttemptAt()));
+            return null;
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(2, dispatcher(batch, mailSender, transactionManager, new SimpleMeterRegistry()).dispatchBatch());
+
+        // Reclamo y resultado en dos transacciones cortas; el SMTP, entre ambas
+        assertEquals(List.of(0), openWhileSending);
+        verify(transactionManager, times(2)).commit(any());
+        leasesWhileSending.forEach(lease -> assertTrue(lease.isAfter(before.plusMinutes(4)), lease.toString()));
+        batch.forEach(m -> assertEquals(OutboxStatus.SENT, m.getStatus()));
+    }
+
+    private EmailOutboxDispatcher dispatcher(List<EmailOutboxMessage> batch, int port, SimpleMeterRegistry registry) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return dispatcher(batch, mailSender, mock(PlatformTransactionManager.class), registry);
+    }
+
+    private EmailOutboxDispatcher dispatcher(List<EmailOutboxMessage> batch, JavaMailSender mailSender,
+                                             PlatformTransactionManager transactionManager,
+                                             SimpleMeterRegistry registry) {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.claimDue(any(), any())).thenAnswer(inv -> new ArrayList<>(
+            batch.stream().filter(m -> m.getStatus() == OutboxStatus.PENDING).toList()));
+        when(repository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        return new EmailOutboxDispatcher(
+            repository,
+            mailSender,
+            new TransactionTemplate(transactionManager),
+            registry,
+            "bpm@softwareevolutivo.com",
+            true,
+            50,
+            3,
+            30_000,
+            3_600_000,
+            300_000
+        );
+    }
+
+    private List<EmailOutboxMessage> messages(int count) {
+        List<EmailOutboxMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(EmailOutboxMessage.builder()
+                .id((long) i)
+                .recipient("user" + i + "@softwareevolutivo.com")
+                .subject("Estado de su solicitud - PR-" + i)
+                .body("Su solicitud ha sido aprobada.")
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        }
+        return messages;
+    }
+}
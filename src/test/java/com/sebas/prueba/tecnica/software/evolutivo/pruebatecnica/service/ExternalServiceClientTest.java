@@ -0,0 +1,168 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.AppServiceProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HttpClientConfiguration;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.HttpClientProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.SupplierDto;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cliente de servicios externos contra un servidor stub local que inyecta
+ * latencia y errores: timeouts, circuit breaker y bulkhead.
+ */
+class ExternalServiceClientTest {
+
+    private static final String SUPPLIERS_JSON =
+        "[{\"id\":10,\"name\":\"Proveedor Stub\",\"email\":\"stub@proveedor.com\"}]";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CloseableHttpClient httpClient;
+    private ExternalServiceGuard guard;
+    private ExternalServiceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/suppliers", exchange -> {
+            hits.incrementAndGet();
+            sleep(delayMillis);
+            byte[] body = (status == 200 ? SUPPLIERS_JSON : "{\"error\":\"boom\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException ignored) {
+                // El cliente cortó la conexión por timeout
+            }
+        });
+        server.start();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setConnectTimeout(Duration.ofMillis(500));
+        properties.setReadTimeout(Duration.ofMillis(300));
+        properties.getCircuitBreaker().setFailureThreshold(3);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(400));
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        properties.getBulkhead().setMaxWait(Duration.ofMillis(10));
+
+        AppServiceProperties services = new AppServiceProperties();
+        services.setSuppliersUrl("http://localhost:" + server.getAddress().getPort() + "/api/suppliers");
+
+        HttpClientConfiguration configuration = new HttpClientConfiguration();
+        httpClient = configuration.externalHttpClient(properties);
+        guard = new ExternalServiceGuard(properties, registry);
+        // Sin TTL: cada llamada llega al upstream
+        SupplierCatalogCache noCache = new SupplierCatalogCache(new SimpleMeterRegistry(), Duration.ZERO, Duration.ZERO, 16);
+        client = new ExternalServiceClient(configuration.restTemplate(httpClient), services, guard, noCache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    void returnsUpstreamSuppliersWhenHealthy() {
+        List<SupplierDto> suppliers = client.getSuppliers();
+
+        assertEquals(1, suppliers.size());
+        assertEquals("Proveedor Stub", suppliers.get(0).getName());
+    }
+
+    @Test
+    void slowUpstreamTimesOutAndFallsBackToMockSuppliers() {
+        delayMillis = 2_000;
+
+        long start = System.nanoTime();
+        List<SupplierDto> suppliers = client.getSuppliers();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 1_500, "La llamada debía cortarse por read timeout, tardó " + elapsedMillis + " ms");
+        assertEquals("TechSolutions S.A.", suppliers.get(0).getName());
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailuresAndRecoversAfterOpenDuration() throws Exception {
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            client.getSuppliers();
+        }
+        assertEquals(ExternalServiceGuard.CircuitState.OPEN, guard.getState(ExternalServiceClient.SUPPLIERS_SERVICE));
+
+        // Con el circuito abierto no se llama al upstream
+        int hitsWhenOpened = hits.get();
+        List<SupplierDto> fallback = client.getSuppliers();
+        assertEquals(hitsWhenOpened, hits.get());
+        assertEquals("TechSolutions S.A.", fallback.get(0).getName());
+        assertEquals(3L, registry.timer("external.service.call", "service", "suppliers", "outcome", "error").count());
+        assertEquals(1.0, registry.counter("external.service.rejected", "service", "suppliers", "reason", "circuit_open").count());
+        assertEquals(1.0, registry.get("external.service.circuit.state").tag("service", "suppliers").gauge().value());
+
+        // Pasado openDuration, una llamada de prueba exitosa cierra el circuito
+        status = 200;
+        Thread.sleep(450);
+        assertEquals("Proveedor Stub", client.getSuppliers().get(0).getName());
+        assertEquals(ExternalServiceGuard.CircuitState.CLOSED, guard.getState(ExternalServiceClient.SUPPLIERS_SERVICE));
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        delayMillis = 250;
+        CountDownLatch firstCallStarted = new CountDownLatch(1);
+
+        CompletableFuture<List<SupplierDto>> inFlight = CompletableFuture.supplyAsync(() -> {
+            firstCallStarted.countDown();
+            return client.getSuppliers();
+        });
+        firstCallStarted.await();
+        Thread.sleep(50);
+
+        // El único permiso está ocupado: fallback inmediato sin tocar el upstream
+        List<SupplierDto> rejected = client.getSuppliers();
+        assertEquals("TechSolutions S.A.", rejected.get(0).getName());
+
+        assertEquals("Proveedor Stub", inFlight.get(2, TimeUnit.SECONDS).get(0).getName());
+        assertEquals(1, hits.get());
+        assertEquals(1.0, registry.counter("external.service.rejected", "service", "suppliers", "reason", "bulkhead_full").count());
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.NativeHistoricVariableInstanceQuery;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver.FinalStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolución de {@code finalStatus} por lotes de {@code processInstanceIdIn}; las
+ * instancias que siguen en curso no cuentan aunque ya tengan la variable.
+ *
+ * Comparativa con la consulta por instancia bajo demanda:
+ * {@code mvn test -Dtest=FinalStatusResolverTest -Dbenchmark=true}
+ */
+@Slf4j
+class FinalStatusResolverTest {
+
+    @Test
+    void idsAreResolvedInChunksWithAPartialLastChunk() {
+        HistoryService historyService = mock(HistoryService.class);
+        NativeHistoricVariableInstanceQuery query = mock(NativeHistoricVariableInstanceQuery.class, RETURNS_SELF);
+        when(historyService.createNativeHistoricVariableInstanceQuery()).thenReturn(query);
+        List<HistoricVariableInstance> firstChunk = List.of(variable("pi-0", "APPROVED"), variable("pi-1", "REJECTED"));
+        List<HistoricVariableInstance> lastChunk = List.of(variable("pi-6", "APPROVED"));
+        when(query.list()).thenReturn(firstChunk, List.of(), lastChunk);
+
+        FinalStatusResolver resolver = new FinalStatusResolver(historyService, mock(ManagementService.class));
+        resolver.setChunkSize(3);
+        List<String> ids = IntStream.range(0, 7).mapToObj(i -> "pi-" + i).collect(Collectors.toList());
+
+        assertEquals(List.of(3, 3, 1), resolver.chunks(ids).stream().map(List::size).collect(Collectors.toList()));
+
+        Map<String, FinalStatus> statuses = resolver.resolve(ids);
+
+        verify(query, times(3)).list();
+        // Un parámetro por id más el nombre de la variable en cada consulta
+        verify(query, times(7 + 3)).parameter(anyString(), anyString());
+        assertEquals(Map.of("pi-0", FinalStatus.APPROVED, "pi-1", FinalStatus.REJECTED, "pi-6", FinalStatus.APPROVED),
+            statuses);
+    }
+
+    @Test
+    void nonPositiveChunkSizeStillAdvances() {
+        FinalStatusResolver resolver = new FinalStatusResolver(mock(HistoryService.class), mock(ManagementService.class));
+        resolver.setChunkSize(0);
+
+        assertEquals(2, resolver.chunks(List.of("pi-0", "pi-1")).size());
+    }
+
+    @Test
+    void runningInstancesAreNotReportedWithFinalStatus() {
+        ProcessEngine engine = engine("final-status-running");
+        try {
+            engine.getRepositoryService().createDeployment()
+                .addModelInstance("final-status.bpmn", Bpmn.createExecutableProcess(FinalStatusResolver.PROCESS_KEY)
+                    .camundaHistoryTimeToLive(30)
+                    .startEvent()
+                    .userTask("UserTask_Approval")
+                    .endEvent()
+                    .done())
+                .deploy();
+            // Las dos escriben finalStatus al arrancar; solo la primera llega al final
+            Map<String, Object> approved = Map.of(FinalStatusResolver.VARIABLE_NAME, "APPROVED");
+            String finished = engine.getRuntimeService()
+                .startProcessInstanceByKey(FinalStatusResolver.PROCESS_KEY, approved).getId();
+            String running = engine.getRuntimeService()
+                .startProcessInstanceByKey(FinalStatusResolver.PROCESS_KEY, approved).getId();
+            engine.getTaskService().complete(
+                engine.getTaskService().createTaskQuery().processInstanceId(finished).singleResult().getId());
+
+            FinalStatusResolver resolver = new FinalStatusResolver(engine.getHistoryService(),
+                engine.getManagementService());
+
+            assertEquals(Map.of(finished, FinalStatus.APPROVED), resolver.resolveAll());
+            assertEquals(Map.of(finished, FinalStatus.APPROVED), resolver.resolve(List.of(finished, running)));
+            assertEquals(1L, resolver.countAll(FinalStatus.APPROVED));
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkChunkedVersusPerInstanceQueries() {
+        int instances = Integer.getInteger("benchmark.instances", 20_000);
+        ProcessEngine engine = engine("final-status-benchmark");
+        try {
+            engine.getRepositoryService().createDeployment()
+                .addModelInstance("final-status.bpmn", Bpmn.createExecutableProcess(FinalStatusResolver.PROCESS_KEY)
+                    .camundaHistoryTimeToLive(30)
+                    .startEvent()
+                    .endEvent()
+                    .done())
+                .deploy();
+
+            List<String> ids = new ArrayList<>(instances);
+            for (int i = 0; i < instances; i++) {
+                ids.add(engine.getRuntimeService().startProcessInstanceByKey(FinalStatusResolver.PROCESS_KEY,
+                    Map.of(FinalStatusResolver.VARIABLE_NAME, i % 2 == 0 ? "APPROVED" : "REJECTED")).getId());
+            }
+
+            FinalStatusResolver resolver = new FinalStatusResolver(engine.getHistoryService(),
+                engine.getManagementService());
+            resolver.resolve(ids);
+            long start = System.nanoTime();
+            Map<String, FinalStatus> chunked = resolver.resolve(ids);
+            long chunkedNanos = System.nanoTime() - start;
+
+            // Forma anterior: una consulta histórica por instancia
+            start = System.nanoTime();
+            long approved = 0;
+            for (String id : ids) {
+                approved += engine.getHistoryService().createHistoricVariableInstanceQuery()
+                    .processInstanceId(id)
+                    .variableName(FinalStatusResolver.VARIABLE_NAME)
+                    .list().stream()
+                    .filter(variable -> "APPROVED".equals(variable.getValue()))
+                    .count();
+            }
+            long perInstanceNanos = System.nanoTime() - start;
+
+            log.info("🏁 finalStatus de {} instancias: por lotes {} ms, por instancia {} ms",
+                instances, chunkedNanos / 1_000_000, perInstanceNanos / 1_000_000);
+            assertEquals(instances, chunked.size());
+            assertEquals(approved, FinalStatusResolver.count(chunked, FinalStatus.APPROVED));
+            assertTrue(chunkedNanos * 5 < perInstanceNanos,
+                "por lotes " + chunkedNanos + " ns, por instancia " + perInstanceNanos + " ns");
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static ProcessEngine engine(String name) {
+        return ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+            .setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1")
+            .setHistory(ProcessEngineConfiguration.HISTORY_FULL)
+            .setJobExecutorActivate(false)
+            .setProcessEngineName(name)
+            .buildProcessEngine();
+    }
+
+    private static HistoricVariableInstance variable(String processInstanceId, String value) {
+        HistoricVariableInstance variable = mock(HistoricVariableInstance.class);
+        when(variable.getProcessInstanceId()).thenReturn(processInstanceId);
+        when(variable.getValue()).thenReturn(value);
+        return variable;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.JobExecutorTuningProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobExecutorTuner.Load;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.JobExecutorTuner.Settings;
+
+/**
+ * Decisiones del modo adaptativo: crecer con jobs rápidos, no crecer con jobs lentos,
+ * adquirir solo lo que cabe en el pool y encoger de uno en uno.
+ */
+class JobExecutorTunerTest {
+
+    private static final int QUEUE = 10;
+
+    private final JobExecutorTuningProperties properties = new JobExecutorTuningProperties();
+
+    @Test
+    void rejectionsWithFastJobsGrowThePool() {
+        Settings next = JobExecutorTuner.decide(
+            new Load(12, 40, 3, QUEUE, QUEUE, 0), new Settings(3, 10), properties);
+
+        assertEquals(5, next.poolSize());
+        // Solo caben los hilos nuevos: la cola está llena
+        assertEquals(2, next.batchSize());
+    }
+
+    @Test
+    void slowJobsDoNotGrowThePool() {
+        Settings next = JobExecutorTuner.decide(
+            new Load(5, 2_000, 8, QUEUE, QUEUE, 120_000), new Settings(8, 10), properties);
+
+        assertEquals(8, next.poolSize());
+        assertEquals(properties.getMinBatch(), next.batchSize());
+    }
+
+    @Test
+    void timerBacklogGrowsThePoolUpToTheCeiling() {
+        Settings next = JobExecutorTuner.decide(
+            new Load(0, 30, 19, 2, QUEUE, 90_000), new Settings(19, 10), properties);
+
+        assertEquals(properties.getMaxPoolSize(), next.poolSize());
+    }
+
+    @Test
+    void batchIsCappedByFreeThreadsAndQueueSlots() {
+        Settings next = JobExecutorTuner.decide(
+            new Load(0, 40, 6, 5, QUEUE, 0), new Settings(10, 20), properties);
+
+        assertEquals(10, next.poolSize());
+        // 4 hilos libres + 5 huecos en cola
+        assertEquals(9, next.batchSize());
+    }
+
+    @Test
+    void idlePoolShrinksOneStepAtATimeDownToTheFloor() {
+        assertEquals(7, JobExecutorTuner.decide(
+            new Load(0, 10, 1, 0, QUEUE, 0), new Settings(8, 10), properties).poolSize());
+        assertEquals(properties.getMinPoolSize(), JobExecutorTuner.decide(
+            new Load(0, 10, 0, 0, QUEUE, 0), new Settings(3, 10), properties).poolSize());
+    }
+}
@@ -0,0 +1,214 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.KpiSeriesPointDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.KpiRollupRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver.FinalStatus;
+
+/**
+ * Rollups de KPIs sobre una tabla simulada: el búfer se vuelca sumando sobre las filas
+ * existentes de cada franja, un conflicto de versión devuelve los deltas al búfer y las
+ * series salen solo de esas filas.
+ */
+class KpiRollupServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+    private final List<KpiRollup> table = new ArrayList<>();
+    private final KpiRollupRepository repository = mock(KpiRollupRepository.class);
+    private final KpiRollupService service = new KpiRollupService(
+        repository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        mock(ProcessingLatencyMonitor.class));
+
+    @SuppressWarnings("unchecked")
+    KpiRollupServiceTest() {
+        when(repository.findByGranularityAndBucketStartIn(any(), anyCollection())).thenAnswer(invocation -> {
+            Collection<LocalDateTime> buckets = invocation.getArgument(1);
+            return table.stream()
+                .filter(row -> row.getGranularity() == invocation.getArgument(0))
+                .filter(row -> buckets.contains(row.getBucketStart()))
+                .toList();
+        });
+        when(repository.saveAll(any())).thenAnswer(this::saveRows);
+        when(repository.findSeries(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> table.stream()
+            .filter(row -> row.getGranularity() == invocation.getArgument(0))
+            .filter(row -> !row.getBucketStart().isBefore(invocation.getArgument(1)))
+            .filter(row -> row.getBucketStart().isBefore(invocation.getArgument(2)))
+            .filter(row -> invocation.getArgument(3) == null || Objects.equals(row.getCategory(), invocation.getArgument(3)))
+            .toList());
+        when(repository.sumProcessingTime(Granularity.DAY)).thenAnswer(invocation -> {
+            List<Object[]> sums = new ArrayList<>();
+            sums.add(new Object[] {
+                table.stream().filter(row -> row.getGranularity() == Granularity.DAY)
+                    .mapToLong(KpiRollup::getProcessingTimeSumMillis).sum(),
+                table.stream().filter(row -> row.getGranularity() == Granularity.DAY)
+                    .mapToLong(KpiRollup::getProcessingTimeCount).sum()
+            });
+            return sums;
+        });
+    }
+
+    @Test
+    void flushAddsToExistingHourAndDayRows() {
+        complete(DAY.plusHours(9).plusMinutes(5), "IT_HARDWARE", FinalStatus.APPROVED, 2);
+        complete(DAY.plusHours(9).plusMinutes(40), "IT_HARDWARE", FinalStatus.REJECTED, 4);
+        complete(DAY.plusHours(15), "OFFICE_SUPPLIES", FinalStatus.APPROVED, 6);
+        service.flush();
+
+        // 09:05 y 09:40 caen en la misma franja horaria
+        assertEquals(2, rows(Granularity.HOUR).size());
+        assertEquals(2, rows(Granularity.DAY).size());
+
+        complete(DAY.plusHours(9).plusMinutes(50), "IT_HARDWARE", FinalStatus.APPROVED, 8);
+        service.flush();
+
+        assertEquals(2, rows(Granularity.HOUR).size());
+        KpiRollup nineAm = rows(Granularity.HOUR).stream()
+            .filter(row -> row.getBucketStart().equals(DAY.plusHours(9)) && row.getCategory().equals("IT_HARDWARE"))
+            .findFirst().orElseThrow();
+        assertEquals(3, nineAm.getCompletedCount());
+        assertEquals(2, nineAm.getApprovedCount());
+        assertEquals(1, nineAm.getRejectedCount());
+        assertEquals(new BigDecimal("300.00"), nineAm.getAmountSum());
+        assertEquals(new BigDecimal("200.00"), nineAm.getApprovedAmountSum());
+    }
+
+    @Test
+    void conflictingFlushRequeuesDeltasForTheNextCycle() {
+        complete(DAY.plusHours(9), "IT_HARDWARE", FinalStatus.APPROVED, 2);
+        doThrow(new ObjectOptimisticLockingFailureException(KpiRollup.class, 1L))
+            .doAnswer(this::saveRows)
+            .when(repository).saveAll(any());
+        service.flush();
+        assertTrue(table.isEmpty());
+
+        complete(DAY.plusHours(9), "IT_HARDWARE", FinalStatus.REJECTED, 4);
+        service.flush();
+
+        KpiRollup nineAm = rows(Granularity.HOUR).get(0);
+        assertEquals(2, nineAm.getCompletedCount());
+        assertEquals(1, nineAm.getApprovedCount());
+        assertEquals(1, nineAm.getRejectedCount());
+    }
+
+    @Test
+    void seriesReadsOnlyRollupsAndFillsEmptyBuckets() {
+        for (int hours = 1; hours <= 10; hours++) {
+            complete(DAY.plusHours(10), "IT_HARDWARE", hours <= 8 ? FinalStatus.APPROVED : FinalStatus.REJECTED, hours);
+        }
+        service.flush();
+
+        List<KpiSeriesPointDto> series = service.series(Granularity.HOUR, DAY.plusHours(9), DAY.plusHours(12),
+            null, null, null);
+
+        assertEquals(List.of(DAY.plusHours(9), DAY.plusHours(10), DAY.plusHours(11)),
+            series.stream().map(KpiSeriesPointDto::getBucketStart).toList());
+        assertEquals(0, series.get(0).getCompleted());
+        assertNull(series.get(0).getP50ProcessingHours());
+
+        KpiSeriesPointDto busy = series.get(1);
+        assertEquals(10, busy.getCompleted());
+        assertEquals(80.0, busy.getApprovalRate());
+        assertEquals(5.5, busy.getAverageProcessingHours(), 1e-9);
+        // Error relativo del sketch: 2 %
+        assertEquals(5.0, busy.getP50ProcessingHours(), 5.0 * DurationSketch.RELATIVE_ACCURACY);
+        assertEquals(9.0, busy.getP90ProcessingHours(), 9.0 * DurationSketch.RELATIVE_ACCURACY);
+        assertEquals(0.5, busy.getP50ApprovalHours(), 0.5 * DurationSketch.RELATIVE_ACCURACY);
+
+        assertEquals(0, service.series(Granularity.DAY, DAY, DAY.plusDays(1), "OFFICE_SUPPLIES", null, null)
+            .get(0).getCompleted());
+    }
+
+    @Test
+    void averageProcessingTimeComesFromDailyRollups() {
+        complete(DAY.plusHours(1), "IT_HARDWARE", FinalStatus.APPROVED, 2);
+        complete(DAY.plusDays(1), "IT_HARDWARE", FinalStatus.APPROVED, 4);
+        service.flush();
+
+        assertEquals(3.0, service.averageProcessingTimeHours(), 1e-9);
+    }
+
+    @Test
+    void sketchQuantilesStayWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        long[] values = new long[10_000];
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Cola larga: de segundos a semanas
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(Duration.ofDays(30).toMillis()));
+            sketch.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[] {0.5, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(quantile * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(quantile).doubleValue(), exact * DurationSketch.RELATIVE_ACCURACY, "q" + quantile);
+        }
+        assertNull(new DurationSketch().quantile(0.5));
+    }
+
+    @Test
+    void sketchesMergeAndSurviveEncoding() {
+        DurationSketch first = new DurationSketch();
+        DurationSketch second = new DurationSketch();
+        first.record(Duration.ofMinutes(30).toMillis());
+        second.record(Duration.ofDays(30).toMillis());
+        second.record(0);
+
+        DurationSketch merged = DurationSketch.decode(first.encode());
+        merged.merge(DurationSketch.decode(second.encode()));
+
+        assertEquals(3, merged.count());
+        assertEquals(0L, merged.quantile(0.0));
+        assertEquals(Duration.ofDays(30).toMillis(), merged.quantile(1.0).doubleValue(),
+            Duration.ofDays(30).toMillis() * DurationSketch.RELATIVE_ACCURACY);
+        assertEquals(merged.encode(), DurationSketch.decode(merged.encode()).encode());
+        assertTrue(new DurationSketch().encode().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object saveRows(InvocationOnMock invocation) {
+        for (KpiRollup row : (Iterable<KpiRollup>) invocation.getArgument(0)) {
+            if (table.stream().noneMatch(existing -> existing == row)) {
+                table.add(row);
+            }
+        }
+        return invocation.getArgument(0);
+    }
+
+    private void complete(LocalDateTime endTime, String category, FinalStatus status, long processingHours) {
+        service.recordCompletion(new KpiRollupService.Completion(endTime, category, "IT", "SUPERVISOR", status,
+            new BigDecimal("100"), Duration.ofHours(processingHours).toMillis(),
+            Duration.ofMinutes(30).toMillis()));
+    }
+
+    private List<KpiRollup> rows(Granularity granularity) {
+        return table.stream().filter(row -> row.getGranularity() == granularity).toList();
+    }
+}
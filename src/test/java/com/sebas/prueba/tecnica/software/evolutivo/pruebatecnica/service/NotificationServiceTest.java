@@ -0,0 +1,77 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Un correo sin destinatario se registra como error sin llegar a la outbox: lanzar
+ * dentro del proxy transaccional dejaría rollback-only la transacción del llamador.
+ * Un fallo de la outbox, en cambio, llega al llamador para que revierta su escritura.
+ */
+class NotificationServiceTest {
+
+    private final EmailOutboxService emailOutboxService = mock(EmailOutboxService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NotificationService notificationService =
+        new NotificationService(emailOutboxService, mock(PurchaseRequestRepository.class), registry);
+
+    @Test
+    void missingRecipientIsLoggedWithoutReachingTheOutbox() {
+        PurchaseRequest request = PurchaseRequest.builder()
+            .businessKey("PR-1")
+            .requesterName("Ana")
+            .status(PurchaseRequest.RequestStatus.PENDING)
+            .build();
+
+        notificationService.sendFinalNotification(request, "CREATED", "Solicitud creada");
+
+        verify(emailOutboxService, never()).enqueue(any(), anyString(), anyString());
+        assertEquals(1L, registry.get("notification.email").tag("type", "final").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void recipientIsEnqueued() {
+        PurchaseRequest request = PurchaseRequest.builder()
+            .businessKey("PR-2")
+            .requesterName("Ana")
+            .requesterEmail("ana@softwareevolutivo.com")
+            .status(PurchaseRequest.RequestStatus.PENDING)
+            .build();
+
+        notificationService.sendFinalNotification(request, "CREATED", "Solicitud creada");
+
+        verify(emailOutboxService).enqueue(eq("ana@softwareevolutivo.com"), anyString(), anyString());
+    }
+
+    @Test
+    void enqueueFailureReachesTheCallerSoItsTransactionRollsBack() {
+        when(emailOutboxService.enqueue(anyString(), anyString(), anyString()))
+            .thenThrow(new DataAccessResourceFailureException("outbox no disponible"));
+        PurchaseRequest request = PurchaseRequest.builder()
+            .businessKey("PR-3")
+            .requesterEmail("ana@softwareevolutivo.com")
+            .build();
+
+        assertThrows(DataAccessResourceFailureException.class,
+            () -> notificationService.sendReminderDigest("supervisor@softwareevolutivo.com",
+                List.of(new NotificationService.ReminderItem(request, "APROBACION", 1, 3)), false));
+        assertEquals(1L, registry.get("notification.email").tag("type", "reminder").tag("outcome", "error").timer().count());
+    }
+}
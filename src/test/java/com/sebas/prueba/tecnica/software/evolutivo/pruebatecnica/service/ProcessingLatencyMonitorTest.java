@@ -0,0 +1,133 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.DashboardMetricsDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.KpiRollup.Granularity;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.KpiRollupRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.FinalStatusResolver.FinalStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Percentiles en memoria: se alimentan de las solicitudes terminadas y de los rollups
+ * diarios, descartan los días fuera de la ventana y acotan los grupos por dimensión.
+ */
+class ProcessingLatencyMonitorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 10, 12, 0);
+
+    private final List<KpiRollup> dailyRows = new ArrayList<>();
+    private final KpiRollupRepository repository = mock(KpiRollupRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProcessingLatencyMonitor monitor = new ProcessingLatencyMonitor(repository, registry, 7, 2);
+
+    ProcessingLatencyMonitorTest() {
+        ClockUtil.setCurrentTime(Date.from(NOW.atZone(ZoneId.systemDefault()).toInstant()));
+        when(repository.findSeries(eq(Granularity.DAY), any(), any(), any(), any(), any())).thenAnswer(invocation ->
+            dailyRows.stream()
+                .filter(row -> !row.getBucketStart().isBefore(invocation.getArgument(1)))
+                .filter(row -> row.getBucketStart().isBefore(invocation.getArgument(2)))
+                .toList());
+    }
+
+    @AfterEach
+    void resetClock() {
+        ClockUtil.reset();
+    }
+
+    @Test
+    void publishesPercentilesPerStageAndGroup() {
+        for (int hours = 1; hours <= 10; hours++) {
+            monitor.record(completion(NOW, "MANAGER", "IT", hours, 2L));
+        }
+        monitor.record(completion(NOW, "AUTO", "IT", 1, null));
+        monitor.refresh();
+
+        DashboardMetricsDto.LatencyMetricDto endToEnd = monitor.overall(ProcessingLatencyMonitor.END_TO_END);
+        assertEquals(11, endToEnd.getCount());
+        assertEquals(5.0, endToEnd.getP50Hours(), 5.0 * DurationSketch.RELATIVE_ACCURACY);
+
+        DashboardMetricsDto.LatencyMetricDto approval = monitor.percentiles().stream()
+            .filter(latency -> latency.getStage().equals(ProcessingLatencyMonitor.APPROVAL))
+            .filter(latency -> latency.getGroup().equals("MANAGER"))
+            .findFirst().orElseThrow();
+        assertEquals(10, approval.getCount());
+        assertEquals(2.0, approval.getP99Hours(), 2.0 * DurationSketch.RELATIVE_ACCURACY);
+
+        double p90Seconds = registry.get("purchase.request.duration")
+            .tags("stage", "end_to_end", "dimension", "route", "group", "MANAGER", "quantile", "0.9")
+            .gauge().value();
+        assertEquals(9 * 3600.0, p90Seconds, 9 * 3600.0 * DurationSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void groupsBeyondTheLimitAreCountedAsOther() {
+        monitor.record(completion(NOW, "SUPERVISOR", "IT", 1, 1L));
+        monitor.record(completion(NOW, "SUPERVISOR", "FINANCE", 1, 1L));
+        monitor.record(completion(NOW, "SUPERVISOR", "LEGAL", 1, 1L));
+        monitor.refresh();
+
+        List<String> departments = monitor.percentiles().stream()
+            .filter(latency -> latency.getStage().equals(ProcessingLatencyMonitor.END_TO_END))
+            .filter(latency -> latency.getDimension().equals("department"))
+            .map(DashboardMetricsDto.LatencyMetricDto::getGroup)
+            .toList();
+        assertEquals(List.of("FINANCE", "IT", ProcessingLatencyMonitor.OTHER), departments);
+    }
+
+    @Test
+    void loadsTheWindowFromDailyRollupsAndDropsOldDays() {
+        dailyRows.add(dailyRow(NOW.minusDays(3), 4));
+        dailyRows.add(dailyRow(NOW.minusDays(20), 100));
+        monitor.loadWindow();
+
+        assertEquals(1, monitor.overall(ProcessingLatencyMonitor.END_TO_END).getCount());
+        assertEquals(4.0, monitor.overall(ProcessingLatencyMonitor.END_TO_END).getP99Hours(),
+            4.0 * DurationSketch.RELATIVE_ACCURACY);
+
+        // Una semana después el día cargado queda fuera de la ventana de 7 días
+        ClockUtil.setCurrentTime(Date.from(NOW.plusDays(5).atZone(ZoneId.systemDefault()).toInstant()));
+        monitor.refresh();
+        assertNull(monitor.overall(ProcessingLatencyMonitor.END_TO_END));
+    }
+
+    private static KpiRollupService.Completion completion(LocalDateTime endTime, String route, String department,
+                                                          long processingHours, Long approvalHours) {
+        return new KpiRollupService.Completion(endTime, "IT_HARDWARE", department, route, FinalStatus.APPROVED,
+            BigDecimal.TEN, Duration.ofHours(processingHours).toMillis(),
+            approvalHours != null ? Duration.ofHours(approvalHours).toMillis() : null);
+    }
+
+    private static KpiRollup dailyRow(LocalDateTime day, long processingHours) {
+        DurationSketch sketch = new DurationSketch();
+        sketch.record(Duration.ofHours(processingHours).toMillis());
+        return KpiRollup.builder()
+            .granularity(Granularity.DAY)
+            .bucketStart(day.toLocalDate().atStartOfDay())
+            .category("IT_HARDWARE")
+            .department("IT")
+            .approvalRoute("SUPERVISOR")
+            .completedCount(1)
+            .processingTimeSketch(sketch.encode())
+            .build();
+    }
+}
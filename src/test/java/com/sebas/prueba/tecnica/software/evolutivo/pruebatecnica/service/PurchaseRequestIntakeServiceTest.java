@@ -0,0 +1,304 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto.ItemResult;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.BatchIntakeResultDto.ItemStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.RequestStatus;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+/**
+ * Alta de solicitudes: alta asíncrona con cola acotada y reenvío de las solicitudes
+ * perdidas, y carga masiva por lotes (JSON y NDJSON en streaming) con reintento una a
+ * una cuando falla un lote.
+ */
+class PurchaseRequestIntakeServiceTest {
+
+    private final RuntimeService runtimeService = mock(RuntimeService.class);
+    private final PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+    private final BusinessRulesService businessRulesService = mock(BusinessRulesService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final DashboardCounters dashboardCounters = new DashboardCounters();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, PurchaseRequest> stored = new HashMap<>();
+
+    private final PurchaseRequestIntakeService service = new PurchaseRequestIntakeService(
+        runtimeService, repository, businessRulesService, notificationService, mock(CurrencyService.class),
+        dashboardCounters, new TransactionTemplate(transactionManager), objectMapper);
+
+    PurchaseRequestIntakeServiceTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.save(any())).thenAnswer(invocation -> {
+            PurchaseRequest request = invocation.getArgument(0);
+            if (request.getId() == null) {
+                request.setId((long) stored.size() + 1);
+            }
+            stored.put(request.getId(), request);
+            return request;
+        });
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.getArgument(0))));
+        when(repository.findByIdForUpdate(any()))
+            .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.getArgument(0))));
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(businessRulesService.validatePurchaseRequest(any())).thenAnswer(invocation -> {
+            PurchaseRequest request = invocation.getArgument(0);
+            BusinessRulesService.ValidationResult result = new BusinessRulesService.ValidationResult();
+            result.setValid(!"invalida".equals(request.getDescription()));
+            if (!result.isValid()) {
+                result.getErrors().add("Descripción inválida");
+            }
+            return result;
+        });
+        when(runtimeService.startProcessInstanceByKey(anyString(), anyString(), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> variables = invocation.getArgument(2);
+            if ("falla".equals(variables.get("description"))) {
+                throw new IllegalStateException("motor no disponible");
+            }
+            ProcessInstance instance = mock(ProcessInstance.class);
+            when(instance.getId()).thenReturn("pi-" + invocation.getArgument(1));
+            return instance;
+        });
+    }
+
+    @Test
+    void streamedResultsAreEmittedPerChunkWhileReading() {
+        service.setChunkSize(2);
+        List<String> lines = List.of(
+            json("ok"), "{no es json", "", json("invalida"), json("ok"), json("ok"));
+        CountingIterator input = new CountingIterator(lines.iterator());
+        List<ItemResult> results = new ArrayList<>();
+        List<Integer> linesReadAtEmission = new ArrayList<>();
+
+        BatchIntakeResultDto summary = service.streamBatch(input, result -> {
+            results.add(result);
+            linesReadAtEmission.add(input.read);
+        });
+
+        assertEquals(List.of(ItemStatus.STARTED, ItemStatus.INVALID, ItemStatus.INVALID, ItemStatus.STARTED,
+            ItemStatus.STARTED), statuses(results));
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(ItemResult::getIndex).collect(Collectors.toList()));
+        assertTrue(results.get(1).getErrors().get(0).startsWith("JSON inválido"), results.get(1).getErrors().toString());
+        // El primer lote se entrega tras leer dos líneas, no al final de la entrada
+        assertEquals(2, linesReadAtEmission.get(0));
+        assertEquals(5, summary.getTotal());
+        assertEquals(3, summary.getStarted());
+        assertEquals(2, summary.getInvalid());
+        assertTrue(summary.getItems().isEmpty());
+        assertEquals(3L, dashboardCounters.snapshot().getTotalRequests());
+        verify(notificationService, times(3)).sendFinalNotification(any(), eq("CREATED"), anyString());
+    }
+
+    @Test
+    void streamedLinesBeyondMaxItemsAreInvalid() {
+        service.setMaxItems(2);
+        List<ItemResult> results = new ArrayList<>();
+
+        BatchIntakeResultDto summary = service.streamBatch(
+            List.of(json("ok"), json("ok"), json("ok")).iterator(), results::add);
+
+        assertEquals(List.of(ItemStatus.STARTED, ItemStatus.STARTED, ItemStatus.INVALID), statuses(results));
+        assertEquals(1, summary.getInvalid());
+    }
+
+    @Test
+    void failedChunkIsRetriedOneByOne() {
+        service.setChunkSize(3);
+
+        BatchIntakeResultDto report = service.startBatch(List.of(request("ok"), request("falla"), request("ok")));
+
+        assertEquals(List.of(ItemStatus.STARTED, ItemStatus.FAILED, ItemStatus.STARTED), statuses(report.getItems()));
+        assertEquals("motor no disponible", report.getItems().get(1).getErrors().get(0));
+        assertNotNull(report.getItems().get(0).getProcessInstanceId());
+        verify(notificationService, times(2)).sendFinalNotification(any(), eq("CREATED"), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchesStartedInTheSameMillisecondGetDistinctBusinessKeys() {
+        List<String> keys = new ArrayList<>();
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            for (PurchaseRequest request : (Iterable<PurchaseRequest>) invocation.getArgument(0)) {
+                keys.add(request.getBusinessKey());
+            }
+            return invocation.getArgument(0);
+        });
+
+        service.startBatch(List.of(request("ok"), request("ok")));
+        service.startBatch(List.of(request("ok"), request("ok")));
+
+        assertEquals(4, keys.stream().distinct().count(), keys.toString());
+    }
+
+    @Test
+    void nonPositiveChunkSizeStillCompletesTheBatch() {
+        service.setChunkSize(0);
+
+        BatchIntakeResultDto report = service.startBatch(List.of(request("ok"), request("ok")));
+
+        assertEquals(2, report.getStarted());
+    }
+
+    @Test
+    void jsonBatchOverMaxItemsIsRejected() {
+        service.setMaxItems(1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.startBatch(List.of(request("ok"), request("ok"))));
+    }
+
+    @Test
+    void acceptedRequestStartsOnTheIntakeExecutor() {
+        service.setIntakeExecutor(Runnable::run);
+
+        PurchaseRequest accepted = service.acceptAsync(request("ok"));
+
+        assertEquals("pi-" + accepted.getBusinessKey(), stored.get(accepted.getId()).getProcessInstanceId());
+        assertEquals(1L, dashboardCounters.snapshot().count(RequestStatus.PENDING));
+        verify(notificationService).sendFinalNotification(any(), eq("CREATED"), anyString());
+    }
+
+    @Test
+    void fullQueueCancelsTheRequestAndKeepsCountersInStep() {
+        service.setIntakeExecutor(task -> {
+            throw new TaskRejectedException("cola llena");
+        });
+
+        assertThrows(TaskRejectedException.class, () -> service.acceptAsync(request("ok")));
+
+        PurchaseRequest cancelled = stored.get(1L);
+        assertEquals(RequestStatus.CANCELLED, cancelled.getStatus());
+        assertEquals("Cola de alta llena, reintente más tarde", cancelled.getRejectionReason());
+        DashboardCounters.Snapshot snapshot = dashboardCounters.snapshot();
+        assertEquals(1L, snapshot.getTotalRequests());
+        assertEquals(0L, snapshot.count(RequestStatus.PENDING));
+        assertEquals(1L, snapshot.count(RequestStatus.CANCELLED));
+        verify(runtimeService, never()).startProcessInstanceByKey(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void processStartFailureCancelsTheQueuedRequest() {
+        service.setIntakeExecutor(Runnable::run);
+
+        service.acceptAsync(request("falla"));
+
+        PurchaseRequest cancelled = stored.get(1L);
+        assertEquals(RequestStatus.CANCELLED, cancelled.getStatus());
+        assertTrue(cancelled.getRejectionReason().startsWith("Error iniciando proceso"), cancelled.getRejectionReason());
+        assertEquals(1L, dashboardCounters.snapshot().count(RequestStatus.CANCELLED));
+        verify(notificationService, never()).sendFinalNotification(any(), eq("CREATED"), anyString());
+    }
+
+    @Test
+    void staleQueuedRequestsAreResubmittedAndStartOnlyOnce() {
+        service.setIntakeExecutor(Runnable::run);
+        PurchaseRequest queued = queuedRequest(7L);
+        when(repository.findQueuedIdsCreatedBefore(any(), any())).thenReturn(List.of(7L));
+
+        assertEquals(1, service.resubmitStaleQueued());
+        // Segundo barrido antes de que la consulta lo vea iniciado: startQueued lo omite
+        assertEquals(1, service.resubmitStaleQueued());
+
+        assertEquals("pi-" + queued.getBusinessKey(), queued.getProcessInstanceId());
+        verify(runtimeService, times(1)).startProcessInstanceByKey(anyString(), anyString(), anyMap());
+        verify(notificationService, times(1)).sendFinalNotification(any(), eq("CREATED"), anyString());
+    }
+
+    @Test
+    void resubmitLeavesRequestsQueuedWhenTheExecutorIsFull() {
+        service.setIntakeExecutor(task -> {
+            throw new TaskRejectedException("cola llena");
+        });
+        PurchaseRequest queued = queuedRequest(7L);
+        when(repository.findQueuedIdsCreatedBefore(any(), any())).thenReturn(List.of(7L));
+
+        assertEquals(0, service.resubmitStaleQueued());
+
+        assertEquals(RequestStatus.PENDING, queued.getStatus());
+    }
+
+    private PurchaseRequest queuedRequest(long id) {
+        PurchaseRequest request = service.fromRequestData(request("ok"));
+        request.setId(id);
+        request.setBusinessKey("PR-QUEUED-" + id);
+        request.setStatus(RequestStatus.PENDING);
+        stored.put(id, request);
+        return request;
+    }
+
+    private static List<ItemStatus> statuses(List<ItemResult> results) {
+        return results.stream().map(ItemResult::getStatus).collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> request(String description) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("requesterName", "Ana");
+        data.put("requesterEmail", "ana@softwareevolutivo.com");
+        data.put("department", "IT");
+        data.put("description", description);
+        data.put("totalAmount", 100);
+        data.put("currency", "USD");
+        data.put("category", "IT_HARDWARE");
+        data.put("priority", "NORMAL");
+        return data;
+    }
+
+    private String json(String description) {
+        try {
+            return objectMapper.writeValueAsString(request(description));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cuenta las líneas consumidas para comprobar cuándo se entrega cada resultado
+    private static class CountingIterator implements Iterator<String> {
+        private final Iterator<String> delegate;
+        private int read;
+
+        CountingIterator(Iterator<String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public String next() {
+            read++;
+            return delegate.next();
+        }
+    }
+}
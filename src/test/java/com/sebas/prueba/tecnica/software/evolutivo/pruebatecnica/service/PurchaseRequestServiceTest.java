@@ -0,0 +1,110 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.CursorPageDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.PurchaseRequestSummary;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Paginación keyset de {@link PurchaseRequestService#findPage}: el repositorio simulado
+ * aplica el mismo predicado {@code (createdAt, id) > cursor} que la consulta JPQL.
+ */
+class PurchaseRequestServiceTest {
+
+    private static final LocalDateTime TIE = LocalDateTime.of(2026, 1, 15, 10, 0, 0, 123_456_789);
+
+    private final PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+    private final PurchaseRequestService service =
+        new PurchaseRequestService(repository, new DashboardCounters(), mock(EntityManager.class));
+    private final List<PurchaseRequestSummary> rows = new ArrayList<>();
+
+    PurchaseRequestServiceTest() {
+        // Cinco filas con el mismo createdAt (desempate por id) y dos posteriores
+        for (long id : new long[] { 4, 1, 5, 2, 3 }) {
+            rows.add(summary(id, TIE));
+        }
+        rows.add(summary(7, TIE.plusMinutes(1)));
+        rows.add(summary(6, TIE.plusMinutes(2)));
+        rows.sort(Comparator.comparing(PurchaseRequestSummary::getCreatedAt).thenComparing(PurchaseRequestSummary::getId));
+
+        when(repository.findPageAfter(any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime afterCreatedAt = invocation.getArgument(5);
+            Long afterId = invocation.getArgument(6);
+            Pageable pageable = invocation.getArgument(7);
+            return rows.stream()
+                .filter(row -> afterCreatedAt == null
+                    || row.getCreatedAt().isAfter(afterCreatedAt)
+                    || (row.getCreatedAt().equals(afterCreatedAt) && row.getId() > afterId))
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void pagesWalkTiesOnCreatedAtWithoutGapsOrDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        CursorPageDto<PurchaseRequestSummary> page;
+        do {
+            page = service.findPage(null, cursor, 3);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            pageSizes.add(page.getSize());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 7L, 6L), seen);
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextCursor() {
+        CursorPageDto<PurchaseRequestSummary> page = service.findPage(null, null, rows.size());
+
+        assertEquals(rows.size(), page.getSize());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorIsOpaqueAndRoundTripsNanoseconds() {
+        CursorPageDto<PurchaseRequestSummary> first = service.findPage(null, null, 2);
+
+        assertTrue(first.getNextCursor().matches("[A-Za-z0-9_-]+"), first.getNextCursor());
+        CursorPageDto<PurchaseRequestSummary> second = service.findPage(null, first.getNextCursor(), 2);
+        assertEquals(List.of(3L, 4L), second.getItems().stream().map(PurchaseRequestSummary::getId)
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.findPage(null, "no-es-un-cursor", 3));
+    }
+
+    private static PurchaseRequestSummary summary(long id, LocalDateTime createdAt) {
+        PurchaseRequestSummary summary = mock(PurchaseRequestSummary.class);
+        when(summary.getId()).thenReturn(id);
+        when(summary.getCreatedAt()).thenReturn(createdAt);
+        return summary;
+    }
+}
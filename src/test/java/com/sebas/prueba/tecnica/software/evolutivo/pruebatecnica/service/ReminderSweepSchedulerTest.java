@@ -0,0 +1,205 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.task.NativeTaskQuery;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ReminderProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.NotificationService.ReminderItem;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Barrido de recordatorios: una consulta de tareas por ciclo, un resumen por aprobador,
+ * niveles acotados por {@code app.reminders.escalation} y escalamiento en el último.
+ * La consulta simulada devuelve todas las tareas; el filtro por nivel avisado se
+ * comprueba en los parámetros de la consulta y en la variable local que se guarda.
+ */
+class ReminderSweepSchedulerTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final Date NOW = new Date(1_000 * HOUR);
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final ManagementService managementService = mock(ManagementService.class);
+    private final NativeTaskQuery taskQuery = mock(NativeTaskQuery.class, RETURNS_SELF);
+    private final PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final BusinessRulesService businessRulesService = mock(BusinessRulesService.class);
+    private final ReminderProperties properties = new ReminderProperties();
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<PurchaseRequest> requests = new ArrayList<>();
+
+    private final ReminderSweepScheduler scheduler = new ReminderSweepScheduler(
+        taskService, managementService, repository, notificationService, businessRulesService, properties,
+        new SimpleMeterRegistry());
+
+    ReminderSweepSchedulerTest() {
+        when(taskService.createNativeTaskQuery()).thenReturn(taskQuery);
+        when(managementService.getTableName(any())).thenReturn("ACT_TABLE");
+        when(taskQuery.listPage(anyInt(), anyInt())).thenReturn(tasks);
+        when(repository.findByProcessInstanceIdIn(any())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            return requests.stream().filter(request -> ids.contains(request.getProcessInstanceId())).toList();
+        });
+        when(businessRulesService.getApproverEmail(ApprovalRoute.SUPERVISOR)).thenReturn("supervisor@softwareevolutivo.com");
+        when(businessRulesService.getApproverEmail(ApprovalRoute.MANAGER)).thenReturn("manager@softwareevolutivo.com");
+    }
+
+    @Test
+    void overdueTasksAreGroupedIntoOneDigestPerApprover() {
+        overdueTask("pi-1", "UserTask_SupervisorApproval", 5);
+        overdueTask("pi-2", "UserTask_SupervisorApproval", 6);
+        overdueTask("pi-3", "UserTask_ManagerApproval", 5);
+
+        ReminderSweepScheduler.SweepResult result = scheduler.sweepAt(NOW);
+
+        assertEquals(new ReminderSweepScheduler.SweepResult(3, 3, 2, 0), result);
+        verify(taskService, times(1)).createNativeTaskQuery();
+        verify(repository, times(1)).findByProcessInstanceIdIn(any());
+        List<ReminderItem> supervisor = digestFor("supervisor@softwareevolutivo.com", false);
+        assertEquals(2, supervisor.size());
+        assertEquals("APROBACION SUPERVISOR", supervisor.get(0).taskName());
+        assertEquals(1, digestFor("manager@softwareevolutivo.com", false).size());
+        requests.forEach(request -> assertEquals(1, request.getReminderCount()));
+    }
+
+    @Test
+    void aLevelIsOnlyRemindedOnce() {
+        overdueTask("pi-1", "UserTask_SupervisorApproval", 5);
+
+        scheduler.sweepAt(NOW);
+        ReminderSweepScheduler.SweepResult second = scheduler.sweepAt(new Date(NOW.getTime() + HOUR));
+
+        assertEquals(0, second.reminded());
+        verify(notificationService, times(1)).sendReminderDigest(anyString(), any(), anyBoolean());
+    }
+
+    @Test
+    void olderTasksJumpToTheirLevelAndTheLastLevelEscalates() {
+        overdueTask("pi-1", "UserTask_SupervisorApproval", 30);
+        overdueTask("pi-2", "UserTask_ManagerApproval", 50);
+
+        ReminderSweepScheduler.SweepResult result = scheduler.sweepAt(NOW);
+
+        assertEquals(1, result.escalated());
+        assertEquals(2, requests.get(0).getReminderCount());
+        assertEquals(3, requests.get(1).getReminderCount());
+        List<ReminderItem> escalated = digestFor(properties.getEscalationEmail(), true);
+        assertEquals(1, escalated.size());
+        assertEquals("pi-2", escalated.get(0).request().getProcessInstanceId());
+
+        // Sin más niveles no hay más avisos para pi-2, por antigua que sea la tarea; pi-1 llega al último
+        ReminderSweepScheduler.SweepResult later = scheduler.sweepAt(new Date(NOW.getTime() + 1_000 * HOUR));
+        assertEquals(new ReminderSweepScheduler.SweepResult(2, 1, 1, 1), later);
+        assertEquals(3, requests.get(0).getReminderCount());
+        assertEquals(3, requests.get(1).getReminderCount());
+    }
+
+    @Test
+    void remindedLevelIsStoredOnTheTaskSoItLeavesTheQueryUntilTheNextThreshold() {
+        Task supervisor = overdueTask("pi-1", "UserTask_SupervisorApproval", 5);
+        Task manager = overdueTask("pi-2", "UserTask_ManagerApproval", 50);
+
+        scheduler.sweepAt(NOW);
+
+        verify(taskQuery).parameter("levelVariable", ReminderSweepScheduler.LEVEL_VARIABLE);
+        // Un corte por umbral: la consulta compara el nivel guardado con el de la antigüedad
+        verify(taskQuery).parameter("createdBefore0", new Date(NOW.getTime() - 4 * HOUR));
+        verify(taskQuery).parameter("createdBefore1", new Date(NOW.getTime() - 24 * HOUR));
+        verify(taskQuery).parameter("createdBefore2", new Date(NOW.getTime() - 48 * HOUR));
+        verify(taskService).setVariableLocal(supervisor.getId(), ReminderSweepScheduler.LEVEL_VARIABLE, 1);
+        verify(taskService).setVariableLocal(manager.getId(), ReminderSweepScheduler.LEVEL_VARIABLE, 3);
+    }
+
+    @Test
+    void taskBehindTheLevelAlreadySentForItsRequestIsMarkedWithThatLevel() {
+        Task task = overdueTask("pi-1", "UserTask_ManagerApproval", 5);
+        requests.get(0).setReminderCount(2);
+
+        ReminderSweepScheduler.SweepResult result = scheduler.sweepAt(NOW);
+
+        assertEquals(0, result.reminded());
+        verify(taskService).setVariableLocal(task.getId(), ReminderSweepScheduler.LEVEL_VARIABLE, 2);
+    }
+
+    @Test
+    void taskOfAnAlreadyEscalatedRequestIsMarkedWithoutANewReminder() {
+        Task task = overdueTask("pi-1", "UserTask_ManagerApproval", 5);
+        requests.get(0).setReminderCount(3);
+
+        ReminderSweepScheduler.SweepResult result = scheduler.sweepAt(NOW);
+
+        assertEquals(0, result.reminded());
+        verify(taskService).setVariableLocal(task.getId(), ReminderSweepScheduler.LEVEL_VARIABLE, 3);
+        verify(notificationService, never()).sendReminderDigest(anyString(), any(), anyBoolean());
+    }
+
+    @Test
+    void tasksWithoutAKnownRouteFallBackToTheEscalationAddress() {
+        overdueTask("pi-1", "UserTask_Unknown", 5);
+
+        scheduler.sweepAt(NOW);
+
+        assertEquals(1, digestFor(properties.getEscalationEmail(), false).size());
+    }
+
+    @Test
+    void levelsCountThePassedThresholds() {
+        List<Duration> escalation = properties.getEscalation();
+
+        assertEquals(0, ReminderSweepScheduler.levelFor(3 * HOUR, escalation));
+        assertEquals(1, ReminderSweepScheduler.levelFor(4 * HOUR, escalation));
+        assertEquals(2, ReminderSweepScheduler.levelFor(47 * HOUR, escalation));
+        assertEquals(3, ReminderSweepScheduler.levelFor(480 * HOUR, escalation));
+    }
+
+    private Task overdueTask(String processInstanceId, String taskDefinitionKey, long ageHours) {
+        Task task = mock(Task.class);
+        when(task.getId()).thenReturn("task-" + processInstanceId);
+        when(task.getProcessInstanceId()).thenReturn(processInstanceId);
+        when(task.getTaskDefinitionKey()).thenReturn(taskDefinitionKey);
+        when(task.getName()).thenReturn(taskDefinitionKey.equals("UserTask_SupervisorApproval")
+            ? "APROBACION\nSUPERVISOR" : "APROBACION");
+        when(task.getCreateTime()).thenReturn(new Date(NOW.getTime() - ageHours * HOUR));
+        tasks.add(task);
+
+        PurchaseRequest request = new PurchaseRequest();
+        request.setProcessInstanceId(processInstanceId);
+        request.setBusinessKey("PR-" + processInstanceId);
+        requests.add(request);
+        return task;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ReminderItem> digestFor(String email, boolean escalation) {
+        ArgumentCaptor<List<ReminderItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(notificationService).sendReminderDigest(eq(email), items.capture(), eq(escalation));
+        return items.getValue();
+    }
+}
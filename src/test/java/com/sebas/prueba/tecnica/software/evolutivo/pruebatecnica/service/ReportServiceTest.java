@@ -0,0 +1,115 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.NativeHistoricVariableInstanceQuery;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.DashboardMetricsDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+
+/**
+ * Verifica que las métricas del dashboard no consultan por solicitud: el número de
+ * consultas solo crece con los lotes de ids aprobados ({@code chunk-size} = 500).
+ */
+class ReportServiceTest {
+
+    @Test
+    void dashboardMetricsDoNotQueryPerRequest() {
+        Fixture small = new Fixture(10);
+        Fixture large = new Fixture(2_000);
+
+        DashboardMetricsDto smallMetrics = small.reportService.getDashboardMetrics();
+        DashboardMetricsDto largeMetrics = large.reportService.getDashboardMetrics();
+
+        // 5 aprobadas = 1 lote de montos; 1.000 aprobadas = 2 lotes
+        assertEquals(small.queryCount() + 1, large.queryCount());
+        verify(small.purchaseRequestRepository).sumAmountByProcessInstanceIdIn(anyCollection());
+
+        assertEquals(10L, smallMetrics.getTotalRequests());
+        assertEquals(2_000L, largeMetrics.getTotalRequests());
+        assertEquals(1_000L, largeMetrics.getApprovedRequests());
+        assertEquals(1_000L, largeMetrics.getRejectedRequests());
+        assertEquals("$100,000.00", largeMetrics.getTotalApprovedAmount());
+
+        verify(large.purchaseRequestRepository, never()).findAll();
+        verify(large.historyService, never()).createHistoricVariableInstanceQuery();
+    }
+
+    /**
+     * Datos sintéticos: {@code size} solicitudes de $100, la mitad aprobadas y la mitad rechazadas.
+     */
+    private static final class Fixture {
+        final PurchaseRequestRepository purchaseRequestRepository = mock(PurchaseRequestRepository.class);
+        final HistoryService historyService = mock(HistoryService.class);
+        final TaskService taskService = mock(TaskService.class);
+        final KpiRollupService kpiRollupService = mock(KpiRollupService.class);
+        final ProcessingLatencyMonitor processingLatencyMonitor = mock(ProcessingLatencyMonitor.class);
+        final ManagementService managementService = mock(ManagementService.class);
+        final NativeHistoricVariableInstanceQuery variableQuery =
+            mock(NativeHistoricVariableInstanceQuery.class, RETURNS_SELF);
+        final ReportService reportService;
+
+        Fixture(int size) {
+            List<Object[]> groupedRows = new ArrayList<>();
+            groupedRows.add(new Object[] {
+                PurchaseRequest.PurchaseCategory.IT_HARDWARE, "IT",
+                (long) size, BigDecimal.valueOf(100L * size)
+            });
+            when(purchaseRequestRepository.aggregateByCategoryAndDepartment()).thenReturn(groupedRows);
+
+            List<HistoricVariableInstance> variables = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                String processInstanceId = "pi-" + i;
+                HistoricVariableInstance variable = mock(HistoricVariableInstance.class);
+                when(variable.getProcessInstanceId()).thenReturn(processInstanceId);
+                when(variable.getValue()).thenReturn(i % 2 == 0 ? "APPROVED" : "REJECTED");
+                variables.add(variable);
+            }
+            when(purchaseRequestRepository.sumAmountByProcessInstanceIdIn(anyCollection())).thenAnswer(invocation ->
+                new BigDecimal("100.00").multiply(BigDecimal.valueOf(invocation.<Collection<?>>getArgument(0).size())));
+
+            when(variableQuery.list()).thenReturn(variables);
+            when(historyService.createNativeHistoricVariableInstanceQuery()).thenReturn(variableQuery);
+
+            HistoricProcessInstanceQuery processQuery = mock(HistoricProcessInstanceQuery.class, RETURNS_SELF);
+            when(processQuery.list()).thenReturn(List.of());
+            when(historyService.createHistoricProcessInstanceQuery()).thenReturn(processQuery);
+
+            TaskQuery taskQuery = mock(TaskQuery.class, RETURNS_SELF);
+            when(taskQuery.list()).thenReturn(List.of());
+            when(taskService.createTaskQuery()).thenReturn(taskQuery);
+
+            // Contadores sin inicializar: se ejercita la ruta de agregación
+            reportService = new ReportService(purchaseRequestRepository, historyService, taskService,
+                new DashboardCounters(), new FinalStatusResolver(historyService, managementService), kpiRollupService,
+                processingLatencyMonitor);
+        }
+
+        int queryCount() {
+            return Stream.of(purchaseRequestRepository, historyService, taskService, kpiRollupService)
+                .mapToInt(m -> mockingDetails(m).getInvocations().size())
+                .sum();
+        }
+    }
+}
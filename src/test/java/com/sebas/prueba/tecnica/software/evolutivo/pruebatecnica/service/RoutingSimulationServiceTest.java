@@ -0,0 +1,190 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.config.ApprovalRuleProperties;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.ApprovalRuleUpdateDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationRequestDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.RoutingSimulationResultDto;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.Priority;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.entities.PurchaseRequest.PurchaseCategory;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.ApprovalRuleVersionRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.repository.PurchaseRequestRepository;
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service.BusinessRulesService.ApprovalRoute;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * La simulación en paralelo debe contar exactamente lo mismo que evaluar
+ * fila a fila, repartida en varios bloques.
+ *
+ * Rendimiento bajo demanda:
+ * {@code mvn test -Dtest=RoutingSimulationServiceTest -Dbenchmark=true}
+ */
+@Slf4j
+class RoutingSimulationServiceTest {
+
+    private final PurchaseRequestRepository repository = mock(PurchaseRequestRepository.class);
+    private final DmnEvaluationService dmnEvaluationService = mock(DmnEvaluationService.class);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private ApprovalRuleEvaluator evaluator;
+    private RoutingSimulationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        evaluator = new ApprovalRuleEvaluator(
+            new ClassPathResource("processes/purchase-approval-rules.dmn"), new ApprovalRuleProperties());
+        ApprovalRuleStore store = new ApprovalRuleStore(evaluator, mock(ApprovalRuleVersionRepository.class),
+            mock(RepositoryService.class, RETURNS_DEEP_STUBS), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            dmnEvaluationService);
+        BusinessRulesService businessRules = new BusinessRulesService(mock(CurrencyService.class), evaluator);
+        when(dmnEvaluationService.deployedRules()).thenAnswer(invocation -> evaluator.current());
+        service = new RoutingSimulationService(repository, evaluator, store, dmnEvaluationService, businessRules, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelCountsMatchRowByRowEvaluation() {
+        List<Object[]> rows = randomRows(RoutingSimulationService.CHUNK_SIZE * 3 + 123, 11);
+        when(repository.streamRoutingSamples(any(), any())).thenReturn(rows.stream());
+
+        RoutingSimulationResultDto result = service.simulate(RoutingSimulationRequestDto.builder()
+            .candidates(List.of(candidate("Auto hasta 400", ApprovalRuleUpdateDto.builder()
+                .autoApprovalLimit(new BigDecimal("400"))
+                .build())))
+            .build());
+
+        ApprovalRuleEvaluator.RuleSnapshot proposed = evaluator.snapshotOf(
+            new ApprovalRuleProperties().toConfig().toBuilder().autoApprovalLimit(new BigDecimal("400")).build());
+        Map<ApprovalRoute, Long> expectedBaseline = new EnumMap<>(ApprovalRoute.class);
+        Map<ApprovalRoute, Long> expectedCandidate = new EnumMap<>(ApprovalRoute.class);
+        long expectedChanged = 0;
+        for (Object[] row : rows) {
+            ApprovalRoute before = evaluator.evaluate((BigDecimal) row[0], (PurchaseCategory) row[1], (Priority) row[2]).getRoute();
+            ApprovalRoute after = proposed.evaluate((BigDecimal) row[0], (PurchaseCategory) row[1], (Priority) row[2]).getRoute();
+            expectedBaseline.merge(before, 1L, Long::sum);
+            expectedCandidate.merge(after, 1L, Long::sum);
+            expectedChanged += before != after ? 1 : 0;
+        }
+
+        assertEquals(rows.size(), result.getRows());
+        RoutingSimulationResultDto.ScenarioResult candidate = result.getCandidates().get(0);
+        for (ApprovalRoute route : ApprovalRoute.values()) {
+            assertEquals(expectedBaseline.getOrDefault(route, 0L), result.getBaseline().getRoutes().get(route.name()));
+            assertEquals(expectedCandidate.getOrDefault(route, 0L), candidate.getRoutes().get(route.name()));
+        }
+        assertEquals(expectedChanged, candidate.getChangedRequests());
+        // Subir el límite automático solo puede quitar trabajo a los aprobadores
+        assertEquals(candidate.getChangedRequests(), candidate.getShifts().values().stream()
+            .flatMap(to -> to.entrySet().stream())
+            .filter(e -> e.getKey().equals(ApprovalRoute.AUTO.name()))
+            .mapToLong(Map.Entry::getValue)
+            .sum());
+        assertEquals(0L, candidate.getApproverHours().get(ApprovalRoute.AUTO.name()));
+        assertEquals(true, candidate.getApproverHoursDeltas().get(ApprovalRoute.SUPERVISOR.name()) < 0);
+    }
+
+    @Test
+    void rowsWithoutAmountOrPriorityAreSimulatedLikeTheDmn() {
+        List<Object[]> rows = List.of(
+            new Object[] {null, PurchaseCategory.OTHER, null},
+            new Object[] {new BigDecimal("150.00"), null, null});
+        when(repository.streamRoutingSamples(any(), any())).thenReturn(rows.stream());
+
+        RoutingSimulationResultDto result = service.simulate(RoutingSimulationRequestDto.builder()
+            .candidates(List.of(candidate("Sin cambios", null)))
+            .build());
+
+        assertEquals(1L, result.getBaseline().getRoutes().get(ApprovalRoute.SUPERVISOR.name()));
+        assertEquals(1L, result.getBaseline().getRoutes().get(ApprovalRoute.AUTO.name()));
+        assertEquals(0, result.getCandidates().get(0).getChangedRequests());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.simulate(RoutingSimulationRequestDto.builder().build()));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(RoutingSimulationRequestDto.builder()
+            .candidates(List.of(candidate("Incoherente", ApprovalRuleUpdateDto.builder()
+                .supervisorLimit(new BigDecimal("50000"))
+                .build())))
+            .build()));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkOneMillionRows() {
+        int total = Integer.getInteger("benchmark.requests", 1_000_000);
+        List<Object[]> rows = randomRows(total, 3);
+        List<RoutingSimulationRequestDto.Candidate> candidates = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            candidates.add(candidate("Gerente > " + i * 5000, ApprovalRuleUpdateDto.builder()
+                .managerLimit(new BigDecimal(i * 5000 + 5000))
+                .build()));
+        }
+        RoutingSimulationRequestDto request = RoutingSimulationRequestDto.builder().candidates(candidates).build();
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            when(repository.streamRoutingSamples(any(), any())).thenReturn(rows.stream());
+            service.simulate(request);
+        }
+        when(repository.streamRoutingSamples(any(), any())).thenReturn(rows.stream());
+        RoutingSimulationResultDto result = service.simulate(request);
+
+        log.info("🧪 Simulación: {} solicitudes × {} escenarios en {} ms",
+            result.getRows(), candidates.size() + 1, result.getElapsedMillis());
+        assertEquals(total, result.getRows());
+        // "1M filas en segundos"
+        long budgetMillis = Long.getLong("benchmark.maxMillis", 10_000);
+        assertTrue(result.getElapsedMillis() < budgetMillis,
+            result.getElapsedMillis() + " ms supera el presupuesto de " + budgetMillis + " ms");
+    }
+
+    private static RoutingSimulationRequestDto.Candidate candidate(String name, ApprovalRuleUpdateDto rules) {
+        return RoutingSimulationRequestDto.Candidate.builder().name(name).rules(rules).build();
+    }
+
+    private static List<Object[]> randomRows(int count, long seed) {
+        PurchaseCategory[] categories = PurchaseCategory.values();
+        Priority[] priorities = Priority.values();
+        Random random = new Random(seed);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {
+                BigDecimal.valueOf(random.nextInt(2_000_000), 2),
+                categories[random.nextInt(categories.length)],
+                priorities[random.nextInt(priorities.length)]
+            });
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.sebas.prueba.tecnica.software.evolutivo.pruebatecnica.dto.SupplierDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Caché SWR del catálogo: hits frescos, refresco en segundo plano,
+ * último snapshot bueno con el upstream caído y límite de entradas.
+ */
+class SupplierCatalogCacheTest {
+
+    private static final List<SupplierDto> MOCK = List.of(supplier("Mock"));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void freshEntryIsServedWithoutCallingUpstream() {
+        SupplierCatalogCache cache = new SupplierCatalogCache(registry, Duration.ofMinutes(5), Duration.ofHours(1), 16);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            cache.get("suppliers", () -> {
+                calls.incrementAndGet();
+                return List.of(supplier("Real"));
+            }, () -> MOCK);
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, registry.counter("supplier.catalog.cache", "result", "miss").count());
+        assertEquals(4.0, registry.counter("supplier.catalog.cache", "result", "hit").count());
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshingInBackground() throws Exception {
+        SupplierCatalogCache cache = new SupplierCatalogCache(registry, Duration.ZERO, Duration.ofHours(1), 16);
+        cache.get("suppliers", () -> List.of(supplier("v1")), () -> MOCK);
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        List<SupplierDto> served = cache.get("suppliers", () -> {
+            refreshed.countDown();
+            return List.of(supplier("v2"));
+        }, () -> MOCK);
+
+        assertEquals("v1", served.get(0).getName());
+        assertEquals(true, refreshed.await(2, TimeUnit.SECONDS));
+
+        AtomicReference<String> latest = new AtomicReference<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!"v2".equals(latest.get()) && System.nanoTime() < deadline) {
+            latest.set(cache.get("suppliers", () -> null, () -> MOCK).get(0).getName());
+        }
+        assertEquals("v2", latest.get());
+    }
+
+    @Test
+    void upstreamDownServesLastGoodSnapshotInsteadOfMock() {
+        SupplierCatalogCache cache = new SupplierCatalogCache(registry, Duration.ZERO, Duration.ZERO, 16);
+        cache.get("suppliers", () -> List.of(supplier("Real")), () -> MOCK);
+
+        List<SupplierDto> served = cache.get("suppliers", () -> {
+            throw new IllegalStateException("upstream caído");
+        }, () -> MOCK);
+
+        assertEquals("Real", served.get(0).getName());
+        assertEquals(1.0, registry.counter("supplier.catalog.refresh.failures").count());
+    }
+
+    @Test
+    void fallbackIsUsedOnlyWhenThereIsNoSnapshot() {
+        SupplierCatalogCache cache = new SupplierCatalogCache(registry, Duration.ofMinutes(5), Duration.ofHours(1), 16);
+
+        assertEquals("Mock", cache.get("suppliers", () -> null, () -> MOCK).get(0).getName());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedCatalogBeyondMaxEntries() {
+        SupplierCatalogCache cache = new SupplierCatalogCache(registry, Duration.ofMinutes(5), Duration.ofHours(1), 2);
+
+        cache.get("a", () -> List.of(supplier("a")), () -> MOCK);
+        cache.get("b", () -> List.of(supplier("b")), () -> MOCK);
+        cache.get("a", () -> null, () -> MOCK);
+        cache.get("c", () -> List.of(supplier("c")), () -> MOCK);
+
+        assertEquals(2, cache.size());
+        // "b" fue el menos usado: se recarga
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get("b", () -> {
+            reloads.incrementAndGet();
+            return List.of(supplier("b"));
+        }, () -> MOCK);
+        assertEquals(1, reloads.get());
+    }
+
+    private static SupplierDto supplier(String name) {
+        return SupplierDto.builder().name(name).build();
+    }
+}